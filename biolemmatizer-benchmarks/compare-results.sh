@@ -0,0 +1,90 @@
+#!/bin/sh
+#
+# Compares two JMH result files written with "-rf csv", such as the committed
+# baseline and a new run:
+#
+#   ./compare-results.sh baseline.csv current.csv [threshold]
+#
+# Prints the change of every score and exits with status 1 if any score is
+# worse than in the baseline by more than threshold percent (default 10) and
+# its 99.9% confidence interval does not overlap the baseline's, so that noisy
+# scores are not reported as regressions. Scores whose change exceeds the
+# threshold but whose intervals overlap are marked "noise".
+# Throughput scores are better when higher; times and footprints when lower.
+# Benchmarks are matched by name, mode, thread count and parameters. A file
+# may hold several result files one after the other, each with its header.
+
+if [ $# -lt 2 ]; then
+	echo "usage: $0 baseline.csv current.csv [threshold]" >&2
+	exit 2
+fi
+
+awk -F, -v threshold="${3:-10}" '
+	function params(   p, i) {
+		p = ""
+		for (i = 8; i <= NF; i++)
+			if ($i != "")
+				p = p " " substr(header[i], 8) "=" $i
+		return p
+	}
+	function key() {
+		return $1 " " $2 " " $3 params()
+	}
+	function error(e) {
+		# footprints have no confidence interval
+		return (e == "NaN" || e == "") ? 0 : e
+	}
+	function name(   n) {
+		# the class and method names, without the package
+		n = $1
+		while (gsub(/\./, ".", n) > 1)
+			sub(/^[^.]*\./, "", n)
+		n = n params()
+		if ($3 != 1)
+			n = n " threads=" $3
+		return n
+	}
+	BEGIN {
+		printf "%12s %12s %-8s %8s %-10s %s\n", "baseline", "current", "unit", "change", "", "benchmark"
+	}
+	{
+		# JMH ends lines with CRLF
+		sub(/\r$/, "")
+		gsub(/"/, "")
+	}
+	$1 == "Benchmark" {
+		for (i = 1; i <= NF; i++)
+			header[i] = $i
+		next
+	}
+	NR == FNR { baseline[key()] = $5; baselineError[key()] = error($6); next }
+	{
+		k = key()
+		unit = $7
+		mode = $2
+		n = name()
+		if (!(k in baseline)) {
+			printf "%12s %12.3f %-8s %8s %-10s %s\n", "-", $5, unit, "", "new", n
+			next
+		}
+		seen[k] = 1
+		change = baseline[k] == 0 ? 0 : 100 * ($5 - baseline[k]) / baseline[k]
+		worse = mode == "thrpt" ? -change : change
+		# distance between the intervals, positive if they do not overlap
+		gap = ($5 > baseline[k] ? $5 - baseline[k] : baseline[k] - $5) - error($6) - baselineError[k]
+		status = (worse > threshold || worse < -threshold) && gap <= 0 ? "noise" : \
+			worse > threshold ? "REGRESSION" : worse < -threshold ? "improved" : ""
+		if (status == "REGRESSION")
+			regressions++
+		printf "%12.3f %12.3f %-8s %+7.1f%% %-10s %s\n", baseline[k], $5, unit, change, status, n
+	}
+	END {
+		for (k in baseline)
+			if (!(k in seen))
+				printf "missing from the current results: %s\n", k
+		if (regressions) {
+			printf "%d score(s) worse than the baseline by more than %s%%\n", regressions, threshold
+			exit 1
+		}
+	}
+' "$1" "$2"
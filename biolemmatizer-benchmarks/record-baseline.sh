@@ -0,0 +1,24 @@
+#!/bin/sh
+#
+# Records a baseline for compare-results.sh on the machine it runs on:
+#
+#   ./record-baseline.sh [jar] > baseline.csv
+#
+# Runs all JMH benchmarks on one thread, then all but StartupBenchmark again
+# on each thread count of THREADS (default "2 4"), so that a loss of scaling
+# shows as a regression of the multi-thread rows, and finally
+# FootprintBenchmark. The results are written
+# one after the other, each with its header, as compare-results.sh reads them.
+
+jar=${1:-$(dirname "$0")/target/biolemmatizer-benchmarks-1.2-jar-with-dependencies.jar}
+results=$(mktemp -d) || exit 1
+trap 'rm -rf "$results"' EXIT
+
+java -jar "$jar" -rf csv -rff "$results/1.csv" >&2 || exit 1
+cat "$results/1.csv"
+for threads in ${THREADS:-2 4}; do
+	java -jar "$jar" -t "$threads" -e StartupBenchmark -rf csv -rff "$results/$threads.csv" >&2 || exit 1
+	cat "$results/$threads.csv"
+done
+java -Xmx4g -cp "$jar" edu.ucdenver.ccp.nlp.biolemmatizer.benchmarks.FootprintBenchmark 3 "$results/footprint.csv" >&2 || exit 1
+cat "$results/footprint.csv"
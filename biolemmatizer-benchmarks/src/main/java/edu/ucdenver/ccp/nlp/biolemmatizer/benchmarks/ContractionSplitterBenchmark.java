@@ -0,0 +1,86 @@
+/*
+ Copyright (c) 2012, Regents of the University of Colorado
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without modification, 
+ are permitted provided that the following conditions are met:
+
+  * Redistributions of source code must retain the above copyright notice, this 
+    list of conditions and the following disclaimer.
+   
+  * Redistributions in binary form must reproduce the above copyright notice, 
+    this list of conditions and the following disclaimer in the documentation 
+    and/or other materials provided with the distribution.
+   
+  * Neither the name of the University of Colorado nor the names of its 
+    contributors may be used to endorse or promote products derived from this 
+    software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND 
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED 
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; 
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON 
+ ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT 
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS 
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.ucdenver.ccp.nlp.biolemmatizer.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import edu.northwestern.at.morphadorner.corpuslinguistics.tokenizer.PennTreebankContractionSplitter;
+import edu.northwestern.at.morphadorner.corpuslinguistics.tokenizer.PennTreebankTokenizer;
+import edu.northwestern.at.morphadorner.corpuslinguistics.tokenizer.WordTokenizer;
+
+/**
+ * Compares the regular expression based {@link PennTreebankTokenizer} with the {@link PennTreebankContractionSplitter}
+ * on the single tokens the BioLemmatizer splits when a word is not found in the lexicon.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class ContractionSplitterBenchmark {
+
+	/** mostly plain words, with some contractions and some tokens that need the full Penn Treebank patterns */
+	static final String[] TOKENS = { "proteins", "binding", "phosphorylated", "kinases", "don't", "can't", "it's",
+			"we'll", "they're", "cells'", "cannot", "gonna", "IL-2", "alpha-helix", "U.S.", "3.5", "(a)", "p53",
+			"mitochondria", "expressed" };
+
+	final WordTokenizer pennTreebankTokenizer = new PennTreebankTokenizer();
+
+	final WordTokenizer contractionSplitter = new PennTreebankContractionSplitter();
+
+	@Benchmark
+	@OperationsPerInvocation(20)
+	public void pennTreebankTokenizer(Blackhole blackhole) {
+		for (String token : TOKENS) {
+			blackhole.consume(pennTreebankTokenizer.extractWords(token));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(20)
+	public void contractionSplitter(Blackhole blackhole) {
+		for (String token : TOKENS) {
+			blackhole.consume(contractionSplitter.extractWords(token));
+		}
+	}
+}
@@ -0,0 +1,139 @@
+/*
+ Copyright (c) 2012, Regents of the University of Colorado
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without modification, 
+ are permitted provided that the following conditions are met:
+
+  * Redistributions of source code must retain the above copyright notice, this 
+    list of conditions and the following disclaimer.
+   
+  * Redistributions in binary form must reproduce the above copyright notice, 
+    this list of conditions and the following disclaimer in the documentation 
+    and/or other materials provided with the distribution.
+   
+  * Neither the name of the University of Colorado nor the names of its 
+    contributors may be used to endorse or promote products derived from this 
+    software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND 
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED 
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; 
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON 
+ ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT 
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS 
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.ucdenver.ccp.nlp.biolemmatizer.benchmarks;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+import edu.northwestern.at.morphadorner.corpuslinguistics.lexicon.MappedLexicon;
+import edu.ucdenver.ccp.nlp.biolemmatizer.BioLemmatizer;
+import edu.ucdenver.ccp.nlp.biolemmatizer.BioLemmatizerModel;
+import edu.ucdenver.ccp.nlp.biolemmatizer.LexiconImage;
+
+/**
+ * Measures the heap retained by each {@link BioLemmatizerModel}, loaded from the text lexicon, from a
+ * {@link LexiconImage} and from a {@link MappedLexicon}, whose lexicon is off the heap. Several models are loaded
+ * outside the model registry, each with a {@link BioLemmatizer}, and kept reachable, and the growth of the used heap
+ * after full garbage collections is divided by their number.
+ * 
+ * <pre>
+ * java -Xmx4g -cp biolemmatizer-benchmarks-1.2-jar-with-dependencies.jar \
+ *     edu.ucdenver.ccp.nlp.biolemmatizer.benchmarks.FootprintBenchmark [instances] [csv file]
+ * </pre>
+ * 
+ * The optional CSV file has the layout of JMH's CSV results, so it can be compared with compare-results.sh.
+ */
+public class FootprintBenchmark {
+
+	static final String[] LEXICONS = { "text", "image", "mapped" };
+
+	/**
+	 * @return the used heap after full garbage collections, in bytes
+	 */
+	static long usedHeap() {
+		MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+		long used = Long.MAX_VALUE;
+		// collect until the used heap stops shrinking
+		for (int i = 0; i < 10; i++) {
+			memory.gc();
+			long current = memory.getHeapMemoryUsage().getUsed();
+			if (current >= used)
+				break;
+			used = current;
+		}
+		return used;
+	}
+
+	/**
+	 * @param lexicon
+	 *            "text", "image" or "mapped"
+	 * @param instances
+	 *            number of instances created
+	 * @return the retained heap per instance, in megabytes
+	 * @throws IOException
+	 */
+	static double footprint(String lexicon, int instances) throws IOException {
+		File lexiconFile = null;
+		if (lexicon.equals("image")) {
+			lexiconFile = File.createTempFile("biolemmatizer", ".bin");
+			LexiconImage.write(new BioLemmatizer(), lexiconFile);
+		} else if (lexicon.equals("mapped")) {
+			lexiconFile = File.createTempFile("biolemmatizer", ".mlx");
+			MappedLexicon.write(new BioLemmatizer().getWordLexicon(), lexiconFile);
+		}
+		try {
+			// a first instance loads the classes and shared static data
+			new BioLemmatizer(BioLemmatizerModel.load(lexiconFile));
+			long before = usedHeap();
+			BioLemmatizer[] bioLemmatizers = new BioLemmatizer[instances];
+			for (int i = 0; i < instances; i++) {
+				bioLemmatizers[i] = new BioLemmatizer(BioLemmatizerModel.load(lexiconFile));
+			}
+			long after = usedHeap();
+			// the instances are reachable until here
+			return (after - before) / (double) bioLemmatizers.length / (1024 * 1024);
+		} finally {
+			if (lexiconFile != null)
+				lexiconFile.delete();
+		}
+	}
+
+	/**
+	 * @param args
+	 *            [0] number of instances per lexicon (defaults to 3), [1] CSV file for the results
+	 * @throws IOException
+	 */
+	public static void main(String[] args) throws IOException {
+		int instances = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+		double[] footprints = new double[LEXICONS.length];
+		System.out.println(String.format("%8s %14s", "lexicon", "MB/instance"));
+		for (int i = 0; i < LEXICONS.length; i++) {
+			footprints[i] = footprint(LEXICONS[i], instances);
+			System.out.println(String.format("%8s %14.1f", LEXICONS[i], footprints[i]));
+		}
+		if (args.length > 1) {
+			PrintWriter csv = new PrintWriter(new FileWriter(args[1]));
+			try {
+				csv.println("\"Benchmark\",\"Mode\",\"Threads\",\"Samples\",\"Score\",\"Score Error (99.9%)\","
+						+ "\"Unit\",\"Param: lexicon\"");
+				for (int i = 0; i < LEXICONS.length; i++) {
+					csv.println(String.format("\"%s.footprint\",\"footprint\",1,%d,%.3f,NaN,\"MB\",%s",
+							FootprintBenchmark.class.getName(), instances, footprints[i], LEXICONS[i]));
+				}
+			} finally {
+				csv.close();
+			}
+		}
+	}
+}
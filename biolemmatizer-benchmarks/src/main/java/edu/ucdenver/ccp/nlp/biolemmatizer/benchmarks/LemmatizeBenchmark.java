@@ -0,0 +1,121 @@
+/*
+ Copyright (c) 2012, Regents of the University of Colorado
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without modification, 
+ are permitted provided that the following conditions are met:
+
+  * Redistributions of source code must retain the above copyright notice, this 
+    list of conditions and the following disclaimer.
+   
+  * Redistributions in binary form must reproduce the above copyright notice, 
+    this list of conditions and the following disclaimer in the documentation 
+    and/or other materials provided with the distribution.
+   
+  * Neither the name of the University of Colorado nor the names of its 
+    contributors may be used to endorse or promote products derived from this 
+    software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND 
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED 
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; 
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON 
+ ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT 
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS 
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.ucdenver.ccp.nlp.biolemmatizer.benchmarks;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import edu.ucdenver.ccp.nlp.biolemmatizer.BioLemmatizer;
+
+/**
+ * Measures the three lemmatize methods of a {@link BioLemmatizer} over streams of tokens from a
+ * {@link TokenDistribution}, one token at a time and as a batch. All benchmark threads share one lemmatizer, so
+ * {@link ScalingBenchmark} can run these benchmarks with 1..N threads. The result cache and the conversion of British
+ * spellings are off by default and can be enabled with JMH's -p option, e.g. -p resultCacheSize=100000.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 3, jvmArgsAppend = "-Xmx2g")
+public class LemmatizeBenchmark {
+
+	/** number of tokens lemmatized by each benchmark invocation */
+	static final int TOKENS = 1000;
+
+	@Param({ "hits", "misses", "contractions", "unknownPos", "mixed" })
+	String distribution;
+
+	@Param({ "0" })
+	int resultCacheSize;
+
+	@Param({ "false" })
+	boolean americanize;
+
+	BioLemmatizer bioLemmatizer;
+
+	String[] spellings;
+
+	String[] partsOfSpeech;
+
+	@Setup
+	public void setUp() {
+		bioLemmatizer = new BioLemmatizer((File) null, resultCacheSize);
+		bioLemmatizer.setAmericanize(americanize);
+		String[][] tokens = TokenDistribution.tokens(distribution, TOKENS);
+		spellings = tokens[0];
+		partsOfSpeech = tokens[1];
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(TOKENS)
+	public void lemmatizeByLexicon(Blackhole blackhole) {
+		for (int i = 0; i < TOKENS; i++) {
+			blackhole.consume(bioLemmatizer.lemmatizeByLexicon(spellings[i], partsOfSpeech[i]));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(TOKENS)
+	public void lemmatizeByRules(Blackhole blackhole) {
+		for (int i = 0; i < TOKENS; i++) {
+			blackhole.consume(bioLemmatizer.lemmatizeByRules(spellings[i], partsOfSpeech[i]));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(TOKENS)
+	public void lemmatizeByLexiconAndRules(Blackhole blackhole) {
+		for (int i = 0; i < TOKENS; i++) {
+			blackhole.consume(bioLemmatizer.lemmatizeByLexiconAndRules(spellings[i], partsOfSpeech[i]));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(TOKENS)
+	public Object lemmatizeBatchByLexiconAndRules() {
+		return bioLemmatizer.lemmatizeByLexiconAndRules(spellings, partsOfSpeech);
+	}
+}
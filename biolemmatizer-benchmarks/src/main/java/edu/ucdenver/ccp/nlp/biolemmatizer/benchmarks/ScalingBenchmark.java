@@ -0,0 +1,106 @@
+/*
+ Copyright (c) 2012, Regents of the University of Colorado
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without modification, 
+ are permitted provided that the following conditions are met:
+
+  * Redistributions of source code must retain the above copyright notice, this 
+    list of conditions and the following disclaimer.
+   
+  * Redistributions in binary form must reproduce the above copyright notice, 
+    this list of conditions and the following disclaimer in the documentation 
+    and/or other materials provided with the distribution.
+   
+  * Neither the name of the University of Colorado nor the names of its 
+    contributors may be used to endorse or promote products derived from this 
+    software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND 
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED 
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; 
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON 
+ ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT 
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS 
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.ucdenver.ccp.nlp.biolemmatizer.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs a JMH benchmark with 1, 2, 4, ... up to the number of available cores and reports the aggregate throughput,
+ * the speedup over a single thread and the parallel efficiency for each thread count. A lemmatizer free of shared
+ * locks should stay close to 100% efficiency up to the physical core count.
+ * 
+ * <pre>
+ * java -cp biolemmatizer-benchmarks-1.2-jar-with-dependencies.jar \
+ *     edu.ucdenver.ccp.nlp.biolemmatizer.benchmarks.ScalingBenchmark [benchmark regex] [max threads] [param=value ...]
+ * </pre>
+ * 
+ * For example, "LemmatizeBenchmark.lemmatizeByLexiconAndRules 8 distribution=mixed" measures the lemmatizer on the
+ * mixed token distribution with up to 8 threads.
+ */
+public class ScalingBenchmark {
+
+	/**
+	 * @return the thread counts to measure: powers of two below maxThreads, followed by maxThreads itself
+	 */
+	static List<Integer> threadCounts(int maxThreads) {
+		List<Integer> counts = new ArrayList<Integer>();
+		for (int threads = 1; threads < maxThreads; threads *= 2) {
+			counts.add(threads);
+		}
+		counts.add(maxThreads);
+		return counts;
+	}
+
+	/**
+	 * @param args
+	 *            [0] regex of the benchmarks to run (defaults to {@link CantLemmatizeBenchmark}), [1] maximum number of
+	 *            threads (defaults to the number of available processors), [2..] benchmark parameters as name=value,
+	 *            each should have a single value as the scores of all benchmarks run are added
+	 * @throws RunnerException
+	 */
+	public static void main(String[] args) throws RunnerException {
+		String include = args.length > 0 ? args[0] : CantLemmatizeBenchmark.class.getSimpleName();
+		int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+		List<Integer> counts = threadCounts(maxThreads);
+		double[] scores = new double[counts.size()];
+		String unit = "";
+		for (int i = 0; i < counts.size(); i++) {
+			OptionsBuilder builder = new OptionsBuilder();
+			builder.include(include).threads(counts.get(i));
+			for (int j = 2; j < args.length; j++) {
+				int separator = args[j].indexOf('=');
+				builder.param(args[j].substring(0, separator), args[j].substring(separator + 1));
+			}
+			Options options = builder.build();
+			Collection<RunResult> results = new Runner(options).run();
+			for (RunResult result : results) {
+				scores[i] += result.getPrimaryResult().getScore();
+				unit = result.getPrimaryResult().getScoreUnit();
+			}
+		}
+
+		System.out.println();
+		System.out.println(String.format("%8s %16s %10s %11s", "threads", unit, "speedup", "efficiency"));
+		for (int i = 0; i < counts.size(); i++) {
+			double speedup = scores[i] / scores[0];
+			System.out.println(String.format("%8d %16.1f %9.2fx %10.1f%%", counts.get(i), scores[i], speedup, 100.0
+					* speedup / counts.get(i)));
+		}
+	}
+}
@@ -0,0 +1,105 @@
+/*
+ Copyright (c) 2012, Regents of the University of Colorado
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without modification, 
+ are permitted provided that the following conditions are met:
+
+  * Redistributions of source code must retain the above copyright notice, this 
+    list of conditions and the following disclaimer.
+   
+  * Redistributions in binary form must reproduce the above copyright notice, 
+    this list of conditions and the following disclaimer in the documentation 
+    and/or other materials provided with the distribution.
+   
+  * Neither the name of the University of Colorado nor the names of its 
+    contributors may be used to endorse or promote products derived from this 
+    software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND 
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED 
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; 
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON 
+ ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT 
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS 
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.ucdenver.ccp.nlp.biolemmatizer.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.northwestern.at.morphadorner.corpuslinguistics.lexicon.MappedLexicon;
+import edu.ucdenver.ccp.nlp.biolemmatizer.BioLemmatizer;
+import edu.ucdenver.ccp.nlp.biolemmatizer.BioLemmatizerModel;
+import edu.ucdenver.ccp.nlp.biolemmatizer.LexiconImage;
+
+/**
+ * Measures the loading of a {@link BioLemmatizerModel} from the text lexicon, from a precompiled {@link LexiconImage}
+ * and from a {@link MappedLexicon}, and the construction of a {@link BioLemmatizer} from a loaded model. The image and
+ * the mapped lexicon are compiled from the default lexicon before the measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+@Fork(value = 3, jvmArgsAppend = "-Xmx2g")
+public class StartupBenchmark {
+
+	@Param({ "text", "image", "mapped" })
+	String lexicon;
+
+	File imageFile;
+
+	BioLemmatizerModel model;
+
+	@Setup
+	public void compileImage() throws IOException {
+		if (lexicon.equals("image")) {
+			imageFile = File.createTempFile("biolemmatizer", ".bin");
+			LexiconImage.write(new BioLemmatizer(), imageFile);
+		} else if (lexicon.equals("mapped")) {
+			imageFile = File.createTempFile("biolemmatizer", ".mlx");
+			MappedLexicon.write(new BioLemmatizer().getWordLexicon(), imageFile);
+		}
+		model = BioLemmatizerModel.load(imageFile);
+	}
+
+	@TearDown
+	public void deleteImage() {
+		if (imageFile != null)
+			imageFile.delete();
+	}
+
+	@Benchmark
+	public BioLemmatizer startup() {
+		return new BioLemmatizer(BioLemmatizerModel.load(imageFile));
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@Warmup(iterations = 2, time = 1)
+	@Measurement(iterations = 10, time = 1)
+	public BioLemmatizer facade() {
+		return new BioLemmatizer(model);
+	}
+}
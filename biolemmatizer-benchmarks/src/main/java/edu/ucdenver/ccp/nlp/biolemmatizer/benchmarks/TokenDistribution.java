@@ -0,0 +1,108 @@
+/*
+ Copyright (c) 2012, Regents of the University of Colorado
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without modification, 
+ are permitted provided that the following conditions are met:
+
+  * Redistributions of source code must retain the above copyright notice, this 
+    list of conditions and the following disclaimer.
+   
+  * Redistributions in binary form must reproduce the above copyright notice, 
+    this list of conditions and the following disclaimer in the documentation 
+    and/or other materials provided with the distribution.
+   
+  * Neither the name of the University of Colorado nor the names of its 
+    contributors may be used to endorse or promote products derived from this 
+    software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND 
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED 
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; 
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON 
+ ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT 
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS 
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.ucdenver.ccp.nlp.biolemmatizer.benchmarks;
+
+import java.util.Random;
+
+/**
+ * Deterministic streams of tokens with Penn Treebank or NUPOS tags, drawn from the kinds of input the BioLemmatizer
+ * resolves differently: words found in the lexicon, words lemmatized by rules, contractions and unknown POS tags.
+ */
+class TokenDistribution {
+
+	/** common words of biomedical text with their POS tags, found in the lexicon */
+	static final String[][] HITS = { { "the", "DT" }, { "of", "IN" }, { "and", "CC" }, { "in", "IN" }, { "to", "TO" },
+			{ "a", "DT" }, { "was", "VBD" }, { "were", "VBD" }, { "is", "VBZ" }, { "are", "VBP" }, { "with", "IN" },
+			{ "by", "IN" }, { "cells", "NNS" }, { "cell", "NN" }, { "protein", "NN" }, { "proteins", "NNS" },
+			{ "expression", "NN" }, { "expressed", "VBN" }, { "binding", "VBG" }, { "activity", "NN" },
+			{ "increased", "VBD" }, { "induced", "VBN" }, { "genes", "NNS" }, { "levels", "NNS" }, { "showed", "VBD" },
+			{ "patients", "NNS" }, { "studies", "NNS" }, { "using", "VBG" }, { "found", "VBN" }, { "children", "NNS" },
+			{ "analysis", "NN" }, { "results", "NNS" }, { "observed", "VBN" }, { "effects", "NNS" }, { "has", "VBZ" },
+			{ "been", "VBN" }, { "mice", "NNS" }, { "treated", "VBN" }, { "significantly", "RB" }, { "higher", "JJR" },
+			{ "lower", "JJR" }, { "mutations", "NNS" }, { "receptor", "NN" }, { "regulates", "VBZ" },
+			{ "required", "VBN" }, { "suggest", "VBP" }, { "these", "DT" }, { "data", "NNS" }, { "better", "JJR" },
+			{ "ran", "VBD" } };
+
+	/** stems and inflections of made up words, which are not in the lexicon and are lemmatized by rules */
+	static final String[] STEMS = { "phospho", "glyco", "ubiquit", "acetyl", "methyl", "sumo", "nitros", "palmit",
+			"farnes", "myristo" };
+
+	static final String[][] INFLECTIONS = { { "lates", "VBZ" }, { "lated", "VBD" }, { "lating", "VBG" },
+			{ "lases", "NNS" }, { "lations", "NNS" }, { "lase", "NN" }, { "lies", "NNS" }, { "lier", "JJR" } };
+
+	/** contractions with Penn Treebank tags and with compound NUPOS tags, which split them */
+	static final String[][] CONTRACTIONS = { { "don't", "VBP" }, { "can't", "MD" }, { "it's", "PRP" },
+			{ "cell's", "NN" }, { "it's", "pn31|vbz" }, { "we'll", "pns12|vmb" }, { "they're", "pns32|vbb" },
+			{ "protein's", "n1|vbz" }, { "kinase'll", "n1|vmb" }, { "receptors'", "NNS" } };
+
+	/** tokens with POS tags of no known tag set, or without tags */
+	static final String[][] UNKNOWN_POS = { { "proteins", "" }, { "binding", "XX" }, { "cells", null },
+			{ "expressed", "-NONE-" }, { "phosphorylates", "" }, { "mice", "UNK" }, { "kinases", "X" },
+			{ "IL-2", "" }, { "p53", "SYM" }, { "running", null } };
+
+	/**
+	 * @param distribution
+	 *            "hits", "misses", "contractions", "unknownPos", or "mixed": 70% hits, 20% misses, 5% contractions and
+	 *            5% unknown POS tags
+	 * @param count
+	 *            number of tokens
+	 * @return the tokens and their POS tags
+	 */
+	static String[][] tokens(String distribution, int count) {
+		Random random = new Random(42);
+		String[] spellings = new String[count];
+		String[] partsOfSpeech = new String[count];
+		for (int i = 0; i < count; i++) {
+			String kind = distribution;
+			if (distribution.equals("mixed")) {
+				int percentile = random.nextInt(100);
+				kind = percentile < 70 ? "hits" : percentile < 90 ? "misses" : percentile < 95 ? "contractions"
+						: "unknownPos";
+			}
+			String[] token;
+			if (kind.equals("hits")) {
+				// a Zipf-like choice: frequent words come first
+				token = HITS[(int) (HITS.length * Math.pow(random.nextDouble(), 2))];
+			} else if (kind.equals("misses")) {
+				String[] inflection = INFLECTIONS[random.nextInt(INFLECTIONS.length)];
+				token = new String[] { STEMS[random.nextInt(STEMS.length)] + inflection[0], inflection[1] };
+			} else if (kind.equals("contractions")) {
+				token = CONTRACTIONS[random.nextInt(CONTRACTIONS.length)];
+			} else if (kind.equals("unknownPos")) {
+				token = UNKNOWN_POS[random.nextInt(UNKNOWN_POS.length)];
+			} else {
+				throw new IllegalArgumentException("Unknown token distribution: " + distribution);
+			}
+			spellings[i] = token[0];
+			partsOfSpeech[i] = token[1];
+		}
+		return new String[][] { spellings, partsOfSpeech };
+	}
+}
@@ -0,0 +1,187 @@
+/*
+ Copyright (c) 2012, Regents of the University of Colorado
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without modification, 
+ are permitted provided that the following conditions are met:
+
+  * Redistributions of source code must retain the above copyright notice, this 
+    list of conditions and the following disclaimer.
+   
+  * Redistributions in binary form must reproduce the above copyright notice, 
+    this list of conditions and the following disclaimer in the documentation 
+    and/or other materials provided with the distribution.
+   
+  * Neither the name of the University of Colorado nor the names of its 
+    contributors may be used to endorse or promote products derived from this 
+    software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND 
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED 
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; 
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON 
+ ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT 
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS 
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.ucdenver.ccp.nlp.biolemmatizer.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.northwestern.at.morphadorner.corpuslinguistics.postagger.ArrayViterbi;
+import edu.northwestern.at.morphadorner.corpuslinguistics.postagger.Viterbi;
+import edu.northwestern.at.utils.Map3D;
+import edu.northwestern.at.utils.Map3DFactory;
+import edu.northwestern.at.utils.math.Probability;
+
+/**
+ * Compares the map based {@link Viterbi} trellis with the primitive array based {@link ArrayViterbi} on trigram
+ * decoding of one long sentence. Both decoders are fed the way the trigram tagger feeds them: the contextual
+ * probabilities of each word are looked up for the tags remaining after beam pruning of the two previous words. The
+ * probabilities come from fixed random tables, so the smoothers and the lexicon are not measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class ViterbiBenchmark {
+
+	/** about the size of the NUPOS tag set */
+	static final int TAG_SET_SIZE = 200;
+
+	@Param({ "50", "200" })
+	int sentenceLength;
+
+	/** the possible tags of each word */
+	List<List<String>> sentenceTags;
+
+	/** tag set index of each tag and of the "." start tag */
+	final Map<String, Integer> tagIndex = new HashMap<String, Integer>();
+
+	/** log p(word | tag) of each word and its tags */
+	double[][] lexical;
+
+	/** log p(tag | previous tag) by tag set index */
+	final double[][] bigram = new double[TAG_SET_SIZE][TAG_SET_SIZE];
+
+	/** log of the weight of the tag before the previous tag, by tag set index */
+	final double[] previousPrevious = new double[TAG_SET_SIZE];
+
+	final ArrayViterbi arrayViterbi = new ArrayViterbi();
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(1);
+		for (int i = 0; i < TAG_SET_SIZE; i++) {
+			tagIndex.put("t" + i, i);
+			previousPrevious[i] = Math.log(0.5 + 0.5 * random.nextDouble());
+			for (int j = 0; j < TAG_SET_SIZE; j++) {
+				bigram[i][j] = Math.log(random.nextDouble());
+			}
+		}
+		// the start tag shares the probabilities of the first tag
+		tagIndex.put(".", 0);
+		sentenceTags = new ArrayList<List<String>>();
+		lexical = new double[sentenceLength][];
+		for (int i = 0; i < sentenceLength; i++) {
+			Set<String> tags = new LinkedHashSet<String>();
+			int nTags = 1 + random.nextInt(8);
+			while (tags.size() < nTags) {
+				tags.add("t" + random.nextInt(TAG_SET_SIZE));
+			}
+			sentenceTags.add(new ArrayList<String>(tags));
+			lexical[i] = new double[nTags];
+			for (int j = 0; j < nTags; j++) {
+				lexical[i][j] = Math.log(random.nextDouble());
+			}
+		}
+	}
+
+	double contextual(String tag, String previousTag, String previousPreviousTag) {
+		return bigram[tagIndex.get(tag)][tagIndex.get(previousTag)] + previousPrevious[tagIndex.get(previousPreviousTag)];
+	}
+
+	static Probability probability(double logProbability) {
+		Probability probability = new Probability();
+		probability.setLogProbability(logProbability);
+		return probability;
+	}
+
+	@Benchmark
+	public List<String> viterbi() {
+		Viterbi viterbi = new Viterbi();
+		List<String> previousPreviousTags = new ArrayList<String>();
+		previousPreviousTags.add(".");
+		List<String> previousTags = previousPreviousTags;
+		List<String> tags = null;
+		for (int i = 0; i < sentenceLength; i++) {
+			tags = sentenceTags.get(i);
+			Map3D<String, String, String, Probability> contextualProbabilities = Map3DFactory.createNewMap3D();
+			Probability[] lexicalProbabilities = new Probability[tags.size()];
+			for (int j = 0; j < tags.size(); j++) {
+				lexicalProbabilities[j] = probability(lexical[i][j]);
+				for (String previousTag : previousTags) {
+					for (String previousPreviousTag : previousPreviousTags) {
+						contextualProbabilities.put(tags.get(j), previousTag, previousPreviousTag,
+								probability(contextual(tags.get(j), previousTag, previousPreviousTag)));
+					}
+				}
+			}
+			tags = viterbi.updateScore(i, lexicalProbabilities, contextualProbabilities, tags, previousTags,
+					previousPreviousTags);
+			previousPreviousTags = previousTags;
+			previousTags = tags;
+		}
+		return viterbi.optimalTags(sentenceLength, tags);
+	}
+
+	@Benchmark
+	public List<String> arrayViterbi() {
+		ArrayViterbi viterbi = arrayViterbi;
+		viterbi.start(sentenceLength);
+		for (int i = 0; i < sentenceLength; i++) {
+			List<String> tags = sentenceTags.get(i);
+			int nTags = viterbi.setTags(i, tags);
+			int nPreviousTags = viterbi.getTagCount(i - 1);
+			int nPreviousPreviousTags = viterbi.getTagCount(i - 2);
+			double[] lexicalScores = viterbi.getLexicalScores(nTags);
+			double[] contextualScores = viterbi.getContextualScores(nTags * nPreviousTags * nPreviousPreviousTags);
+			int contextual = 0;
+			for (int j = 0; j < nTags; j++) {
+				lexicalScores[j] = lexical[i][j];
+				for (int k = 0; k < nPreviousTags; k++) {
+					String previousTag = viterbi.getTag(i - 1, k);
+					for (int l = 0; l < nPreviousPreviousTags; l++) {
+						contextualScores[contextual++] = contextual(tags.get(j), previousTag, viterbi.getTag(i - 2, l));
+					}
+				}
+			}
+			viterbi.updateTrigramScore(i);
+		}
+		return viterbi.optimalTags(sentenceLength);
+	}
+}
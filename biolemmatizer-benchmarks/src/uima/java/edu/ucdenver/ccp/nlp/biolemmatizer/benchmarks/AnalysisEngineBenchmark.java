@@ -0,0 +1,127 @@
+/*
+ Copyright (c) 2012, Regents of the University of Colorado
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without modification, 
+ are permitted provided that the following conditions are met:
+
+  * Redistributions of source code must retain the above copyright notice, this 
+    list of conditions and the following disclaimer.
+   
+  * Redistributions in binary form must reproduce the above copyright notice, 
+    this list of conditions and the following disclaimer in the documentation 
+    and/or other materials provided with the distribution.
+   
+  * Neither the name of the University of Colorado nor the names of its 
+    contributors may be used to endorse or promote products derived from this 
+    software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND 
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED 
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; 
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON 
+ ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT 
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS 
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.ucdenver.ccp.nlp.biolemmatizer.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.uima.UIMAException;
+import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.fit.factory.AnalysisEngineFactory;
+import org.apache.uima.fit.factory.JCasFactory;
+import org.apache.uima.fit.factory.TypeSystemDescriptionFactory;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.resource.metadata.TypeSystemDescription;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.ucdenver.ccp.nlp.biolemmatizer.uima.BioLemmatizer_AE;
+import edu.ucdenver.ccp.nlp.biolemmatizer.uima.test.Token;
+
+/**
+ * Measures the time the {@link BioLemmatizer_AE} takes to process a CAS of the given number of tokens, a sample
+ * sentence repeated, so that a cost per token that grows with the size of the CAS shows as a time that grows faster
+ * than the number of tokens. The CAS is filled with tokens before each invocation, outside the measured time. This
+ * benchmark needs biolemmatizer-uima and is only built with the uima profile: mvn -P uima package
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 3, jvmArgsAppend = "-Xmx2g")
+public class AnalysisEngineBenchmark {
+
+	static final String SENTENCE = "The radiolabeled isotope was found in mitochondria.";
+
+	static final int[][] SPANS = { { 0, 3 }, { 4, 16 }, { 17, 24 }, { 25, 28 }, { 29, 34 }, { 35, 37 }, { 38, 50 },
+			{ 50, 51 } };
+
+	static final String[] POS_TAGS = { "DT", "VBZ", "NN", "VBZ", "VBZ", "IN", "NN", "." };
+
+	@Param({ "1000", "100000" })
+	int tokens;
+
+	AnalysisEngine analysisEngine;
+
+	JCas jCas;
+
+	String documentText;
+
+	@Setup
+	public void setUp() throws UIMAException {
+		TypeSystemDescription tsd = TypeSystemDescriptionFactory.createTypeSystemDescription(
+				"edu.ucdenver.ccp.nlp.biolemmatizer.uima.TypeSystem",
+				"edu.ucdenver.ccp.nlp.biolemmatizer.uima.TestTypeSystem");
+		analysisEngine = AnalysisEngineFactory.createPrimitive(BioLemmatizer_AE.createAnalysisEngineDescription(tsd,
+				Token.class, "getPosTag"));
+		jCas = JCasFactory.createJCas(tsd);
+		int sentences = tokens / SPANS.length;
+		StringBuilder text = new StringBuilder((SENTENCE.length() + 1) * sentences);
+		for (int i = 0; i < sentences; i++) {
+			text.append(SENTENCE).append(' ');
+		}
+		documentText = text.toString();
+	}
+
+	@Setup(Level.Invocation)
+	public void fillCas() {
+		jCas.reset();
+		jCas.setDocumentText(documentText);
+		for (int offset = 0; offset < documentText.length(); offset += SENTENCE.length() + 1) {
+			for (int j = 0; j < SPANS.length; j++) {
+				Token token = new Token(jCas, offset + SPANS[j][0], offset + SPANS[j][1]);
+				token.setPosTag(POS_TAGS[j]);
+				token.addToIndexes();
+			}
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		analysisEngine.destroy();
+	}
+
+	@Benchmark
+	public JCas process() throws UIMAException {
+		analysisEngine.process(jCas);
+		return jCas;
+	}
+}
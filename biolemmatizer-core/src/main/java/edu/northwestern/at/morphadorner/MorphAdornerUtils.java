@@ -284,12 +284,33 @@ public class MorphAdornerUtils
         {
             long startTime  = System.currentTimeMillis();
 
-            transitionMatrix.loadTransitionMatrix
-            (
-                adornerSettings.transitionMatrixURL ,
-                "utf-8" ,
-                '\t'
-            );
+                                //  Load the matrix into arrays
+                                //  indexed by tag, from the binary
+                                //  format if the file has the binary
+                                //  extension.
+
+            DenseTransitionMatrix denseTransitionMatrix =
+                new DenseTransitionMatrix();
+
+            if ( adornerSettings.transitionMatrixURL.getPath().endsWith(
+                DenseTransitionMatrix.BINARY_FILE_EXTENSION ) )
+            {
+                denseTransitionMatrix.loadBinaryTransitionMatrix
+                (
+                    adornerSettings.transitionMatrixURL
+                );
+            }
+            else
+            {
+                denseTransitionMatrix.loadTransitionMatrix
+                (
+                    adornerSettings.transitionMatrixURL ,
+                    "utf-8" ,
+                    '\t'
+                );
+            }
+
+            transitionMatrix    = denseTransitionMatrix;
                                 //  Set transition matrix into
                                 //  part of speech tagger.
 
@@ -115,19 +115,12 @@ abstract public class AbstractLemmatizer
 
         if ( spelling != null )
         {
-            String trimmedSpelling  = spelling.trim();
-
-            result  =
-                ( trimmedSpelling.length() == 0 ) ||
-                CharUtils.isAllHyphens( trimmedSpelling ) ||
-                CharUtils.hasPunctuationNotApostrophes(
-                    trimmedSpelling ) ||
-                CharUtils.hasSymbols( trimmedSpelling ) ||
-                CharUtils.isNumber( trimmedSpelling ) ||
-                RomanNumeralUtils.isLooseRomanNumeral(
-                    trimmedSpelling ) ||
-                RomanNumeralUtils.isLooseOrdinalRomanNumeral(
-                    trimmedSpelling );
+                                //  Single pass, lock-free equivalent of
+                                //  the CharUtils and RomanNumeralUtils
+                                //  hyphen, punctuation, symbol, number
+                                //  and Roman numeral checks.
+
+            result  = TokenClassifier.cantLemmatize( spelling.trim() );
         }
 
         return result;
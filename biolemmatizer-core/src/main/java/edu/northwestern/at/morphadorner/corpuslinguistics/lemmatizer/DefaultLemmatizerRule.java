@@ -222,7 +222,7 @@ public class DefaultLemmatizerRule implements LemmatizerRule
 
                 if ( mustMatchDictionaryEntry && ( dictionary != null ) )
                 {
-                    if ( !dictionary.contains( result.toLowerCase() ) )
+                    if ( !LemmaDictionary.containsLowerCase( dictionary , result ) )
                     {
                         result  = s;
                     }
@@ -0,0 +1,482 @@
+package edu.northwestern.at.morphadorner.corpuslinguistics.lemmatizer;
+
+/*  Please see the license information at the end of this file. */
+
+import java.io.*;
+import java.nio.*;
+import java.util.*;
+
+import edu.northwestern.at.morphadorner.corpuslinguistics.lexicon.*;
+
+/** A compact, immutable dictionary of lower case lemmata.
+ *
+ *  <p>
+ *  The words are sorted and packed end to end into a single character
+ *  array, with an array of start offsets, and are found by binary
+ *  search.  This takes a small fraction of the memory of a HashSet of
+ *  the same strings.  {@link #containsLowerCase} looks up the lower case
+ *  form of a string by lower casing its characters as they are
+ *  compared, without creating a lower case copy.
+ *  </p>
+ *
+ *  <p>
+ *  The dictionary is a read-only Set, so it can be passed to
+ *  {@link Lemmatizer#setDictionary}, and it may be shared between
+ *  threads.
+ *  </p>
+ */
+
+public class LemmaDictionary extends AbstractSet<String>
+{
+    /** Start of each word in characters, followed by the total length. */
+
+    protected int[] starts;
+
+    /** The sorted words, end to end. */
+
+    protected char[] characters;
+
+    /** Create a dictionary of words.
+     *
+     *  @param  words   The words.  They are stored in lower case.
+     */
+
+    public LemmaDictionary( Collection<String> words )
+    {
+        String[] lowerCaseWords = new String[ words.size() ];
+        int count               = 0;
+
+        for ( String word : words )
+        {
+            lowerCaseWords[ count++ ]   = word.toLowerCase();
+        }
+
+        pack( lowerCaseWords , count );
+    }
+
+    /** Create a dictionary of the lemmata in a lexicon.
+     *
+     *  @param  lexicon     The lexicon.  The lemmata of all its entries
+     *                      are stored in lower case.
+     */
+
+    public LemmaDictionary( Lexicon lexicon )
+    {
+        String[] lemmata    = getAllLemmata( lexicon );
+
+        for ( int i = 0 ; i < lemmata.length ; i++ )
+        {
+            lemmata[ i ]    = lemmata[ i ].toLowerCase();
+        }
+
+        pack( lemmata , lemmata.length );
+    }
+
+    /** Get the lemmata of all entries of a lexicon.
+     *
+     *  @param  lexicon     The lexicon.
+     *
+     *  @return             A new array of the lemmata of all entries,
+     *                      in no particular order.  A lemma may appear
+     *                      more than once.
+     *
+     *  <p>
+     *  Abstract and mapped lexicons provide their lemmata directly;
+     *  the lemmata of other lexicons are collected entry by entry.
+     *  </p>
+     */
+
+    public static String[] getAllLemmata( Lexicon lexicon )
+    {
+        if ( lexicon instanceof AbstractLexicon )
+        {
+            return ((AbstractLexicon)lexicon).getAllLemmata();
+        }
+
+        if ( lexicon instanceof MappedLexicon )
+        {
+            return ((MappedLexicon)lexicon).getAllLemmata();
+        }
+
+        List<String> lemmata    = new ArrayList<String>();
+
+        for ( String entry : lexicon.getEntries() )
+        {
+            for ( String lemma : lexicon.getLemmata( entry ) )
+            {
+                lemmata.add( lemma );
+            }
+        }
+
+        return lemmata.toArray( new String[ lemmata.size() ] );
+    }
+
+    /** Create a dictionary from packed words.
+     *
+     *  @param  starts      Start offsets of the sorted words,
+     *                      followed by the total length.
+     *  @param  characters  The sorted words, end to end.
+     */
+
+    protected LemmaDictionary( int[] starts , char[] characters )
+    {
+        this.starts     = starts;
+        this.characters = characters;
+    }
+
+    /** Sort, deduplicate and pack words.
+     *
+     *  @param  words   The words.  The array is sorted in place.
+     *  @param  count   The number of words in the array.
+     */
+
+    protected void pack( String[] words , int count )
+    {
+        Arrays.sort( words , 0 , count );
+
+        int unique  = 0;
+        int length  = 0;
+
+        for ( int i = 0 ; i < count ; i++ )
+        {
+            if ( ( unique == 0 ) || !words[ i ].equals( words[ unique - 1 ] ) )
+            {
+                words[ unique++ ]   = words[ i ];
+                length              += words[ i ].length();
+            }
+        }
+
+        starts      = new int[ unique + 1 ];
+        characters  = new char[ length ];
+
+        int start   = 0;
+
+        for ( int i = 0 ; i < unique ; i++ )
+        {
+            String word = words[ i ];
+
+            word.getChars( 0 , word.length() , characters , start );
+
+            starts[ i ] = start;
+            start       += word.length();
+        }
+
+        starts[ unique ]    = start;
+    }
+
+    /** Get the number of words.
+     *
+     *  @return     The number of words.
+     */
+
+    public int size()
+    {
+        return starts.length - 1;
+    }
+
+    /** Check if the dictionary contains a word.
+     *
+     *  @param  o   The word.
+     *
+     *  @return     True if the dictionary contains the word exactly.
+     */
+
+    public boolean contains( Object o )
+    {
+        return
+            ( o instanceof String ) &&
+            ( indexOf( (String)o , false ) >= 0 );
+    }
+
+    /** Check if the dictionary contains the lower case form of a word.
+     *
+     *  @param  word    The word.
+     *
+     *  @return         True if the dictionary contains
+     *                  word.toLowerCase().
+     */
+
+    public boolean containsLowerCase( String word )
+    {
+        if ( lowerCasesByCharacter( word ) )
+        {
+            return indexOf( word , true ) >= 0;
+        }
+
+        return indexOf( word.toLowerCase() , false ) >= 0;
+    }
+
+    /** Check if a dictionary contains the lower case form of a word.
+     *
+     *  @param  dictionary  The dictionary.
+     *  @param  word        The word.
+     *
+     *  @return             True if the dictionary contains
+     *                      word.toLowerCase().
+     */
+
+    public static boolean containsLowerCase
+    (
+        Set<String> dictionary ,
+        String word
+    )
+    {
+        if ( dictionary instanceof LemmaDictionary )
+        {
+            return ((LemmaDictionary)dictionary).containsLowerCase( word );
+        }
+
+        return dictionary.contains( word.toLowerCase() );
+    }
+
+    /** Find a word.
+     *
+     *  @param  word        The word.
+     *  @param  lowerCase   True to compare the lower case form
+     *                      of each character of the word.
+     *
+     *  @return             The index of the word, or a negative number
+     *                      if the word is not in the dictionary.
+     */
+
+    protected int indexOf( String word , boolean lowerCase )
+    {
+        int low     = 0;
+        int high    = starts.length - 2;
+
+        while ( low <= high )
+        {
+            int middle      = ( low + high ) >>> 1;
+            int comparison  = compare( middle , word , lowerCase );
+
+            if ( comparison < 0 )
+            {
+                low     = middle + 1;
+            }
+            else if ( comparison > 0 )
+            {
+                high    = middle - 1;
+            }
+            else
+            {
+                return middle;
+            }
+        }
+
+        return -( low + 1 );
+    }
+
+    /** Compare a dictionary word with a word.
+     *
+     *  @param  index       The index of the dictionary word.
+     *  @param  word        The word.
+     *  @param  lowerCase   True to compare the lower case form
+     *                      of each character of the word.
+     *
+     *  @return             A negative number, zero or a positive
+     *                      number as the dictionary word sorts before,
+     *                      equal to or after the word.
+     */
+
+    protected int compare( int index , String word , boolean lowerCase )
+    {
+        int start       = starts[ index ];
+        int length      = starts[ index + 1 ] - start;
+        int wordLength  = word.length();
+        int n           = Math.min( length , wordLength );
+
+        for ( int i = 0 ; i < n ; i++ )
+        {
+            char ch         = characters[ start + i ];
+            char wordCh     = word.charAt( i );
+
+            if ( lowerCase )
+            {
+                wordCh  = Character.toLowerCase( wordCh );
+            }
+
+            if ( ch != wordCh )
+            {
+                return ch - wordCh;
+            }
+        }
+
+        return length - wordLength;
+    }
+
+    /** Check if lower casing a word character by character
+     *  gives the same result as String.toLowerCase().
+     *
+     *  @param  word    The word.
+     *
+     *  @return         False if the default locale or a character
+     *                  of the word has special lower casing rules.
+     */
+
+    protected static boolean lowerCasesByCharacter( String word )
+    {
+        String language = Locale.getDefault().getLanguage();
+
+        if  (   language.equals( "tr" ) ||
+                language.equals( "az" ) ||
+                language.equals( "lt" )
+            )
+        {
+            return false;
+        }
+
+        for ( int i = 0 ; i < word.length() ; i++ )
+        {
+            char ch = word.charAt( i );
+                                //  Capital dotted I, capital sigma
+                                //  and surrogate pairs.
+            if  (   ( ch == '\u0130' ) ||
+                    ( ch == '\u03A3' ) ||
+                    ( ( ch >= '\uD800' ) && ( ch <= '\uDFFF' ) )
+                )
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /** Get an iterator over the words in ascending order.
+     *
+     *  @return     The iterator.
+     */
+
+    public Iterator<String> iterator()
+    {
+        return new Iterator<String>()
+        {
+            protected int index = 0;
+
+            public boolean hasNext()
+            {
+                return index < size();
+            }
+
+            public String next()
+            {
+                if ( !hasNext() )
+                {
+                    throw new NoSuchElementException();
+                }
+
+                int start   = starts[ index ];
+                int end     = starts[ ++index ];
+
+                return new String( characters , start , end - start );
+            }
+
+            public void remove()
+            {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /** Write the dictionary.
+     *
+     *  @param  output  The output.
+     *
+     *  @throws IOException
+     */
+
+    public void write( DataOutput output )
+        throws IOException
+    {
+        ByteBuffer buffer   =
+            ByteBuffer.allocate
+            (
+                4 * starts.length + 2 * characters.length
+            );
+
+        buffer.asIntBuffer().put( starts );
+        buffer.position( 4 * starts.length );
+        buffer.asCharBuffer().put( characters );
+
+        output.writeInt( starts.length - 1 );
+        output.writeInt( characters.length );
+        output.write( buffer.array() );
+    }
+
+    /** Read a dictionary written by {@link #write}.
+     *
+     *  @param  input   The input.
+     *
+     *  @return         The dictionary.
+     *
+     *  @throws IOException
+     */
+
+    public static LemmaDictionary read( DataInput input )
+        throws IOException
+    {
+        int size    = input.readInt();
+        int length  = input.readInt();
+
+        if ( ( size < 0 ) || ( length < 0 ) )
+        {
+            throw new IOException( "Invalid dictionary size" );
+        }
+
+        byte[] bytes    = new byte[ 4 * ( size + 1 ) + 2 * length ];
+
+        input.readFully( bytes );
+
+        ByteBuffer buffer   = ByteBuffer.wrap( bytes );
+
+        int[] starts        = new int[ size + 1 ];
+        char[] characters   = new char[ length ];
+
+        buffer.asIntBuffer().get( starts );
+        buffer.position( 4 * starts.length );
+        buffer.asCharBuffer().get( characters );
+
+        return new LemmaDictionary( starts , characters );
+    }
+}
+
+/*
+Copyright (c) 2008, 2013 by Northwestern University.
+All rights reserved.
+
+Developed by:
+   Academic and Research Technologies
+   Northwestern University
+   http://www.it.northwestern.edu/about/departments/at/
+
+Permission is hereby granted, free of charge, to any person
+obtaining a copy of this software and associated documentation
+files (the "Software"), to deal with the Software without
+restriction, including without limitation the rights to use,
+copy, modify, merge, publish, distribute, sublicense, and/or
+sell copies of the Software, and to permit persons to whom the
+Software is furnished to do so, subject to the following
+conditions:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimers.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimers in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the names of Academic and Research Technologies,
+      Northwestern University, nor the names of its contributors may be
+      used to endorse or promote products derived from this Software
+      without specific prior written permission.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+NONINFRINGEMENT. IN NO EVENT SHALL THE CONTRIBUTORS OR
+COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*/
@@ -10,6 +10,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 
 import edu.northwestern.at.utils.ListFactory;
 import edu.northwestern.at.utils.Map2D;
@@ -57,6 +58,18 @@ public class RuleBasedLemmatizer
 
     protected Set<String> rulesWordClasses  = new TreeSet<String>();
 
+    /** Lemmatizing rules compiled into suffix tries.
+     *
+     *  <p>
+     *  The tries are built when rules are loaded, and rebuilt on
+     *  first use when the rule list for a word class is replaced
+     *  or changes size.
+     *  </p>
+     */
+
+    protected Map<String, SuffixRuleTrie> compiledRules    =
+        new ConcurrentHashMap<String, SuffixRuleTrie>();
+
     /** Create a rule-based lemmatizer. */
 
     public RuleBasedLemmatizer()
@@ -130,6 +143,15 @@ public class RuleBasedLemmatizer
         }
 
         buffer.close();
+                                //  Compile the rules.
+
+        for (   Iterator<String> iterator   = rules.keySet().iterator() ;
+                iterator.hasNext() ; )
+        {
+            String wordClass    = iterator.next();
+
+            getCompiledRules( wordClass , rules.get( wordClass ) );
+        }
     }
 
     /** Loads irregular forms from a URL.
@@ -254,21 +276,12 @@ public class RuleBasedLemmatizer
                         ( rulesForWordClass.size() > 0 )
                     )
                 {
-                    LemmatizerRule[] wordClassRules =
-                        (LemmatizerRule[])rulesForWordClass.toArray(
-                            new LemmatizerRule[ rulesForWordClass.size() ] );
-
-                    for ( int j = 0 ; j < wordClassRules.length ; j++ )
-                    {
-                        String newLemma =
-                            wordClassRules[ j ].apply( lemma , dictionary );
-
-                        if ( !newLemma.equals( lemma ) )
-                        {
-                            lemma   = newLemma;
-                            break;
-                        }
-                    }
+                    lemma   =
+                        getCompiledRules
+                        (
+                            lcWordClasses[ i ] ,
+                            rulesForWordClass
+                        ).apply( lemma , dictionary );
                 }
             }
         }
@@ -277,6 +290,34 @@ public class RuleBasedLemmatizer
             spelling : cleanUpLemma( lemma );
     }
 
+    /** Get the compiled rules for a word class.
+     *
+     *  @param  wordClass           The word class.
+     *  @param  rulesForWordClass   The rules for the word class.
+     *
+     *  @return                     The rules compiled into a suffix trie.
+     */
+
+    protected SuffixRuleTrie getCompiledRules
+    (
+        String wordClass ,
+        List<LemmatizerRule> rulesForWordClass
+    )
+    {
+        SuffixRuleTrie compiled = compiledRules.get( wordClass );
+
+        if  (   ( compiled == null ) ||
+                !compiled.isCompiledFrom( rulesForWordClass )
+            )
+        {
+            compiled    = new SuffixRuleTrie( rulesForWordClass );
+
+            compiledRules.put( wordClass , compiled );
+        }
+
+        return compiled;
+    }
+
     /** Clean up lemma.
      *
      *  @param  lemma   The lemma to clean.
@@ -347,19 +388,13 @@ public class RuleBasedLemmatizer
                     ( rulesForWordClass.size() > 0 )
                 )
             {
-                LemmatizerRule[] wordClassRules =
-                    (LemmatizerRule[])rulesForWordClass.toArray(
-                        new LemmatizerRule[ rulesForWordClass.size() ] );
+                String newLemma =
+                    getCompiledRules( wordClass , rulesForWordClass ).apply(
+                        lemma , dictionary );
 
-                for ( int i = 0 ; i < wordClassRules.length ; i++ )
+                if ( !newLemma.equals( lemma ) )
                 {
-                    String newLemma =
-                        wordClassRules[ i ].apply( lemma , dictionary );
-
-                    if ( !newLemma.equals( lemma ) )
-                    {
-                        return cleanUpLemma( newLemma );
-                    }
+                    return cleanUpLemma( newLemma );
                 }
             }
         }
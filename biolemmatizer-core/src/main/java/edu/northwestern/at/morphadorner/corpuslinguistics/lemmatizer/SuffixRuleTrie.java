@@ -0,0 +1,934 @@
+package edu.northwestern.at.morphadorner.corpuslinguistics.lemmatizer;
+
+/*  Please see the license information at the end of this file. */
+
+import java.util.*;
+
+/** The lemmatizer rules for one word class compiled into a reversed
+ *  suffix trie.
+ *
+ *  <p>
+ *  Every {@link DefaultLemmatizerRule} pattern is a fixed width
+ *  sequence anchored at the end of the word, and nearly every pattern
+ *  ends in literal letters such as "ies" or "ing".  The literal tails
+ *  of all the rules are stored reversed in a trie, so one backward scan
+ *  of the word visits exactly the rules whose tail matches.  Those
+ *  candidates are tried in their original order, matching vowel and
+ *  consonant classes and back references directly against the word,
+ *  and the first rule which changes the word wins, just as when the
+ *  rules are applied one by one.
+ *  </p>
+ *
+ *  <p>
+ *  Rules using a construct the trie does not model, such as the "A"
+ *  wildcard, keep their regular expression and are tried in order
+ *  with the others.  Words containing line terminators or surrogate
+ *  characters, for which the regular expression "." and "$" behave
+ *  differently, are run through every rule's regular expression.
+ *  </p>
+ *
+ *  <p>
+ *  A SuffixRuleTrie is immutable and may be shared between threads.
+ *  </p>
+ */
+
+public class SuffixRuleTrie
+{
+    /** The rules in their original order. */
+
+    protected final LemmatizerRule[] rules;
+
+    /** Compiled rules.  Null entries apply the rule itself. */
+
+    protected final CompiledRule[] compiledRules;
+
+    /** Root of the trie of reversed literal rule tails. */
+
+    protected final Node root   = new Node();
+
+    /** Rule list the trie was built from, and its size at the time. */
+
+    protected final List<LemmatizerRule> sourceRules;
+    protected final int sourceRulesSize;
+
+    /** Create a suffix rule trie.
+     *
+     *  @param  rules   The rules for a word class, in the order
+     *                  in which they are to be tried.
+     */
+
+    public SuffixRuleTrie( List<LemmatizerRule> rules )
+    {
+        this.sourceRules        = rules;
+        this.sourceRulesSize    = rules.size();
+        this.rules              =
+            rules.toArray( new LemmatizerRule[ rules.size() ] );
+        this.compiledRules      = new CompiledRule[ this.rules.length ];
+
+        for ( int i = 0 ; i < this.rules.length ; i++ )
+        {
+            if ( this.rules[ i ] instanceof DefaultLemmatizerRule )
+            {
+                compiledRules[ i ]  =
+                    CompiledRule.compile
+                    (
+                        (DefaultLemmatizerRule)this.rules[ i ]
+                    );
+            }
+                                //  Rules without a literal tail
+                                //  hang off the root and are
+                                //  candidates for every word.
+
+            String tail =
+                ( compiledRules[ i ] == null ) ?
+                    "" : compiledRules[ i ].literalTail;
+
+            Node node   = root;
+
+            for ( int j = tail.length() - 1 ; j >= 0 ; j-- )
+            {
+                node    = node.addChild( tail.charAt( j ) );
+            }
+
+            node.addRule( i );
+        }
+    }
+
+    /** Check if the trie was built from a rule list.
+     *
+     *  @param  rules   The rule list.
+     *
+     *  @return         True if the trie was built from this list
+     *                  and the list has not changed size since.
+     */
+
+    public boolean isCompiledFrom( List<LemmatizerRule> rules )
+    {
+        return
+            ( rules == sourceRules ) &&
+            ( rules.size() == sourceRulesSize );
+    }
+
+    /** Apply the first rule which changes a string.
+     *
+     *  @param  s           String to which to apply the rules.
+     *  @param  dictionary  List of known words.  May be null.
+     *
+     *  @return             The string after the first rule which
+     *                      changes it has been applied, or the
+     *                      string itself if no rule changes it.
+     */
+
+    public String apply( String s , Set<String> dictionary )
+    {
+        if ( needsRegularExpressions( s ) )
+        {
+            return applyInOrder( s , dictionary );
+        }
+                                //  Collect the rules whose literal
+                                //  tail ends the word.
+
+        int[] candidates    = new int[ rules.length ];
+        int count           = root.copyRules( candidates , 0 );
+        Node node           = root;
+
+        for ( int i = s.length() - 1 ; i >= 0 ; i-- )
+        {
+            node    = node.getChild( s.charAt( i ) );
+
+            if ( node == null )
+            {
+                break;
+            }
+
+            count   = node.copyRules( candidates , count );
+        }
+                                //  Try them in rule order.
+
+        Arrays.sort( candidates , 0 , count );
+
+        for ( int i = 0 ; i < count ; i++ )
+        {
+            int ruleIndex   = candidates[ i ];
+            String result;
+
+            if ( compiledRules[ ruleIndex ] != null )
+            {
+                result  = compiledRules[ ruleIndex ].apply( s , dictionary );
+            }
+            else
+            {
+                result  = rules[ ruleIndex ].apply( s , dictionary );
+            }
+
+            if ( ( result != null ) && !result.equals( s ) )
+            {
+                return result;
+            }
+        }
+
+        return s;
+    }
+
+    /** Apply the rules one by one until one changes a string.
+     *
+     *  @param  s           String to which to apply the rules.
+     *  @param  dictionary  List of known words.  May be null.
+     *
+     *  @return             The string after the first rule which
+     *                      changes it has been applied, or the
+     *                      string itself if no rule changes it.
+     */
+
+    protected String applyInOrder( String s , Set<String> dictionary )
+    {
+        for ( int i = 0 ; i < rules.length ; i++ )
+        {
+            String result   = rules[ i ].apply( s , dictionary );
+
+            if ( !result.equals( s ) )
+            {
+                return result;
+            }
+        }
+
+        return s;
+    }
+
+    /** Check if a string must be matched with regular expressions.
+     *
+     *  @param  s   The string.
+     *
+     *  @return     True if the string contains a line terminator
+     *              or a surrogate character.
+     */
+
+    protected static boolean needsRegularExpressions( String s )
+    {
+        for ( int i = 0 ; i < s.length() ; i++ )
+        {
+            char ch = s.charAt( i );
+
+            switch ( ch )
+            {
+                case '\n'       :
+                case '\r'       :
+                case '\u0085'   :
+                case '\u2028'   :
+                case '\u2029'   :
+                    return true;
+
+                default         :
+                    if ( ( ch >= '\uD800' ) && ( ch <= '\uDFFF' ) )
+                    {
+                        return true;
+                    }
+            }
+        }
+
+        return false;
+    }
+
+    /** Check if a character belongs to the rule vowel class.
+     *
+     *  @param  ch  The character.
+     *
+     *  @return     True if the character is one of "aeiouy".
+     */
+
+    protected static boolean isVowel( char ch )
+    {
+        switch ( ch )
+        {
+            case 'a'    :
+            case 'e'    :
+            case 'i'    :
+            case 'o'    :
+            case 'u'    :
+            case 'y'    :
+                return true;
+
+            default     :
+                return false;
+        }
+    }
+
+    /** A trie node. */
+
+    protected static class Node
+    {
+        /** Characters leading to the child nodes. */
+
+        protected char[] keys           = new char[ 0 ];
+
+        /** Child nodes. */
+
+        protected Node[] children       = new Node[ 0 ];
+
+        /** Indices of the rules whose literal tail ends here. */
+
+        protected int[] ruleIndices     = new int[ 0 ];
+
+        /** Get the child node for a character.
+         *
+         *  @param  ch  The character.
+         *
+         *  @return     The child node, or null if none.
+         */
+
+        protected Node getChild( char ch )
+        {
+            for ( int i = 0 ; i < keys.length ; i++ )
+            {
+                if ( keys[ i ] == ch )
+                {
+                    return children[ i ];
+                }
+            }
+
+            return null;
+        }
+
+        /** Get or add the child node for a character.
+         *
+         *  @param  ch  The character.
+         *
+         *  @return     The child node.
+         */
+
+        protected Node addChild( char ch )
+        {
+            Node child  = getChild( ch );
+
+            if ( child == null )
+            {
+                child       = new Node();
+
+                keys        = Arrays.copyOf( keys , keys.length + 1 );
+                children    =
+                    Arrays.copyOf( children , children.length + 1 );
+
+                keys[ keys.length - 1 ]         = ch;
+                children[ children.length - 1 ] = child;
+            }
+
+            return child;
+        }
+
+        /** Add a rule index.
+         *
+         *  @param  ruleIndex   The rule index.
+         */
+
+        protected void addRule( int ruleIndex )
+        {
+            ruleIndices = Arrays.copyOf( ruleIndices , ruleIndices.length + 1 );
+            ruleIndices[ ruleIndices.length - 1 ]   = ruleIndex;
+        }
+
+        /** Copy the rule indices into an array.
+         *
+         *  @param  target  The target array.
+         *  @param  count   The number of entries already in the array.
+         *
+         *  @return         The number of entries after the copy.
+         */
+
+        protected int copyRules( int[] target , int count )
+        {
+            System.arraycopy
+            (
+                ruleIndices , 0 , target , count , ruleIndices.length
+            );
+
+            return count + ruleIndices.length;
+        }
+    }
+
+    /** A DefaultLemmatizerRule compiled into fixed width elements.
+     *
+     *  <p>
+     *  The pattern is a sequence of elements of known width, matched
+     *  at the end of the word, optionally preceded by the
+     *  "^(.{1,n})" group of a left anchored rule.  The replacement
+     *  is a sequence of literal text and group references.
+     *  </p>
+     */
+
+    protected static class CompiledRule
+    {
+        /** Element kinds. */
+
+        protected static final byte LITERAL         = 0;
+        protected static final byte VOWEL           = 1;
+        protected static final byte CONSONANT       = 2;
+        protected static final byte ANY             = 3;
+        protected static final byte BACKREFERENCE   = 4;
+
+        /** Start of a left anchored rule pattern. */
+
+        protected static final String LEFT_PREFIX   = "^(.{1,";
+
+        /** Element kinds, characters, referenced groups and offsets. */
+
+        protected byte[] kinds;
+        protected char[] characters;
+        protected int[] groups;
+        protected int[] offsets;
+
+        /** Number of elements and their total width. */
+
+        protected int elementCount;
+        protected int width;
+
+        /** Maximum prefix length of a left anchored rule, else 0. */
+
+        protected int maxPrefixLength;
+
+        /** Group start and end offsets, indexed by group number. */
+
+        protected int[] groupStarts;
+        protected int[] groupEnds;
+
+        /** Replacement literals, and groups where the literal is null. */
+
+        protected String[] replacementLiterals;
+        protected int[] replacementGroups;
+
+        /** Trailing literal characters of the pattern. */
+
+        protected String literalTail;
+
+        /** Must match dictionary entry. */
+
+        protected boolean mustMatchDictionaryEntry;
+
+        /** Compile a rule.
+         *
+         *  @param  rule    The rule.
+         *
+         *  @return         The compiled rule, or null if the rule
+         *                  uses a construct which cannot be compiled.
+         */
+
+        protected static CompiledRule compile( DefaultLemmatizerRule rule )
+        {
+            String source   = rule.source;
+
+            if  (   ( rule.compiledSource == null ) ||
+                    !source.endsWith( "$" )
+                )
+            {
+                return null;
+            }
+
+            CompiledRule compiled   = new CompiledRule();
+
+            int end             = source.length() - 1;
+            int pos             = 0;
+            int groupCount      = 0;
+            int openGroup       = -1;
+
+            compiled.kinds          = new byte[ end ];
+            compiled.characters     = new char[ end ];
+            compiled.groups         = new int[ end ];
+            compiled.offsets        = new int[ end ];
+            compiled.groupStarts    = new int[ end + 1 ];
+            compiled.groupEnds      = new int[ end + 1 ];
+
+            Arrays.fill( compiled.groupEnds , -1 );
+
+            compiled.mustMatchDictionaryEntry   =
+                rule.mustMatchDictionaryEntry;
+
+            if ( source.startsWith( LEFT_PREFIX ) )
+            {
+                int close   = source.indexOf( "})" , LEFT_PREFIX.length() );
+
+                if ( close < 0 )
+                {
+                    return null;
+                }
+
+                try
+                {
+                    compiled.maxPrefixLength    =
+                        Integer.parseInt
+                        (
+                            source.substring( LEFT_PREFIX.length() , close )
+                        );
+                }
+                catch ( NumberFormatException e )
+                {
+                    return null;
+                }
+
+                if ( compiled.maxPrefixLength < 1 )
+                {
+                    return null;
+                }
+                                //  Group 1 is the prefix, which has
+                                //  no fixed offsets.
+                groupCount  = 1;
+                pos         = close + 2;
+            }
+
+            while ( pos < end )
+            {
+                char ch = source.charAt( pos );
+
+                switch ( ch )
+                {
+                    case '('    :
+                        if ( openGroup >= 0 )
+                        {
+                            return null;
+                        }
+
+                        openGroup   = ++groupCount;
+
+                        compiled.groupStarts[ openGroup ]   = compiled.width;
+
+                        pos++;
+                        continue;
+
+                    case ')'    :
+                        if ( openGroup < 0 )
+                        {
+                            return null;
+                        }
+
+                        compiled.groupEnds[ openGroup ] = compiled.width;
+
+                        openGroup   = -1;
+                        pos++;
+                        break;
+
+                    case '['    :
+                        if ( source.startsWith( "[aeiouy]" , pos ) )
+                        {
+                            compiled.addElement( VOWEL , ' ' , 0 , 1 );
+                            pos += 8;
+                        }
+                        else if ( source.startsWith( "[^aeiouy]" , pos ) )
+                        {
+                            compiled.addElement( CONSONANT , ' ' , 0 , 1 );
+                            pos += 9;
+                        }
+                        else
+                        {
+                            return null;
+                        }
+
+                        break;
+
+                    case '.'    :
+                        compiled.addElement( ANY , ' ' , 0 , 1 );
+                        pos++;
+                        break;
+
+                    case '\\'   :
+                        if ( pos + 1 >= end )
+                        {
+                            return null;
+                        }
+
+                        char next   = source.charAt( pos + 1 );
+
+                        if ( ( next >= '1' ) && ( next <= '9' ) )
+                        {
+                                //  Further digits extend the group
+                                //  number only while such a group
+                                //  exists, as in java.util.regex.
+
+                            int group   = next - '0';
+
+                            pos += 2;
+
+                            while ( ( pos < end ) &&
+                                Character.isDigit( source.charAt( pos ) ) )
+                            {
+                                int longerGroup =
+                                    group * 10 +
+                                    ( source.charAt( pos ) - '0' );
+
+                                if ( longerGroup > groupCount )
+                                {
+                                    break;
+                                }
+
+                                group   = longerGroup;
+                                pos++;
+                            }
+
+                            if  (   ( group > groupCount ) ||
+                                    ( compiled.groupEnds[ group ] < 0 )
+                                )
+                            {
+                                return null;
+                            }
+
+                            compiled.addElement
+                            (
+                                BACKREFERENCE ,
+                                ' ' ,
+                                group ,
+                                compiled.groupEnds[ group ] -
+                                    compiled.groupStarts[ group ]
+                            );
+                        }
+                        else if ( !Character.isLetterOrDigit( next ) )
+                        {
+                            compiled.addElement( LITERAL , next , 0 , 1 );
+                            pos += 2;
+                        }
+                        else
+                        {
+                            return null;
+                        }
+
+                        break;
+
+                    default     :
+                        if ( "^$*+?{}[]|".indexOf( ch ) >= 0 )
+                        {
+                            return null;
+                        }
+
+                        compiled.addElement( LITERAL , ch , 0 , 1 );
+                        pos++;
+                }
+                                //  Quantified elements do not have
+                                //  a fixed width.
+
+                if  (   ( pos < end ) &&
+                        ( "*+?{".indexOf( source.charAt( pos ) ) >= 0 )
+                    )
+                {
+                    return null;
+                }
+            }
+
+            if ( openGroup >= 0 )
+            {
+                return null;
+            }
+
+            if ( !compiled.compileReplacement( rule.replacement , groupCount ) )
+            {
+                return null;
+            }
+
+            StringBuilder tail  = new StringBuilder();
+
+            for (   int i = compiled.elementCount - 1 ;
+                    ( i >= 0 ) && ( compiled.kinds[ i ] == LITERAL ) ;
+                    i-- )
+            {
+                tail.insert( 0 , compiled.characters[ i ] );
+            }
+
+            compiled.literalTail    = tail.toString();
+
+            return compiled;
+        }
+
+        /** Add an element.
+         *
+         *  @param  kind        The element kind.
+         *  @param  character   The literal character.
+         *  @param  group       The referenced group.
+         *  @param  width       The element width.
+         */
+
+        protected void addElement
+        (
+            byte kind ,
+            char character ,
+            int group ,
+            int width
+        )
+        {
+            kinds[ elementCount ]       = kind;
+            characters[ elementCount ]  = character;
+            groups[ elementCount ]      = group;
+            offsets[ elementCount ]     = this.width;
+
+            elementCount++;
+
+            this.width  += width;
+        }
+
+        /** Compile the replacement string.
+         *
+         *  @param  replacement     The replacement string.
+         *  @param  groupCount      The number of groups in the pattern.
+         *
+         *  @return                 True if the replacement is valid.
+         *
+         *  <p>
+         *  "\" quotes the next character and "$n" refers to group n,
+         *  following java.util.regex.Matcher.appendReplacement.
+         *  </p>
+         */
+
+        protected boolean compileReplacement
+        (
+            String replacement ,
+            int groupCount
+        )
+        {
+            List<String> literals   = new ArrayList<String>();
+            List<Integer> groups    = new ArrayList<Integer>();
+            StringBuilder literal   = new StringBuilder();
+
+            int length  = replacement.length();
+            int pos     = 0;
+
+            while ( pos < length )
+            {
+                char ch = replacement.charAt( pos++ );
+
+                if ( ch == '\\' )
+                {
+                    if ( pos == length )
+                    {
+                        return false;
+                    }
+
+                    literal.append( replacement.charAt( pos++ ) );
+                }
+                else if ( ch == '$' )
+                {
+                    if  (   ( pos == length ) ||
+                            !Character.isDigit( replacement.charAt( pos ) )
+                        )
+                    {
+                        return false;
+                    }
+
+                    int group   = replacement.charAt( pos++ ) - '0';
+
+                    while  (    ( pos < length ) &&
+                                Character.isDigit( replacement.charAt( pos ) )
+                           )
+                    {
+                        int longerGroup =
+                            group * 10 + ( replacement.charAt( pos ) - '0' );
+
+                        if ( longerGroup > groupCount )
+                        {
+                            break;
+                        }
+
+                        group   = longerGroup;
+                        pos++;
+                    }
+
+                    if ( group > groupCount )
+                    {
+                        return false;
+                    }
+
+                    if ( literal.length() > 0 )
+                    {
+                        literals.add( literal.toString() );
+                        groups.add( -1 );
+                        literal.setLength( 0 );
+                    }
+
+                    literals.add( null );
+                    groups.add( group );
+                }
+                else
+                {
+                    literal.append( ch );
+                }
+            }
+
+            if ( literal.length() > 0 )
+            {
+                literals.add( literal.toString() );
+                groups.add( -1 );
+            }
+
+            replacementLiterals = literals.toArray( new String[ literals.size() ] );
+            replacementGroups   = new int[ groups.size() ];
+
+            for ( int i = 0 ; i < replacementGroups.length ; i++ )
+            {
+                replacementGroups[ i ]  = groups.get( i );
+            }
+
+            return true;
+        }
+
+        /** Apply the rule to a string.
+         *
+         *  @param  s           String to which to apply the rule.
+         *  @param  dictionary  List of known words.  May be null.
+         *
+         *  @return             The string after the rule has been
+         *                      applied, or null if the rule does not
+         *                      match or the result is not in the
+         *                      dictionary when it must be.
+         */
+
+        protected String apply( String s , Set<String> dictionary )
+        {
+            int length  = s.length();
+            int start   = length - width;
+
+            if ( start < 0 )
+            {
+                return null;
+            }
+
+            if  (   ( maxPrefixLength > 0 ) &&
+                    ( ( start < 1 ) || ( start > maxPrefixLength ) )
+                )
+            {
+                return null;
+            }
+
+            for ( int i = 0 ; i < elementCount ; i++ )
+            {
+                int at  = start + offsets[ i ];
+
+                switch ( kinds[ i ] )
+                {
+                    case LITERAL        :
+                        if ( s.charAt( at ) != characters[ i ] )
+                        {
+                            return null;
+                        }
+
+                        break;
+
+                    case VOWEL          :
+                        if ( !isVowel( s.charAt( at ) ) )
+                        {
+                            return null;
+                        }
+
+                        break;
+
+                    case CONSONANT      :
+                        if ( isVowel( s.charAt( at ) ) )
+                        {
+                            return null;
+                        }
+
+                        break;
+
+                    case BACKREFERENCE  :
+                        int group   = groups[ i ];
+
+                        if  (   !s.regionMatches
+                                (
+                                    at ,
+                                    s ,
+                                    start + groupStarts[ group ] ,
+                                    groupEnds[ group ] - groupStarts[ group ]
+                                )
+                            )
+                        {
+                            return null;
+                        }
+
+                        break;
+
+                    default             :
+                }
+            }
+                                //  A left anchored match starts at
+                                //  the beginning of the string.
+
+            int matchStart  = ( maxPrefixLength > 0 ) ? 0 : start;
+
+            StringBuilder sb    = new StringBuilder( length + 8 );
+
+            sb.append( s , 0 , matchStart );
+
+            for ( int i = 0 ; i < replacementGroups.length ; i++ )
+            {
+                int group   = replacementGroups[ i ];
+
+                if ( group < 0 )
+                {
+                    sb.append( replacementLiterals[ i ] );
+                }
+                else if ( group == 0 )
+                {
+                    sb.append( s , matchStart , length );
+                }
+                else if ( ( group == 1 ) && ( maxPrefixLength > 0 ) )
+                {
+                    sb.append( s , 0 , start );
+                }
+                else
+                {
+                    sb.append
+                    (
+                        s ,
+                        start + groupStarts[ group ] ,
+                        start + groupEnds[ group ]
+                    );
+                }
+            }
+
+            String result   = sb.toString();
+
+            if ( mustMatchDictionaryEntry && ( dictionary != null ) )
+            {
+                if ( !LemmaDictionary.containsLowerCase( dictionary , result ) )
+                {
+                    return null;
+                }
+            }
+
+            return result;
+        }
+    }
+}
+
+/*
+Copyright (c) 2008, 2013 by Northwestern University.
+All rights reserved.
+
+Developed by:
+   Academic and Research Technologies
+   Northwestern University
+   http://www.it.northwestern.edu/about/departments/at/
+
+Permission is hereby granted, free of charge, to any person
+obtaining a copy of this software and associated documentation
+files (the "Software"), to deal with the Software without
+restriction, including without limitation the rights to use,
+copy, modify, merge, publish, distribute, sublicense, and/or
+sell copies of the Software, and to permit persons to whom the
+Software is furnished to do so, subject to the following
+conditions:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimers.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimers in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the names of Academic and Research Technologies,
+      Northwestern University, nor the names of its contributors may be
+      used to endorse or promote products derived from this Software
+      without specific prior written permission.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+NONINFRINGEMENT. IN NO EVENT SHALL THE CONTRIBUTORS OR
+COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*/
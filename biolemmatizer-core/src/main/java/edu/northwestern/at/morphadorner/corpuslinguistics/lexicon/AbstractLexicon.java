@@ -3,6 +3,7 @@ package edu.northwestern.at.morphadorner.corpuslinguistics.lexicon;
 /*  Please see the license information at the end of this file. */
 
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.zip.*;
 import java.io.*;
 import java.net.URL;
@@ -94,6 +95,22 @@ abstract public class AbstractLexicon
 
     protected Logger logger;
 
+    /** Number of threads which load a lexicon. */
+
+    protected int loadThreads       = 1;
+
+    /** Number of lines parsed together by one load thread. */
+
+    protected int loadChunkSize     = DEFAULT_LOAD_CHUNK_SIZE;
+
+    /** Default number of lines parsed together by one load thread. */
+
+    public static final int DEFAULT_LOAD_CHUNK_SIZE = 8192;
+
+    /** Number of malformed lines found by the last load. */
+
+    protected int malformedLineCount;
+
     /** Create an empty lexicon.
      */
 
@@ -145,13 +162,31 @@ abstract public class AbstractLexicon
      */
 
     protected void updateCategoryCount( String category , int count )
+    {
+        updateCategoryCount( categoryCountsMap , category , count );
+    }
+
+    /** Add or update a category counts map.
+     *
+     *  @param  categoryCounts  The category counts map.
+     *  @param  category        Category for which to add/update count.
+     *  @param  count           Category count to add to entry.
+     *                          May be negative.
+     */
+
+    protected static void updateCategoryCount
+    (
+        Map<String, MutableInteger> categoryCounts ,
+        String category ,
+        int count
+    )
     {
         MutableInteger currentCount =
-            categoryCountsMap.get( category );
+            categoryCounts.get( category );
 
         if ( ( currentCount == null ) && ( count > 0 ) )
         {
-            categoryCountsMap.put( category , new MutableInteger( count ) );
+            categoryCounts.put( category , new MutableInteger( count ) );
         }
         else
         {
@@ -159,7 +194,7 @@ abstract public class AbstractLexicon
 
             if ( currentCount.intValue() <= 0 )
             {
-                categoryCountsMap.remove( category );
+                categoryCounts.remove( category );
             }
         }
     }
@@ -339,6 +374,19 @@ abstract public class AbstractLexicon
      *  @param  lexiconURL  URL for the file containing the lexicon.
      *  @param  compressed  true if lexicon is gzip compressed.
      *  @param  encoding    Character encoding of lexicon file text.
+     *
+     *  <p>
+     *  Lines with fewer than four fields, and lines whose category
+     *  fields cannot be parsed, are malformed.  The former are skipped,
+     *  the categories of the latter are added up to the first bad one.
+     *  The number of malformed lines is logged as a warning, and is
+     *  available from {@link #getMalformedLineCount}.
+     *  </p>
+     *
+     *  <p>
+     *  If more than one load thread is set, see {@link #setLoadThreads},
+     *  the lexicon is loaded in parallel, with the same result.
+     *  </p>
      */
 
     public void loadLexicon
@@ -349,7 +397,6 @@ abstract public class AbstractLexicon
     )
         throws IOException
     {
-        String line;
                                 //  Open lexicon for input.
 
         BufferedReader lexiconReader;
@@ -378,151 +425,545 @@ abstract public class AbstractLexicon
                         encoding ) );
         }
 
-        String[] tokens;
-        String entry;
-        String sCount;
-        String lemma;
-        int count;
-        List categories;
-        String category;
-        int categoryCount;
-        boolean wordFound;
         longestEntryLength  = 0;
         shortestEntryLength = 99999;
+        malformedLineCount  = 0;
 
         uniqueEntryCountForCategoryMap.clear();
 
-                                //  Read first line of lexicon.
+        try
+        {
+            if ( loadThreads > 1 )
+            {
+                loadLexiconInParallel( lexiconReader );
+            }
+            else
+            {
+                                //  Process each line of the lexicon
+                                //  directly into the lexicon maps.
+
+                LexiconChunk chunk  =
+                    new LexiconChunk( lexiconMap , categoryCountsMap );
+
+                String line = lexiconReader.readLine();
+
+                while ( line != null )
+                {
+                    loadLexiconLine( line , chunk );
+
+                    line    = lexiconReader.readLine();
+                }
+
+                addChunkStatistics( chunk );
+            }
+        }
+        finally
+        {
+                                //  Close lexicon source.
+            try
+            {
+                lexiconReader.close();
+            }
+            catch ( IOException e )
+            {
+            }
+        }
+
+        if ( malformedLineCount > 0 )
+        {
+            logger.logWarning
+            (
+                malformedLineCount + " malformed lines in lexicon " +
+                lexiconURL
+            );
+        }
+                                //  Compute number of lexicon entries
+                                //  for each category.
+
+        computeUniqueEntryCountsForCategories();
+    }
+
+    /** Load the lines of a lexicon in parallel.
+     *
+     *  @param  lexiconReader   Reader of the lexicon.
+     *
+     *  @throws IOException
+     *
+     *  <p>
+     *  The lines are read in chunks of {@link #getLoadChunkSize} lines,
+     *  which are parsed into partial maps by the load threads.  The
+     *  partial maps are merged into the lexicon in line order, so the
+     *  entries and categories are added to the lexicon maps in the same
+     *  order as by a sequential load.  The lines of an entry which is
+     *  already in the lexicon are replayed onto the lexicon entry, so
+     *  that its lemmata and largest category are determined as if the
+     *  lines had been loaded one after the other.  Once a line with a
+     *  category count which is not positive is found, the effect of
+     *  which depends on the counts before it, the remaining chunks are
+     *  replayed line by line.
+     *  </p>
+     */
+
+    protected void loadLexiconInParallel( BufferedReader lexiconReader )
+        throws IOException
+    {
+        ExecutorService executor    =
+            Executors.newFixedThreadPool( loadThreads );
+
+        Queue<Future<LexiconChunk>> pendingChunks   =
+            new LinkedList<Future<LexiconChunk>>();
 
-        line    = lexiconReader.readLine();
+        boolean replay  = false;
 
-                                //  Process each line of the lexicon.
+        try
+        {
+            List<String> lines;
+
+            while ( !( lines = readLines( lexiconReader ) ).isEmpty() )
+            {
+                pendingChunks.add
+                (
+                    executor.submit( new LexiconChunk( lines ) )
+                );
+                                //  Merge the oldest chunk before
+                                //  reading further, so that only a few
+                                //  chunks are held in memory.
+
+                if ( pendingChunks.size() >= 2 * loadThreads )
+                {
+                    replay  =
+                        mergeChunk( getChunk( pendingChunks.remove() ) ,
+                            replay );
+                }
+            }
+
+            while ( !pendingChunks.isEmpty() )
+            {
+                replay  =
+                    mergeChunk( getChunk( pendingChunks.remove() ) ,
+                        replay );
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    /** Read the lines of a chunk.
+     *
+     *  @param  lexiconReader   Reader of the lexicon.
+     *
+     *  @return                 Up to {@link #getLoadChunkSize} lines;
+     *                          empty at the end of the lexicon.
+     *
+     *  @throws IOException
+     */
+
+    protected List<String> readLines( BufferedReader lexiconReader )
+        throws IOException
+    {
+        List<String> lines  = new ArrayList<String>( loadChunkSize );
+        String line;
+
+        while   (   ( lines.size() < loadChunkSize ) &&
+                    ( ( line = lexiconReader.readLine() ) != null )
+                )
+        {
+            lines.add( line );
+        }
+
+        return lines;
+    }
+
+    /** Wait for a chunk to be parsed.
+     *
+     *  @param  future  The parse of the chunk.
+     *
+     *  @return         The parsed chunk.
+     *
+     *  @throws IOException if interrupted.
+     */
+
+    protected static LexiconChunk getChunk( Future<LexiconChunk> future )
+        throws IOException
+    {
+        try
+        {
+            return future.get();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+
+            throw new InterruptedIOException(
+                "Interrupted while loading lexicon" );
+        }
+        catch ( ExecutionException e )
+        {
+            if ( e.getCause() instanceof RuntimeException )
+            {
+                throw (RuntimeException)e.getCause();
+            }
+
+            throw new RuntimeException( e.getCause() );
+        }
+    }
+
+    /** Merge a parsed chunk into the lexicon.
+     *
+     *  @param  chunk   The chunk.  All chunks before it must have been
+     *                  merged.
+     *  @param  replay  True to replay the lines of the chunk one by one.
+     *
+     *  @return         True if the lines of the following chunks
+     *                  must be replayed one by one.
+     */
+
+    protected boolean mergeChunk( LexiconChunk chunk , boolean replay )
+    {
+        if ( replay || chunk.orderSensitive )
+        {
+            LexiconChunk target =
+                new LexiconChunk( lexiconMap , categoryCountsMap );
+
+            for ( String line : chunk.lines )
+            {
+                loadLexiconLine( line , target );
+            }
+
+            addChunkStatistics( target );
+
+            return true;
+        }
+                                //  Add the entries which are new to
+                                //  the lexicon, remember the others.
+
+        Set<String> replayedEntries = new HashSet<String>();
+
+        for ( Map.Entry<String, LexiconEntry> entry :
+            chunk.entries.entrySet() )
+        {
+            if ( lexiconMap.containsKey( entry.getKey() ) )
+            {
+                replayedEntries.add( entry.getKey() );
+            }
+            else
+            {
+                lexiconMap.put( entry.getKey() , entry.getValue() );
+            }
+        }
+                                //  Add the category counts.
+
+        for ( Map.Entry<String, MutableInteger> categoryCount :
+            chunk.categoryCounts.entrySet() )
+        {
+            updateCategoryCount
+            (
+                categoryCountsMap ,
+                categoryCount.getKey() ,
+                categoryCount.getValue().intValue()
+            );
+        }
+                                //  Replay the lines of the entries
+                                //  which were in the lexicon onto their
+                                //  lexicon entries.  Their category
+                                //  counts have been added already.
 
-        while ( line != null )
+        if ( !replayedEntries.isEmpty() )
         {
+            LexiconChunk target =
+                new LexiconChunk
+                (
+                    lexiconMap ,
+                    MapFactory.<String, MutableInteger>createNewMap()
+                );
+
+            for ( String line : chunk.lines )
+            {
+                int tab         = line.indexOf( '\t' );
+
+                String entry    =
+                    ( tab < 0 ) ? line : line.substring( 0 , tab );
+
+                if ( replayedEntries.contains( entry ) )
+                {
+                    loadLexiconLine( line , target );
+                }
+            }
+        }
+
+        addChunkStatistics( chunk );
+
+        return false;
+    }
+
+    /** Add the entry lengths and malformed lines of a chunk.
+     *
+     *  @param  chunk   The chunk.
+     */
+
+    protected void addChunkStatistics( LexiconChunk chunk )
+    {
+        longestEntryLength  =
+            Math.max( longestEntryLength , chunk.longestEntryLength );
+
+        shortestEntryLength =
+            Math.min( shortestEntryLength , chunk.shortestEntryLength );
+
+        malformedLineCount  += chunk.malformedLineCount;
+    }
+
+    /** Load a line of a lexicon.
+     *
+     *  @param  line    The line.
+     *  @param  chunk   The chunk into whose maps the line is loaded.
+     */
+
+    protected static void loadLexiconLine( String line , LexiconChunk chunk )
+    {
                                 //  Tokenizer to extract entry and
                                 //  categories from the lexicon.
 
-            tokens  = line.split( "\t" );
+        String[] tokens = line.split( "\t" );
 
-            if ( tokens.length > 3 )
+        if ( tokens.length <= 3 )
+        {
+            if ( line.trim().length() > 0 )
             {
+                chunk.malformedLineCount++;
+            }
+
+            return;
+        }
                                 //  The entry is the first token
                                 //  in the input line.
 
-                entry   = tokens[ 0 ];
-//              entry   = entry.toLowerCase();
+        String entry    = tokens[ 0 ];
+//      entry   = entry.toLowerCase();
 
                                 //  The count for the entry is the
                                 //  second token.
 
-                count   = Integer.parseInt( tokens[ 1 ] );
+        int count       = Integer.parseInt( tokens[ 1 ] );
 
                                 //  Remember longest and shortest entries
                                 //  seen so far.
 
-                longestEntryLength  =
-                    Math.max( longestEntryLength , entry.length() );
+        chunk.longestEntryLength    =
+            Math.max( chunk.longestEntryLength , entry.length() );
 
-                shortestEntryLength =
-                    Math.min( shortestEntryLength , entry.length() );
+        chunk.shortestEntryLength   =
+            Math.min( chunk.shortestEntryLength , entry.length() );
 
                                 //  Get the existing lexicon entry,
                                 //  if any.
 
-                LexiconEntry lexiconEntry   = lexiconMap.get( entry );
+        LexiconEntry lexiconEntry   = chunk.entries.get( entry );
 
                                 //  If none, create a new entry.
 
-                if ( lexiconEntry == null )
-                {
-                    Map<String, MutableInteger> categoriesAndCounts =
-                        MapFactory.createNewMap();
-
-                    Map<String, String> lemmata = MapFactory.createNewMap();
-
-                    lexiconEntry    =
-                        new LexiconEntry
-                        (
-                            entry ,
-                            entry ,
-                            0 ,
-                            categoriesAndCounts ,
-                            lemmata
-                        );
-                }
+        if ( lexiconEntry == null )
+        {
+            Map<String, MutableInteger> categoriesAndCounts =
+                MapFactory.createNewMap();
+
+            Map<String, String> lemmata = MapFactory.createNewMap();
+
+            lexiconEntry    =
+                new LexiconEntry
+                (
+                    entry ,
+                    entry ,
+                    0 ,
+                    categoriesAndCounts ,
+                    lemmata
+                );
+        }
                                 //  Update total count for entry.
 
-                lexiconEntry.entryCount += count;
+        lexiconEntry.entryCount += count;
 
                                 //  The remaining tokens on the input
                                 //  line are (category , category count )
                                 //  pairs.
-                try
-                {
-                    for ( int i = 2 ; i < tokens.length ; i = i + 3 )
-                    {
+        try
+        {
+            for ( int i = 2 ; i < tokens.length ; i = i + 3 )
+            {
                                 //  Get next category.
 
-                        category    = tokens[ i ];
+                String category = tokens[ i ];
 
                                 //  Get lemma for this category.
 
-                        lemma       = tokens[ i + 1 ];
+                String lemma    = tokens[ i + 1 ];
 
                                 //  Get category count.
 
-                        count       = Integer.parseInt( tokens[ i + 2 ] );
+                count           = Integer.parseInt( tokens[ i + 2 ] );
+
+                                //  Counts which are not positive
+                                //  may remove categories.
 
+                if ( count <= 0 )
+                {
+                    chunk.orderSensitive    = true;
+                }
                                 //  Update category and count map.
 
-                        lexiconEntry.updateCategoryAndCount(
-                            category , count );
+                lexiconEntry.updateCategoryAndCount( category , count );
 
                                 //  Update lemma.
 
-                        lexiconEntry.updateLemma( category , lemma );
+                lexiconEntry.updateLemma( category , lemma );
 
                                 //  Update overall category count.
 
-                        updateCategoryCount( category , count );
-                    }
-                }
-                catch ( Exception e )
-                {
-/*
-//                  e.printStackTrace();
-                    System.out.println( "----------" );
-                    System.out.println( "Bad lexicon entry: line=<" +
-                        line + ">" );
-                    System.out.println( "----------" );
-*/
-                }
+                updateCategoryCount( chunk.categoryCounts , category , count );
+            }
+        }
+        catch ( Exception e )
+        {
+            chunk.malformedLineCount++;
+        }
                                 //  Determine largest category for entry.
 
-                lexiconEntry.determineLargestCategory();
+        lexiconEntry.determineLargestCategory();
 
                                 //  Add new or updated lexicon entry
                                 //  to the lexicon map.
 
-                lexiconMap.put( entry , lexiconEntry );
-            }
-                                //  Read next line from lexicon.
+        chunk.entries.put( entry , lexiconEntry );
+    }
+
+    /** Lexicon lines and the partial maps into which they are loaded.
+     */
+
+    protected static class LexiconChunk implements Callable<LexiconChunk>
+    {
+        /** The lines, null when loading directly into a lexicon. */
 
-            line = lexiconReader.readLine();
+        protected List<String> lines;
+
+        /** Lexicon entries of the lines, in order of first appearance. */
+
+        protected Map<String, LexiconEntry> entries;
+
+        /** Category counts of the lines, in order of first appearance. */
+
+        protected Map<String, MutableInteger> categoryCounts;
+
+        /** Length of the longest entry. */
+
+        protected int longestEntryLength    = 0;
+
+        /** Length of the shortest entry. */
+
+        protected int shortestEntryLength   = 99999;
+
+        /** Number of malformed lines. */
+
+        protected int malformedLineCount    = 0;
+
+        /** True if a category count is not positive. */
+
+        protected boolean orderSensitive    = false;
+
+        /** Create a chunk of lines to parse into partial maps.
+         *
+         *  @param  lines   The lines.
+         */
+
+        public LexiconChunk( List<String> lines )
+        {
+            this.lines          = lines;
+            this.entries        = new LinkedHashMap<String, LexiconEntry>();
+            this.categoryCounts =
+                new LinkedHashMap<String, MutableInteger>();
         }
-                                //  Close lexicon source.
-        try
+
+        /** Create a chunk which loads lines into given maps.
+         *
+         *  @param  entries         The lexicon entries map.
+         *  @param  categoryCounts  The category counts map.
+         */
+
+        public LexiconChunk
+        (
+            Map<String, LexiconEntry> entries ,
+            Map<String, MutableInteger> categoryCounts
+        )
         {
-            if ( lexiconReader != null ) lexiconReader.close();
+            this.entries        = entries;
+            this.categoryCounts = categoryCounts;
         }
-        catch ( IOException e )
+
+        /** Parse the lines.
+         *
+         *  @return     This chunk.
+         */
+
+        public LexiconChunk call()
         {
+            for ( String line : lines )
+            {
+                loadLexiconLine( line , this );
+            }
+
+            return this;
         }
-                                //  Compute number of lexicon entries
-                                //  for each category.
+    }
 
-        computeUniqueEntryCountsForCategories();
+    /** Get the number of threads which load a lexicon.
+     *
+     *  @return     The number of threads.
+     */
+
+    public int getLoadThreads()
+    {
+        return loadThreads;
+    }
+
+    /** Set the number of threads which load a lexicon.
+     *
+     *  @param  loadThreads     The number of threads.  1, the default,
+     *                          loads the lexicon sequentially.
+     */
+
+    public void setLoadThreads( int loadThreads )
+    {
+        this.loadThreads    = Math.max( 1 , loadThreads );
+    }
+
+    /** Get the number of lines parsed together by one load thread.
+     *
+     *  @return     The number of lines.
+     */
+
+    public int getLoadChunkSize()
+    {
+        return loadChunkSize;
+    }
+
+    /** Set the number of lines parsed together by one load thread.
+     *
+     *  @param  loadChunkSize   The number of lines.
+     */
+
+    public void setLoadChunkSize( int loadChunkSize )
+    {
+        this.loadChunkSize  = Math.max( 1 , loadChunkSize );
+    }
+
+    /** Get the number of malformed lines found by the last load.
+     *
+     *  @return     The number of malformed lines.
+     */
+
+    public int getMalformedLineCount()
+    {
+        return malformedLineCount;
     }
 
     /** Compute number of lexicon entries for each category.
@@ -958,6 +1399,35 @@ abstract public class AbstractLexicon
         return result;
     }
 
+    /** Get the lemmata of all entries.
+     *
+     *  @return     The lemmata of all entries, in no particular order.
+     *              A lemma may appear more than once.
+     */
+
+    public String[] getAllLemmata()
+    {
+        String[] result = new String[ lexiconMap.size() + 16 ];
+        int count       = 0;
+
+        for ( LexiconEntry lexiconEntry : lexiconMap.values() )
+        {
+            for ( String lemma : lexiconEntry.lemmata.values() )
+            {
+                if ( lemma == null ) continue;
+
+                if ( count == result.length )
+                {
+                    result  = Arrays.copyOf( result , count + ( count >> 1 ) );
+                }
+
+                result[ count++ ]   = lemma;
+            }
+        }
+
+        return Arrays.copyOf( result , count );
+    }
+
     /** Get lemma for an entry in a specific category.
      *
      *  @param  entry       Entry to look up.
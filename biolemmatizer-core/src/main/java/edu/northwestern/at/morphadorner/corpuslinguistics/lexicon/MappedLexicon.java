@@ -0,0 +1,1588 @@
+package edu.northwestern.at.morphadorner.corpuslinguistics.lexicon;
+
+/*  Please see the license information at the end of this file. */
+
+import java.util.*;
+import java.io.*;
+import java.net.URL;
+import java.nio.*;
+import java.nio.channels.*;
+
+import edu.northwestern.at.utils.*;
+import edu.northwestern.at.morphadorner.corpuslinguistics.outputter.*;
+import edu.northwestern.at.morphadorner.corpuslinguistics.partsofspeech.*;
+
+/** MappedLexicon: read-only lexicon backed by a memory-mapped file.
+ *
+ *  <p>
+ *  The lexicon data stays outside the Java heap.  Spellings are
+ *  stored as a sorted table of UTF-16 strings which is binary
+ *  searched without creating any objects, and the categories,
+ *  counts and lemmata of each entry are packed int arrays indexing
+ *  the same string table.  Since the file is mapped read-only,
+ *  processes mapping the same file share its pages through the
+ *  operating system's page cache.
+ *  </p>
+ *
+ *  <p>
+ *  The LexiconEntry objects returned by {@link #getLexiconEntry}
+ *  are created on each call, and their category and lemmata maps
+ *  are read-only views of the mapped data.  Frequent lookups should
+ *  use {@link #getEntryIndex}, {@link #getCategoryIndex} and
+ *  {@link #getLemma(int, int)} instead, which create no objects
+ *  except the lemma found.  All methods which modify
+ *  the lexicon throw UnsupportedOperationException.  A mapped lexicon
+ *  file is created from any other lexicon by {@link #write}.
+ *  </p>
+ *
+ *  <p>
+ *  The file consists of a header of nine ints (magic number,
+ *  version, number of entries, categories, strings, entry categories
+ *  and string characters, and the longest and shortest entry
+ *  lengths), followed by the int arrays and the string characters.
+ *  The first strings are the entries, in ascending order.
+ *  </p>
+ *
+ *  <p>
+ *  All lookups use absolute reads of the mapped buffer, so a
+ *  mapped lexicon may be shared by any number of threads.
+ *  </p>
+ */
+
+public class MappedLexicon
+    extends IsCloseableObject
+    implements Lexicon
+{
+    /** First four bytes of a mapped lexicon file: "BLML". */
+
+    public static final int MAGIC   = 0x424C4D4C;
+
+    /** Version of the file format. */
+
+    public static final int VERSION = 1;
+
+    /** Number of ints in the file header. */
+
+    protected static final int HEADER_SIZE  = 9;
+
+    /** Number of entries. */
+
+    protected final int entryCount;
+
+    /** Number of categories. */
+
+    protected final int categoryCount;
+
+    /** Length of the longest entry. */
+
+    protected final int longestEntryLength;
+
+    /** Length of the shortest entry. */
+
+    protected final int shortestEntryLength;
+
+    /** Start of each string in the string characters,
+     *  followed by the end of the last string.
+     */
+
+    protected final IntBuffer stringStarts;
+
+    /** Lexicon-wide count of each category. */
+
+    protected final IntBuffer categoryCounts;
+
+    /** Number of entries with each category. */
+
+    protected final IntBuffer uniqueEntryCounts;
+
+    /** Count of each entry. */
+
+    protected final IntBuffer entryCounts;
+
+    /** First entry category of each entry, followed by the
+     *  number of entry categories.
+     */
+
+    protected final IntBuffer entryCategoryStarts;
+
+    /** Largest category of each entry, -1 if none. */
+
+    protected final IntBuffer largestCategories;
+
+    /** Count of the largest category of each entry. */
+
+    protected final IntBuffer largestCategoryCounts;
+
+    /** Category of each entry category. */
+
+    protected final IntBuffer entryCategories;
+
+    /** Count of each entry category.
+     *
+     *  <p>
+     *  0 for a category which only has a lemma.
+     *  </p>
+     */
+
+    protected final IntBuffer entryCategoryCounts;
+
+    /** Lemma string of each entry category, -1 if none. */
+
+    protected final IntBuffer entryCategoryLemmata;
+
+    /** The string characters. */
+
+    protected final CharBuffer stringChars;
+
+    /** The categories.  These are few enough to keep on the heap. */
+
+    protected final String[] categories;
+
+    /** Map from categories to category indices. */
+
+    protected final Map<String, Integer> categoryIndices;
+
+    /** Part of Speech tag set used by lexicon. */
+
+    protected PartOfSpeechTags partOfSpeechTags;
+
+    /** Map a lexicon file.
+     *
+     *  @param  lexiconFile     The mapped lexicon file.
+     *
+     *  @throws IOException     If the file cannot be mapped or
+     *                          is not a mapped lexicon file.
+     */
+
+    public MappedLexicon( File lexiconFile )
+        throws IOException
+    {
+        ByteBuffer buffer;
+
+        RandomAccessFile file   = new RandomAccessFile( lexiconFile , "r" );
+
+        try
+        {
+            FileChannel channel = file.getChannel();
+
+            if ( channel.size() > Integer.MAX_VALUE )
+            {
+                throw new IOException
+                (
+                    "Mapped lexicon file too large: " + lexiconFile
+                );
+            }
+
+            buffer  =
+                channel.map( FileChannel.MapMode.READ_ONLY , 0 ,
+                    channel.size() );
+        }
+        finally
+        {
+                                //  The mapping remains valid
+                                //  after the file is closed.
+            file.close();
+        }
+
+        if ( ( buffer.limit() < 4 * HEADER_SIZE ) ||
+            ( buffer.getInt( 0 ) != MAGIC ) )
+        {
+            throw new IOException
+            (
+                "Not a mapped lexicon file: " + lexiconFile
+            );
+        }
+
+        if ( buffer.getInt( 4 ) != VERSION )
+        {
+            throw new IOException
+            (
+                "Unsupported mapped lexicon version " +
+                buffer.getInt( 4 ) + ": " + lexiconFile
+            );
+        }
+
+        entryCount              = buffer.getInt( 8 );
+        categoryCount           = buffer.getInt( 12 );
+        int stringCount         = buffer.getInt( 16 );
+        int entryCategoryCount  = buffer.getInt( 20 );
+        int charCount           = buffer.getInt( 24 );
+        longestEntryLength      = buffer.getInt( 28 );
+        shortestEntryLength     = buffer.getInt( 32 );
+
+        long size   =
+            4L * ( HEADER_SIZE + ( stringCount + 1 ) + 2 * categoryCount +
+            4 * entryCount + 1 + 3 * entryCategoryCount ) + 2L * charCount;
+
+        if ( size != buffer.limit() )
+        {
+            throw new IOException
+            (
+                "Truncated mapped lexicon file: " + lexiconFile
+            );
+        }
+                                //  Slice the int arrays and the
+                                //  string characters.
+        int offset  = 4 * HEADER_SIZE;
+
+        stringStarts            =
+            intSection( buffer , offset , stringCount + 1 );
+        offset                  += 4 * ( stringCount + 1 );
+        categoryCounts          =
+            intSection( buffer , offset , categoryCount );
+        offset                  += 4 * categoryCount;
+        uniqueEntryCounts       =
+            intSection( buffer , offset , categoryCount );
+        offset                  += 4 * categoryCount;
+        entryCounts             = intSection( buffer , offset , entryCount );
+        offset                  += 4 * entryCount;
+        entryCategoryStarts     =
+            intSection( buffer , offset , entryCount + 1 );
+        offset                  += 4 * ( entryCount + 1 );
+        largestCategories       = intSection( buffer , offset , entryCount );
+        offset                  += 4 * entryCount;
+        largestCategoryCounts   = intSection( buffer , offset , entryCount );
+        offset                  += 4 * entryCount;
+        entryCategories         =
+            intSection( buffer , offset , entryCategoryCount );
+        offset                  += 4 * entryCategoryCount;
+        entryCategoryCounts     =
+            intSection( buffer , offset , entryCategoryCount );
+        offset                  += 4 * entryCategoryCount;
+        entryCategoryLemmata    =
+            intSection( buffer , offset , entryCategoryCount );
+        offset                  += 4 * entryCategoryCount;
+
+        ByteBuffer charSection  = buffer.duplicate();
+        charSection.position( offset );
+        stringChars             = charSection.slice().asCharBuffer();
+                                //  Categories follow the entries
+                                //  in the string table.
+        categories      = new String[ categoryCount ];
+        categoryIndices = new HashMap<String, Integer>();
+
+        for ( int i = 0 ; i < categoryCount ; i++ )
+        {
+            categories[ i ] = getString( entryCount + i );
+            categoryIndices.put( categories[ i ] , i );
+        }
+
+        partOfSpeechTags    = new DefaultPartOfSpeechTags();
+    }
+
+    /** Get a view of an int array in a buffer.
+     *
+     *  @param  buffer  The buffer.
+     *  @param  offset  Byte offset of the array.
+     *  @param  length  Number of ints in the array.
+     *
+     *  @return         The int array.
+     */
+
+    protected static IntBuffer intSection
+    (
+        ByteBuffer buffer ,
+        int offset ,
+        int length
+    )
+    {
+        ByteBuffer section  = buffer.duplicate();
+
+        section.position( offset );
+        section.limit( offset + 4 * length );
+
+        return section.slice().asIntBuffer();
+    }
+
+    /** Check if a file is a mapped lexicon file.
+     *
+     *  @param  file    The file.
+     *
+     *  @return         true if the file starts with the mapped
+     *                  lexicon magic number.
+     */
+
+    public static boolean isMappedLexicon( File file )
+        throws IOException
+    {
+        if ( file.length() < 4 ) return false;
+
+        DataInputStream input   =
+            new DataInputStream( new FileInputStream( file ) );
+
+        try
+        {
+            return ( input.readInt() == MAGIC );
+        }
+        finally
+        {
+            input.close();
+        }
+    }
+
+    /** Write a lexicon to a mapped lexicon file.
+     *
+     *  @param  lexicon     The lexicon.
+     *  @param  file        The mapped lexicon file.
+     */
+
+    public static void write( Lexicon lexicon , File file )
+        throws IOException
+    {
+                                //  Entries come first in the
+                                //  string table, sorted.
+        String[] entries    = lexicon.getEntries();
+
+        List<String> strings            = new ArrayList<String>();
+        Map<String, Integer> stringIds  = new HashMap<String, Integer>();
+
+        for ( String entry : entries )
+        {
+            stringIds.put( entry , strings.size() );
+            strings.add( entry );
+        }
+                                //  Collect the categories.
+        Set<String> categorySet =
+            new TreeSet<String>( Arrays.asList( lexicon.getCategories() ) );
+
+        LexiconEntry[] lexiconEntries   = new LexiconEntry[ entries.length ];
+        int entryCategoryCount          = 0;
+
+        for ( int i = 0 ; i < entries.length ; i++ )
+        {
+            lexiconEntries[ i ] = lexicon.getLexiconEntry( entries[ i ] );
+
+            categorySet.addAll
+            (
+                lexiconEntries[ i ].categoriesAndCounts.keySet()
+            );
+
+            categorySet.addAll( lexiconEntries[ i ].lemmata.keySet() );
+
+            entryCategoryCount  +=
+                entryCategoriesOf( lexiconEntries[ i ] ).size();
+        }
+
+        String[] categories = categorySet.toArray( new String[ 0 ] );
+
+        Map<String, Integer> categoryIndices    =
+            new HashMap<String, Integer>();
+
+        for ( int i = 0 ; i < categories.length ; i++ )
+        {
+            categoryIndices.put( categories[ i ] , i );
+            strings.add( categories[ i ] );
+        }
+                                //  Pack the entry categories.
+        int[] categoryCounts        = new int[ categories.length ];
+        int[] uniqueEntryCounts     = new int[ categories.length ];
+        int[] entryCounts           = new int[ entries.length ];
+        int[] entryCategoryStarts   = new int[ entries.length + 1 ];
+        int[] largestCategories     = new int[ entries.length ];
+        int[] largestCategoryCounts = new int[ entries.length ];
+        int[] entryCategories       = new int[ entryCategoryCount ];
+        int[] entryCategoryCounts   = new int[ entryCategoryCount ];
+        int[] entryCategoryLemmata  = new int[ entryCategoryCount ];
+
+        for ( int i = 0 ; i < categories.length ; i++ )
+        {
+            categoryCounts[ i ] = lexicon.getCategoryCount( categories[ i ] );
+        }
+
+        int k   = 0;
+
+        for ( int i = 0 ; i < entries.length ; i++ )
+        {
+            LexiconEntry lexiconEntry   = lexiconEntries[ i ];
+
+            entryCounts[ i ]            = lexiconEntry.entryCount;
+            entryCategoryStarts[ i ]    = k;
+
+            largestCategories[ i ]      =
+                ( lexiconEntry.largestCategory == null ) ? -1 :
+                    categoryIndices.get( lexiconEntry.largestCategory );
+
+            largestCategoryCounts[ i ]  = lexiconEntry.largestCategoryCount;
+
+            for ( String category : entryCategoriesOf( lexiconEntry ) )
+            {
+                int categoryIndex           = categoryIndices.get( category );
+                MutableInteger count        =
+                    lexiconEntry.categoriesAndCounts.get( category );
+                String lemma                =
+                    lexiconEntry.lemmata.get( category );
+
+                entryCategories[ k ]        = categoryIndex;
+                entryCategoryCounts[ k ]    =
+                    ( count == null ) ? 0 : count.intValue();
+
+                if ( lemma == null )
+                {
+                    entryCategoryLemmata[ k ]   = -1;
+                }
+                else
+                {
+                    Integer lemmaId = stringIds.get( lemma );
+
+                    if ( lemmaId == null )
+                    {
+                        lemmaId = strings.size();
+                        stringIds.put( lemma , lemmaId );
+                        strings.add( lemma );
+                    }
+
+                    entryCategoryLemmata[ k ]   = lemmaId;
+                }
+
+                if ( count != null )
+                {
+                    uniqueEntryCounts[ categoryIndex ]++;
+                }
+
+                k++;
+            }
+        }
+
+        entryCategoryStarts[ entries.length ]   = k;
+                                //  Lay out the string characters.
+        int[] stringStarts  = new int[ strings.size() + 1 ];
+        int charCount       = 0;
+
+        for ( int i = 0 ; i < strings.size() ; i++ )
+        {
+            stringStarts[ i ]   = charCount;
+            charCount           += strings.get( i ).length();
+        }
+
+        stringStarts[ strings.size() ]  = charCount;
+                                //  Write the file.
+        DataOutputStream output =
+            new DataOutputStream
+            (
+                new BufferedOutputStream
+                (
+                    new FileOutputStream( file ) , 1 << 16
+                )
+            );
+
+        try
+        {
+            output.writeInt( MAGIC );
+            output.writeInt( VERSION );
+            output.writeInt( entries.length );
+            output.writeInt( categories.length );
+            output.writeInt( strings.size() );
+            output.writeInt( entryCategoryCount );
+            output.writeInt( charCount );
+            output.writeInt( lexicon.getLongestEntryLength() );
+            output.writeInt( lexicon.getShortestEntryLength() );
+
+            writeInts( output , stringStarts );
+            writeInts( output , categoryCounts );
+            writeInts( output , uniqueEntryCounts );
+            writeInts( output , entryCounts );
+            writeInts( output , entryCategoryStarts );
+            writeInts( output , largestCategories );
+            writeInts( output , largestCategoryCounts );
+            writeInts( output , entryCategories );
+            writeInts( output , entryCategoryCounts );
+            writeInts( output , entryCategoryLemmata );
+
+            for ( String string : strings )
+            {
+                output.writeChars( string );
+            }
+        }
+        finally
+        {
+            output.close();
+        }
+    }
+
+    /** Get the categories of a lexicon entry in storage order.
+     *
+     *  @param  lexiconEntry    The lexicon entry.
+     *
+     *  @return                 The categories with counts,
+     *                          followed by those with only a lemma.
+     *
+     *  <p>
+     *  Keeping the iteration order of the entry's maps lets a
+     *  mapped entry iterate its lemmata in the same order as
+     *  the lexicon entry it was created from.
+     *  </p>
+     */
+
+    protected static List<String> entryCategoriesOf
+    (
+        LexiconEntry lexiconEntry
+    )
+    {
+        List<String> result =
+            new ArrayList<String>
+            (
+                lexiconEntry.categoriesAndCounts.keySet()
+            );
+
+        for ( String category : lexiconEntry.lemmata.keySet() )
+        {
+            if ( !lexiconEntry.categoriesAndCounts.containsKey( category ) )
+            {
+                result.add( category );
+            }
+        }
+
+        return result;
+    }
+
+    /** Write an int array.
+     *
+     *  @param  output  The output stream.
+     *  @param  values  The ints to write.
+     */
+
+    protected static void writeInts( DataOutputStream output , int[] values )
+        throws IOException
+    {
+        for ( int i = 0 ; i < values.length ; i++ )
+        {
+            output.writeInt( values[ i ] );
+        }
+    }
+
+    /** Get a string from the string table.
+     *
+     *  @param  stringId    The string index.
+     *
+     *  @return             The string.
+     */
+
+    protected String getString( int stringId )
+    {
+        int start       = stringStarts.get( stringId );
+        int end         = stringStarts.get( stringId + 1 );
+        char[] chars    = new char[ end - start ];
+
+        for ( int i = 0 ; i < chars.length ; i++ )
+        {
+            chars[ i ]  = stringChars.get( start + i );
+        }
+
+        return new String( chars );
+    }
+
+    /** Compare a string with a string in the string table.
+     *
+     *  @param  s           The string.
+     *  @param  stringId    The string table index.
+     *
+     *  @return             &lt; 0, 0 or &gt; 0 as s is less than,
+     *                      equal to or greater than the table
+     *                      string, as for String.compareTo.
+     */
+
+    protected int compareToString( String s , int stringId )
+    {
+        int start   = stringStarts.get( stringId );
+        int length  = stringStarts.get( stringId + 1 ) - start;
+        int n       = Math.min( s.length() , length );
+
+        for ( int i = 0 ; i < n ; i++ )
+        {
+            int diff    = s.charAt( i ) - stringChars.get( start + i );
+
+            if ( diff != 0 ) return diff;
+        }
+
+        return s.length() - length;
+    }
+
+    /** Find an entry with exactly matching spelling.
+     *
+     *  @param  entry   The entry.
+     *
+     *  @return         The entry index, or -1 if not found.
+     */
+
+    protected int findExactEntry( String entry )
+    {
+        int low     = 0;
+        int high    = entryCount - 1;
+
+        while ( low <= high )
+        {
+            int mid = ( low + high ) >>> 1;
+            int cmp = compareToString( entry , mid );
+
+            if ( cmp > 0 )
+            {
+                low     = mid + 1;
+            }
+            else if ( cmp < 0 )
+            {
+                high    = mid - 1;
+            }
+            else
+            {
+                return mid;
+            }
+        }
+
+        return -1;
+    }
+
+    /** Find an entry.
+     *
+     *  @param  entry   The entry.
+     *
+     *  @return         The entry index, or -1 if not found.
+     *
+     *  <p>
+     *  As in {@link AbstractLexicon#getLexiconEntry}, an all
+     *  capital entry is also looked up with only its first letter
+     *  capitalized, and any entry is also looked up in lower case.
+     *  </p>
+     */
+
+    protected int findEntry( String entry )
+    {
+        int result  = findExactEntry( entry );
+
+        if ( result < 0 )
+        {
+            if ( CharUtils.allLettersCapital( entry ) )
+            {
+                result  =
+                    findExactEntry( CharUtils.capitalizeFirstLetter( entry ) );
+            }
+        }
+
+        if ( result < 0 )
+        {
+            result  = findExactEntry( entry.toLowerCase() );
+        }
+
+        return result;
+    }
+
+    /** Find a category of an entry.
+     *
+     *  @param  entryIndex  The entry index.
+     *  @param  category    The category.
+     *
+     *  @return             Index of the entry category, or -1
+     *                      if the entry does not have the category.
+     */
+
+    protected int findEntryCategory( int entryIndex , String category )
+    {
+        Integer categoryIndex   = categoryIndices.get( category );
+
+        if ( categoryIndex != null )
+        {
+            int end = entryCategoryStarts.get( entryIndex + 1 );
+
+            for (   int i = entryCategoryStarts.get( entryIndex ) ;
+                    i < end ;
+                    i++
+                )
+            {
+                if ( entryCategories.get( i ) == categoryIndex.intValue() )
+                {
+                    return i;
+                }
+            }
+        }
+
+        return -1;
+    }
+
+    /** Load entries into a lexicon.
+     *
+     *  <p>
+     *  Not supported: a mapped lexicon is read-only.
+     *  </p>
+     */
+
+    public void loadLexicon( URL lexiconURL , String encoding )
+        throws IOException
+    {
+        throw new UnsupportedOperationException( "Lexicon is read-only" );
+    }
+
+    /** Load entries into a lexicon.
+     *
+     *  <p>
+     *  Not supported: a mapped lexicon is read-only.
+     *  </p>
+     */
+
+    public void loadLexicon
+    (
+        URL lexiconURL ,
+        boolean compressed ,
+        String encoding
+    )
+        throws IOException
+    {
+        throw new UnsupportedOperationException( "Lexicon is read-only" );
+    }
+
+    /** Update entry count in lexicon for a given category.
+     *
+     *  <p>
+     *  Not supported: a mapped lexicon is read-only.
+     *  </p>
+     */
+
+    public void updateEntryCount
+    (
+        String entry ,
+        String category ,
+        String lemma ,
+        int entryCount
+    )
+    {
+        throw new UnsupportedOperationException( "Lexicon is read-only" );
+    }
+
+    /** Remove given category for an entry.
+     *
+     *  <p>
+     *  Not supported: a mapped lexicon is read-only.
+     *  </p>
+     */
+
+    public void removeEntryCategory( String entry , String category )
+    {
+        throw new UnsupportedOperationException( "Lexicon is read-only" );
+    }
+
+    /** Remove entry.
+     *
+     *  <p>
+     *  Not supported: a mapped lexicon is read-only.
+     *  </p>
+     */
+
+    public void removeEntry( String entry )
+    {
+        throw new UnsupportedOperationException( "Lexicon is read-only" );
+    }
+
+    /** Get a lexicon entry.
+     *
+     *  @param  entry   Entry for which to get lexicon information.
+     *
+     *  @return         LexiconEntry for entry, or null if not found.
+     *                  The entry's maps are read-only views of the
+     *                  mapped data.
+     */
+
+    public LexiconEntry getLexiconEntry( String entry )
+    {
+        int entryIndex  = findEntry( entry );
+
+        if ( entryIndex < 0 ) return null;
+
+        String spelling = getString( entryIndex );
+
+        LexiconEntry lexiconEntry   =
+            new LexiconEntry
+            (
+                spelling ,
+                spelling ,
+                entryCounts.get( entryIndex ) ,
+                new EntryCategoryMap<MutableInteger>( entryIndex , false ) ,
+                new EntryCategoryMap<String>( entryIndex , true )
+            );
+
+        int largestCategory = largestCategories.get( entryIndex );
+
+        lexiconEntry.largestCategory        =
+            ( largestCategory < 0 ) ? null : categories[ largestCategory ];
+
+        lexiconEntry.largestCategoryCount   =
+            largestCategoryCounts.get( entryIndex );
+
+        return lexiconEntry;
+    }
+
+    /** Set a lexicon entry.
+     *
+     *  <p>
+     *  Not supported: a mapped lexicon is read-only.
+     *  </p>
+     */
+
+    public LexiconEntry setLexiconEntry
+    (
+        String entry ,
+        LexiconEntry entryData
+    )
+    {
+        throw new UnsupportedOperationException( "Lexicon is read-only" );
+    }
+
+    /** Get number of entries in Lexicon.
+     *
+     *  @return     Number of entries in Lexicon.
+     */
+
+    public int getLexiconSize()
+    {
+        return entryCount;
+    }
+
+    /** Get the entries, sorted in ascending order.
+     *
+     *  @return     The sorted entry strings as an array of string.
+     */
+
+    public String[] getEntries()
+    {
+        String[] result = new String[ entryCount ];
+
+        for ( int i = 0 ; i < entryCount ; i++ )
+        {
+            result[ i ] = getString( i );
+        }
+
+        return result;
+    }
+
+    /** Get the categories, sorted in ascending order.
+     *
+     *  @return     The sorted category strings as an array of string.
+     *
+     *  <p>
+     *  Only categories with a positive lexicon-wide count are returned.
+     *  </p>
+     */
+
+    public String[] getCategories()
+    {
+        List<String> result = new ArrayList<String>();
+
+        for ( int i = 0 ; i < categoryCount ; i++ )
+        {
+            if ( categoryCounts.get( i ) > 0 ) result.add( categories[ i ] );
+        }
+
+        return result.toArray( new String[ result.size() ] );
+    }
+
+    /** Checks if lexicon contains an entry.
+     *
+     *  @param  entry   Entry to look up.
+     *
+     *  @return         true if lexicon contains entry.
+     *                  Only an exact match is considered.
+     */
+
+    public boolean containsEntry( String entry )
+    {
+        return ( findExactEntry( entry ) >= 0 );
+    }
+
+    /** Get categories for an entry in the lexicon.
+     *
+     *  @param  entry   Entry to look up.
+     *
+     *  @return         Set of categories.
+     *                  Null if entry not found in lexicon.
+     */
+
+    public Set<String> getCategoriesForEntry( String entry )
+    {
+        int entryIndex          = findEntry( entry );
+        Set<String> categories  = null;
+
+        if ( entryIndex >= 0 )
+        {
+            categories  =
+                new EntryCategoryMap<MutableInteger>(
+                    entryIndex , false ).keySet();
+        }
+                                //  Not found?  Try punctuation or symbol.
+        if ( categories == null )
+        {
+            if ( CharUtils.isPunctuationOrSymbol( entry ) )
+            {
+                categories  = new TreeSet<String>();
+                categories.add( entry );
+            }
+        }
+
+        return categories;
+    }
+
+    /** Get categories for an entry in a sentence.
+     *
+     *  @param  sentence    List of entries in sentence.
+     *  @param  entryIndex  Index within sentence (0-based) of entry.
+     *
+     *  @return             Set of categories.
+     *                      Null if entry not found in lexicon.
+     */
+
+    public Set<String> getCategoriesForEntry
+    (
+        List<String> sentence ,
+        int entryIndex
+    )
+    {
+        return getCategoriesForEntry( sentence.get( entryIndex ) );
+    }
+
+    /** Get categories for an entry.
+     *
+     *  @param  entry           Entry to look up.
+     *  @param  isFirstEntry    True if entry is first in sentence.
+     *
+     *  @return                 Set of categories.
+     *                          Null if entry not found in lexicon.
+     */
+
+    public Set<String> getCategoriesForEntry
+    (
+        String entry ,
+        boolean isFirstEntry
+    )
+    {
+        return getCategoriesForEntry( entry );
+    }
+
+    /** Get number of categories for an entry.
+     *
+     *  @param  entry   Entry for which to find number of categories.
+     *
+     *  @return         Number of categories for entry.
+     */
+
+    public int getNumberOfCategoriesForEntry( String entry )
+    {
+        int entryIndex  = findEntry( entry );
+
+        return ( entryIndex < 0 ) ? 0 :
+            new EntryCategoryMap<MutableInteger>(
+                entryIndex , false ).size();
+    }
+
+    /** Get category counts for an entry.
+     *
+     *  @param  entry   Entry to look up.
+     *
+     *  @return         Map of counts for each category.
+     *                  Null if entry not found in lexicon.
+     */
+
+    public Map<String, MutableInteger> getCategoryCountsForEntry
+    (
+        String entry
+    )
+    {
+        int entryIndex  = findEntry( entry );
+
+        return ( entryIndex < 0 ) ? null :
+            new EntryCategoryMap<MutableInteger>( entryIndex , false );
+    }
+
+    /** Get category with largest count for an entry.
+     *
+     *  @param  entry   Entry to look up.
+     *
+     *  @return         Category with largest count.
+     *                  Empty if entry not found in lexicon.
+     */
+
+    public String getLargestCategory( String entry )
+    {
+        int entryIndex  = findEntry( entry );
+
+        if ( entryIndex < 0 ) return "";
+
+        int largestCategory = largestCategories.get( entryIndex );
+
+        return ( largestCategory < 0 ) ? null : categories[ largestCategory ];
+    }
+
+    /** Get count for an entry in a specific category.
+     *
+     *  @param  entry       Entry to look up.
+     *  @param  category    Category for which to retrieve count.
+     *
+     *  @return             Number of occurrences of entry in category.
+     */
+
+    public int getCategoryCount( String entry , String category )
+    {
+        int entryIndex  = findEntry( entry );
+
+        if ( entryIndex < 0 ) return 0;
+
+        int i   = findEntryCategory( entryIndex , category );
+
+        return ( i < 0 ) ? 0 : entryCategoryCounts.get( i );
+    }
+
+    /** Get lemma for an entry.
+     *
+     *  @param  entry       Entry to look up.
+     *
+     *  @return             Lemma form of entry for its most frequently
+     *                      occurring category.  A "*' is returned
+     *                      if the lemma cannot be found.
+     */
+
+    public String getLemma( String entry )
+    {
+        int entryIndex  = findEntry( entry );
+
+        if ( entryIndex < 0 ) return "*";
+
+        int largestCategory = largestCategories.get( entryIndex );
+
+        if ( largestCategory < 0 ) return "*";
+
+        return getLemma( entryIndex , categories[ largestCategory ] );
+    }
+
+    /** Get all lemmata for an entry.
+     *
+     *  @param  entry       Entry to look up.
+     *
+     *  @return             Lemmata forms of entry.
+     */
+
+    public String[] getLemmata( String entry )
+    {
+        int entryIndex  = findEntry( entry );
+
+        if ( entryIndex < 0 ) return new String[]{ "*" };
+
+        Set<String> lemmataSet  = new TreeSet<String>();
+        int end                 = entryCategoryStarts.get( entryIndex + 1 );
+
+        for (   int i = entryCategoryStarts.get( entryIndex ) ;
+                i < end ;
+                i++
+            )
+        {
+            int lemmaId = entryCategoryLemmata.get( i );
+
+            if ( lemmaId >= 0 ) lemmataSet.add( getString( lemmaId ) );
+        }
+
+        return lemmataSet.toArray( new String[ lemmataSet.size() ] );
+    }
+
+    /** Get the lemmata of all entries.
+     *
+     *  @return     The lemmata of all entries, in no particular order.
+     *              Each lemma appears once.
+     */
+
+    public String[] getAllLemmata()
+    {
+                                //  Lemmata are string ids, so each
+                                //  distinct lemma is fetched once.
+
+        BitSet seen     = new BitSet();
+        int size        = entryCategoryLemmata.limit();
+
+        for ( int i = 0 ; i < size ; i++ )
+        {
+            int lemmaId = entryCategoryLemmata.get( i );
+
+            if ( lemmaId >= 0 ) seen.set( lemmaId );
+        }
+
+        String[] result = new String[ seen.cardinality() ];
+        int count       = 0;
+
+        for (   int lemmaId = seen.nextSetBit( 0 ) ;
+                lemmaId >= 0 ;
+                lemmaId = seen.nextSetBit( lemmaId + 1 )
+            )
+        {
+            result[ count++ ]   = getString( lemmaId );
+        }
+
+        return result;
+    }
+
+    /** Get lemma for an entry in a specific category.
+     *
+     *  @param  entry       Entry to look up.
+     *  @param  category    Category for which to retrieve lemma.
+     *
+     *  @return             Lemma form of entry.  An "*' is returned
+     *                      if the lemma cannot be found.
+     */
+
+    public String getLemma( String entry , String category )
+    {
+        int entryIndex  = findEntry( entry );
+
+        return ( entryIndex < 0 ) ? "*" : getLemma( entryIndex , category );
+    }
+
+    /** Get lemma for an entry index in a specific category.
+     *
+     *  @param  entryIndex  The entry index.
+     *  @param  category    Category for which to retrieve lemma.
+     *
+     *  @return             Lemma form of entry.  An "*' is returned
+     *                      if the lemma cannot be found.
+     */
+
+    protected String getLemma( int entryIndex , String category )
+    {
+        return getEntryCategoryLemma
+        (
+            findEntryCategory( entryIndex , category )
+        );
+    }
+
+    /** Get the index of an entry.
+     *
+     *  @param  entry   The entry.
+     *
+     *  @return         The entry index, or -1 if the lexicon does not
+     *                  contain the entry.  The entry is found the
+     *                  same way as by {@link #getLexiconEntry}.
+     */
+
+    public int getEntryIndex( String entry )
+    {
+        return findEntry( entry );
+    }
+
+    /** Get the index of a category.
+     *
+     *  @param  category    The category.
+     *
+     *  @return             The category index, or -1 if no entry
+     *                      has the category.
+     */
+
+    public int getCategoryIndex( String category )
+    {
+        Integer categoryIndex   = categoryIndices.get( category );
+
+        return ( categoryIndex == null ) ? -1 : categoryIndex.intValue();
+    }
+
+    /** Get lemma for an entry index in a category index.
+     *
+     *  @param  entryIndex      The entry index, as returned by
+     *                          {@link #getEntryIndex}, or -1.
+     *  @param  categoryIndex   The category index, as returned by
+     *                          {@link #getCategoryIndex}, or -1.
+     *
+     *  @return                 Lemma form of entry, as returned by
+     *                          {@link LexiconEntry#getLemma}.  An "*"
+     *                          is returned if the lemma cannot be
+     *                          found.
+     *
+     *  <p>
+     *  Unlike {@link #getLexiconEntry}, this creates no objects
+     *  except the lemma found.
+     *  </p>
+     */
+
+    public String getLemma( int entryIndex , int categoryIndex )
+    {
+        if ( ( entryIndex < 0 ) || ( categoryIndex < 0 ) ) return "*";
+
+        int end = entryCategoryStarts.get( entryIndex + 1 );
+
+        for (   int i = entryCategoryStarts.get( entryIndex ) ;
+                i < end ;
+                i++
+            )
+        {
+            if ( entryCategories.get( i ) == categoryIndex )
+            {
+                return getEntryCategoryLemma( i );
+            }
+        }
+
+        return "*";
+    }
+
+    /** Get the lemma of an entry category.
+     *
+     *  @param  i   Index of the entry category, or -1.
+     *
+     *  @return     The lemma.  An "*" is returned if there is none.
+     */
+
+    protected String getEntryCategoryLemma( int i )
+    {
+        if ( i < 0 ) return "*";
+
+        int lemmaId = entryCategoryLemmata.get( i );
+
+        if  (   ( lemmaId < 0 ) ||
+                ( stringStarts.get( lemmaId + 1 ) ==
+                    stringStarts.get( lemmaId ) )
+            )
+        {
+            return "*";
+        }
+
+        return getString( lemmaId );
+    }
+
+    /** Get total count for an entry.
+     *
+     *  @param  entry       Entry to look up.
+     *
+     *  @return             Count of occurrences of entry.
+     */
+
+    public int getEntryCount( String entry )
+    {
+        int entryIndex  = findEntry( entry );
+
+        return ( entryIndex < 0 ) ? 0 : entryCounts.get( entryIndex );
+    }
+
+    /** Get category count.
+     *
+     *  @param  category    Get number of times category appears in lexicon.
+     *
+     *  @return             Category count.
+     */
+
+    public int getCategoryCount( String category )
+    {
+        Integer categoryIndex   = categoryIndices.get( category );
+
+        return ( categoryIndex == null ) ? 0 :
+            categoryCounts.get( categoryIndex );
+    }
+
+    /** Get unique entry count for a category.
+     *
+     *  @param  category    Category.
+     *
+     *  @return             Count of unique entries with this category.
+     */
+
+    public int getUniqueEntryCountForCategory( String category )
+    {
+        Integer categoryIndex   = categoryIndices.get( category );
+
+        return ( categoryIndex == null ) ? 0 :
+            uniqueEntryCounts.get( categoryIndex );
+    }
+
+    /** Get category counts.
+     *
+     *  @return     Category counts map.  Changes to the map do not
+     *              affect the lexicon.
+     */
+
+    public Map<String, MutableInteger> getCategoryCounts()
+    {
+        Map<String, MutableInteger> result  = MapFactory.createNewMap();
+
+        for ( int i = 0 ; i < categoryCount ; i++ )
+        {
+            int count   = categoryCounts.get( i );
+
+            if ( count > 0 )
+            {
+                result.put( categories[ i ] , new MutableInteger( count ) );
+            }
+        }
+
+        return result;
+    }
+
+    /** Get number of categories.
+     *
+     *  @return     Number of categories.
+     */
+
+    public int getNumberOfCategories()
+    {
+        return getCategories().length;
+    }
+
+    /** Save lexicon to a file.
+     *
+     *  @param  lexiconFileName     File containing the lexicon.
+     *  @param  encoding            Character encoding of lexicon file text.
+     */
+
+    public void saveLexiconToTextFile
+    (
+        String lexiconFileName ,
+        String encoding
+    )
+        throws IOException
+    {
+        AdornedWordOutputter outputter  =
+            new PrintStreamAdornedWordOutputter();
+
+        outputter.createOutputFile( lexiconFileName , encoding , '\t' );
+                                //  Entries are stored sorted.
+        for ( int i = 0 ; i < entryCount ; i++ )
+        {
+            outputter.outputWordAndAdornments
+            (
+                getLexiconEntry( getString( i ) ).getLexiconEntryData()
+            );
+        }
+
+        outputter.close();
+    }
+
+    /** Get the part of speech tags list used by the lexicon.
+     *
+     *  @return     Part of speech tags list.
+     */
+
+    public PartOfSpeechTags getPartOfSpeechTags()
+    {
+        return partOfSpeechTags;
+    }
+
+    /** Set the part of speech tags list used by the lexicon.
+     *
+     *  @param  partOfSpeechTags    Part of speech tags list.
+     *
+     *  @return         true if all categories in lexicon appear in
+     *                  the part of speech tags list.
+     */
+
+    public boolean setPartOfSpeechTags( PartOfSpeechTags partOfSpeechTags )
+    {
+        this.partOfSpeechTags   = partOfSpeechTags;
+
+        boolean result  = true;
+
+        for ( String category : getCategories() )
+        {
+            result  = result && partOfSpeechTags.isTag( category );
+        }
+
+        return result;
+    }
+
+    /** Get the longest entry length in the lexicon.
+     *
+     *  @return     The longest entry length in the lexicon.
+     */
+
+    public int getLongestEntryLength()
+    {
+        return longestEntryLength;
+    }
+
+    /** Get the shortest entry length in the lexicon.
+     *
+     *  @return     The shortest entry length in the lexicon.
+     */
+
+    public int getShortestEntryLength()
+    {
+        return shortestEntryLength;
+    }
+
+    /** Read-only map view of the categories of a mapped entry.
+     *
+     *  <p>
+     *  With lemmata, the values are the lemmata of the categories
+     *  which have one.  Otherwise the values are the counts of the
+     *  categories with a positive count.  Categories iterate in
+     *  storage order.
+     *  </p>
+     */
+
+    protected class EntryCategoryMap<V> extends AbstractMap<String, V>
+    {
+        /** The entry index. */
+
+        protected final int entryIndex;
+
+        /** true for lemmata, false for counts. */
+
+        protected final boolean lemmata;
+
+        /** Create a view of an entry's categories.
+         *
+         *  @param  entryIndex  The entry index.
+         *  @param  lemmata     true for lemmata, false for counts.
+         */
+
+        protected EntryCategoryMap( int entryIndex , boolean lemmata )
+        {
+            this.entryIndex = entryIndex;
+            this.lemmata    = lemmata;
+        }
+
+        /** Check if an entry category belongs to the view.
+         *
+         *  @param  i   The entry category index.
+         *
+         *  @return     true if the view contains the entry category.
+         */
+
+        protected boolean isIncluded( int i )
+        {
+            return lemmata ? ( entryCategoryLemmata.get( i ) >= 0 ) :
+                ( entryCategoryCounts.get( i ) > 0 );
+        }
+
+        /** Get the value of an entry category.
+         *
+         *  @param  i   The entry category index.
+         *
+         *  @return     The lemma or count.
+         */
+
+        @SuppressWarnings( "unchecked" )
+        protected V valueOf( int i )
+        {
+            return lemmata ?
+                (V)getString( entryCategoryLemmata.get( i ) ) :
+                (V)new MutableInteger( entryCategoryCounts.get( i ) );
+        }
+
+        public V get( Object key )
+        {
+            if ( !( key instanceof String ) ) return null;
+
+            int i   = findEntryCategory( entryIndex , (String)key );
+
+            return ( ( i >= 0 ) && isIncluded( i ) ) ? valueOf( i ) : null;
+        }
+
+        public boolean containsKey( Object key )
+        {
+            if ( !( key instanceof String ) ) return false;
+
+            int i   = findEntryCategory( entryIndex , (String)key );
+
+            return ( i >= 0 ) && isIncluded( i );
+        }
+
+        public Set<Map.Entry<String, V>> entrySet()
+        {
+            return new AbstractSet<Map.Entry<String, V>>()
+            {
+                public int size()
+                {
+                    int result  = 0;
+                    int end     = entryCategoryStarts.get( entryIndex + 1 );
+
+                    for (   int i = entryCategoryStarts.get( entryIndex ) ;
+                            i < end ;
+                            i++
+                        )
+                    {
+                        if ( isIncluded( i ) ) result++;
+                    }
+
+                    return result;
+                }
+
+                public Iterator<Map.Entry<String, V>> iterator()
+                {
+                    return new Iterator<Map.Entry<String, V>>()
+                    {
+                        int end     = entryCategoryStarts.get( entryIndex + 1 );
+                        int next    =
+                            skip( entryCategoryStarts.get( entryIndex ) );
+
+                        int skip( int i )
+                        {
+                            while ( ( i < end ) && !isIncluded( i ) ) i++;
+
+                            return i;
+                        }
+
+                        public boolean hasNext()
+                        {
+                            return next < end;
+                        }
+
+                        public Map.Entry<String, V> next()
+                        {
+                            if ( next >= end )
+                            {
+                                throw new NoSuchElementException();
+                            }
+
+                            int i   = next;
+
+                            next    = skip( next + 1 );
+
+                            return new AbstractMap.SimpleImmutableEntry
+                                <String, V>
+                            (
+                                categories[ entryCategories.get( i ) ] ,
+                                valueOf( i )
+                            );
+                        }
+
+                        public void remove()
+                        {
+                            throw new UnsupportedOperationException
+                            (
+                                "Lexicon is read-only"
+                            );
+                        }
+                    };
+                }
+            };
+        }
+    }
+}
+
+/*
+Copyright (c) 2008, 2013 by Northwestern University.
+All rights reserved.
+
+Developed by:
+   Academic and Research Technologies
+   Northwestern University
+   http://www.it.northwestern.edu/about/departments/at/
+
+Permission is hereby granted, free of charge, to any person
+obtaining a copy of this software and associated documentation
+files (the "Software"), to deal with the Software without
+restriction, including without limitation the rights to use,
+copy, modify, merge, publish, distribute, sublicense, and/or
+sell copies of the Software, and to permit persons to whom the
+Software is furnished to do so, subject to the following
+conditions:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimers.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimers in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the names of Academic and Research Technologies,
+      Northwestern University, nor the names of its contributors may be
+      used to endorse or promote products derived from this Software
+      without specific prior written permission.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+NONINFRINGEMENT. IN NO EVENT SHALL THE CONTRIBUTORS OR
+COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*/
+
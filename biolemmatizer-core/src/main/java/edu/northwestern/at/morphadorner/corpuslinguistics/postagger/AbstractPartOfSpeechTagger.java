@@ -3,6 +3,7 @@ package edu.northwestern.at.morphadorner.corpuslinguistics.postagger;
 /*  Please see the license information at the end of this file. */
 
 import java.util.*;
+import java.util.concurrent.atomic.*;
 
 import edu.northwestern.at.utils.*;
 import edu.northwestern.at.utils.logger.*;
@@ -23,6 +24,16 @@ import edu.northwestern.at.morphadorner.corpuslinguistics.tokenizer.*;
  *  extend this class and override methods as needed.  You must
  *  override the tagSentence method as a minimum.
  *  </p>
+ *
+ *  <p>
+ *  The lexicon, transition matrix, rules and smoothers are set up
+ *  before tagging starts and are only read while tagging.  Words
+ *  added to the dynamic lexicon are added while it is locked, the
+ *  part of speech guesser is created once, and rule corrections are
+ *  counted atomically, so taggers which keep their decoding state
+ *  per call, such as the bigram and trigram taggers, may be shared
+ *  between threads.
+ *  </p>
  */
 
 abstract public class AbstractPartOfSpeechTagger
@@ -33,7 +44,12 @@ abstract public class AbstractPartOfSpeechTagger
 
     protected Lexicon lexicon;
 
-    /** Dynamic lexicon built on-the-fly for words not in static lexicon. */
+    /** Dynamic lexicon built on-the-fly for words not in static lexicon.
+     *
+     *  <p>
+     *  Lock the dynamic lexicon while reading or updating it.
+     *  </p>
+     */
 
     protected Lexicon dynamicLexicon;
 
@@ -63,7 +79,7 @@ abstract public class AbstractPartOfSpeechTagger
 
     /** Part of speech guesser for words not in lexicon. */
 
-    protected PartOfSpeechGuesser partOfSpeechGuesser;
+    protected volatile PartOfSpeechGuesser partOfSpeechGuesser;
 
     /** PostTokenizer for mapping raw tokens to initial spellings. */
 
@@ -71,12 +87,23 @@ abstract public class AbstractPartOfSpeechTagger
 
     /** Number of corrections applied by rules. */
 
-    protected int ruleCorrections   = 0;
+    protected AtomicInteger ruleCorrections = new AtomicInteger();
 
     /** Logger used for output. */
 
     protected Logger logger;
 
+    /** Viterbi decoder of each tagging thread. */
+
+    private final ThreadLocal<ArrayViterbi> viterbis    =
+        new ThreadLocal<ArrayViterbi>()
+        {
+            protected ArrayViterbi initialValue()
+            {
+                return new ArrayViterbi();
+            }
+        };
+
     /** Create tagger.
      */
 
@@ -96,6 +123,27 @@ abstract public class AbstractPartOfSpeechTagger
         logger          = new DummyLogger();
     }
 
+    /** Create tagger sharing the lexicons, transition matrix, rules,
+     *  smoothers, part of speech guesser and post tokenizer of
+     *  another tagger.
+     *
+     *  @param  tagger  The tagger whose set up to share.
+     */
+
+    protected AbstractPartOfSpeechTagger( AbstractPartOfSpeechTagger tagger )
+    {
+        lexicon             = tagger.lexicon;
+        dynamicLexicon      = tagger.dynamicLexicon;
+        transitionMatrix    = tagger.transitionMatrix;
+        contextRules        = tagger.contextRules;
+        lexicalRules        = tagger.lexicalRules;
+        lexicalSmoother     = tagger.lexicalSmoother;
+        contextualSmoother  = tagger.contextualSmoother;
+        partOfSpeechGuesser = tagger.partOfSpeechGuesser;
+        postTokenizer       = tagger.postTokenizer;
+        logger              = tagger.logger;
+    }
+
     /** Get the logger.
      *
      *  @return     The logger.
@@ -407,63 +455,99 @@ abstract public class AbstractPartOfSpeechTagger
 
     public List<String> getTagsForWord( String word )
     {
-                                //  Get part of speech tags for this word
-                                //  from main or dynamic lexicon.
-
-        Set<String> tagSet  = null;
-
                                 //  Word in main lexicon?
 
         if ( lexicon.containsEntry( word ) )
         {
-            tagSet  = lexicon.getCategoriesForEntry( word );
+            return ListFactory.createNewList
+            (
+                lexicon.getCategoriesForEntry( word )
+            );
         }
                                 //  Word in dynamic lexicon?
 
-        else if ( dynamicLexicon.containsEntry( word ) )
+        synchronized( dynamicLexicon )
         {
-            tagSet  = dynamicLexicon.getCategoriesForEntry( word );
+            if ( dynamicLexicon.containsEntry( word ) )
+            {
+                return ListFactory.createNewList
+                (
+                    dynamicLexicon.getCategoriesForEntry( word )
+                );
+            }
         }
                                 //  Word in neither lexicon.
                                 //  Get potential parts of speech
                                 //  and counts from guesser.
-                                //  Add the guesser results to the
-                                //  dynamic lexicon.
-        else
-        {
                                 //  If we don't have a part of speech
                                 //  guesser, create one now.
 
-            if ( partOfSpeechGuesser == null )
-            {
-                createPartOfSpeechGuesser();
-            }
-
-            Map<String, MutableInteger> tagMap  =
-                partOfSpeechGuesser.guessPartsOfSpeech( word );
+        if ( partOfSpeechGuesser == null )
+        {
+            createPartOfSpeechGuesser();
+        }
+                                //  Guess without holding the lock
+                                //  so other threads can tag words
+                                //  already in the dynamic lexicon.
 
-            tagSet  = tagMap.keySet();
+        Map<String, MutableInteger> tagMap  =
+            partOfSpeechGuesser.guessPartsOfSpeech( word );
 
-            Iterator<String> iterator   = tagSet.iterator();
+                                //  Add the guesser results to the
+                                //  dynamic lexicon, unless another
+                                //  thread guessed the same word first.
+                                //  Return the categories as stored in
+                                //  the dynamic lexicon so every call
+                                //  sees them in the same order.
 
-            while ( iterator.hasNext() )
+        synchronized( dynamicLexicon )
+        {
+            if ( !dynamicLexicon.containsEntry( word ) )
             {
-                String category         = iterator.next();
-                MutableInteger count    = tagMap.get( category );
+                Iterator<String> iterator   = tagMap.keySet().iterator();
 
-                dynamicLexicon.updateEntryCount
+                while ( iterator.hasNext() )
+                {
+                    String category         = iterator.next();
+                    MutableInteger count    = tagMap.get( category );
+
+                    dynamicLexicon.updateEntryCount
+                    (
+                        word ,
+                        category ,
+                        "*" ,
+                        count.intValue()
+                    );
+                }
+            }
+
+            if ( dynamicLexicon.containsEntry( word ) )
+            {
+                return ListFactory.createNewList
                 (
-                    word ,
-                    category ,
-                    "*" ,
-                    count.intValue()
+                    dynamicLexicon.getCategoriesForEntry( word )
                 );
             }
         }
+                                //  The dynamic lexicon ignores
+                                //  guesses without positive counts.
 
-        List<String> result = ListFactory.createNewList( tagSet );
+        return ListFactory.createNewList( tagMap.keySet() );
+    }
 
-        return result;
+    /** See if the dynamic lexicon contains a word.
+     *
+     *  @param  word    The word.
+     *
+     *  @return         True if the dynamic lexicon contains the word.
+     */
+
+    protected boolean dynamicLexiconContainsEntry( String word )
+    {
+        synchronized( dynamicLexicon )
+        {
+            return dynamicLexicon.containsEntry( word );
+        }
     }
 
     /** Get count of times a word appears with a given tag.
@@ -495,19 +579,19 @@ abstract public class AbstractPartOfSpeechTagger
             result  = lexicon.getCategoryCount( word , tag );
         }
                                 //  Word in dynamic lexicon?
-
-        else if ( dynamicLexicon.containsEntry( word ) )
-        {
-            result  = dynamicLexicon.getCategoryCount( word , tag );
-        }
-                                //  Word in neither lexicon.
-                                //  Add the guesser results to the
-                                //  dynamic lexicon.
+                                //  If not, add the guesser results
+                                //  to the dynamic lexicon.
         else
         {
-            getTagsForWord( word );
+            if ( !dynamicLexiconContainsEntry( word ) )
+            {
+                getTagsForWord( word );
+            }
 
-            result  = dynamicLexicon.getCategoryCount( word , tag );
+            synchronized( dynamicLexicon )
+            {
+                result  = dynamicLexicon.getCategoryCount( word , tag );
+            }
         }
 
         return Math.max( result , 1 );
@@ -531,24 +615,44 @@ abstract public class AbstractPartOfSpeechTagger
             result  = lexicon.getLargestCategory( word );
         }
                                 //  Word in dynamic lexicon?
-
-        else if ( dynamicLexicon.containsEntry( word ) )
-        {
-            result  = dynamicLexicon.getLargestCategory( word );
-        }
-                                //  Word in neither lexicon.
-                                //  Add the guesser results to the
-                                //  dynamic lexicon.
+                                //  If not, add the guesser results
+                                //  to the dynamic lexicon.
         else
         {
-            getTagsForWord( word );
+            if ( !dynamicLexiconContainsEntry( word ) )
+            {
+                getTagsForWord( word );
+            }
 
-            result  = dynamicLexicon.getLargestCategory( word );
+            synchronized( dynamicLexicon )
+            {
+                result  = dynamicLexicon.getLargestCategory( word );
+            }
         }
 
         return result;
     }
 
+    /** Get the Viterbi decoder of the current thread.
+     *
+     *  @return     The Viterbi decoder.
+     *
+     *  <p>
+     *  Each thread reuses its own decoder for every sentence it tags,
+     *  so that sentences may be tagged concurrently without
+     *  allocating a new trellis for each one.
+     *  </p>
+     */
+
+    protected ArrayViterbi getViterbi()
+    {
+        ArrayViterbi viterbi    = viterbis.get();
+
+        viterbi.setLogger( logger );
+
+        return viterbi;
+    }
+
     /** Tag a list of sentences.
      *
      *  @param  sentences   The list of sentences.
@@ -672,7 +776,7 @@ abstract public class AbstractPartOfSpeechTagger
 
     public void clearRuleCorrections()
     {
-        ruleCorrections = 0;
+        ruleCorrections.set( 0 );
     }
 
     /** Increment count of successful rule applications.
@@ -680,7 +784,7 @@ abstract public class AbstractPartOfSpeechTagger
 
     public void incrementRuleCorrections()
     {
-        ruleCorrections++;
+        ruleCorrections.incrementAndGet();
     }
 
     /** Get count of successful rule applications.
@@ -688,13 +792,13 @@ abstract public class AbstractPartOfSpeechTagger
 
     public int getRuleCorrections()
     {
-        return ruleCorrections;
+        return ruleCorrections.get();
     }
 
     /** Create a part of speech guesser.
      */
 
-    protected void createPartOfSpeechGuesser()
+    protected synchronized void createPartOfSpeechGuesser()
     {
         try
         {
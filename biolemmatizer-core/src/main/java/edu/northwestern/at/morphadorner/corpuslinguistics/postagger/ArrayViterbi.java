@@ -0,0 +1,630 @@
+package edu.northwestern.at.morphadorner.corpuslinguistics.postagger;
+
+/*  Please see the license information at the end of this file. */
+
+import java.util.*;
+
+import edu.northwestern.at.utils.logger.*;
+
+/** Viterbi algorithm using primitive arrays.
+ *
+ *  <p>
+ *  This decoder finds the same tags as {@link Viterbi}, but maps each
+ *  part of speech tag to a dense integer id the first time it sees the
+ *  tag, and holds the trellis in a (# of words + 2) x (# of tag ids)
+ *  array of log probabilities with a matching array of back trace
+ *  tag ids.  The two extra rows hold the "." start states.
+ *  The tags remaining for each word after beam pruning are kept
+ *  in a third array of the same shape, and pruning removes tags
+ *  in place.
+ *  </p>
+ *
+ *  <p>
+ *  The arrays grow as needed and are reused for the next sentence,
+ *  so a decoder allocates almost nothing once it has seen a long
+ *  sentence and the full tag set.  A decoder is not thread-safe.
+ *  Taggers keep one per thread.
+ *  </p>
+ *
+ *  <p>
+ *  To decode a sentence, call {@link #start}, then for each word
+ *  call {@link #setTags}, fill the arrays returned by
+ *  {@link #getLexicalScores} and {@link #getContextualScores},
+ *  and call {@link #updateBigramScore} or {@link #updateTrigramScore}.
+ *  Finally call {@link #optimalTags}.
+ *  </p>
+ */
+
+public class ArrayViterbi
+{
+    /** Tag returned for a word without a back trace tag. */
+
+    public static final String NO_TAG   = "*";
+
+    /** Map from tags to tag ids. */
+
+    protected Map<String, Integer> tagIds   =
+        new HashMap<String, Integer>();
+
+    /** Tags indexed by tag id. */
+
+    protected List<String> tags = new ArrayList<String>();
+
+    /** Id of the "." start tag. */
+
+    protected int startTagId;
+
+    /** Row length of the trellis arrays.  At least the number of
+     *  tag ids.
+     */
+
+    protected int stride        = 64;
+
+    /** Number of trellis rows in use. */
+
+    protected int rows;
+
+    /** Log probabilities indexed by row * stride + tag id.
+     */
+
+    protected double[] scores   = new double[ 0 ];
+
+    /** Back trace tag ids indexed by row * stride + tag id.
+     *  -1 when there is no back trace tag.
+     */
+
+    protected int[] tracebackTags   = new int[ 0 ];
+
+    /** Tag ids remaining for each word after beam pruning,
+     *  indexed by row * stride + position.
+     */
+
+    protected int[] states      = new int[ 0 ];
+
+    /** Number of tag ids remaining for each row. */
+
+    protected int[] stateCounts = new int[ 0 ];
+
+    /** Lexical log probabilities of the current word. */
+
+    protected double[] lexicalScores    = new double[ 0 ];
+
+    /** Contextual log probabilities of the current word. */
+
+    protected double[] contextualScores = new double[ 0 ];
+
+    /** Beam width for beam search, as a log.
+     */
+
+    protected double beamWidth          = Math.log( 1000.0D );
+
+    /** Count of tags rejected by beam search in the current sentence.
+     */
+
+    protected int beamSearchRejections  = 0;
+
+    /** Logger used for output. */
+
+    protected Logger logger;
+
+    /** Create Viterbi decoder.
+     */
+
+    public ArrayViterbi()
+    {
+        startTagId  = getTagId( "." );
+        logger      = new DummyLogger();
+    }
+
+    /** Get the id of a tag, assigning a new id if needed.
+     *
+     *  @param  tag     The tag.
+     *
+     *  @return         The tag id.
+     */
+
+    public int getTagId( String tag )
+    {
+        Integer id  = tagIds.get( tag );
+
+        if ( id == null )
+        {
+            id  = tags.size();
+
+            tagIds.put( tag , id );
+            tags.add( tag );
+
+            if ( id >= stride )
+            {
+                resize( rows , stride * 2 );
+            }
+        }
+
+        return id;
+    }
+
+    /** Get the tag for a tag id.
+     *
+     *  @param  tagId   The tag id, or -1.
+     *
+     *  @return         The tag, or {@link #NO_TAG} for -1.
+     */
+
+    public String getTag( int tagId )
+    {
+        return ( tagId < 0 ) ? NO_TAG : tags.get( tagId );
+    }
+
+    /** Start decoding a sentence.
+     *
+     *  @param  nWords  Number of words in the sentence.
+     */
+
+    public void start( int nWords )
+    {
+        resize( nWords + 2 , stride );
+
+        rows    = nWords + 2;
+
+        Arrays.fill( scores , 0 , rows * stride , Double.NEGATIVE_INFINITY );
+        Arrays.fill( tracebackTags , 0 , rows * stride , -1 );
+        Arrays.fill( stateCounts , 0 , rows , 0 );
+
+                                //  Use "." as the initial tags.
+
+        for ( int row = 0 ; row < 2 ; row++ )
+        {
+            scores[ row * stride + startTagId ] = 0.0D;
+            states[ row * stride ]              = startTagId;
+            stateCounts[ row ]                  = 1;
+        }
+
+        beamSearchRejections    = 0;
+    }
+
+    /** Grow the arrays.
+     *
+     *  @param  newRows     Rows needed.
+     *  @param  newStride   Row length needed.
+     */
+
+    protected void resize( int newRows , int newStride )
+    {
+        if ( ( newRows <= stateCounts.length ) && ( newStride == stride ) )
+        {
+            return;
+        }
+
+        int capacity    = stateCounts.length;
+
+        if ( newRows > capacity )
+        {
+            capacity    = Math.max( newRows , capacity * 2 );
+        }
+
+        double[] newScores      = new double[ capacity * newStride ];
+        int[] newTracebackTags  = new int[ capacity * newStride ];
+        int[] newStates         = new int[ capacity * newStride ];
+
+                                //  Copy the rows in use, so a tag
+                                //  seen in mid sentence may widen
+                                //  the rows.
+
+        for ( int row = 0 ; row < rows ; row++ )
+        {
+            System.arraycopy
+            (
+                scores , row * stride , newScores , row * newStride , stride
+            );
+
+            Arrays.fill
+            (
+                newScores ,
+                row * newStride + stride ,
+                ( row + 1 ) * newStride ,
+                Double.NEGATIVE_INFINITY
+            );
+
+            System.arraycopy
+            (
+                tracebackTags , row * stride ,
+                newTracebackTags , row * newStride , stride
+            );
+
+            Arrays.fill
+            (
+                newTracebackTags ,
+                row * newStride + stride ,
+                ( row + 1 ) * newStride ,
+                -1
+            );
+
+            System.arraycopy
+            (
+                states , row * stride , newStates , row * newStride ,
+                stateCounts[ row ]
+            );
+        }
+
+        scores          = newScores;
+        tracebackTags   = newTracebackTags;
+        states          = newStates;
+        stateCounts     = Arrays.copyOf( stateCounts , capacity );
+        stride          = newStride;
+    }
+
+    /** Set the possible tags for a word.
+     *
+     *  @param  wordIndex   Word index.
+     *  @param  wordTags    Possible tags for the word.
+     *
+     *  @return             Number of tags.
+     */
+
+    public int setTags( int wordIndex , List<String> wordTags )
+    {
+        int nTags   = wordTags.size();
+
+        if ( nTags > stride )
+        {
+            resize( rows , Math.max( nTags , stride * 2 ) );
+        }
+
+        for ( int i = 0 ; i < nTags ; i++ )
+        {
+                                //  Get the id first, since a new id
+                                //  may widen the rows.
+
+            int tagId   = getTagId( wordTags.get( i ) );
+
+            states[ ( wordIndex + 2 ) * stride + i ]    = tagId;
+        }
+
+        stateCounts[ wordIndex + 2 ]    = nTags;
+
+        return nTags;
+    }
+
+    /** Get number of tags remaining for a word.
+     *
+     *  @param  wordIndex   Word index.  -1 and -2 are the start states.
+     *
+     *  @return             Number of tags.
+     */
+
+    public int getTagCount( int wordIndex )
+    {
+        return stateCounts[ wordIndex + 2 ];
+    }
+
+    /** Get a tag remaining for a word.
+     *
+     *  @param  wordIndex   Word index.  -1 and -2 are the start states.
+     *  @param  i           Index of tag, from 0 to
+     *                      {@link #getTagCount} - 1.
+     *
+     *  @return             The tag.
+     */
+
+    public String getTag( int wordIndex , int i )
+    {
+        return tags.get( states[ ( wordIndex + 2 ) * stride + i ] );
+    }
+
+    /** Get array for lexical log probabilities of the current word.
+     *
+     *  @param  size    Number of values needed.
+     *
+     *  @return         The array.  Entry i is the log probability
+     *                  of the word given its i'th tag.
+     */
+
+    public double[] getLexicalScores( int size )
+    {
+        if ( lexicalScores.length < size )
+        {
+            lexicalScores   = new double[ Math.max( size , 64 ) ];
+        }
+
+        return lexicalScores;
+    }
+
+    /** Get array for contextual log probabilities of the current word.
+     *
+     *  @param  size    Number of values needed.
+     *
+     *  @return         The array.  For a bigram, entry
+     *                  i * nPrevTags + j holds the log probability of
+     *                  the i'th tag given the previous word's j'th tag.
+     *                  For a trigram, entry
+     *                  ( i * nPrevTags + j ) * nPrevPrevTags + k also
+     *                  depends on the k'th tag of the word before that.
+     */
+
+    public double[] getContextualScores( int size )
+    {
+        if ( contextualScores.length < size )
+        {
+            contextualScores    =
+                new double[ Math.max( size , contextualScores.length * 2 ) ];
+        }
+
+        return contextualScores;
+    }
+
+    /** Perform Viterbi scoring for bigram.
+     *
+     *  @param  wordIndex   Word index for current word.
+     *
+     *  @return             Number of tags passing beam search criterion.
+     */
+
+    public int updateBigramScore( int wordIndex )
+    {
+        int row         = ( wordIndex + 2 ) * stride;
+        int prevRow     = row - stride;
+        int nTags       = stateCounts[ wordIndex + 2 ];
+        int nPrevTags   = stateCounts[ wordIndex + 1 ];
+
+        double bestScore    = Double.NEGATIVE_INFINITY;
+
+        for ( int i = 0 ; i < nTags ; i++ )
+        {
+            int tag             = states[ row + i ];
+            double lexicalProb  = lexicalScores[ i ];
+
+            for ( int j = 0 ; j < nPrevTags ; j++ )
+            {
+                int prevTag     = states[ prevRow + j ];
+
+                double score    =
+                    scores[ prevRow + prevTag ] + lexicalProb +
+                    contextualScores[ i * nPrevTags + j ];
+
+                if ( Double.compare( score , scores[ row + tag ] ) > 0 )
+                {
+                    bestScore                   = score;
+                    scores[ row + tag ]         = score;
+                    tracebackTags[ row + tag ]  = prevTag;
+                }
+            }
+        }
+                                //  Prune tags using beam width.
+
+        return pruneTags( wordIndex , bestScore );
+    }
+
+    /** Perform Viterbi scoring for trigram.
+     *
+     *  @param  wordIndex   Word index for current word.
+     *
+     *  @return             Number of tags passing beam search criterion.
+     */
+
+    public int updateTrigramScore( int wordIndex )
+    {
+        int row             = ( wordIndex + 2 ) * stride;
+        int prevRow         = row - stride;
+        int nTags           = stateCounts[ wordIndex + 2 ];
+        int nPrevTags       = stateCounts[ wordIndex + 1 ];
+        int nPrevPrevTags   = stateCounts[ wordIndex ];
+
+        double bestScore    = Double.NEGATIVE_INFINITY;
+
+        for ( int i = 0 ; i < nTags ; i++ )
+        {
+            int tag             = states[ row + i ];
+            double lexicalProb  = lexicalScores[ i ];
+            double currentScore = scores[ row + tag ];
+
+            for ( int j = 0 ; j < nPrevTags ; j++ )
+            {
+                int prevTag     = states[ prevRow + j ];
+
+                double scorem1  = scores[ prevRow + prevTag ] + lexicalProb;
+
+                int contextual  = ( i * nPrevTags + j ) * nPrevPrevTags;
+
+                for ( int k = 0 ; k < nPrevPrevTags ; k++ )
+                {
+                    double score    =
+                        scorem1 + contextualScores[ contextual + k ];
+
+                    if ( Double.compare( score , currentScore ) > 0 )
+                    {
+                        bestScore                   = score;
+                        currentScore                = score;
+                        scores[ row + tag ]         = score;
+                        tracebackTags[ row + tag ]  = prevTag;
+                    }
+                }
+            }
+        }
+                                //  Prune tags using beam width.
+
+        return pruneTags( wordIndex , bestScore );
+    }
+
+    /** Prune tags using beam search.
+     *
+     *  @param  wordIndex   The word index.
+     *  @param  bestScore   The best score for this word and set of tags.
+     *
+     *  @return             The number of tags remaining.
+     *
+     *  <p>
+     *  Removes the tags whose log score is further below the log of
+     *  the best score than the log of the beam width, keeping the
+     *  order of the remaining tags.
+     *  </p>
+     */
+
+    protected int pruneTags( int wordIndex , double bestScore )
+    {
+        int row     = ( wordIndex + 2 ) * stride;
+        int nTags   = stateCounts[ wordIndex + 2 ];
+        int passed  = 0;
+
+        for ( int i = 0 ; i < nTags ; i++ )
+        {
+            int tag = states[ row + i ];
+
+            if ( ( bestScore - scores[ row + tag ] ) > beamWidth )
+            {
+                scores[ row + tag ] = Double.NEGATIVE_INFINITY;
+
+                beamSearchRejections++;
+            }
+            else
+            {
+                states[ row + passed++ ]    = tag;
+            }
+        }
+
+        stateCounts[ wordIndex + 2 ]    = passed;
+
+        return passed;
+    }
+
+    /** Get optimal set of tags via backtracking.
+     *
+     *  @param  nWords  Number of words.
+     *
+     *  @return         Optimal list of tags.
+     */
+
+    public List<String> optimalTags( int nWords )
+    {
+        String[] tagList    = new String[ nWords ];
+
+        if ( nWords == 0 )
+        {
+            return Arrays.asList( tagList );
+        }
+                                //  Get optimal end state from the
+                                //  tags remaining for the last word.
+
+        int row             = ( nWords + 1 ) * stride;
+        int nTags           = stateCounts[ nWords + 1 ];
+
+        int bestTag         = startTagId;
+        double bestScore    = Double.NEGATIVE_INFINITY;
+
+        for ( int i = 0 ; i < nTags ; i++ )
+        {
+            int tag = states[ row + i ];
+
+            if ( Double.compare( scores[ row + tag ] , bestScore ) > 0 )
+            {
+                bestScore   = scores[ row + tag ];
+                bestTag     = tag;
+            }
+        }
+                                //  Back track to get optimal tags.
+
+        for ( int wordIndex = nWords - 1 ; wordIndex >= 0 ; wordIndex-- )
+        {
+            tagList[ wordIndex ]    = getTag( bestTag );
+
+            if ( bestTag >= 0 )
+            {
+                bestTag =
+                    tracebackTags[ ( wordIndex + 2 ) * stride + bestTag ];
+            }
+        }
+
+        return Arrays.asList( tagList );
+    }
+
+    /** Return number of entries rejected by beam search in the
+     *  current sentence.
+     *
+     *  @return     Number of entries rejected by beam search.
+     */
+
+    public int getBeamSearchRejections()
+    {
+        return beamSearchRejections;
+    }
+
+    /** Get the beam width.
+     *
+     *  @return     The beam width.
+     */
+
+    public double beamWidth()
+    {
+        return beamWidth;
+    }
+
+    /** Set the beam width.
+     *
+     *  @param  beamWidth   The beam width.
+     */
+
+    public void beamWidth( double beamWidth )
+    {
+        this.beamWidth  = beamWidth;
+    }
+
+    /** Get the logger.
+     *
+     *  @return     The logger.
+     */
+
+    public Logger getLogger()
+    {
+        return logger;
+    }
+
+    /** Set the logger.
+     *
+     *  @param  logger      The logger.
+     */
+
+    public void setLogger( Logger logger )
+    {
+        this.logger = logger;
+    }
+}
+
+/*
+Copyright (c) 2008, 2013 by Northwestern University.
+All rights reserved.
+
+Developed by:
+   Academic and Research Technologies
+   Northwestern University
+   http://www.it.northwestern.edu/about/departments/at/
+
+Permission is hereby granted, free of charge, to any person
+obtaining a copy of this software and associated documentation
+files (the "Software"), to deal with the Software without
+restriction, including without limitation the rights to use,
+copy, modify, merge, publish, distribute, sublicense, and/or
+sell copies of the Software, and to permit persons to whom the
+Software is furnished to do so, subject to the following
+conditions:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimers.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimers in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the names of Academic and Research Technologies,
+      Northwestern University, nor the names of its contributors may be
+      used to endorse or promote products derived from this Software
+      without specific prior written permission.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+NONINFRINGEMENT. IN NO EVENT SHALL THE CONTRIBUTORS OR
+COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*/
@@ -3,6 +3,7 @@ package edu.northwestern.at.morphadorner.corpuslinguistics.postagger.bigram;
 /*  Please see the license information at the end of this file. */
 
 import java.util.*;
+import java.util.concurrent.atomic.*;
 
 import edu.northwestern.at.utils.*;
 import edu.northwestern.at.utils.logger.*;
@@ -23,6 +24,12 @@ import edu.northwestern.at.utils.math.*;
  *  The Viterbi algorithm is used to reduce the
  *  amount of computation required to find the optimal tag assignments.
  *  </p>
+ *
+ *  <p>
+ *  Each thread decodes its sentences with its own reusable
+ *  {@link ArrayViterbi} trellis, so once configured a single tagger
+ *  may tag sentences from several threads at once.
+ *  </p>
  */
 
 public class BigramTagger
@@ -34,21 +41,10 @@ public class BigramTagger
 
     protected boolean debug = false;
 
-    /** Contextual probabilities for a word in a sentence.
-     */
-
-    protected Map2D<String, String, Probability>
-        contextualProbabilities = Map2DFactory.createNewMap2D();
-
     /** Total number of states rejected by beam search criterion.
      */
 
-    protected int beamSearchRejections  = 0;
-
-    /** Viterbi trellis for tags and probability scores.
-     */
-
-    protected Viterbi viterbi   = new Viterbi();
+    protected AtomicInteger beamSearchRejections    = new AtomicInteger();
 
     /** Create a bigram tagger.
      */
@@ -111,16 +107,30 @@ public class BigramTagger
                 lexicalSmoother.cachedProbabilitiesCount()
             );
 
+            logger.logDebug
+            (
+                "      # of lexical cache hits / misses   : " +
+                lexicalSmoother.cachedProbabilitiesHitCount() + " / " +
+                lexicalSmoother.cachedProbabilitiesMissCount()
+            );
+
             logger.logDebug
             (
                 "      # of cached contextual probabilties: " +
                 contextualSmoother.cachedProbabilitiesCount()
             );
 
+            logger.logDebug
+            (
+                "      # of contextual cache hits / misses: " +
+                contextualSmoother.cachedProbabilitiesHitCount() + " / " +
+                contextualSmoother.cachedProbabilitiesMissCount()
+            );
+
             logger.logDebug
             (
                 "   # of states rejected by beam search: " +
-                beamSearchRejections
+                beamSearchRejections.get()
             );
         }
 
@@ -149,14 +159,12 @@ public class BigramTagger
         List<T> taggedSentence
     )
     {
-                                //  Reset Viterbi trellis.
-        viterbi.reset();
-                                //  Assume period as previous word tag.
+                                //  Start the Viterbi trellis for
+                                //  this sentence.
 
-        List<String> previousTags   =
-            ListFactory.createNewList();
+        ArrayViterbi viterbi    = getViterbi();
 
-        previousTags.add( "." );
+        viterbi.start( taggedSentence.size() );
 
                                 //  Index of word in sentence.
 
@@ -167,40 +175,29 @@ public class BigramTagger
         Iterator<? extends AdornedWord> wordsIter   =
             taggedSentence.iterator();
 
-        List<String> tags   = null;
-
         while ( wordsIter.hasNext() )
         {
                                 //  Get next word.
 
             AdornedWord word    = wordsIter.next();
 
-                                //  Get part of speech tags for this
-                                //  this word.
-
-            tags                =
-                getTagsForWord( word.getStandardSpelling() );
-
-                                //  Process word.  The returned tags
-                                //  for the current word are those which
-                                //  passed the Viterbi beam search
-                                //  criterion.  These possibly pruned tags
-                                //  will be the previous tags for the
-                                //  next word.
-
-            previousTags    =
-                processWord
-                (
-                    wordIndex++ ,
-                    word.getStandardSpelling() ,
-                    previousTags ,
-                    tags
-                );
+                                //  Process word with its part of
+                                //  speech tags.  The tags which
+                                //  pass the Viterbi beam search
+                                //  criterion will be the previous tags
+                                //  for the next word.
+            processWord
+            (
+                viterbi ,
+                wordIndex++ ,
+                word.getStandardSpelling() ,
+                getTagsForWord( word.getStandardSpelling() )
+            );
         }
                                 //  Retrieve optimal tags and
                                 //  output (word,tag) .
 
-        List<String> optimalTags    = viterbi.optimalTags( wordIndex , tags );
+        List<String> optimalTags    = viterbi.optimalTags( wordIndex );
         wordIndex                   = 0;
 
         wordsIter                   = taggedSentence.iterator();
@@ -218,7 +215,7 @@ public class BigramTagger
                                 //  Increment total count of states
                                 //  rejections by beam search criterion.
 
-        beamSearchRejections    += viterbi.getBeamSearchRejections();
+        beamSearchRejections.addAndGet( viterbi.getBeamSearchRejections() );
 
                                 //  We have a new finished sentence.
 
@@ -227,59 +224,59 @@ public class BigramTagger
 
     /** Process a single word.
      *
-     *  @param  wordIndex       Index of word in sentence (starts at 0).
-     *  @param  word            Word being processed.
-     *  @param  previousTags    The previous word's tags.
-     *  @param  tags            The current word's tags.
+     *  @param  viterbi     Viterbi trellis for the sentence.
+     *  @param  wordIndex   Index of word in sentence (starts at 0).
+     *  @param  word        Word being processed.
+     *  @param  tags        The current word's tags.
+     *
+     *  @return             Number of tags passing the beam search
+     *                      criterion.
      *
-     *  @return                 Updated tag list.
+     *  <p>
+     *  The previous tags are those of the preceding word which passed
+     *  the beam search criterion, as held by the trellis.
+     *  </p>
      */
 
-    protected List<String> processWord
+    protected int processWord
     (
+        ArrayViterbi viterbi ,
         int wordIndex ,
         String word ,
-        List<String> previousTags ,
         List<String> tags
     )
     {
                                 //  Find tag with largest probability
                                 //  combined with previous word's tag.
 
-        contextualProbabilities.clear();
+        int nTags       = viterbi.setTags( wordIndex , tags );
+        int nPrevTags   = viterbi.getTagCount( wordIndex - 1 );
+
+        double[] lexicalProbs       = viterbi.getLexicalScores( nTags );
+
+        double[] contextualProbs    =
+            viterbi.getContextualScores( nTags * nPrevTags );
 
-        int nTags                   = tags.size();
-        Probability[] lexicalProbs  = new Probability[ nTags ];
+        int contextual              = 0;
 
         for ( int i = 0 ; i < nTags ; i++ )
         {
             lexicalProbs[ i ]   =
                 lexicalSmoother.lexicalProbability(
-                    word , (String)tags.get( i ) );
+                    word , tags.get( i ) ).getLogProbability();
 
-            for ( int j = 0 ; j < previousTags.size() ; j++ )
+            for ( int j = 0 ; j < nPrevTags ; j++ )
             {
-                contextualProbabilities.put
-                (
-                    tags.get( i ) ,
-                    previousTags.get( j ) ,
+                contextualProbs[ contextual++ ] =
                     contextualSmoother.contextualProbability
                     (
                         tags.get( i ) ,
-                        previousTags.get( j )
-                    )
-                );
+                        viterbi.getTag( wordIndex - 1 , j )
+                    ).getLogProbability();
             }
         }
 
-        return viterbi.updateScore
-        (
-            wordIndex ,
-            lexicalProbs ,
-            contextualProbabilities ,
-            tags ,
-            previousTags
-        );
+        return viterbi.updateBigramScore( wordIndex );
     }
 
     /** Set the logger.
@@ -293,7 +290,6 @@ public class BigramTagger
 
         ((UsesLogger)lexicalSmoother).setLogger( logger );
         ((UsesLogger)contextualSmoother).setLogger( logger );
-        viterbi.setLogger( logger );
     }
 
     /** Return tagger description.
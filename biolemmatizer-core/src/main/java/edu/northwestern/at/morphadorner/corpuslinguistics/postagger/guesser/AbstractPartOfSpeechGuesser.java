@@ -55,11 +55,14 @@ abstract public class AbstractPartOfSpeechGuesser
      *  <p>
      *  The key is the word spelling, the value is a map of
      *  parts of speech and associated counts for the spelling.
+     *  The cache is thread-safe so the guesser may be shared by
+     *  taggers running in several threads.  Cached maps must not
+     *  be modified.
      *  </p>
      */
 
     protected Cache<String, Map<String, MutableInteger>> cachedWords    =
-        new LRUCache<String, Map<String, MutableInteger>>( 2000 );
+        new StripedLRUCache<String, Map<String, MutableInteger>>( 2000 );
 
     /** Cache lexicon for unknown words.
      *
@@ -73,7 +76,7 @@ abstract public class AbstractPartOfSpeechGuesser
      */
 
     protected Map<String, Lexicon> cachedLexicons   =
-        MapFactory.createNewMap();
+        MapFactory.createNewConcurrentMap();
 
     /** The word lexicon.
      */
@@ -114,6 +117,10 @@ abstract public class AbstractPartOfSpeechGuesser
 
     protected boolean checkPossessives      = false;
 
+    /** Cache the parts of speech guessed for words. */
+
+    protected volatile boolean cacheWords   = true;
+
     /** Get the logger.
      *
      *  @return     The logger.
@@ -222,7 +229,10 @@ abstract public class AbstractPartOfSpeechGuesser
         Map<String, MutableInteger> tagMap
     )
     {
-        cachedWords.put( word , tagMap );
+        if ( cacheWords )
+        {
+            cachedWords.put( word , tagMap );
+        }
     }
 
     /** Create map with one (pos, count) entry.
@@ -369,6 +379,13 @@ abstract public class AbstractPartOfSpeechGuesser
     {
         Map<String, MutableInteger> result  = null;
 
+                                //  Nothing is cached when caching
+                                //  is disabled.
+
+        if ( !cacheWords )
+        {
+            return result;
+        }
                                 //  Is word in cache?  Return
                                 //  existing parts of speech if so.
 
@@ -1517,6 +1534,26 @@ abstract public class AbstractPartOfSpeechGuesser
         this.checkPossessives   = checkPossessives;
     }
 
+    /** Cache the parts of speech guessed for words.
+     *
+     *  <p>
+     *  A cached guess for the lower case form of a word is reused
+     *  for the word, so with caching enabled the guess for a word
+     *  may depend on the words guessed before it.  Disabling the
+     *  cache clears it.
+     *  </p>
+     */
+
+    public void setCacheWords( boolean cacheWords )
+    {
+        this.cacheWords = cacheWords;
+
+        if ( !cacheWords )
+        {
+            cachedWords.clear();
+        }
+    }
+
     /** Guesses part of speech for a word.
      *
      *  @param  word            The word.
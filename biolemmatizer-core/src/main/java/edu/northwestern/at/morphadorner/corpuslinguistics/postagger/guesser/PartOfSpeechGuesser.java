@@ -135,6 +135,17 @@ public interface PartOfSpeechGuesser
 
     public void setCheckPossessives( boolean checkPossessives );
 
+    /** Cache the parts of speech guessed for words.
+     *
+     *  <p>
+     *  A cached guess for the lower case form of a word is reused
+     *  for the word, so with caching enabled the guess for a word
+     *  may depend on the words guessed before it.
+     *  </p>
+     */
+
+    public void setCacheWords( boolean cacheWords );
+
     /** Set abbreviations.
      *
      *  @param  abbreviations   Abbreviations.
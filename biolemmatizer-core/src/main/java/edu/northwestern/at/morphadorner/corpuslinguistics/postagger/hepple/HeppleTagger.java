@@ -59,6 +59,13 @@ import edu.northwestern.at.morphadorner.corpuslinguistics.postagger.hepple.rules
  *  tagged text and rules to calling classes, and to allow the
  *  Hepple tagger to be used as a retagger.
  *  </p>
+ *
+ *  <p>
+ *  Each sentence is tagged in a separate window which shares the
+ *  rules and lexicons of this tagger, so once its rules are set a
+ *  Hepple tagger may tag or retag sentences from several threads at
+ *  once.
+ *  </p>
  */
 
 public class HeppleTagger extends AbstractPartOfSpeechTagger
@@ -127,6 +134,12 @@ public class HeppleTagger extends AbstractPartOfSpeechTagger
 
     protected boolean debug = false;
 
+    /** The tagger whose rules and lexicons a window shares.
+     *  Null if this tagger is not a window.
+     */
+
+    protected HeppleTagger owner;
+
     /** Construct a Hepple POS tagger.
      */
 
@@ -134,6 +147,71 @@ public class HeppleTagger extends AbstractPartOfSpeechTagger
     {
     }
 
+    /** Construct a window for tagging one sentence.
+     *
+     *  @param  owner   The tagger whose rules and lexicons
+     *                  the window shares.
+     */
+
+    protected HeppleTagger( HeppleTagger owner )
+    {
+        super( owner );
+
+        this.owner  = owner;
+        this.rules  = owner.rules;
+    }
+
+    /** Create a window for tagging one sentence.
+     *
+     *  @return     A tagger sharing the rules and lexicons of
+     *              this tagger, with its own sliding buffers.
+     */
+
+    protected HeppleTagger createWindow()
+    {
+        return new HeppleTagger( this );
+    }
+
+    /** Create a part of speech guesser.
+     *
+     *  <p>
+     *  A window uses the part of speech guesser of its owner.
+     *  </p>
+     */
+
+    protected void createPartOfSpeechGuesser()
+    {
+        if ( owner != null )
+        {
+            owner.createPartOfSpeechGuesser();
+
+            partOfSpeechGuesser = owner.getPartOfSpeechGuesser();
+        }
+        else
+        {
+            super.createPartOfSpeechGuesser();
+        }
+    }
+
+    /** Increment count of successful rule applications.
+     *
+     *  <p>
+     *  A window counts rule applications in its owner.
+     *  </p>
+     */
+
+    public void incrementRuleCorrections()
+    {
+        if ( owner != null )
+        {
+            owner.incrementRuleCorrections();
+        }
+        else
+        {
+            super.incrementRuleCorrections();
+        }
+    }
+
     /** See if tagger uses context rules.
      *
      *  @return     True since Hepple tagger uses context rules.
@@ -256,6 +334,10 @@ public class HeppleTagger extends AbstractPartOfSpeechTagger
         List<T> sentence
     )
     {
+                                //  Tag the sentence in its own window.
+
+        HeppleTagger window = createWindow();
+
                                 //  Loop over words in sentence.
 
         boolean isFirstWord = true;
@@ -268,7 +350,7 @@ public class HeppleTagger extends AbstractPartOfSpeechTagger
 
                                 //  Tag it,
 
-            oneStep( newWord , isFirstWord , sentence );
+            window.oneStep( newWord , isFirstWord , sentence );
 
             isFirstWord = false;
         }
@@ -278,7 +360,10 @@ public class HeppleTagger extends AbstractPartOfSpeechTagger
 
         for ( int i = 0 ; i < 6 ; i++ )
         {
-            oneStep( new BaseAdornedWord( staart ) , isFirstWord , sentence );
+            window.oneStep
+            (
+                new BaseAdornedWord( staart ) , isFirstWord , sentence
+            );
             isFirstWord = false;
         }
                                 //  We have a new finished sentence.
@@ -413,6 +498,10 @@ public class HeppleTagger extends AbstractPartOfSpeechTagger
 
         List<T> taggedSentence  = ListFactory.createNewList();
 
+                                //  Retag the sentence in its own window.
+
+        HeppleTagger window     = createWindow();
+
                                 //  Iterate over words in sentence.
 
         Iterator<T> taggedWordsIter = sentence.iterator();
@@ -426,7 +515,7 @@ public class HeppleTagger extends AbstractPartOfSpeechTagger
 
                                 //  Tag it,
 
-            oneRetagStep( nextWord , isFirstWord , taggedSentence );
+            window.oneRetagStep( nextWord , isFirstWord , taggedSentence );
 
             isFirstWord = false;
         }
@@ -436,7 +525,10 @@ public class HeppleTagger extends AbstractPartOfSpeechTagger
 
         for ( int i = 0 ; i < 6 ; i++ )
         {
-            oneRetagStep( (T)staartWordAndTag , isFirstWord , taggedSentence );
+            window.oneRetagStep
+            (
+                (T)staartWordAndTag , isFirstWord , taggedSentence
+            );
             isFirstWord = false;
         }
                                 //  We have a new finished sentence.
@@ -5,6 +5,7 @@ package edu.northwestern.at.morphadorner.corpuslinguistics.postagger.smoothing.c
 import java.util.*;
 
 import edu.northwestern.at.utils.*;
+import edu.northwestern.at.utils.cache.*;
 import edu.northwestern.at.utils.logger.*;
 import edu.northwestern.at.utils.math.*;
 import edu.northwestern.at.morphadorner.corpuslinguistics.postagger.*;
@@ -30,11 +31,20 @@ abstract public class AbstractContextualSmoother
 
     protected PartOfSpeechTagger partOfSpeechTagger;
 
+    /** Default maximum number of cached contextual probabilities. */
+
+    public static final int DEFAULT_CACHE_SIZE  = 100000;
+
     /** Cached contextual probabilities.
+     *
+     *  <p>
+     *  The cache is bounded and thread-safe so a tagger may be shared
+     *  between threads and run for any length of time.  Null if
+     *  probabilities are not cached.
+     *  </p>
      */
 
-    protected Map3D<String, String, String, Probability>
-        cachedContextualProbabilities;
+    protected DoubleCache cachedContextualProbabilities;
 
     /** Logger used for output. */
 
@@ -49,7 +59,7 @@ abstract public class AbstractContextualSmoother
                                 //  probabilities.
 
         cachedContextualProbabilities   =
-            Map3DFactory.createNewMap3D( 1000 );
+            new StripedClockCache( DEFAULT_CACHE_SIZE );
 
                                 //  Create logger.
 
@@ -107,12 +117,140 @@ abstract public class AbstractContextualSmoother
         return result;
     }
 
+    /** Get the number of contextual probabilities found in the cache.
+     *
+     *  @return     The number of cache hits.
+     */
+
+    public long cachedProbabilitiesHitCount()
+    {
+        long result = 0;
+
+        if ( cachedContextualProbabilities != null )
+        {
+            result  = cachedContextualProbabilities.getHitCount();
+        }
+
+        return result;
+    }
+
+    /** Get the number of contextual probabilities not found in the cache.
+     *
+     *  @return     The number of cache misses.
+     */
+
+    public long cachedProbabilitiesMissCount()
+    {
+        long result = 0;
+
+        if ( cachedContextualProbabilities != null )
+        {
+            result  = cachedContextualProbabilities.getMissCount();
+        }
+
+        return result;
+    }
+
     /** Clear cached probabilities..
      */
 
     public void clearCachedProbabilities()
     {
-        cachedContextualProbabilities.clear();
+        if ( cachedContextualProbabilities != null )
+        {
+            cachedContextualProbabilities.clear();
+        }
+    }
+
+    /** Get a cached probability.
+     *
+     *  @param  key1    The first key.
+     *  @param  key2    The second key.
+     *  @param  key3    The third key, or "*" if unused.
+     *
+     *  @return         The cached probability, or null if none.
+     *
+     *  <p>
+     *  The cache holds log probabilities, which {@link Probability}
+     *  stores, so a cached probability is exactly the computed one.
+     *  </p>
+     */
+
+    protected Probability getCachedProbability
+    (
+        String key1 ,
+        String key2 ,
+        String key3
+    )
+    {
+        Probability result  = null;
+        DoubleCache cache   = cachedContextualProbabilities;
+
+        if ( cache != null )
+        {
+            double logProbability   = cache.get( key1 , key2 , key3 );
+
+            if ( !Double.isNaN( logProbability ) )
+            {
+                result  = new Probability();
+
+                result.setLogProbability( logProbability );
+            }
+        }
+
+        return result;
+    }
+
+    /** Cache a probability.
+     *
+     *  @param  key1            The first key.
+     *  @param  key2            The second key.
+     *  @param  key3            The third key, or "*" if unused.
+     *  @param  probability     The probability.
+     */
+
+    protected void putCachedProbability
+    (
+        String key1 ,
+        String key2 ,
+        String key3 ,
+        Probability probability
+    )
+    {
+        DoubleCache cache   = cachedContextualProbabilities;
+
+        if ( cache != null )
+        {
+            cache.put
+            (
+                key1 ,
+                key2 ,
+                key3 ,
+                probability.getLogProbability()
+            );
+        }
+    }
+
+    /** Get the probability cache.
+     *
+     *  @return     The probability cache, or null if probabilities
+     *              are not cached.
+     */
+
+    public DoubleCache getProbabilityCache()
+    {
+        return cachedContextualProbabilities;
+    }
+
+    /** Set the probability cache.
+     *
+     *  @param  cache   The probability cache, or null to stop
+     *                  caching probabilities.
+     */
+
+    public void setProbabilityCache( DoubleCache cache )
+    {
+        cachedContextualProbabilities = cache;
     }
 
     /** Get contextually smoothed probability of a word given a tag.
@@ -125,8 +263,8 @@ abstract public class AbstractContextualSmoother
      *
      *  <p>
      *  To avoid redoing potentially expensive probability calculations,
-     *  you can use the "cachedContextualProbabilities" HashMap2D to store
-     *  probabilities once they are calculated.  Your contextualProbability
+     *  you can use getCachedProbability and putCachedProbability to
+     *  store probabilities once they are calculated.  Your contextualProbability
      *  method should look to see if the cache contains the needed
      *  contextual probability.  If so, just retrieve it without recomputing it.
      *  If the cache does not contain the probability, compute it, and
@@ -146,7 +284,7 @@ abstract public class AbstractContextualSmoother
      *                              //  p( word | tag ) is in the cache.
      *
      *      Probability result  =
-     *          (Probability)cachedContextualProbabilities.get( word , tag );
+     *          getCachedProbability( word , tag , "*" );
      *
      *                              //  If the probability isn't in the
      *                              //  cache, compute it.
@@ -160,7 +298,7 @@ abstract public class AbstractContextualSmoother
      *
      *          result  = new Probability( prob );
      *
-     *          cachedContextualProbabilities.put( word , tag , result );
+     *          putCachedProbability( word , tag , "*" , result );
      *      }
      *
      *      return result;
@@ -100,13 +100,9 @@ public class AdditiveContextualSmoother
                                 //  for the tag sequence
                                 //  (previousTag, tag) is in the cache.
 
-        Probability result  =   null;
+        Probability result  =
+            getCachedProbability( previousTag , tag , "*" );
 
-        if( cachedContextualProbabilities != null )
-        {
-            result  =
-                cachedContextualProbabilities.get( previousTag , tag , "*" );
-        }
                                 //  If the probability isn't in the
                                 //  cache, compute it.
         if ( result == null )
@@ -129,13 +125,10 @@ public class AdditiveContextualSmoother
 
             result  = new Probability( prob );
 
-            if ( cachedContextualProbabilities != null )
-            {
-                cachedContextualProbabilities.put
-                (
-                    previousTag , tag , "*" , result
-                );
-            }
+            putCachedProbability
+            (
+                previousTag , tag , "*" , result
+            );
         }
 
         return result;
@@ -168,14 +161,9 @@ public class AdditiveContextualSmoother
                                 //  (previousPreviousTag, previousTag , tag)
                                 //  is in the cache.
 
-        Probability result  =   null;
+        Probability result  =
+            getCachedProbability( previousPreviousTag , previousTag , tag );
 
-        if ( cachedContextualProbabilities != null )
-        {
-            result  =
-                cachedContextualProbabilities.get(
-                    previousPreviousTag , previousTag , tag );
-        }
                                 //  If the probability isn't in the
                                 //  cache, compute it.
         if ( result == null )
@@ -201,11 +189,10 @@ public class AdditiveContextualSmoother
 
             result  = new Probability( prob );
 
-            if ( cachedContextualProbabilities != null )
-            {
-                cachedContextualProbabilities.put(
-                    previousPreviousTag , previousTag , tag , result );
-            }
+            putCachedProbability
+            (
+                previousPreviousTag , previousTag , tag , result
+            );
         }
 
         return result;
@@ -26,12 +26,12 @@ public class DeletedInterpolationContextualSmoother
     /** Bigram weights for lexical smoothing.
      */
 
-    protected double[] bigramWeights    = null;
+    protected volatile double[] bigramWeights   = null;
 
     /** Trigram weights for lexical smoothing.
      */
 
-    protected double[] trigramWeights   = null;
+    protected volatile double[] trigramWeights  = null;
 
     /** Create a deleted interpolation contextual smoother.
      */
@@ -77,13 +77,9 @@ public class DeletedInterpolationContextualSmoother
                                 //  for the tag sequence
                                 //  (previousTag, tag) is in the cache.
 
-        Probability result  =   null;
+        Probability result  =
+            getCachedProbability( previousTag , tag , "*" );
 
-        if ( cachedContextualProbabilities != null )
-        {
-            result  =
-                cachedContextualProbabilities.get( previousTag , tag , "*" );
-        }
                                 //  If the probability isn't in the
                                 //  cache, compute it.
         if ( result == null )
@@ -110,11 +106,10 @@ public class DeletedInterpolationContextualSmoother
 
             result  = new Probability( prob );
 
-            if ( cachedContextualProbabilities != null )
-            {
-                cachedContextualProbabilities.put(
-                    previousTag , tag , "*" , result );
-            }
+            putCachedProbability
+            (
+                previousTag , tag , "*" , result
+            );
         }
 
         return result;
@@ -162,14 +157,9 @@ public class DeletedInterpolationContextualSmoother
                                 //  (previousPreviousTag, previousTag , tag)
                                 //  is in the cache.
 
-        Probability result  =   null;
+        Probability result  =
+            getCachedProbability( previousPreviousTag , previousTag , tag );
 
-        if ( cachedContextualProbabilities != null )
-        {
-            result  =
-                cachedContextualProbabilities.get(
-                    previousPreviousTag , previousTag , tag );
-        }
                                 //  If the probability isn't in the
                                 //  cache, compute it.
 
@@ -200,11 +190,10 @@ public class DeletedInterpolationContextualSmoother
 
             result  = new Probability( prob );
 
-            if ( cachedContextualProbabilities != null )
-            {
-                cachedContextualProbabilities.put(
-                    previousPreviousTag , previousTag , tag , result );
-            }
+            putCachedProbability
+            (
+                previousPreviousTag , previousTag , tag , result
+            );
         }
 
         return result;
@@ -5,6 +5,7 @@ package edu.northwestern.at.morphadorner.corpuslinguistics.postagger.smoothing.l
 import java.util.*;
 
 import edu.northwestern.at.utils.*;
+import edu.northwestern.at.utils.cache.*;
 import edu.northwestern.at.utils.logger.*;
 import edu.northwestern.at.morphadorner.corpuslinguistics.lexicon.*;
 import edu.northwestern.at.morphadorner.corpuslinguistics.postagger.*;
@@ -31,10 +32,20 @@ abstract public class AbstractLexicalSmoother
 
     protected PartOfSpeechTagger partOfSpeechTagger;
 
-    /** Cached lexical probabilities for words.
+    /** Default maximum number of cached lexical probabilities. */
+
+    public static final int DEFAULT_CACHE_SIZE  = 100000;
+
+    /** Cached lexical probabilities.
+     *
+     *  <p>
+     *  The cache is bounded and thread-safe so a tagger may be shared
+     *  between threads and run for any length of time.  Null if
+     *  probabilities are not cached.
+     *  </p>
      */
 
-    protected Map2D<String, String, Probability> cachedLexicalProbabilities;
+    protected DoubleCache cachedLexicalProbabilities;
 
     /** Logger used for output. */
 
@@ -49,7 +60,7 @@ abstract public class AbstractLexicalSmoother
                                 //  probabilities.
 
         cachedLexicalProbabilities  =
-            Map2DFactory.createNewMap2D( 3000 );
+            new StripedClockCache( DEFAULT_CACHE_SIZE );
 
                                 //  Create dummy logger.
 
@@ -107,12 +118,140 @@ abstract public class AbstractLexicalSmoother
         return result;
     }
 
+    /** Get the number of lexical probabilities found in the cache.
+     *
+     *  @return     The number of cache hits.
+     */
+
+    public long cachedProbabilitiesHitCount()
+    {
+        long result = 0;
+
+        if ( cachedLexicalProbabilities != null )
+        {
+            result  = cachedLexicalProbabilities.getHitCount();
+        }
+
+        return result;
+    }
+
+    /** Get the number of lexical probabilities not found in the cache.
+     *
+     *  @return     The number of cache misses.
+     */
+
+    public long cachedProbabilitiesMissCount()
+    {
+        long result = 0;
+
+        if ( cachedLexicalProbabilities != null )
+        {
+            result  = cachedLexicalProbabilities.getMissCount();
+        }
+
+        return result;
+    }
+
     /** Clear cached probabilities..
      */
 
     public void clearCachedProbabilities()
     {
-        cachedLexicalProbabilities.clear();
+        if ( cachedLexicalProbabilities != null )
+        {
+            cachedLexicalProbabilities.clear();
+        }
+    }
+
+    /** Get a cached probability.
+     *
+     *  @param  key1    The first key.
+     *  @param  key2    The second key.
+     *  @param  key3    The third key, or "*" if unused.
+     *
+     *  @return         The cached probability, or null if none.
+     *
+     *  <p>
+     *  The cache holds log probabilities, which {@link Probability}
+     *  stores, so a cached probability is exactly the computed one.
+     *  </p>
+     */
+
+    protected Probability getCachedProbability
+    (
+        String key1 ,
+        String key2 ,
+        String key3
+    )
+    {
+        Probability result  = null;
+        DoubleCache cache   = cachedLexicalProbabilities;
+
+        if ( cache != null )
+        {
+            double logProbability   = cache.get( key1 , key2 , key3 );
+
+            if ( !Double.isNaN( logProbability ) )
+            {
+                result  = new Probability();
+
+                result.setLogProbability( logProbability );
+            }
+        }
+
+        return result;
+    }
+
+    /** Cache a probability.
+     *
+     *  @param  key1            The first key.
+     *  @param  key2            The second key.
+     *  @param  key3            The third key, or "*" if unused.
+     *  @param  probability     The probability.
+     */
+
+    protected void putCachedProbability
+    (
+        String key1 ,
+        String key2 ,
+        String key3 ,
+        Probability probability
+    )
+    {
+        DoubleCache cache   = cachedLexicalProbabilities;
+
+        if ( cache != null )
+        {
+            cache.put
+            (
+                key1 ,
+                key2 ,
+                key3 ,
+                probability.getLogProbability()
+            );
+        }
+    }
+
+    /** Get the probability cache.
+     *
+     *  @return     The probability cache, or null if probabilities
+     *              are not cached.
+     */
+
+    public DoubleCache getProbabilityCache()
+    {
+        return cachedLexicalProbabilities;
+    }
+
+    /** Set the probability cache.
+     *
+     *  @param  cache   The probability cache, or null to stop
+     *                  caching probabilities.
+     */
+
+    public void setProbabilityCache( DoubleCache cache )
+    {
+        cachedLexicalProbabilities = cache;
     }
 
     /** Get lexically smoothed probability of a word given a tag.
@@ -125,8 +264,8 @@ abstract public class AbstractLexicalSmoother
      *
      *  <p>
      *  To avoid redoing potentially expensive probability calculations,
-     *  you can use the "cachedLexicalProbabilities" HashMap2D to store
-     *  probabilities once they are calculated.  Your lexicalProbability
+     *  you can use getCachedProbability and putCachedProbability to
+     *  store probabilities once they are calculated.  Your lexicalProbability
      *  method should look to see if the cache contains the needed
      *  lexical probability.  If so, just retrieve it without recomputing it.
      *  If the cache does not contain the probability, compute it, and
@@ -146,7 +285,7 @@ abstract public class AbstractLexicalSmoother
      *                              //  p( word | tag ) is in the cache.
      *
      *      Probability result  =
-     *          (Probability)cachedLexicalProbabilities.get( word , tag );
+     *          getCachedProbability( word , tag , "*" );
      *
      *                              //  If the probability isn't in the
      *                              //  cache, compute it.
@@ -160,7 +299,7 @@ abstract public class AbstractLexicalSmoother
      *
      *          result  = new Probability( prob );
      *
-     *          cachedLexicalProbabilities.put( word , tag , result );
+     *          putCachedProbability( word , tag , "*" , result );
      *      }
      *
      *      return result;
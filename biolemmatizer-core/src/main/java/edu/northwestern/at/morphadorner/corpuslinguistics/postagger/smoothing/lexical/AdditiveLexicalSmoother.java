@@ -58,12 +58,8 @@ public class AdditiveLexicalSmoother
                                 //  See if the lexical probability
                                 //  p( word | tag ) is in the cache.
 
-        Probability result  =   null;
+        Probability result  = getCachedProbability( word , tag , "*" );
 
-        if ( cachedLexicalProbabilities != null )
-        {
-            result  = cachedLexicalProbabilities.get( word , tag );
-        }
                                 //  If the probability isn't in the
                                 //  cache, compute it.
 
@@ -122,10 +118,7 @@ public class AdditiveLexicalSmoother
                 result  = new Probability( 1.0 );
             }
 
-            if ( cachedLexicalProbabilities != null )
-            {
-                cachedLexicalProbabilities.put( word , tag , result );
-            }
+            putCachedProbability( word , tag , "*" , result );
         }
 
         return result;
@@ -33,6 +33,20 @@ public interface LexicalSmoother
 
     public int cachedProbabilitiesCount();
 
+    /** Get the number of lexical probabilities found in the cache.
+     *
+     *  @return     The number of cache hits.
+     */
+
+    public long cachedProbabilitiesHitCount();
+
+    /** Get the number of lexical probabilities not found in the cache.
+     *
+     *  @return     The number of cache misses.
+     */
+
+    public long cachedProbabilitiesMissCount();
+
     /** Clear cached probabilities..
      */
 
@@ -0,0 +1,1332 @@
+package edu.northwestern.at.morphadorner.corpuslinguistics.postagger.transitionmatrix;
+
+/*  Please see the license information at the end of this file. */
+
+import java.io.*;
+import java.net.*;
+import java.util.*;
+
+import edu.northwestern.at.utils.*;
+
+/** Probability transition matrix held in arrays indexed by tag ids.
+ *
+ *  <p>
+ *  Maps each part of speech tag to an integer id, in sorted tag order,
+ *  and holds the unigram and bigram counts and probabilities in flat
+ *  arrays indexed by tag id.  Trigrams are held in blocks, one for
+ *  each pair of leading tags, sorted by the id of the third tag.
+ *  A probability lookup therefore costs one hash lookup per tag and
+ *  an array index, or a binary search in a short block for trigrams,
+ *  instead of nested hash lookups of boxed values.  Callers holding
+ *  tag ids may use the integer versions of {@link #getProbability}
+ *  and skip the hash lookups too.
+ *  </p>
+ *
+ *  <p>
+ *  A dense matrix is created from a trained or loaded
+ *  {@link TransitionMatrix}, loaded from a text transition matrix
+ *  file, or loaded from the compact binary format written by
+ *  {@link #saveBinaryTransitionMatrix}.  The binary format holds the
+ *  tags, the counts and the deleted interpolation weights, so loading
+ *  it parses no text.  The probabilities are computed from the counts
+ *  as {@link TransitionMatrix} computes them.
+ *  </p>
+ *
+ *  <p>
+ *  The counts cannot be changed once loaded, so a dense matrix may be
+ *  shared between threads without locking.
+ *  </p>
+ */
+
+public class DenseTransitionMatrix
+    extends TransitionMatrix
+{
+    /** File extension for binary transition matrix files. */
+
+    public static final String BINARY_FILE_EXTENSION    = ".bmat";
+
+    /** Binary file signature, "TMX" followed by the format version. */
+
+    protected static final int BINARY_SIGNATURE = 0x544D5801;
+
+    /** Part of speech tags indexed by tag id, in sorted order. */
+
+    protected String[] tags             = new String[ 0 ];
+
+    /** Map from part of speech tags to tag ids. */
+
+    protected Map<String, Integer> tagIds   = MapFactory.createNewMap();
+
+    /** Unigram counts indexed by tag id. */
+
+    protected int[] unigramCounts       = new int[ 0 ];
+
+    /** Unigram probabilities indexed by tag id. */
+
+    protected double[] unigramProbs     = new double[ 0 ];
+
+    /** Bigram counts indexed by tag1 id * # of tags + tag2 id. */
+
+    protected int[] bigramCounts        = new int[ 0 ];
+
+    /** Bigram probabilities indexed as bigramCounts. */
+
+    protected double[] bigramProbs      = new double[ 0 ];
+
+    /** Start of the trigram block for each pair of leading tags,
+     *  indexed as bigramCounts.  The last entry holds the number
+     *  of trigrams.
+     */
+
+    protected int[] trigramOffsets      = new int[]{ 0 };
+
+    /** Third tag id of each trigram, sorted within each block. */
+
+    protected int[] trigramTags         = new int[ 0 ];
+
+    /** Trigram counts. */
+
+    protected int[] trigramCounts       = new int[ 0 ];
+
+    /** Trigram probabilities. */
+
+    protected double[] trigramProbs     = new double[ 0 ];
+
+    /** Leading, middle and third tags of the trigrams. */
+
+    protected Set<String> rowKeySet     = new TreeSet<String>();
+    protected Set<String> columnKeySet  = new TreeSet<String>();
+    protected Set<String> sliceKeySet   = new TreeSet<String>();
+
+    /** Create empty dense transition matrix.
+     */
+
+    public DenseTransitionMatrix()
+    {
+        super();
+
+        haveProbabilities   = true;
+        bigramWeights       = new double[]{ 0.0D , 0.0D };
+        trigramWeights      = new double[]{ 0.0D , 0.0D , 0.0D };
+    }
+
+    /** Create dense transition matrix from another transition matrix.
+     *
+     *  @param  transitionMatrix    The transition matrix.
+     */
+
+    public DenseTransitionMatrix( TransitionMatrix transitionMatrix )
+    {
+        this();
+
+        setCounts( transitionMatrix );
+    }
+
+    /** Copy the counts of another transition matrix.
+     *
+     *  @param  transitionMatrix    The transition matrix.
+     */
+
+    protected void setCounts( TransitionMatrix transitionMatrix )
+    {
+        logger  = transitionMatrix.getLogger();
+
+        if ( transitionMatrix instanceof DenseTransitionMatrix )
+        {
+            copy( (DenseTransitionMatrix)transitionMatrix );
+
+            return;
+        }
+
+        NGramCounts counts  = new NGramCounts();
+
+        for ( String tag : transitionMatrix.unigramCountMap.keySet() )
+        {
+            counts.add
+            (
+                new String[]{ tag } ,
+                1 ,
+                transitionMatrix.getCount( tag )
+            );
+        }
+
+        for ( CompoundKey key : transitionMatrix.bigramCountMap.keySet() )
+        {
+            String[] keyTags    = getTags( key );
+
+            counts.add
+            (
+                keyTags ,
+                2 ,
+                transitionMatrix.getCount( keyTags[ 0 ] , keyTags[ 1 ] )
+            );
+        }
+
+        for ( CompoundKey key : transitionMatrix.trigramCountMap.keySet() )
+        {
+            String[] keyTags    = getTags( key );
+
+            counts.add
+            (
+                keyTags ,
+                3 ,
+                transitionMatrix.getCount
+                (
+                    keyTags[ 0 ] ,
+                    keyTags[ 1 ] ,
+                    keyTags[ 2 ]
+                )
+            );
+        }
+
+        setCounts( counts );
+    }
+
+    /** Get the tags of a compound key.
+     *
+     *  @param  key     The compound key of tags.
+     *
+     *  @return         The tags.
+     */
+
+    protected static String[] getTags( CompoundKey key )
+    {
+        Comparable[] keyValues  = key.getKeyValues();
+        String[] result         = new String[ keyValues.length ];
+
+        for ( int i = 0 ; i < result.length ; i++ )
+        {
+            result[ i ] = keyValues[ i ].toString();
+        }
+
+        return result;
+    }
+
+    /** Copy another dense transition matrix.
+     *
+     *  @param  matrix  The dense transition matrix.
+     *
+     *  <p>
+     *  The arrays are shared, since neither matrix changes them.
+     *  </p>
+     */
+
+    protected void copy( DenseTransitionMatrix matrix )
+    {
+        tags            = matrix.tags;
+        tagIds          = matrix.tagIds;
+        unigramCounts   = matrix.unigramCounts;
+        unigramProbs    = matrix.unigramProbs;
+        bigramCounts    = matrix.bigramCounts;
+        bigramProbs     = matrix.bigramProbs;
+        trigramOffsets  = matrix.trigramOffsets;
+        trigramTags     = matrix.trigramTags;
+        trigramCounts   = matrix.trigramCounts;
+        trigramProbs    = matrix.trigramProbs;
+        rowKeySet       = matrix.rowKeySet;
+        columnKeySet    = matrix.columnKeySet;
+        sliceKeySet     = matrix.sliceKeySet;
+        totalNGrams     = matrix.totalNGrams.clone();
+        uniqueNGrams    = matrix.uniqueNGrams.clone();
+        totalWords      = matrix.totalWords;
+        bigramWeights   = matrix.bigramWeights.clone();
+        trigramWeights  = matrix.trigramWeights.clone();
+    }
+
+    /** Set the counts, totals, weights and probabilities from ngram counts.
+     *
+     *  @param  counts  The ngram counts.
+     *
+     *  <p>
+     *  Repeated ngrams are summed, as
+     *  {@link TransitionMatrix#incrementCount} sums them.
+     *  </p>
+     */
+
+    protected void setCounts( NGramCounts counts )
+    {
+                                //  Sort the tags and map the
+                                //  collected tag ids to sorted ids.
+
+        String[] sortedTags =
+            counts.tags.toArray( new String[ counts.tags.size() ] );
+
+        Arrays.sort( sortedTags );
+
+        setTags( sortedTags );
+
+        int nTags   = sortedTags.length;
+        int[] ids   = new int[ nTags ];
+
+        for ( int i = 0 ; i < nTags ; i++ )
+        {
+            ids[ i ]    = tagIds.get( counts.tags.get( i ) );
+        }
+
+        totalNGrams     = new int[ 3 ];
+        uniqueNGrams    = new int[ 3 ];
+        totalWords      = 0;
+
+                                //  Sum the unigram and bigram counts.
+
+        boolean[] seen  = new boolean[ nTags * nTags ];
+        int[] values    = counts.values[ UNIGRAM ];
+
+        for ( int i = 0 ; i < counts.sizes[ UNIGRAM ] ; i += 2 )
+        {
+            int tag     = ids[ values[ i ] ];
+            int count   = values[ i + 1 ];
+
+            unigramCounts[ tag ]    += count;
+            totalNGrams[ UNIGRAM ]  += count;
+            totalWords              += count;
+
+            if ( !seen[ tag ] )
+            {
+                seen[ tag ] = true;
+                uniqueNGrams[ UNIGRAM ]++;
+            }
+        }
+
+        Arrays.fill( seen , false );
+
+        values  = counts.values[ BIGRAM ];
+
+        for ( int i = 0 ; i < counts.sizes[ BIGRAM ] ; i += 3 )
+        {
+            int pair    = ids[ values[ i ] ] * nTags + ids[ values[ i + 1 ] ];
+            int count   = values[ i + 2 ];
+
+            bigramCounts[ pair ]    += count;
+            totalNGrams[ BIGRAM ]   += count;
+
+            if ( !seen[ pair ] )
+            {
+                seen[ pair ]    = true;
+                uniqueNGrams[ BIGRAM ]++;
+            }
+        }
+                                //  Place the trigrams in blocks by
+                                //  their leading tags.
+
+        values  = counts.values[ TRIGRAM ];
+
+        int nEntries    = counts.sizes[ TRIGRAM ] / 4;
+        int[] pairs     = new int[ nEntries ];
+        int[] starts    = new int[ nTags * nTags + 1 ];
+
+        for ( int i = 0 ; i < nEntries ; i++ )
+        {
+            pairs[ i ]  =
+                ids[ values[ 4 * i ] ] * nTags + ids[ values[ 4 * i + 1 ] ];
+
+            starts[ pairs[ i ] + 1 ]++;
+            totalNGrams[ TRIGRAM ]  += values[ 4 * i + 3 ];
+        }
+
+        for ( int i = 1 ; i < starts.length ; i++ )
+        {
+            starts[ i ] += starts[ i - 1 ];
+        }
+
+        int[] blockTags     = new int[ nEntries ];
+        int[] blockCounts   = new int[ nEntries ];
+        int[] blockSizes    = new int[ nTags * nTags ];
+
+        for ( int i = 0 ; i < nEntries ; i++ )
+        {
+            int j   = starts[ pairs[ i ] ] + blockSizes[ pairs[ i ] ]++;
+
+            blockTags[ j ]      = ids[ values[ 4 * i + 2 ] ];
+            blockCounts[ j ]    = values[ 4 * i + 3 ];
+        }
+                                //  Sort each block by third tag,
+                                //  summing repeated trigrams.
+
+        int nTrigrams   = 0;
+
+        for ( int pair = 0 ; pair < nTags * nTags ; pair++ )
+        {
+            int blockStart  = nTrigrams;
+
+            for ( int i = starts[ pair ] ; i < starts[ pair + 1 ] ; i++ )
+            {
+                int tag3    = blockTags[ i ];
+                int count   = blockCounts[ i ];
+                int j       = nTrigrams;
+
+                while ( ( j > blockStart ) && ( blockTags[ j - 1 ] > tag3 ) )
+                {
+                    j--;
+                }
+
+                if ( ( j > blockStart ) && ( blockTags[ j - 1 ] == tag3 ) )
+                {
+                    blockCounts[ j - 1 ]    += count;
+                    continue;
+                }
+
+                System.arraycopy( blockTags , j ,
+                    blockTags , j + 1 , nTrigrams - j );
+
+                System.arraycopy( blockCounts , j ,
+                    blockCounts , j + 1 , nTrigrams - j );
+
+                blockTags[ j ]      = tag3;
+                blockCounts[ j ]    = count;
+                nTrigrams++;
+            }
+
+            trigramOffsets[ pair + 1 ]  = nTrigrams;
+        }
+
+        setTrigramCount( nTrigrams );
+
+        System.arraycopy( blockTags , 0 , trigramTags , 0 , nTrigrams );
+        System.arraycopy( blockCounts , 0 , trigramCounts , 0 , nTrigrams );
+
+        uniqueNGrams[ TRIGRAM ] = nTrigrams;
+
+        computeProbabilities( true );
+    }
+
+    /** Set the tags and allocate the unigram and bigram arrays.
+     *
+     *  @param  tags    The tags, in sorted order.
+     */
+
+    protected void setTags( String[] tags )
+    {
+        int nTags       = tags.length;
+
+        this.tags       = tags;
+        tagIds          = MapFactory.createNewMap( nTags );
+
+        for ( int i = 0 ; i < nTags ; i++ )
+        {
+            tagIds.put( tags[ i ] , i );
+        }
+
+        unigramCounts   = new int[ nTags ];
+        unigramProbs    = new double[ nTags ];
+        bigramCounts    = new int[ nTags * nTags ];
+        bigramProbs     = new double[ nTags * nTags ];
+        trigramOffsets  = new int[ nTags * nTags + 1 ];
+    }
+
+    /** Allocate the trigram arrays.
+     *
+     *  @param  nTrigrams   The number of trigrams.
+     */
+
+    protected void setTrigramCount( int nTrigrams )
+    {
+        trigramTags     = new int[ nTrigrams ];
+        trigramCounts   = new int[ nTrigrams ];
+        trigramProbs    = new double[ nTrigrams ];
+    }
+
+    /** Turn the trigram block sizes into block starts.
+     *
+     *  <p>
+     *  On entry trigramOffsets[ i + 1 ] holds the size of block i.
+     *  </p>
+     */
+
+    protected void finishTrigramOffsets()
+    {
+        for ( int i = 1 ; i < trigramOffsets.length ; i++ )
+        {
+            trigramOffsets[ i ] += trigramOffsets[ i - 1 ];
+        }
+    }
+
+    /** Compute the probabilities and trigram key sets from the counts.
+     *
+     *  @param  computeWeights  True to compute the interpolation weights
+     *                          too.
+     *
+     *  <p>
+     *  As in {@link TransitionMatrix#computeTrigramWeights}, only
+     *  trigrams with a positive count have probabilities, as do their
+     *  last tag and their last two tags, and the trigram weights are
+     *  computed using deleted interpolation.  The bigram weights are
+     *  fixed, as in {@link TransitionMatrix#computeBigramWeights}.
+     *  </p>
+     */
+
+    protected void computeProbabilities( boolean computeWeights )
+    {
+        int nTags       = tags.length;
+        int nEntries    = totalNGrams[ UNIGRAM ];
+
+        double lambda1  = 0.0D;
+        double lambda2  = 0.0D;
+        double lambda3  = 0.0D;
+
+        rowKeySet       = new TreeSet<String>();
+        columnKeySet    = new TreeSet<String>();
+        sliceKeySet     = new TreeSet<String>();
+
+        for ( int pair = 0 ; pair < nTags * nTags ; pair++ )
+        {
+            int tag1    = pair / nTags;
+            int tag2    = pair % nTags;
+
+            for (   int i = trigramOffsets[ pair ] ;
+                    i < trigramOffsets[ pair + 1 ] ;
+                    i++ )
+            {
+                int tag3    = trigramTags[ i ];
+
+                rowKeySet.add( tags[ tag1 ] );
+                columnKeySet.add( tags[ tag2 ] );
+                sliceKeySet.add( tags[ tag3 ] );
+
+                int trigramCount    = trigramCounts[ i ];
+
+                if ( trigramCount <= 0 ) continue;
+
+                double unigramP =
+                    safelyDivideCount( unigramCounts[ tag3 ] , nEntries );
+
+                double bigramP  =
+                    safelyDivideCount
+                    (
+                        bigramCounts[ tag2 * nTags + tag3 ] ,
+                        unigramCounts[ tag2 ]
+                    );
+
+                double trigramP =
+                    safelyDivideCount( trigramCount , bigramCounts[ pair ] );
+
+                unigramProbs[ tag3 ]                = unigramP;
+                bigramProbs[ tag2 * nTags + tag3 ]  = bigramP;
+                trigramProbs[ i ]                   = trigramP;
+
+                double maxP =
+                    Math.max( Math.max( unigramP , bigramP ) , trigramP );
+
+                if ( maxP == unigramP )
+                {
+                    lambda1 += trigramCount;
+                }
+                else if ( maxP == bigramP )
+                {
+                    lambda2 += trigramCount;
+                }
+                else
+                {
+                    lambda3 += trigramCount;
+                }
+            }
+        }
+
+        rowKeySet       = Collections.unmodifiableSet( rowKeySet );
+        columnKeySet    = Collections.unmodifiableSet( columnKeySet );
+        sliceKeySet     = Collections.unmodifiableSet( sliceKeySet );
+
+        if ( computeWeights )
+        {
+            double sum  = lambda1 + lambda2 + lambda3;
+
+            if ( sum > 0 )
+            {
+                lambda1 = lambda1 / sum;
+                lambda2 = lambda2 / sum;
+                lambda3 = lambda3 / sum;
+            }
+
+            bigramWeights   = new double[]{ 0.03D , 0.97D };
+            trigramWeights  = new double[]{ lambda1 , lambda2 , lambda3 };
+        }
+    }
+
+    /** Counts cannot be changed.
+     *
+     *  @param  tag         The part of speech tag.
+     *  @param  increment   The increment.
+     *
+     *  @throws UnsupportedOperationException always.
+     */
+
+    public void incrementCount( String tag , int increment )
+    {
+        throw new UnsupportedOperationException
+        (
+            "Dense transition matrix counts cannot be changed."
+        );
+    }
+
+    /** Counts cannot be changed.
+     *
+     *  @param  tag1        The first part of speech tag.
+     *  @param  tag2        The second part of speech tag.
+     *  @param  increment   The increment.
+     *
+     *  @throws UnsupportedOperationException always.
+     */
+
+    public void incrementCount( String tag1 , String tag2 , int increment )
+    {
+        incrementCount( tag1 , increment );
+    }
+
+    /** Counts cannot be changed.
+     *
+     *  @param  tag1        The first part of speech tag.
+     *  @param  tag2        The second part of speech tag.
+     *  @param  tag3        The third part of speech tag.
+     *  @param  increment   The increment.
+     *
+     *  @throws UnsupportedOperationException always.
+     */
+
+    public void incrementCount
+    (
+        String tag1 ,
+        String tag2 ,
+        String tag3 ,
+        int increment
+    )
+    {
+        incrementCount( tag1 , increment );
+    }
+
+    /** Calculate transition probabilities from counts.
+     *
+     *  <p>
+     *  Does nothing, since the probabilities are computed when the
+     *  counts are loaded.
+     *  </p>
+     */
+
+    public void calculateProbabilities()
+    {
+    }
+
+    /** Get the number of tags.
+     *
+     *  @return     The number of tags.
+     */
+
+    public int getNumberOfTags()
+    {
+        return tags.length;
+    }
+
+    /** Get the id of a tag.
+     *
+     *  @param  tag     The part of speech tag.
+     *
+     *  @return         The tag id, or -1 if the tag is not in the matrix.
+     */
+
+    public int getTagId( String tag )
+    {
+        Integer id  = tagIds.get( tag );
+
+        return ( id == null ) ? -1 : id;
+    }
+
+    /** Get the tag for a tag id.
+     *
+     *  @param  tagId   The tag id.
+     *
+     *  @return         The part of speech tag.
+     */
+
+    public String getTag( int tagId )
+    {
+        return tags[ tagId ];
+    }
+
+    /** Find a trigram.
+     *
+     *  @param  tag1    The first tag id.
+     *  @param  tag2    The second tag id.
+     *  @param  tag3    The third tag id.
+     *
+     *  @return         Index of the trigram, or -1 if not found.
+     */
+
+    protected int findTrigram( int tag1 , int tag2 , int tag3 )
+    {
+        if ( ( tag1 < 0 ) || ( tag2 < 0 ) || ( tag3 < 0 ) ) return -1;
+
+        int pair    = tag1 * tags.length + tag2;
+
+        int result  =
+            Arrays.binarySearch
+            (
+                trigramTags ,
+                trigramOffsets[ pair ] ,
+                trigramOffsets[ pair + 1 ] ,
+                tag3
+            );
+
+        return ( result < 0 ) ? -1 : result;
+    }
+
+    /** Look up unigram count.
+     *
+     *  @param  tag     The part of speech tag.
+     *
+     *  @return         Count of tag.
+     */
+
+    public int getCount( String tag )
+    {
+        int id  = getTagId( tag );
+
+        return ( id < 0 ) ? 0 : unigramCounts[ id ];
+    }
+
+    /** Look up bigram count.
+     *
+     *  @param  tag1    The first part of speech tag.
+     *  @param  tag2    The second part of speech tag.
+     *
+     *  @return         Count of tag1 followed by tag2.
+     */
+
+    public int getCount( String tag1 , String tag2 )
+    {
+        int id1 = getTagId( tag1 );
+        int id2 = getTagId( tag2 );
+
+        return
+            ( ( id1 < 0 ) || ( id2 < 0 ) ) ? 0 :
+                bigramCounts[ id1 * tags.length + id2 ];
+    }
+
+    /** Look up trigram count.
+     *
+     *  @param  tag1    The first part of speech tag.
+     *  @param  tag2    The second part of speech tag.
+     *  @param  tag3    The third part of speech tag.
+     *
+     *  @return         Count of tag1 followed by tag2 folowed by tag3.
+     */
+
+    public int getCount( String tag1 , String tag2 , String tag3 )
+    {
+        int i   =
+            findTrigram( getTagId( tag1 ) , getTagId( tag2 ) ,
+                getTagId( tag3 ) );
+
+        return ( i < 0 ) ? 0 : trigramCounts[ i ];
+    }
+
+    /** Look up unigram probability.
+     *
+     *  @param  tag     The part of speech tag.
+     *
+     *  @return         Probability of tag.
+     */
+
+    public double getProbability( String tag )
+    {
+        int id  = getTagId( tag );
+
+        return ( id < 0 ) ? 0.0D : unigramProbs[ id ];
+    }
+
+    /** Look up bigram probability.
+     *
+     *  @param  tag1    The first part of speech tag.
+     *  @param  tag2    The second part of speech tag.
+     *
+     *  @return         Transition probability of tag1 followed by tag2.
+     */
+
+    public double getProbability( String tag1 , String tag2 )
+    {
+        int id1 = getTagId( tag1 );
+        int id2 = getTagId( tag2 );
+
+        return
+            ( ( id1 < 0 ) || ( id2 < 0 ) ) ? 0.0D :
+                bigramProbs[ id1 * tags.length + id2 ];
+    }
+
+    /** Look up trigram probability.
+     *
+     *  @param  tag1    The first part of speech tag.
+     *  @param  tag2    The second part of speech tag.
+     *  @param  tag3    The third part of speech tag.
+     *
+     *  @return         Transition probability of tag1 followed by tag2
+     *                  followed by tag3.
+     */
+
+    public double getProbability( String tag1 , String tag2 , String tag3 )
+    {
+        return
+            getProbability
+            (
+                getTagId( tag1 ) ,
+                getTagId( tag2 ) ,
+                getTagId( tag3 )
+            );
+    }
+
+    /** Look up unigram probability by tag id.
+     *
+     *  @param  tag     The tag id.
+     *
+     *  @return         Probability of tag.
+     */
+
+    public double getProbability( int tag )
+    {
+        return unigramProbs[ tag ];
+    }
+
+    /** Look up bigram probability by tag ids.
+     *
+     *  @param  tag1    The first tag id.
+     *  @param  tag2    The second tag id.
+     *
+     *  @return         Transition probability of tag1 followed by tag2.
+     */
+
+    public double getProbability( int tag1 , int tag2 )
+    {
+        return bigramProbs[ tag1 * tags.length + tag2 ];
+    }
+
+    /** Look up trigram probability by tag ids.
+     *
+     *  @param  tag1    The first tag id.
+     *  @param  tag2    The second tag id.
+     *  @param  tag3    The third tag id.
+     *
+     *  @return         Transition probability of tag1 followed by tag2
+     *                  followed by tag3, or 0 if any id is -1.
+     */
+
+    public double getProbability( int tag1 , int tag2 , int tag3 )
+    {
+        int i   = findTrigram( tag1 , tag2 , tag3 );
+
+        return ( i < 0 ) ? 0.0D : trigramProbs[ i ];
+    }
+
+    /** Get row key set.
+     *
+     *      @return     row key set.
+     */
+
+    public Set<String> rowKeySet()
+    {
+        return rowKeySet;
+    }
+
+    /** Get column  key set.
+     *
+     *      @return     column key set.
+     */
+
+    public Set<String> columnKeySet()
+    {
+        return columnKeySet;
+    }
+
+    /** Get slice  key set.
+     *
+     *      @return     slice key set.
+     */
+
+    public Set<String> sliceKeySet()
+    {
+        return sliceKeySet;
+    }
+
+    /** Load transition matrix from a reader.
+     *
+     *  @param  reader      Reader from which to read transition
+     *                      matrix.
+     *
+     *  @param  delimChar   Column separator character.
+     *                      Usually a tab (\t).
+     *
+     *  @throws IOException when an I/O error occurs.
+     */
+
+    public void loadTransitionMatrix
+    (
+        Reader reader,
+        char delimChar
+    )
+        throws IOException
+    {
+        String line;
+        String delim    = delimChar + "";
+
+        NGramCounts counts  = new NGramCounts();
+
+                                //  Read the counts as
+                                //  TransitionMatrix reads them,
+                                //  ignoring malformed lines.
+
+        BufferedReader bufferedReader   = new BufferedReader( reader );
+
+        while ( ( line = bufferedReader.readLine() ) != null )
+        {
+            String[] tokens = line.split( delim );
+            int n           = tokens.length - 1;
+
+            if ( ( n >= 1 ) && ( n <= 3 ) )
+            {
+                counts.add( tokens , n , Integer.parseInt( tokens[ n ] ) );
+            }
+        }
+
+        bufferedReader.close();
+
+        setCounts( counts );
+    }
+
+    /** Save transition matrix to a writer.
+     *
+     *  @param  writer      Writer to use to save transition matrix.
+     *  @param  delimChar   Column separator character.  Usually a tab (\t).
+     *
+     *  @throws IOException         when an I/O error occurs.
+     *
+     *  <p>
+     *  Writes the same text format as
+     *  {@link TransitionMatrix#saveTransitionMatrix( Writer , char )}.
+     *  </p>
+     */
+
+    public void saveTransitionMatrix( Writer writer , char delimChar )
+        throws IOException
+    {
+        BufferedWriter bufferedWriter   = new BufferedWriter( writer );
+
+        int nTags   = tags.length;
+
+        for ( int tag1 = 0 ; tag1 < nTags ; tag1++ )
+        {
+            if ( unigramCounts[ tag1 ] > 0 )
+            {
+                bufferedWriter.write(
+                    tags[ tag1 ] + delimChar + unigramCounts[ tag1 ] );
+
+                bufferedWriter.newLine();
+            }
+
+            for ( int tag2 = 0 ; tag2 < nTags ; tag2++ )
+            {
+                int pair    = tag1 * nTags + tag2;
+
+                if ( bigramCounts[ pair ] > 0 )
+                {
+                    bufferedWriter.write
+                    (
+                        tags[ tag1 ] + delimChar +
+                        tags[ tag2 ] + delimChar +
+                        bigramCounts[ pair ]
+                    );
+
+                    bufferedWriter.newLine();
+                }
+
+                for (   int i = trigramOffsets[ pair ] ;
+                        i < trigramOffsets[ pair + 1 ] ;
+                        i++ )
+                {
+                    if ( trigramCounts[ i ] > 0 )
+                    {
+                        bufferedWriter.write
+                        (
+                            tags[ tag1 ] + delimChar +
+                            tags[ tag2 ] + delimChar +
+                            tags[ trigramTags[ i ] ] + delimChar +
+                            trigramCounts[ i ]
+                        );
+
+                        bufferedWriter.newLine();
+                    }
+                }
+            }
+        }
+
+        bufferedWriter.flush();
+        bufferedWriter.close();
+    }
+
+    /** Load binary transition matrix from a URL.
+     *
+     *  @param  url     URL from which to load transition matrix.
+     *
+     *  @throws IOException when an I/O error occurs or the URL does
+     *                      not hold a binary transition matrix.
+     */
+
+    public void loadBinaryTransitionMatrix( URL url )
+        throws IOException
+    {
+        loadBinaryTransitionMatrix( url.openStream() );
+    }
+
+    /** Load binary transition matrix from a stream.
+     *
+     *  @param  inputStream     Stream from which to load transition
+     *                          matrix.  The stream is closed.
+     *
+     *  @throws IOException     when an I/O error occurs or the stream
+     *                          does not hold a binary transition matrix.
+     *
+     *  <p>
+     *  See {@link #saveBinaryTransitionMatrix( OutputStream )}
+     *  for the format.
+     *  </p>
+     */
+
+    public void loadBinaryTransitionMatrix( InputStream inputStream )
+        throws IOException
+    {
+        DataInputStream input   =
+            new DataInputStream( new BufferedInputStream( inputStream ) );
+
+        try
+        {
+            if ( input.readInt() != BINARY_SIGNATURE )
+            {
+                throw new IOException
+                (
+                    "Not a binary transition matrix."
+                );
+            }
+                                //  Read the tags.
+
+            String[] tags   = new String[ input.readInt() ];
+
+            for ( int i = 0 ; i < tags.length ; i++ )
+            {
+                tags[ i ]   = input.readUTF();
+            }
+
+            setTags( tags );
+
+                                //  Read the totals and weights.
+
+            totalWords  = input.readInt();
+
+            for ( int i = 0 ; i < 3 ; i++ )
+            {
+                totalNGrams[ i ]    = input.readInt();
+                uniqueNGrams[ i ]   = input.readInt();
+            }
+
+            bigramWeights   = new double[ 2 ];
+            trigramWeights  = new double[ 3 ];
+
+            for ( int i = 0 ; i < bigramWeights.length ; i++ )
+            {
+                bigramWeights[ i ]  = input.readDouble();
+            }
+
+            for ( int i = 0 ; i < trigramWeights.length ; i++ )
+            {
+                trigramWeights[ i ] = input.readDouble();
+            }
+                                //  Read the unigram and bigram counts.
+
+            for ( int i = 0 ; i < tags.length ; i++ )
+            {
+                unigramCounts[ i ]  = input.readInt();
+            }
+
+            int nBigrams    = input.readInt();
+
+            for ( int i = 0 ; i < nBigrams ; i++ )
+            {
+                int pair    =
+                    input.readUnsignedShort() * tags.length +
+                    input.readUnsignedShort();
+
+                bigramCounts[ pair ]    = input.readInt();
+            }
+                                //  Read the trigram blocks.
+
+            setTrigramCount( input.readInt() );
+
+            int nBlocks     = input.readInt();
+            int trigram     = 0;
+
+            for ( int i = 0 ; i < nBlocks ; i++ )
+            {
+                int pair    =
+                    input.readUnsignedShort() * tags.length +
+                    input.readUnsignedShort();
+
+                int size    = input.readUnsignedShort();
+
+                trigramOffsets[ pair + 1 ]  = size;
+
+                for ( int j = 0 ; j < size ; j++ )
+                {
+                    trigramTags[ trigram ]      = input.readUnsignedShort();
+                    trigramCounts[ trigram++ ]  = input.readInt();
+                }
+            }
+
+            finishTrigramOffsets();
+        }
+        catch ( EOFException e )
+        {
+            throw new IOException( "Truncated binary transition matrix." );
+        }
+        finally
+        {
+            input.close();
+        }
+
+        computeProbabilities( false );
+    }
+
+    /** Save binary transition matrix to a file.
+     *
+     *  @param  fileName    File to receive the transition matrix.
+     *
+     *  @throws IOException when an I/O error occurs.
+     */
+
+    public void saveBinaryTransitionMatrix( String fileName )
+        throws IOException
+    {
+        saveBinaryTransitionMatrix( new FileOutputStream( fileName ) );
+    }
+
+    /** Save binary transition matrix to a stream.
+     *
+     *  @param  outputStream    Stream to receive the transition matrix.
+     *                          The stream is closed.
+     *
+     *  @throws IOException     when an I/O error occurs, or there are
+     *                          more than 65,535 tags.
+     *
+     *  <p>
+     *  The format is a signature int, the tags, the total word count,
+     *  the total and unique ngram counts, the bigram and trigram
+     *  weights, the unigram counts, the non-zero bigram counts as
+     *  (tag1, tag2, count) and the trigram blocks as
+     *  (tag1, tag2, size) followed by size (tag3, count) entries.
+     *  Tag ids and block sizes are unsigned shorts.  Counts are ints.
+     *  </p>
+     */
+
+    public void saveBinaryTransitionMatrix( OutputStream outputStream )
+        throws IOException
+    {
+        int nTags   = tags.length;
+
+        if ( nTags > 0xFFFF )
+        {
+            outputStream.close();
+
+            throw new IOException
+            (
+                "Too many tags for a binary transition matrix: " + nTags
+            );
+        }
+
+        DataOutputStream output =
+            new DataOutputStream( new BufferedOutputStream( outputStream ) );
+
+        try
+        {
+            output.writeInt( BINARY_SIGNATURE );
+
+            output.writeInt( nTags );
+
+            for ( int i = 0 ; i < nTags ; i++ )
+            {
+                output.writeUTF( tags[ i ] );
+            }
+
+            output.writeInt( totalWords );
+
+            for ( int i = 0 ; i < 3 ; i++ )
+            {
+                output.writeInt( totalNGrams[ i ] );
+                output.writeInt( uniqueNGrams[ i ] );
+            }
+
+            for ( int i = 0 ; i < bigramWeights.length ; i++ )
+            {
+                output.writeDouble( bigramWeights[ i ] );
+            }
+
+            for ( int i = 0 ; i < trigramWeights.length ; i++ )
+            {
+                output.writeDouble( trigramWeights[ i ] );
+            }
+
+            for ( int i = 0 ; i < nTags ; i++ )
+            {
+                output.writeInt( unigramCounts[ i ] );
+            }
+
+            int nBigrams    = 0;
+            int nBlocks     = 0;
+
+            for ( int pair = 0 ; pair < nTags * nTags ; pair++ )
+            {
+                if ( bigramCounts[ pair ] != 0 ) nBigrams++;
+
+                if ( trigramOffsets[ pair + 1 ] > trigramOffsets[ pair ] )
+                {
+                    nBlocks++;
+                }
+            }
+
+            output.writeInt( nBigrams );
+
+            for ( int pair = 0 ; pair < nTags * nTags ; pair++ )
+            {
+                if ( bigramCounts[ pair ] != 0 )
+                {
+                    output.writeShort( pair / nTags );
+                    output.writeShort( pair % nTags );
+                    output.writeInt( bigramCounts[ pair ] );
+                }
+            }
+
+            output.writeInt( trigramTags.length );
+            output.writeInt( nBlocks );
+
+            for ( int pair = 0 ; pair < nTags * nTags ; pair++ )
+            {
+                int start   = trigramOffsets[ pair ];
+                int end     = trigramOffsets[ pair + 1 ];
+
+                if ( end > start )
+                {
+                    output.writeShort( pair / nTags );
+                    output.writeShort( pair % nTags );
+                    output.writeShort( end - start );
+
+                    for ( int i = start ; i < end ; i++ )
+                    {
+                        output.writeShort( trigramTags[ i ] );
+                        output.writeInt( trigramCounts[ i ] );
+                    }
+                }
+            }
+        }
+        finally
+        {
+            output.close();
+        }
+    }
+
+    /** Ngram counts collected as read, before the tags are sorted.
+     */
+
+    protected static class NGramCounts
+    {
+        /** Tags in the order first seen. */
+
+        protected List<String> tags         = ListFactory.createNewList();
+
+        /** Map from tags to their index in tags. */
+
+        protected Map<String, Integer> tagIds   = MapFactory.createNewMap();
+
+        /** Tag ids followed by the count of each ngram,
+         *  indexed by ngram length - 1.
+         */
+
+        protected int[][] values            =
+            new int[][]{ new int[ 64 ] , new int[ 64 ] , new int[ 64 ] };
+
+        /** Number of values used, indexed as values. */
+
+        protected int[] sizes               = new int[ 3 ];
+
+        /** Add an ngram count.
+         *
+         *  @param  ngramTags   The tags of the ngram.
+         *  @param  n           The ngram length, from 1 through 3.
+         *  @param  count       The count.
+         */
+
+        protected void add( String[] ngramTags , int n , int count )
+        {
+            int[] ngramValues   = values[ n - 1 ];
+            int size            = sizes[ n - 1 ];
+
+            if ( ( size + n + 1 ) > ngramValues.length )
+            {
+                ngramValues     =
+                    Arrays.copyOf( ngramValues , 2 * ngramValues.length );
+
+                values[ n - 1 ] = ngramValues;
+            }
+
+            for ( int i = 0 ; i < n ; i++ )
+            {
+                Integer id  = tagIds.get( ngramTags[ i ] );
+
+                if ( id == null )
+                {
+                    id  = tags.size();
+
+                    tags.add( ngramTags[ i ] );
+                    tagIds.put( ngramTags[ i ] , id );
+                }
+
+                ngramValues[ size++ ]   = id;
+            }
+
+            ngramValues[ size++ ]   = count;
+            sizes[ n - 1 ]          = size;
+        }
+    }
+}
+
+/*
+Copyright (c) 2008, 2013 by Northwestern University.
+All rights reserved.
+
+Developed by:
+   Academic and Research Technologies
+   Northwestern University
+   http://www.it.northwestern.edu/about/departments/at/
+
+Permission is hereby granted, free of charge, to any person
+obtaining a copy of this software and associated documentation
+files (the "Software"), to deal with the Software without
+restriction, including without limitation the rights to use,
+copy, modify, merge, publish, distribute, sublicense, and/or
+sell copies of the Software, and to permit persons to whom the
+Software is furnished to do so, subject to the following
+conditions:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimers.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimers in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the names of Academic and Research Technologies,
+      Northwestern University, nor the names of its contributors may be
+      used to endorse or promote products derived from this Software
+      without specific prior written permission.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+NONINFRINGEMENT. IN NO EVENT SHALL THE CONTRIBUTORS OR
+COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*/
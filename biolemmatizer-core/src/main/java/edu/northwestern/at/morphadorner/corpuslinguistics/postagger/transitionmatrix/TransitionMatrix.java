@@ -73,9 +73,14 @@ public class TransitionMatrix
     protected int totalWords            = 0;
 
     /** True if probabilities calculated.
+     *
+     *  <p>
+     *  Volatile so that taggers sharing this matrix between threads
+     *  see the probabilities calculated by the first lookup.
+     *  </p>
      */
 
-    protected boolean haveProbabilities = false;
+    protected volatile boolean haveProbabilities    = false;
 
     /** Bigram weights from deleted interpolation.
      */
@@ -282,7 +287,7 @@ public class TransitionMatrix
     /** Calculate transition probabilities from counts.
      */
 
-    public void calculateProbabilities()
+    public synchronized void calculateProbabilities()
     {
                                 //  Calculate bigram weights using
                                 //  deleted interpolation.
@@ -300,6 +305,23 @@ public class TransitionMatrix
         haveProbabilities   = true;
     }
 
+    /** Calculate transition probabilities if not yet calculated.
+     */
+
+    protected void ensureProbabilities()
+    {
+        if ( !haveProbabilities )
+        {
+            synchronized( this )
+            {
+                if ( !haveProbabilities )
+                {
+                    calculateProbabilities();
+                }
+            }
+        }
+    }
+
     /** Calculate trigram weights for contextual smoothing.
      *
      *  <p>
@@ -558,10 +580,7 @@ public class TransitionMatrix
 
     public double getProbability( String tag )
     {
-        if ( !haveProbabilities )
-        {
-            calculateProbabilities();
-        }
+        ensureProbabilities();
 
         Double prob     = (Double)unigramProbMap.get( tag );
 
@@ -585,10 +604,7 @@ public class TransitionMatrix
 
     public double getProbability( String tag1 , String tag2 )
     {
-        if ( !haveProbabilities )
-        {
-            calculateProbabilities();
-        }
+        ensureProbabilities();
 
         Double prob     = (Double)bigramProbMap.get( tag1 , tag2 );
 
@@ -614,10 +630,7 @@ public class TransitionMatrix
 
     public double getProbability( String tag1 , String tag2 , String tag3 )
     {
-        if ( !haveProbabilities )
-        {
-            calculateProbabilities();
-        }
+        ensureProbabilities();
 
         Double prob     = (Double)trigramProbMap.get( tag1 , tag2 , tag3 );
 
@@ -1087,10 +1100,7 @@ public class TransitionMatrix
 
     public double[] getBigramWeights()
     {
-        if ( bigramWeights == null )
-        {
-            calculateProbabilities();
-        }
+        ensureProbabilities();
 
         return bigramWeights;
     }
@@ -1119,10 +1129,7 @@ public class TransitionMatrix
 
     public double[] getTrigramWeights()
     {
-        if ( trigramWeights == null )
-        {
-            calculateProbabilities();
-        }
+        ensureProbabilities();
 
         return trigramWeights;
     }
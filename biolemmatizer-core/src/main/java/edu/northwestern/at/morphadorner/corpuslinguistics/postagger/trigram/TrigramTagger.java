@@ -3,6 +3,7 @@ package edu.northwestern.at.morphadorner.corpuslinguistics.postagger.trigram;
 /*  Please see the license information at the end of this file. */
 
 import java.util.*;
+import java.util.concurrent.atomic.*;
 
 import edu.northwestern.at.utils.*;
 import edu.northwestern.at.utils.logger.*;
@@ -23,6 +24,14 @@ import edu.northwestern.at.utils.math.*;
  *  The Viterbi algorithm is used to reduce the
  *  amount of computation required to find the optimal tag assignments.
  *  </p>
+ *
+ *  <p>
+ *  Each thread decodes its sentences with its own reusable
+ *  {@link ArrayViterbi} trellis, and the lexicon, transition matrix
+ *  and smoothers are only read or cached in thread-safe maps while
+ *  tagging, so once configured a single tagger may tag sentences
+ *  from several threads at once.
+ *  </p>
  */
 
 public class TrigramTagger
@@ -33,29 +42,18 @@ public class TrigramTagger
 
     protected boolean debug     = false;
 
-    /** Contextual probabilities for a word in a sentence.
-     */
-
-    protected Map3D<String, String, String, Probability>
-        contextualProbabilities = Map3DFactory.createNewMap3D();
-
     /** Total number of states rejected by beam search criterion.
      */
 
-    protected int beamSearchRejections  = 0;
-
-    /** Viterbi trellis for tags and probability scores.
-     */
-
-    protected Viterbi viterbi   = new Viterbi();
+    protected AtomicInteger beamSearchRejections    = new AtomicInteger();
 
     /** Count of lines tagged. */
 
-    protected int linesTagged   = 0;
+    protected AtomicInteger linesTagged = new AtomicInteger();
 
     /** Count of words tagged. */
 
-    protected int wordsTagged   = 0;
+    protected AtomicInteger wordsTagged = new AtomicInteger();
 
     /** Create a trigram tagger.
      */
@@ -102,16 +100,30 @@ public class TrigramTagger
                 lexicalSmoother.cachedProbabilitiesCount()
             );
 
+            logger.logDebug
+            (
+                "      # of lexical cache hits / misses   : " +
+                lexicalSmoother.cachedProbabilitiesHitCount() + " / " +
+                lexicalSmoother.cachedProbabilitiesMissCount()
+            );
+
             logger.logDebug
             (
                 "      # of cached contextual probabilties: " +
                 contextualSmoother.cachedProbabilitiesCount()
             );
 
+            logger.logDebug
+            (
+                "      # of contextual cache hits / misses: " +
+                contextualSmoother.cachedProbabilitiesHitCount() + " / " +
+                contextualSmoother.cachedProbabilitiesMissCount()
+            );
+
             logger.logDebug
             (
                 "      # of states rejected by beam search: " +
-                beamSearchRejections
+                beamSearchRejections.get()
             );
 
             if ( retagger != null )
@@ -127,9 +139,9 @@ public class TrigramTagger
         logger.logInfo
         (
             "      lines: " +
-            Formatters.formatIntegerWithCommas( linesTagged ) +
+            Formatters.formatIntegerWithCommas( linesTagged.get() ) +
             "; words: " +
-            Formatters.formatIntegerWithCommas( wordsTagged )
+            Formatters.formatIntegerWithCommas( wordsTagged.get() )
         );
     }
 
@@ -211,24 +223,14 @@ public class TrigramTagger
         List<T> taggedSentence
     )
     {
-                                //  Reset Viterbi trellis.
-        viterbi.reset();
-                                //  Assume period as previous word tags.
-
-        List<String> previousTags   =
-            ListFactory.createNewList();
-
-        previousTags.add( "." );
+                                //  Start the Viterbi trellis for
+                                //  this sentence.
 
-        List<String> previousPreviousTags   =
-            ListFactory.createNewList();
+        ArrayViterbi viterbi    = getViterbi();
 
-        previousPreviousTags.add( "." );
+        viterbi.start( taggedSentence.size() );
 
-                                //  Part of speech tags for a word.
-
-        List<String> tags   = null;
-        AdornedWord word    = null;
+        AdornedWord word        = null;
 
                                 //  Loop over words in sentence.
 
@@ -238,37 +240,24 @@ public class TrigramTagger
 
             word    = taggedSentence.get( i );
 
-                                //  Get part of speech tags for this
-                                //  this word.
-
-            tags    = getTagsForWord( word.getStandardSpelling() );
-
-                                //  Process word.  The returned tags
-                                //  for the current word are those which
-                                //  passed the Viterbi beam search
-                                //  criterion.  These possibly pruned tags
-                                //  will be the previous tags for the
-                                //  next word.
-            tags    =
-                processWord
-                (
-                    i ,
-                    word.getStandardSpelling() ,
-                    previousPreviousTags ,
-                    previousTags ,
-                    tags
-                );
-                                //  These tags will be previous tags
+                                //  Process word with its part of
+                                //  speech tags.  The tags which
+                                //  pass the Viterbi beam search
+                                //  criterion will be the previous tags
                                 //  for the next word.
-
-            previousPreviousTags    = previousTags;
-            previousTags            = tags;
+            processWord
+            (
+                viterbi ,
+                i ,
+                word.getStandardSpelling() ,
+                getTagsForWord( word.getStandardSpelling() )
+            );
         }
                                 //  Retrieve optimal part of speech tags and
                                 //  adorn each word with its proper tag.
 
         List<String> optimalTags    =
-            viterbi.optimalTags( taggedSentence.size() , tags );
+            viterbi.optimalTags( taggedSentence.size() );
 
         for ( int i = 0 ; i < taggedSentence.size() ; i++ )
         {
@@ -283,21 +272,22 @@ public class TrigramTagger
                                 //  Increment total count of states
                                 //  rejections by beam search criterion.
 
-        beamSearchRejections    += viterbi.getBeamSearchRejections();
+        beamSearchRejections.addAndGet( viterbi.getBeamSearchRejections() );
 
                                 //  Increment counts of lines and
                                 //  words tagged.
-        linesTagged++;
-        wordsTagged += taggedSentence.size();
 
-        if ( ( linesTagged % 1000 ) == 0 )
+        int lines   = linesTagged.incrementAndGet();
+        int words   = wordsTagged.addAndGet( taggedSentence.size() );
+
+        if ( ( lines % 1000 ) == 0 )
         {
             logger.logInfo
             (
                 "      lines: " +
-                Formatters.formatIntegerWithCommas( linesTagged ) +
+                Formatters.formatIntegerWithCommas( lines ) +
                 "; words: " +
-                Formatters.formatIntegerWithCommas( wordsTagged )
+                Formatters.formatIntegerWithCommas( words )
             );
         }
                                 //  We have a new finished sentence.
@@ -307,72 +297,71 @@ public class TrigramTagger
 
     /** Process a single word.
      *
-     *  @param  wordIndex               Index of word in sentence
-     *                                      (starts at 0).
-     *  @param  word                    Word being processed.
-     *  @param  previousPreviousTags    The previous word's previous
-     *                                      word's tags.
-     *  @param  previousTags            The previous word's tags.
-     *  @param  tags                    The current word's tags.
+     *  @param  viterbi     Viterbi trellis for the sentence.
+     *  @param  wordIndex   Index of word in sentence (starts at 0).
+     *  @param  word        Word being processed.
+     *  @param  tags        The current word's tags.
      *
-     *  @return                         Updated tag list.
+     *  @return             Number of tags passing the beam search
+     *                      criterion.
+     *
+     *  <p>
+     *  The previous tags are those of the two preceding words which
+     *  passed the beam search criterion, as held by the trellis.
+     *  </p>
      */
 
-    protected List<String> processWord
+    protected int processWord
     (
+        ArrayViterbi viterbi ,
         int wordIndex ,
         String word ,
-        List<String> previousPreviousTags ,
-        List<String> previousTags ,
         List<String> tags
     )
     {
                                 //  Find tag with largest probability
-                                //  combined with previous word's tag.
+                                //  combined with previous words' tags.
 
-        contextualProbabilities.clear();
+        int nTags           = viterbi.setTags( wordIndex , tags );
+        int nPrevTags       = viterbi.getTagCount( wordIndex - 1 );
+        int nPrevPrevTags   = viterbi.getTagCount( wordIndex - 2 );
 
-        int nTags                   = tags.size();
-        Probability[] lexicalProbs  = new Probability[ nTags ];
+        double[] lexicalProbs       = viterbi.getLexicalScores( nTags );
+
+        double[] contextualProbs    =
+            viterbi.getContextualScores
+            (
+                nTags * nPrevTags * nPrevPrevTags
+            );
+
+        int contextual              = 0;
 
         for ( int i = 0 ; i < nTags ; i++ )
         {
-            String tagI = (String)tags.get( i );
+            String tagI = tags.get( i );
 
             lexicalProbs[ i ]   =
-                lexicalSmoother.lexicalProbability( word , tagI );
+                lexicalSmoother.lexicalProbability(
+                    word , tagI ).getLogProbability();
 
-            for ( int j = 0 ; j < previousTags.size() ; j++ )
+            for ( int j = 0 ; j < nPrevTags ; j++ )
             {
-                String previousTagJ = (String)previousTags.get( j );
+                String previousTagJ = viterbi.getTag( wordIndex - 1 , j );
 
-                for ( int k = 0 ; k < previousPreviousTags.size() ; k++ )
+                for ( int k = 0 ; k < nPrevPrevTags ; k++ )
                 {
-                    contextualProbabilities.put
-                    (
-                        tagI,
-                        previousTagJ ,
-                        previousPreviousTags.get( k ) ,
+                    contextualProbs[ contextual++ ] =
                         contextualSmoother.contextualProbability
                         (
                             tagI ,
                             previousTagJ ,
-                            previousPreviousTags.get( k )
-                        )
-                    );
+                            viterbi.getTag( wordIndex - 2 , k )
+                        ).getLogProbability();
                 }
             }
         }
 
-        return viterbi.updateScore
-        (
-            wordIndex ,
-            lexicalProbs ,
-            contextualProbabilities ,
-            tags ,
-            previousTags ,
-            previousPreviousTags
-        );
+        return viterbi.updateTrigramScore( wordIndex );
     }
 
     /** Set the logger.
@@ -386,7 +375,6 @@ public class TrigramTagger
 
         ((UsesLogger)lexicalSmoother).setLogger( logger );
         ((UsesLogger)contextualSmoother).setLogger( logger );
-        viterbi.setLogger( logger );
     }
 
     /** Return tagger description.
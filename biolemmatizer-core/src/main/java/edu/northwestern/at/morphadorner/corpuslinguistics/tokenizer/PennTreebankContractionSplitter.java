@@ -0,0 +1,342 @@
+package edu.northwestern.at.morphadorner.corpuslinguistics.tokenizer;
+
+/*  Please see the license information at the end of this file. */
+
+import java.util.*;
+import edu.northwestern.at.utils.ListFactory;
+import edu.northwestern.at.utils.MapFactory;
+
+/** Split a single word into its Penn Treebank contraction parts.
+ *
+ *  <p>
+ *  Produces exactly the same words as {@link PennTreebankTokenizer}
+ *  for a single token, e.g., "don't" becomes "do" and "n't",
+ *  "gonna" becomes "gon" and "na", without running the forty
+ *  Penn Treebank replacement patterns over the text.  A word is
+ *  split by a few suffix and table lookups whenever it contains no
+ *  whitespace and none of the punctuation the Penn patterns pad
+ *  with blanks.  Anything else is handed to the full
+ *  {@link PennTreebankTokenizer}.
+ *  </p>
+ *
+ *  <p>
+ *  Instances hold no mutable state and may be shared between threads.
+ *  </p>
+ */
+
+public class PennTreebankContractionSplitter
+    extends PennTreebankTokenizer
+    implements WordTokenizer
+{
+    /** Characters which require the full Penn Treebank patterns. */
+
+    protected static final String PATTERN_CHARACTERS    =
+        "`\"?!.,;:@#$%&[](){}<>\u0085\u2028\u2029";
+
+    /** Contraction suffixes in the order the Penn Treebank
+     *  patterns split them off the end of a word.  Each row
+     *  is applied once.
+     */
+
+    protected static final String[][] contractionSuffixes  =
+        new String[][]
+        {
+            { "'" } ,
+            { "'s" , "'S" , "'m" , "'M" , "'d" , "'D" } ,
+            { "'ll" } ,
+            { "'re" } ,
+            { "'ve" } ,
+            { "'em" } ,
+            { "n't" } ,
+            { "'LL" } ,
+            { "'RE" } ,
+            { "'EM" } ,
+            { "'VE" } ,
+            { "N'T" }
+        };
+
+    /** Whole words split into fixed parts, e.g., "cannot". */
+
+    protected static final Map<String, String[]> splitWords =
+        MapFactory.createNewMap();
+
+    /** Create a Penn Treebank contraction splitter.
+     */
+
+    public PennTreebankContractionSplitter()
+    {
+    }
+
+    /** Break text into word tokens.
+     *
+     *  @param  text            Text to break into word tokens.
+     *
+     *  @return                 List of word tokens.
+     *
+     *  <p>
+     *  Same result as {@link PennTreebankTokenizer#extractWords}.
+     *  </p>
+     */
+
+    public List<String> extractWords( String text )
+    {
+        if ( !isSimpleWord( text ) )
+        {
+            return super.extractWords( text );
+        }
+
+        List<String> result = ListFactory.createNewList( 4 );
+
+                                //  Split contraction suffixes off
+                                //  the end of the word.  The suffix
+                                //  parts themselves never match a
+                                //  later suffix, so only the
+                                //  remaining base needs checking.
+
+        String base         = text;
+        String[] suffixes   = null;
+        int suffixCount     = 0;
+
+        for ( int i = 0 ; i < contractionSuffixes.length ; i++ )
+        {
+            String[] row    = contractionSuffixes[ i ];
+
+            for ( int j = 0 ; j < row.length ; j++ )
+            {
+                if ( base.endsWith( row[ j ] ) )
+                {
+                    if ( suffixes == null )
+                    {
+                        suffixes    = new String[ contractionSuffixes.length ];
+                    }
+
+                    suffixes[ suffixCount++ ]   = row[ j ];
+                    base    =
+                        base.substring( 0 , base.length() - row[ j ].length() );
+
+                    break;
+                }
+            }
+        }
+                                //  Split whole words such as "gonna".
+                                //  Only the base can be one of these.
+
+        String[] baseParts  = splitWords.get( base );
+
+        if ( baseParts == null )
+        {
+            addApostropheTParts( result , base );
+        }
+        else
+        {
+            for ( int i = 0 ; i < baseParts.length ; i++ )
+            {
+                addApostropheTParts( result , baseParts[ i ] );
+            }
+        }
+                                //  Add the suffixes in text order,
+                                //  the reverse of the order in which
+                                //  they were removed.
+
+        for ( int i = suffixCount - 1 ; i >= 0 ; i-- )
+        {
+            addApostropheTParts( result , suffixes[ i ] );
+        }
+
+        return result;
+    }
+
+    /** Check if a word can be split without the Penn Treebank patterns.
+     *
+     *  @param  text    The word.
+     *
+     *  @return         True if the word contains no whitespace or
+     *                  control characters, none of the punctuation
+     *                  padded by the Penn Treebank patterns, and no
+     *                  "--" or "''".
+     */
+
+    public static boolean isSimpleWord( String text )
+    {
+        char previous   = ' ';
+
+        for ( int i = 0 ; i < text.length() ; i++ )
+        {
+            char ch = text.charAt( i );
+
+            if  (   ( ch <= ' ' ) ||
+                    ( PATTERN_CHARACTERS.indexOf( ch ) >= 0 ) ||
+                    ( ( ch == '-' ) && ( previous == '-' ) ) ||
+                    ( ( ch == '\'' ) && ( previous == '\'' ) )
+                )
+            {
+                return false;
+            }
+
+            previous    = ch;
+        }
+
+        return true;
+    }
+
+    /** Add a word part, splitting a letter other than "n" followed
+     *  by "'t" into the letter and "'t...", e.g., "I'T" becomes "I"
+     *  and "'T".
+     *
+     *  @param  result  The list of word parts.
+     *  @param  part    The word part to add.  Empty parts are skipped.
+     */
+
+    protected static void addApostropheTParts
+    (
+        List<String> result ,
+        String part
+    )
+    {
+        int start   = 0;
+        int i       = 0;
+        int length  = part.length();
+
+                                //  Same left to right, non-overlapping
+                                //  scan as the pattern
+                                //  "([A-MO-Za-mo-z])'([tT])".
+
+        while ( i + 2 < length )
+        {
+            if  (   isLetterNotN( part.charAt( i ) ) &&
+                    ( part.charAt( i + 1 ) == '\'' ) &&
+                    ( ( part.charAt( i + 2 ) == 't' ) ||
+                      ( part.charAt( i + 2 ) == 'T' ) )
+                )
+            {
+                result.add( part.substring( start , i + 1 ) );
+
+                start   = i + 1;
+                i      += 3;
+            }
+            else
+            {
+                i++;
+            }
+        }
+
+        if ( start < length )
+        {
+            result.add( part.substring( start ) );
+        }
+    }
+
+    /** Check for an ASCII letter other than "n" or "N".
+     *
+     *  @param  ch      The character.
+     *
+     *  @return         True if ch is in [A-MO-Za-mo-z].
+     */
+
+    protected static boolean isLetterNotN( char ch )
+    {
+        return
+            ( ( ch >= 'A' ) && ( ch <= 'Z' ) && ( ch != 'N' ) ) ||
+            ( ( ch >= 'a' ) && ( ch <= 'z' ) && ( ch != 'n' ) );
+    }
+
+    /** Add a whole word split, with both an upper and a lower case
+     *  first letter.
+     *
+     *  @param  parts   The parts of the lower case word.
+     */
+
+    protected static void addSplitWord( String... parts )
+    {
+        String word = "";
+
+        for ( int i = 0 ; i < parts.length ; i++ )
+        {
+            word    = word + parts[ i ];
+        }
+
+        splitWords.put( word , parts );
+
+                                //  The case of the first letter
+                                //  (after a leading apostrophe)
+                                //  is preserved.
+
+        int first           = parts[ 0 ].startsWith( "'" ) ? 1 : 0;
+        String[] upperParts = parts.clone();
+
+        upperParts[ 0 ] =
+            parts[ 0 ].substring( 0 , first ) +
+            Character.toUpperCase( parts[ 0 ].charAt( first ) ) +
+            parts[ 0 ].substring( first + 1 );
+
+        splitWords.put
+        (
+            word.substring( 0 , first ) +
+            Character.toUpperCase( word.charAt( first ) ) +
+            word.substring( first + 1 ) ,
+            upperParts
+        );
+    }
+
+    /** Static initializer. */
+
+    static
+    {
+        addSplitWord( "can" , "not" );
+        addSplitWord( "d'" , "ye" );
+        addSplitWord( "gim" , "me" );
+        addSplitWord( "gon" , "na" );
+        addSplitWord( "got" , "ta" );
+        addSplitWord( "lem" , "me" );
+        addSplitWord( "more" , "'n" );
+        addSplitWord( "'t" , "is" );
+        addSplitWord( "'t" , "was" );
+        addSplitWord( "wan" , "na" );
+        addSplitWord( "wha" , "dd" , "ya" );
+        addSplitWord( "wha" , "t" , "cha" );
+    }
+}
+
+/*
+Copyright (c) 2008, 2013 by Northwestern University.
+All rights reserved.
+
+Developed by:
+   Academic and Research Technologies
+   Northwestern University
+   http://www.it.northwestern.edu/about/departments/at/
+
+Permission is hereby granted, free of charge, to any person
+obtaining a copy of this software and associated documentation
+files (the "Software"), to deal with the Software without
+restriction, including without limitation the rights to use,
+copy, modify, merge, publish, distribute, sublicense, and/or
+sell copies of the Software, and to permit persons to whom the
+Software is furnished to do so, subject to the following
+conditions:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimers.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimers in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the names of Academic and Research Technologies,
+      Northwestern University, nor the names of its contributors may be
+      used to endorse or promote products derived from this Software
+      without specific prior written permission.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+NONINFRINGEMENT. IN NO EVENT SHALL THE CONTRIBUTORS OR
+COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*/
+
+
+
@@ -167,14 +167,27 @@ public class NGramTaggerTrainer
 
             loadTrainingData();
 
-                                //  Save transition matrix.
+                                //  Save transition matrix, in the
+                                //  binary format if the file name
+                                //  has the binary extension.
 
-            transitionMatrix.saveTransitionMatrix
-            (
-                transitionMatrixFileName ,
-                "utf-8" ,
-                '\t'
-            );
+            if ( transitionMatrixFileName.endsWith(
+                DenseTransitionMatrix.BINARY_FILE_EXTENSION ) )
+            {
+                transitionMatrix.displayNGramCounts();
+
+                new DenseTransitionMatrix( transitionMatrix ).
+                    saveBinaryTransitionMatrix( transitionMatrixFileName );
+            }
+            else
+            {
+                transitionMatrix.saveTransitionMatrix
+                (
+                    transitionMatrixFileName ,
+                    "utf-8" ,
+                    '\t'
+                );
+            }
         }
         catch ( Exception e )
         {
@@ -293,33 +293,21 @@ public class CharUtils
     protected final static Pattern hyphenPattern    =
         Pattern.compile( "^([-\u2011]{1,})\u0024" );
 
-    protected final static Matcher hyphenMatcher    =
-        hyphenPattern.matcher( "" );
-
     /** Pattern for 1 or more asterisks. */
 
     protected final static Pattern asteriskPattern  =
         Pattern.compile( "^(\\*{1,})\u0024" );
 
-    protected final static Matcher asteriskMatcher  =
-        asteriskPattern.matcher( "" );
-
     /** Pattern for 1 or more asterisks followed by 's. */
 
     protected final static Pattern possessiveAsteriskPattern    =
         Pattern.compile( "^(\\*{1,})'(s|S)\u0024" );
 
-    protected final static Matcher possessiveAsteriskMatcher    =
-        possessiveAsteriskPattern.matcher( "" );
-
     /** Pattern for 2 or more dashes followed by 's. */
 
     protected final static Pattern possessiveDashesPattern  =
         Pattern.compile( "^([-\u2011]{2,})'(s|S)\u0024" );
 
-    protected final static Matcher possessiveDashesMatcher  =
-        possessiveDashesPattern.matcher( "" );
-
     /** Pattern for Unicode word. */
 
     protected final static Pattern wordPattern      =
@@ -328,25 +316,16 @@ public class CharUtils
             "([\\w]+|([\\w]+-[\\w]+)+|[\\w]*'[\\w]*)"
         );
 
-    protected final static Matcher wordMatcher  =
-        wordPattern.matcher( "" );
-
     /** Pattern for Unicode letters only. */
 
     protected final static Pattern lettersPattern   =
         Pattern.compile( "^[\\pL\\pN]+\u0024" );
 
-    protected final static Matcher lettersMatcher   =
-        lettersPattern.matcher( "" );
-
     /** Pattern for punctuation only. */
 
     protected final static Pattern punctuationPattern   =
         Pattern.compile( "^[\\p{Punct}]+\u0024|[\\p{P}]+\u0024" );
 
-    protected final static Matcher punctuationMatcher   =
-        punctuationPattern.matcher( "" );
-
     /** Check if character is a letter.
      *
      *  \u0040param c   Character to test.
@@ -400,9 +379,7 @@ public class CharUtils
                 }
             }
 */
-            lettersMatcher.reset( s.trim() );
-
-            result  = lettersMatcher.matches();
+            result  = lettersPattern.matcher( s.trim() ).matches();
         }
 
         return result;
@@ -421,9 +398,7 @@ public class CharUtils
 
         if ( ( s != null ) && !s.equals( "'" ) )
         {
-            wordMatcher.reset( s );
-
-            result  = wordMatcher.matches();
+            result  = wordPattern.matcher( s ).matches();
         }
 
         return result;
@@ -483,9 +458,7 @@ public class CharUtils
 
         if ( s != null )
         {
-            punctuationMatcher.reset( s.trim() );
-
-            result  = punctuationMatcher.matches();
+            result  = punctuationPattern.matcher( s.trim() ).matches();
         }
 
         return result;
@@ -710,21 +683,7 @@ public class CharUtils
 
     public static boolean isNumber( String s )
     {
-        boolean result  = false;
-
-        if ( s != null )
-        {
-            try
-            {
-                double x    = Double.parseDouble( s );
-                result      = true;
-            }
-            catch ( Exception e )
-            {
-            }
-        }
-
-        return result;
+        return TokenClassifier.isNumber( s );
     }
 
     /** True if a string is an ordinal number.
@@ -882,22 +841,7 @@ public class CharUtils
 
     public static boolean hasPunctuationNotApostrophes( String s )
     {
-        boolean result  = false;
-
-        String ts   = s.trim();
-
-        for ( int i = 0 ; i < ts.length() ; i++ )
-        {
-            char ch = ts.charAt( i );
-
-            if ( isPunctuation( ch ) && ( ch != '-' ) && ( ch != '\'' ) )
-            {
-                result  = true;
-                break;
-            }
-        }
-
-        return result;
+        return TokenClassifier.hasPunctuationNotApostrophes( s );
     }
 
     /** True if any characters in a string are symbols.
@@ -909,22 +853,7 @@ public class CharUtils
 
     public static boolean hasSymbols( String s )
     {
-        boolean result  = false;
-
-        String ts   = s.trim();
-
-        for ( int i = 0 ; i < ts.length() ; i++ )
-        {
-            char ch = ts.charAt( i );
-
-            if ( isSymbol( ch ) )
-            {
-                result  = true;
-                break;
-            }
-        }
-
-        return result;
+        return TokenClassifier.hasSymbols( s );
     }
 
     /** True if character is a gap marker.
@@ -1318,11 +1247,9 @@ public class CharUtils
      *  \u0040return        True if string is all hyphens.
      */
 
-    public synchronized static boolean isAllHyphens( String s )
+    public static boolean isAllHyphens( String s )
     {
-        hyphenMatcher.reset( s );
-
-        return hyphenMatcher.matches();
+        return TokenClassifier.isAllHyphens( s );
     }
 
     /** True if string is all asterisks.
@@ -1332,11 +1259,9 @@ public class CharUtils
      *  \u0040return        True if string is all asterisks.
      */
 
-    public synchronized static boolean isAllAsterisks( String s )
+    public static boolean isAllAsterisks( String s )
     {
-        asteriskMatcher.reset( s );
-
-        return asteriskMatcher.matches();
+        return TokenClassifier.isAllAsterisks( s );
     }
 
     /** True if string is asterisks followed by 's.
@@ -1346,11 +1271,9 @@ public class CharUtils
      *  \u0040return        True if string is asterisks followed by 's.
      */
 
-    public synchronized static boolean isPossessiveAsterisks( String s )
+    public static boolean isPossessiveAsterisks( String s )
     {
-        possessiveAsteriskMatcher.reset( s );
-
-        return possessiveAsteriskMatcher.matches();
+        return TokenClassifier.isPossessiveAsterisks( s );
     }
 
     /** True if string is two or more dashes followed by 's.
@@ -1360,11 +1283,9 @@ public class CharUtils
      *  \u0040return        True if string is dashes followed by 's.
      */
 
-    public synchronized static boolean isPossessiveDashes( String s )
+    public static boolean isPossessiveDashes( String s )
     {
-        possessiveDashesMatcher.reset( s );
-
-        return possessiveDashesMatcher.matches();
+        return TokenClassifier.isPossessiveDashes( s );
     }
 
     /** True if character is whitespace.
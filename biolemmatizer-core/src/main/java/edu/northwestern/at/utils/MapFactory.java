@@ -3,6 +3,7 @@ package edu.northwestern.at.utils;
 /*  Please see the license information at the end of this file. */
 
 import java.util.*;
+import java.util.concurrent.*;
 
 /** Factory for creating maps.
  */
@@ -25,6 +26,14 @@ public class MapFactory
         return Collections.synchronizedMap( new HashMap<K , V>() );
     }
 
+    /** Create a new thread-safe unsorted map (ConcurrentHashMap).
+     */
+
+    public static<K, V> Map<K, V> createNewConcurrentMap()
+    {
+        return new ConcurrentHashMap<K , V>();
+    }
+
     /** Create a new unsorted map (HashMap) with specified initial capacity.
      *
      *  @param  capacity    Initial capacity.
@@ -124,7 +124,7 @@ public class RomanNumeralUtils
 
     public static boolean isLooseRomanNumeral( String s )
     {
-        return s.toUpperCase().matches( looseRomanNumeralPattern );
+        return TokenClassifier.isLooseRomanNumeral( s );
     }
 
     /** See if string is an ordinal Roman numeral using looser definition.
@@ -137,8 +137,7 @@ public class RomanNumeralUtils
 
     public static boolean isLooseOrdinalRomanNumeral( String s )
     {
-        return s.toUpperCase().matches(
-            looseOrdinalRomanNumeralPattern );
+        return TokenClassifier.isLooseOrdinalRomanNumeral( s );
     }
 
     /** Convert Roman numeral to integer.
@@ -0,0 +1,901 @@
+package edu.northwestern.at.utils;
+
+/*  Please see the license information at the end of this file. */
+
+import java.util.regex.*;
+
+/** Lock-free token classifier.
+ *
+ *  <p>
+ *  Classifies a token in a single pass over its characters using a
+ *  precomputed character class table.  The predicates here give the
+ *  same answers as the regular expression based tests in
+ *  {@link CharUtils} and {@link RomanNumeralUtils} but use no locks,
+ *  no regular expressions and no exceptions for ASCII input, so they
+ *  may be called freely from many threads at once.
+ *  </p>
+ *
+ *  <p>
+ *  Roman numerals are recognized using locale independent upper
+ *  casing.  Tokens containing non-ASCII characters which upper case
+ *  to Roman numeral letters (e.g., dotless i or long s) fall back to
+ *  the original regular expressions.
+ *  </p>
+ */
+
+public class TokenClassifier
+{
+    /** Character is a hyphen ('-' or non-breaking hyphen). */
+
+    protected static final int HYPHEN               = 0x01;
+
+    /** Character is an asterisk. */
+
+    protected static final int ASTERISK             = 0x02;
+
+    /** Character is punctuation other than a hyphen or apostrophe. */
+
+    protected static final int PUNCTUATION          = 0x04;
+
+    /** Character is a symbol. */
+
+    protected static final int SYMBOL               = 0x08;
+
+    /** Character may appear in a Java floating point literal. */
+
+    protected static final int NUMERIC              = 0x10;
+
+    /** Character may appear in an upper cased (ordinal) Roman numeral. */
+
+    protected static final int ROMAN                = 0x20;
+
+    /** Character is a non-ASCII character whose upper case form
+     *  contains a Roman numeral letter.
+     */
+
+    protected static final int ROMAN_NON_ASCII      = 0x40;
+
+    /** Characters which may appear in an upper cased loose
+     *  (ordinal) Roman numeral.
+     */
+
+    protected static final String ROMAN_NUMERAL_CHARACTERS  =
+        ".MCDXLIUVJOSTHNR";
+
+    /** Character class flags indexed by character. */
+
+    protected static final byte[] charClasses   = new byte[ 65536 ];
+
+    /** Compiled loose Roman numeral pattern, used for non-ASCII input. */
+
+    protected static final Pattern looseRomanNumeralPattern =
+        Pattern.compile( RomanNumeralUtils.looseRomanNumeralPattern );
+
+    /** Compiled loose ordinal Roman numeral pattern,
+     *  used for non-ASCII input.
+     */
+
+    protected static final Pattern looseOrdinalRomanNumeralPattern  =
+        Pattern.compile( RomanNumeralUtils.looseOrdinalRomanNumeralPattern );
+
+    /** Segments of the loose Roman numeral patterns, in match order. */
+
+    protected static final int SEG_LEADING_PERIOD   = 0;
+    protected static final int SEG_THOUSANDS        = 1;
+    protected static final int SEG_PERIODS_1        = 2;
+    protected static final int SEG_HUNDREDS         = 3;
+    protected static final int SEG_PERIODS_2        = 4;
+    protected static final int SEG_TENS             = 5;
+    protected static final int SEG_UNITS            = 6;
+    protected static final int SEG_SUFFIX           = 7;
+    protected static final int SEG_TRAILING_PERIOD  = 8;
+    protected static final int SEG_END              = 9;
+
+    /** Check for tokens that cannot be lemmatized.
+     *
+     *  @param  s   The token.  Should already be trimmed.
+     *
+     *  @return     true if the token is empty, all hyphens,
+     *              contains punctuation other than hyphens and
+     *              apostrophes, contains symbols, is a number,
+     *              or is a loose (ordinal) Roman numeral.
+     *
+     *  <p>
+     *  Equivalent to the chain of {@link CharUtils} and
+     *  {@link RomanNumeralUtils} tests formerly applied in
+     *  AbstractLemmatizer.cantLemmatize, computed in one pass.
+     *  </p>
+     */
+
+    public static boolean cantLemmatize( String s )
+    {
+        int l   = s.length();
+
+        if ( l == 0 ) return true;
+
+        int any = 0;
+        int all = 0xff;
+
+        for ( int i = 0 ; i < l ; i++ )
+        {
+            int flags   = charClasses[ s.charAt( i ) ];
+
+            any |= flags;
+            all &= flags;
+        }
+
+        if  (   ( ( all & HYPHEN ) != 0 ) ||
+                ( ( any & ( PUNCTUATION | SYMBOL ) ) != 0 )
+            )
+        {
+            return true;
+        }
+
+        if ( ( ( all & NUMERIC ) != 0 ) && parsesAsDouble( s ) )
+        {
+            return true;
+        }
+
+        if ( ( all & ROMAN ) != 0 )
+        {
+            return
+                isRoman( s , ( any & ROMAN_NON_ASCII ) != 0 , false ) ||
+                isRoman( s , ( any & ROMAN_NON_ASCII ) != 0 , true );
+        }
+
+        return false;
+    }
+
+    /** True if string is all hyphens.
+     *
+     *  @param  s   String to check.
+     *
+     *  @return     True if string is one or more hyphens.
+     */
+
+    public static boolean isAllHyphens( String s )
+    {
+        return allHave( s , HYPHEN );
+    }
+
+    /** True if string is all asterisks.
+     *
+     *  @param  s   String to check.
+     *
+     *  @return     True if string is one or more asterisks.
+     */
+
+    public static boolean isAllAsterisks( String s )
+    {
+        return allHave( s , ASTERISK );
+    }
+
+    /** True if string is asterisks followed by 's.
+     *
+     *  @param  s   String to check.
+     *
+     *  @return     True if string is one or more asterisks followed by 's.
+     */
+
+    public static boolean isPossessiveAsterisks( String s )
+    {
+        return isPossessive( s , ASTERISK , 1 );
+    }
+
+    /** True if string is two or more dashes followed by 's.
+     *
+     *  @param  s   String to check.
+     *
+     *  @return     True if string is two or more hyphens followed by 's.
+     */
+
+    public static boolean isPossessiveDashes( String s )
+    {
+        return isPossessive( s , HYPHEN , 2 );
+    }
+
+    /** True if any characters in a string are punctuation other than
+     *  hyphens and apostrophes.
+     *
+     *  @param  s   String to check.
+     *
+     *  @return     True if any character is punctuation, except
+     *              that hyphens and apostrophes are allowed.
+     */
+
+    public static boolean hasPunctuationNotApostrophes( String s )
+    {
+        return anyHave( s , PUNCTUATION );
+    }
+
+    /** True if any characters in a string are symbols.
+     *
+     *  @param  s   String to check.
+     *
+     *  @return     True if any character is a symbol.
+     */
+
+    public static boolean hasSymbols( String s )
+    {
+        return anyHave( s , SYMBOL );
+    }
+
+    /** True if a string is a number.
+     *
+     *  @param  s   String to check.
+     *
+     *  @return     True if Double.parseDouble would accept the string.
+     */
+
+    public static boolean isNumber( String s )
+    {
+        return ( s != null ) && parsesAsDouble( s );
+    }
+
+    /** See if string is a Roman numeral using looser (older) definition.
+     *
+     *  @param  s   The string.
+     *
+     *  @return     true if string is a valid Roman numeral using
+     *              looser (older) definition.
+     */
+
+    public static boolean isLooseRomanNumeral( String s )
+    {
+        return isRoman( s , anyHave( s , ROMAN_NON_ASCII ) , false );
+    }
+
+    /** See if string is an ordinal Roman numeral using looser definition.
+     *
+     *  @param  s   The string.
+     *
+     *  @return     true if string is a valid Roman ordinal numeral
+     *              using looser (older) definition.
+     */
+
+    public static boolean isLooseOrdinalRomanNumeral( String s )
+    {
+        return isRoman( s , anyHave( s , ROMAN_NON_ASCII ) , true );
+    }
+
+    /** True if every character of a non-empty string has a flag.
+     *
+     *  @param  s       The string.
+     *  @param  flag    The character class flag.
+     *
+     *  @return         true if s is non-empty and all characters
+     *                  have the flag.
+     */
+
+    protected static boolean allHave( String s , int flag )
+    {
+        if ( ( s == null ) || ( s.length() == 0 ) ) return false;
+
+        for ( int i = 0 ; i < s.length() ; i++ )
+        {
+            if ( ( charClasses[ s.charAt( i ) ] & flag ) == 0 )
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /** True if any character of a string has a flag.
+     *
+     *  @param  s       The string.
+     *  @param  flag    The character class flag.
+     *
+     *  @return         true if any character has the flag.
+     */
+
+    protected static boolean anyHave( String s , int flag )
+    {
+        for ( int i = 0 ; i < s.length() ; i++ )
+        {
+            if ( ( charClasses[ s.charAt( i ) ] & flag ) != 0 )
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /** True if string is a run of flagged characters followed by 's.
+     *
+     *  @param  s           The string.
+     *  @param  flag        The character class flag for the run.
+     *  @param  minimumRun  Minimum length of the run.
+     *
+     *  @return             true if string matches.
+     */
+
+    protected static boolean isPossessive
+    (
+        String s ,
+        int flag ,
+        int minimumRun
+    )
+    {
+        if ( s == null ) return false;
+
+        int l   = s.length();
+
+        if ( l < ( minimumRun + 2 ) ) return false;
+
+        char last   = s.charAt( l - 1 );
+
+        if ( ( s.charAt( l - 2 ) != '\'' ) || ( ( last != 's' ) && ( last != 'S' ) ) )
+        {
+            return false;
+        }
+
+        for ( int i = 0 ; i < ( l - 2 ) ; i++ )
+        {
+            if ( ( charClasses[ s.charAt( i ) ] & flag ) == 0 )
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /** True if a string would be accepted by Double.parseDouble.
+     *
+     *  @param  s   The string.
+     *
+     *  @return     true if the string is a Java floating point literal,
+     *              ignoring leading and trailing whitespace.
+     *
+     *  <p>
+     *  Accepts exactly the grammar of Double.valueOf: an optional sign
+     *  followed by "NaN", "Infinity", a hexadecimal floating point
+     *  literal or a decimal literal with optional exponent, optionally
+     *  followed by one of the type suffixes f, F, d or D.
+     *  </p>
+     */
+
+    protected static boolean parsesAsDouble( String s )
+    {
+        int start   = 0;
+        int end     = s.length();
+                                //  Double.parseDouble trims its input.
+
+        while ( ( start < end ) && ( s.charAt( start ) <= ' ' ) ) start++;
+        while ( ( end > start ) && ( s.charAt( end - 1 ) <= ' ' ) ) end--;
+
+        int i   = start;
+
+        if ( i == end ) return false;
+
+        char ch = s.charAt( i );
+
+        if ( ( ch == '+' ) || ( ch == '-' ) )
+        {
+            if ( ++i == end ) return false;
+
+            ch  = s.charAt( i );
+        }
+
+        if ( ch == 'N' )
+        {
+            return ( ( end - i ) == 3 ) && s.startsWith( "NaN" , i );
+        }
+
+        if ( ch == 'I' )
+        {
+            return ( ( end - i ) == 8 ) && s.startsWith( "Infinity" , i );
+        }
+
+        if  (   ( ch == '0' ) && ( ( i + 1 ) < end ) &&
+                ( ( s.charAt( i + 1 ) == 'x' ) || ( s.charAt( i + 1 ) == 'X' ) )
+            )
+        {
+            return parsesAsHexDouble( s , i + 2 , end );
+        }
+                                //  Decimal significand.
+        int digits          = 0;
+        boolean seenPoint   = false;
+
+        for ( ; i < end ; i++ )
+        {
+            ch  = s.charAt( i );
+
+            if ( ( ch >= '0' ) && ( ch <= '9' ) )
+            {
+                digits++;
+            }
+            else if ( ch == '.' )
+            {
+                if ( seenPoint ) return false;
+
+                seenPoint   = true;
+            }
+            else
+            {
+                break;
+            }
+        }
+
+        if ( digits == 0 ) return false;
+                                //  Optional exponent.
+
+        if ( ( i < end ) && ( ( ch == 'e' ) || ( ch == 'E' ) ) )
+        {
+            i++;
+
+            if  (   ( i < end ) &&
+                    ( ( s.charAt( i ) == '+' ) || ( s.charAt( i ) == '-' ) )
+                )
+            {
+                i++;
+            }
+
+            int exponentStart   = i;
+
+            while ( ( i < end ) && isDecimalDigit( s.charAt( i ) ) ) i++;
+
+            if ( i == exponentStart ) return false;
+        }
+
+        return isTypeSuffix( s , i , end );
+    }
+
+    /** True if the remainder of a hexadecimal floating point literal,
+     *  following "0x", is well formed.
+     *
+     *  @param  s       The string.
+     *  @param  i       Index following the "0x" prefix.
+     *  @param  end     End index (exclusive).
+     *
+     *  @return         true if well formed.
+     */
+
+    protected static boolean parsesAsHexDouble( String s , int i , int end )
+    {
+        int digits  = 0;
+
+        while ( ( i < end ) && isHexDigit( s.charAt( i ) ) )
+        {
+            digits++;
+            i++;
+        }
+
+        if ( ( i < end ) && ( s.charAt( i ) == '.' ) )
+        {
+            i++;
+
+            while ( ( i < end ) && isHexDigit( s.charAt( i ) ) )
+            {
+                digits++;
+                i++;
+            }
+        }
+                                //  A binary exponent is mandatory.
+
+        if  (   ( digits == 0 ) || ( i == end ) ||
+                ( ( s.charAt( i ) != 'p' ) && ( s.charAt( i ) != 'P' ) )
+            )
+        {
+            return false;
+        }
+
+        i++;
+
+        if  (   ( i < end ) &&
+                ( ( s.charAt( i ) == '+' ) || ( s.charAt( i ) == '-' ) )
+            )
+        {
+            i++;
+        }
+
+        int exponentStart   = i;
+
+        while ( ( i < end ) && isDecimalDigit( s.charAt( i ) ) ) i++;
+
+        if ( i == exponentStart ) return false;
+
+        return isTypeSuffix( s , i , end );
+    }
+
+    /** True if the string ends at i, or at i + 1 with a type suffix.
+     */
+
+    protected static boolean isTypeSuffix( String s , int i , int end )
+    {
+        if ( i == end ) return true;
+
+        if ( i != ( end - 1 ) ) return false;
+
+        char ch = s.charAt( i );
+
+        return ( ch == 'f' ) || ( ch == 'F' ) || ( ch == 'd' ) || ( ch == 'D' );
+    }
+
+    /** True if character is an ASCII decimal digit. */
+
+    protected static boolean isDecimalDigit( char ch )
+    {
+        return ( ch >= '0' ) && ( ch <= '9' );
+    }
+
+    /** True if character is an ASCII hexadecimal digit. */
+
+    protected static boolean isHexDigit( char ch )
+    {
+        return
+            ( ( ch >= '0' ) && ( ch <= '9' ) ) ||
+            ( ( ch >= 'a' ) && ( ch <= 'f' ) ) ||
+            ( ( ch >= 'A' ) && ( ch <= 'F' ) );
+    }
+
+    /** Check for a loose (ordinal) Roman numeral.
+     *
+     *  @param  s           The string.
+     *  @param  nonAscii    true if the string contains non-ASCII
+     *                      characters which upper case to Roman
+     *                      numeral letters.
+     *  @param  ordinal     true to check for an ordinal Roman numeral.
+     *
+     *  @return             true if the string matches.
+     */
+
+    protected static boolean isRoman
+    (
+        String s ,
+        boolean nonAscii ,
+        boolean ordinal
+    )
+    {
+        if ( nonAscii )
+        {
+            Pattern pattern =
+                ordinal ?
+                    looseOrdinalRomanNumeralPattern :
+                    looseRomanNumeralPattern;
+
+            return pattern.matcher( s.toUpperCase() ).matches();
+        }
+
+        return matchRoman( s , 0 , s.length() , SEG_LEADING_PERIOD , ordinal );
+    }
+
+    /** Match a loose Roman numeral from a given segment onwards.
+     *
+     *  @param  s           The string.
+     *  @param  pos         Current position in string.
+     *  @param  end         End of string.
+     *  @param  segment     Current pattern segment.
+     *  @param  ordinal     true to match the ordinal form.
+     *
+     *  @return             true if the rest of the string matches.
+     *
+     *  <p>
+     *  Mirrors the regular expression
+     *  <code>\.?M{0,3}\.*(C[MD]|D?C{0,3})\.*(X[CL]|L?X{0,3})
+     *  (I[XVU]|[UV]?I{0,4}|[UV]?I{0,3}J)(O|M|ST|US)?\.?</code>
+     *  (with the suffix replaced by <code>(TH|ST|ND|RD)</code> for
+     *  ordinals), trying each alternative in turn.  Segments are
+     *  bounded except for period runs, so the search is shallow.
+     *  </p>
+     */
+
+    protected static boolean matchRoman
+    (
+        String s ,
+        int pos ,
+        int end ,
+        int segment ,
+        boolean ordinal
+    )
+    {
+        int next    = segment + 1;
+
+        switch ( segment )
+        {
+            case SEG_LEADING_PERIOD     :
+            case SEG_TRAILING_PERIOD    :
+                return
+                    matchRoman( s , pos , end , next , ordinal ) ||
+                    (   ( upperAt( s , pos , end ) == '.' ) &&
+                        matchRoman( s , pos + 1 , end , next , ordinal ) );
+
+            case SEG_THOUSANDS          :
+                return matchRun( s , pos , end , 'M' , 3 , next , ordinal );
+
+            case SEG_PERIODS_1          :
+            case SEG_PERIODS_2          :
+                return
+                    matchRun
+                    (
+                        s , pos , end , '.' , Integer.MAX_VALUE , next , ordinal
+                    );
+
+            case SEG_HUNDREDS           :
+                return matchPlace( s , pos , end , 'C' , 'M' , 'D' , next , ordinal );
+
+            case SEG_TENS               :
+                return matchPlace( s , pos , end , 'X' , 'C' , 'L' , next , ordinal );
+
+            case SEG_UNITS              :
+            {
+                char ch = upperAt( s , pos , end );
+                                //  I[XVU]
+                if ( ch == 'I' )
+                {
+                    char ch2    = upperAt( s , pos + 1 , end );
+
+                    if  (   ( ( ch2 == 'X' ) || ( ch2 == 'V' ) || ( ch2 == 'U' ) ) &&
+                            matchRoman( s , pos + 2 , end , next , ordinal )
+                        )
+                    {
+                        return true;
+                    }
+                }
+                                //  [UV]?I{0,4} and [UV]?I{0,3}J
+                int start   = pos;
+
+                for ( int k = 0 ; k < 2 ; k++ )
+                {
+                    if ( matchRun( s , start , end , 'I' , 4 , next , ordinal ) )
+                    {
+                        return true;
+                    }
+
+                    int j   = start;
+
+                    while ( ( j - start < 3 ) && ( upperAt( s , j , end ) == 'I' ) ) j++;
+
+                    for ( ; j >= start ; j-- )
+                    {
+                        if  (   ( upperAt( s , j , end ) == 'J' ) &&
+                                matchRoman( s , j + 1 , end , next , ordinal )
+                            )
+                        {
+                            return true;
+                        }
+                    }
+
+                    if ( ( ch != 'U' ) && ( ch != 'V' ) ) break;
+
+                    start   = pos + 1;
+                }
+
+                return false;
+            }
+
+            case SEG_SUFFIX             :
+            {
+                char ch     = upperAt( s , pos , end );
+                char ch2    = upperAt( s , pos + 1 , end );
+
+                if ( ordinal )
+                {
+                    boolean suffix  =
+                        ( ( ch == 'T' ) && ( ch2 == 'H' ) ) ||
+                        ( ( ch == 'S' ) && ( ch2 == 'T' ) ) ||
+                        ( ( ch == 'N' ) && ( ch2 == 'D' ) ) ||
+                        ( ( ch == 'R' ) && ( ch2 == 'D' ) );
+
+                    return suffix && matchRoman( s , pos + 2 , end , next , ordinal );
+                }
+
+                return
+                    matchRoman( s , pos , end , next , ordinal ) ||
+                    (   ( ( ch == 'O' ) || ( ch == 'M' ) ) &&
+                        matchRoman( s , pos + 1 , end , next , ordinal ) ) ||
+                    (   (   ( ( ch == 'S' ) && ( ch2 == 'T' ) ) ||
+                            ( ( ch == 'U' ) && ( ch2 == 'S' ) ) ) &&
+                        matchRoman( s , pos + 2 , end , next , ordinal ) );
+            }
+
+            default                     :
+                return pos == end;
+        }
+    }
+
+    /** Match a hundreds or tens place: one + five/ten, or five? one{0,3}.
+     *
+     *  @param  s       The string.
+     *  @param  pos     Current position.
+     *  @param  end     End of string.
+     *  @param  one     Numeral for one unit of this place (C or X).
+     *  @param  ten     Numeral for ten units (M or C).
+     *  @param  five    Numeral for five units (D or L).
+     *  @param  next    Next segment.
+     *  @param  ordinal true to match ordinal form.
+     *
+     *  @return         true if the rest of the string matches.
+     */
+
+    protected static boolean matchPlace
+    (
+        String s ,
+        int pos ,
+        int end ,
+        char one ,
+        char ten ,
+        char five ,
+        int next ,
+        boolean ordinal
+    )
+    {
+        char ch     = upperAt( s , pos , end );
+        char ch2    = upperAt( s , pos + 1 , end );
+
+        if  (   ( ch == one ) && ( ( ch2 == ten ) || ( ch2 == five ) ) &&
+                matchRoman( s , pos + 2 , end , next , ordinal )
+            )
+        {
+            return true;
+        }
+
+        return
+            matchRun( s , pos , end , one , 3 , next , ordinal ) ||
+            (   ( ch == five ) &&
+                matchRun( s , pos + 1 , end , one , 3 , next , ordinal ) );
+    }
+
+    /** Match zero to maximum occurrences of a character,
+     *  followed by the next segment.
+     *
+     *  @param  s       The string.
+     *  @param  pos     Current position.
+     *  @param  end     End of string.
+     *  @param  ch      The (upper case) character to repeat.
+     *  @param  maximum Maximum repetitions.
+     *  @param  next    Next segment.
+     *  @param  ordinal true to match ordinal form.
+     *
+     *  @return         true if the rest of the string matches.
+     */
+
+    protected static boolean matchRun
+    (
+        String s ,
+        int pos ,
+        int end ,
+        char ch ,
+        int maximum ,
+        int next ,
+        boolean ordinal
+    )
+    {
+        for ( int k = 0 ; ; k++ )
+        {
+            if ( matchRoman( s , pos + k , end , next , ordinal ) )
+            {
+                return true;
+            }
+
+            if ( ( k == maximum ) || ( upperAt( s , pos + k , end ) != ch ) )
+            {
+                return false;
+            }
+        }
+    }
+
+    /** Get ASCII upper cased character at a position.
+     *
+     *  @param  s       The string.
+     *  @param  pos     The position.
+     *  @param  end     End of string.
+     *
+     *  @return         The upper cased character, or '\0' past the end.
+     */
+
+    protected static char upperAt( String s , int pos , int end )
+    {
+        if ( pos >= end ) return '\0';
+
+        char ch = s.charAt( pos );
+
+        return ( ( ch >= 'a' ) && ( ch <= 'z' ) ) ? (char)( ch - 32 ) : ch;
+    }
+
+    /** Don't allow instantiation, do allow overrides. */
+
+    protected TokenClassifier()
+    {
+    }
+
+    /** Build the character class table. */
+
+    static
+    {
+        for ( int i = 0 ; i < charClasses.length ; i++ )
+        {
+            char ch     = (char)i;
+            int flags   = 0;
+
+            if ( ( ch == '-' ) || ( ch == CharUtils.NONBREAKING_HYPHEN ) )
+            {
+                flags   |= HYPHEN;
+            }
+
+            if ( ch == '*' )
+            {
+                flags   |= ASTERISK;
+            }
+
+            if  (   CharUtils.isPunctuation( ch ) &&
+                    ( ch != '-' ) && ( ch != '\'' )
+                )
+            {
+                flags   |= PUNCTUATION;
+            }
+
+            if ( CharUtils.isSymbol( ch ) )
+            {
+                flags   |= SYMBOL;
+            }
+
+            if  (   isHexDigit( ch ) ||
+                    ( "+-.xXpPdDfFNaInity".indexOf( ch ) >= 0 )
+                )
+            {
+                flags   |= NUMERIC;
+            }
+
+            String upper    =
+                ( ch < 128 ) ?
+                    String.valueOf( upperAt( String.valueOf( ch ) , 0 , 1 ) ) :
+                    String.valueOf( ch ).toUpperCase();
+
+            for ( int j = 0 ; j < upper.length() ; j++ )
+            {
+                if ( ROMAN_NUMERAL_CHARACTERS.indexOf( upper.charAt( j ) ) >= 0 )
+                {
+                    flags   |= ( ch < 128 ) ? ROMAN : ( ROMAN | ROMAN_NON_ASCII );
+                    break;
+                }
+            }
+
+            charClasses[ i ]    = (byte)flags;
+        }
+    }
+}
+
+/*
+Copyright (c) 2008, 2013 by Northwestern University.
+All rights reserved.
+
+Developed by:
+   Academic and Research Technologies
+   Northwestern University
+   http://www.it.northwestern.edu/about/departments/at/
+
+Permission is hereby granted, free of charge, to any person
+obtaining a copy of this software and associated documentation
+files (the "Software"), to deal with the Software without
+restriction, including without limitation the rights to use,
+copy, modify, merge, publish, distribute, sublicense, and/or
+sell copies of the Software, and to permit persons to whom the
+Software is furnished to do so, subject to the following
+conditions:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimers.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimers in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the names of Academic and Research Technologies,
+      Northwestern University, nor the names of its contributors may be
+      used to endorse or promote products derived from this Software
+      without specific prior written permission.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+NONINFRINGEMENT. IN NO EVENT SHALL THE CONTRIBUTORS OR
+COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*/
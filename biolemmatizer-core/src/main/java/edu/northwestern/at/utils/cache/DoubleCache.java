@@ -0,0 +1,118 @@
+package edu.northwestern.at.utils.cache;
+
+/*  Please see the license information at the end of this file. */
+
+/** A cache of primitive double values keyed by up to three strings.
+ *
+ *  <p>
+ *  Avoids creating a compound key object and a boxed value for each
+ *  entry.  Unused trailing keys may be passed as null or as a
+ *  placeholder string such as "*".
+ *  </p>
+ */
+
+public interface DoubleCache
+{
+    /** Clear all entries in the cache.
+     */
+
+    public void clear();
+
+    /** Retrieve a cached value.
+     *
+     *  @param  key1    The first key.
+     *  @param  key2    The second key.
+     *  @param  key3    The third key.
+     *
+     *  @return         The cached value; Double.NaN if the cache does
+     *                  not contain the keys.
+     */
+
+    public double get( String key1 , String key2 , String key3 );
+
+    /** Add or replace a cached value.
+     *
+     *  @param  key1    The first key.
+     *  @param  key2    The second key.
+     *  @param  key3    The third key.
+     *  @param  value   The value.
+     */
+
+    public void put
+    (
+        String key1 ,
+        String key2 ,
+        String key3 ,
+        double value
+    );
+
+    /** Return current size of cache.
+     *
+     *  @return     Number of entries currently stored in cache.
+     */
+
+    public int size();
+
+    /** Return number of successful gets.
+     *
+     *  @return     Number of gets which found a cached value.
+     */
+
+    public long getHitCount();
+
+    /** Return number of unsuccessful gets.
+     *
+     *  @return     Number of gets which found no cached value.
+     */
+
+    public long getMissCount();
+
+    /** Return number of evicted entries.
+     *
+     *  @return     Number of entries removed to make room for
+     *              new entries.
+     */
+
+    public long getEvictionCount();
+}
+
+/*
+Copyright (c) 2008, 2013 by Northwestern University.
+All rights reserved.
+
+Developed by:
+   Academic and Research Technologies
+   Northwestern University
+   http://www.it.northwestern.edu/about/departments/at/
+
+Permission is hereby granted, free of charge, to any person
+obtaining a copy of this software and associated documentation
+files (the "Software"), to deal with the Software without
+restriction, including without limitation the rights to use,
+copy, modify, merge, publish, distribute, sublicense, and/or
+sell copies of the Software, and to permit persons to whom the
+Software is furnished to do so, subject to the following
+conditions:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimers.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimers in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the names of Academic and Research Technologies,
+      Northwestern University, nor the names of its contributors may be
+      used to endorse or promote products derived from this Software
+      without specific prior written permission.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+NONINFRINGEMENT. IN NO EVENT SHALL THE CONTRIBUTORS OR
+COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*/
@@ -0,0 +1,609 @@
+package edu.northwestern.at.utils.cache;
+
+/*  Please see the license information at the end of this file. */
+
+import java.util.*;
+
+/** Thread-safe fixed maximum size cache of double values employing the
+ *  clock method to age entries.
+ *
+ *  <p>
+ *  Entries are spread over a power of two number of stripes by key
+ *  hash code, as in {@link StripedLRUCache}.  Each stripe is a
+ *  separately locked open addressing hash table over parallel arrays
+ *  of keys and primitive double values, so an entry costs no objects
+ *  beyond its key strings.
+ *  </p>
+ *
+ *  <p>
+ *  Each entry has a reference bit which is set when the entry is
+ *  read or written.  When a full stripe needs room, a clock hand
+ *  sweeps the stripe's entries, clearing set reference bits, and
+ *  evicts the first entry whose bit is already clear.  This
+ *  approximates least recently used aging without reordering entries
+ *  on every read.
+ *  </p>
+ */
+
+public class StripedClockCache implements DoubleCache
+{
+    /** Default number of stripes. */
+
+    public static final int DEFAULT_STRIPES = 16;
+
+    /** Maximum number of entries in cache. */
+
+    protected int maxEntries;
+
+    /** The stripes. */
+
+    protected Stripe[] stripes;
+
+    /** Shift selecting a stripe from the high bits of a hash code. */
+
+    protected int stripeShift;
+
+    /** One separately locked stripe of the cache. */
+
+    protected static class Stripe
+    {
+        /** Keys of each entry. */
+
+        protected String[] keys1;
+        protected String[] keys2;
+        protected String[] keys3;
+
+        /** Hash code of each entry. */
+
+        protected int[] hashes;
+
+        /** Value of each entry. */
+
+        protected double[] values;
+
+        /** Reference bit of each entry. */
+
+        protected boolean[] referenced;
+
+        /** Hash table of entry index + 1, or 0 for an empty slot. */
+
+        protected int[] table;
+
+        /** Number of entries. */
+
+        protected int size;
+
+        /** Next entry the clock hand examines. */
+
+        protected int hand;
+
+        /** Number of successful gets. */
+
+        protected long hits;
+
+        /** Number of unsuccessful gets. */
+
+        protected long misses;
+
+        /** Number of entries removed to make room for new entries. */
+
+        protected long evictions;
+
+        /** Create a stripe.
+         *
+         *  @param  maxEntries  Maximum number of entries in stripe.
+         */
+
+        protected Stripe( int maxEntries )
+        {
+            keys1       = new String[ maxEntries ];
+            keys2       = new String[ maxEntries ];
+            keys3       = new String[ maxEntries ];
+            hashes      = new int[ maxEntries ];
+            values      = new double[ maxEntries ];
+            referenced  = new boolean[ maxEntries ];
+
+                                //  Keep the table at most half full.
+
+            int tableSize   = 4;
+
+            while ( tableSize < 2 * maxEntries )
+            {
+                tableSize   *= 2;
+            }
+
+            table       = new int[ tableSize ];
+        }
+
+        /** Find the entry for a set of keys.
+         *
+         *  @param  hash    The hash code of the keys.
+         *  @param  key1    The first key.
+         *  @param  key2    The second key.
+         *  @param  key3    The third key.
+         *
+         *  @return         The entry index, or -1 if none.
+         */
+
+        protected int find
+        (
+            int hash ,
+            String key1 ,
+            String key2 ,
+            String key3
+        )
+        {
+            int mask    = table.length - 1;
+
+            for (   int i = hash & mask ;
+                    table[ i ] != 0 ;
+                    i = ( i + 1 ) & mask )
+            {
+                int entry   = table[ i ] - 1;
+
+                if  (   ( hashes[ entry ] == hash ) &&
+                        equal( keys1[ entry ] , key1 ) &&
+                        equal( keys2[ entry ] , key2 ) &&
+                        equal( keys3[ entry ] , key3 )
+                    )
+                {
+                    return entry;
+                }
+            }
+
+            return -1;
+        }
+
+        /** Add an entry to the hash table.
+         *
+         *  @param  entry   The entry index.
+         */
+
+        protected void link( int entry )
+        {
+            int mask    = table.length - 1;
+            int i       = hashes[ entry ] & mask;
+
+            while ( table[ i ] != 0 )
+            {
+                i   = ( i + 1 ) & mask;
+            }
+
+            table[ i ]  = entry + 1;
+        }
+
+        /** Remove an entry from the hash table.
+         *
+         *  @param  entry   The entry index.
+         *
+         *  <p>
+         *  Later entries in the same probe run are shifted back
+         *  into the freed slot so that lookups still find them.
+         *  </p>
+         */
+
+        protected void unlink( int entry )
+        {
+            int mask    = table.length - 1;
+            int i       = hashes[ entry ] & mask;
+
+            while ( table[ i ] != ( entry + 1 ) )
+            {
+                i   = ( i + 1 ) & mask;
+            }
+
+            int j   = i;
+
+            while ( true )
+            {
+                j   = ( j + 1 ) & mask;
+
+                if ( table[ j ] == 0 ) break;
+
+                int home    = hashes[ table[ j ] - 1 ] & mask;
+
+                                //  Leave the entry at j if its home
+                                //  slot lies cyclically in ( i , j ].
+
+                boolean stays   =
+                    ( i <= j ) ?
+                        ( ( i < home ) && ( home <= j ) ) :
+                        ( ( i < home ) || ( home <= j ) );
+
+                if ( !stays )
+                {
+                    table[ i ]  = table[ j ];
+                    i           = j;
+                }
+            }
+
+            table[ i ]  = 0;
+        }
+
+        /** Choose an entry to reuse for a new entry.
+         *
+         *  @return     The entry index.
+         */
+
+        protected int evict()
+        {
+            int n   = keys1.length;
+
+            while ( referenced[ hand ] )
+            {
+                referenced[ hand ]  = false;
+                hand                = ( hand + 1 ) % n;
+            }
+
+            int result  = hand;
+
+            hand        = ( hand + 1 ) % n;
+
+            unlink( result );
+            evictions++;
+
+            return result;
+        }
+
+        /** Clear all entries.
+         */
+
+        protected void clear()
+        {
+            Arrays.fill( keys1 , null );
+            Arrays.fill( keys2 , null );
+            Arrays.fill( keys3 , null );
+            Arrays.fill( referenced , false );
+            Arrays.fill( table , 0 );
+
+            size    = 0;
+            hand    = 0;
+        }
+    }
+
+    /** Create a new cache with the default number of stripes.
+     *
+     *  @param  maxEntries  Maximum number of entries allowed.
+     */
+
+    public StripedClockCache( int maxEntries )
+    {
+        this( maxEntries , DEFAULT_STRIPES );
+    }
+
+    /** Create a new cache.
+     *
+     *  @param  maxEntries  Maximum number of entries allowed.
+     *  @param  stripes     Number of stripes.  Rounded up to a power
+     *                      of two, and reduced for small caches so
+     *                      each stripe holds at least 16 entries.
+     */
+
+    public StripedClockCache( int maxEntries , int stripes )
+    {
+        this.maxEntries = Math.max( maxEntries , 2 );
+
+        int nStripes    = 1;
+        int stripeBits  = 0;
+
+        while   (   ( nStripes < stripes ) &&
+                    ( nStripes * 16 < this.maxEntries )
+                )
+        {
+            nStripes    *= 2;
+            stripeBits++;
+        }
+
+        this.stripes        = new Stripe[ nStripes ];
+        this.stripeShift    = 32 - stripeBits;
+
+        int stripeEntries   = ( this.maxEntries + nStripes - 1 ) / nStripes;
+
+        for ( int i = 0 ; i < nStripes ; i++ )
+        {
+            this.stripes[ i ]   = new Stripe( stripeEntries );
+        }
+    }
+
+    /** Compare two keys.
+     *
+     *  @param  key1    The first key, or null.
+     *  @param  key2    The second key, or null.
+     *
+     *  @return         true if the keys are equal.
+     */
+
+    protected static boolean equal( String key1 , String key2 )
+    {
+        return ( key1 == key2 ) || ( ( key1 != null ) && key1.equals( key2 ) );
+    }
+
+    /** Get the hash code of a set of keys.
+     *
+     *  @param  key1    The first key.
+     *  @param  key2    The second key.
+     *  @param  key3    The third key.
+     *
+     *  @return         The hash code.
+     */
+
+    protected static int hash( String key1 , String key2 , String key3 )
+    {
+        int h   = ( key1 == null ) ? 0 : key1.hashCode();
+
+        h   = 31 * h + ( ( key2 == null ) ? 0 : key2.hashCode() );
+        h   = 31 * h + ( ( key3 == null ) ? 0 : key3.hashCode() );
+
+                                //  Mix the bits so both the stripe,
+                                //  taken from the high bits, and the
+                                //  table slot, taken from the low bits,
+                                //  depend on every key.
+
+        h   *= 0x9E3779B9;
+
+        return h ^ ( h >>> 16 );
+    }
+
+    /** Get the stripe for a hash code.
+     *
+     *  @param  hash    The hash code.
+     *
+     *  @return         The stripe holding the keys.
+     */
+
+    protected Stripe stripeFor( int hash )
+    {
+        return ( stripeShift == 32 ) ?
+            stripes[ 0 ] : stripes[ hash >>> stripeShift ];
+    }
+
+    /** Clear all entries in the cache.
+     *
+     *  <p>
+     *  The hit, miss and eviction counts are not reset.
+     *  </p>
+     */
+
+    public void clear()
+    {
+        for ( int i = 0 ; i < stripes.length ; i++ )
+        {
+            Stripe stripe   = stripes[ i ];
+
+            synchronized( stripe )
+            {
+                stripe.clear();
+            }
+        }
+    }
+
+    /** Retrieve a cached value.
+     *
+     *  @param  key1    The first key.
+     *  @param  key2    The second key.
+     *  @param  key3    The third key.
+     *
+     *  @return         The cached value; Double.NaN if the cache does
+     *                  not contain the keys.
+     */
+
+    public double get( String key1 , String key2 , String key3 )
+    {
+        int hash        = hash( key1 , key2 , key3 );
+        Stripe stripe   = stripeFor( hash );
+
+        synchronized( stripe )
+        {
+            int entry   = stripe.find( hash , key1 , key2 , key3 );
+
+            if ( entry < 0 )
+            {
+                stripe.misses++;
+
+                return Double.NaN;
+            }
+
+            stripe.hits++;
+            stripe.referenced[ entry ]  = true;
+
+            return stripe.values[ entry ];
+        }
+    }
+
+    /** Add or replace a cached value.
+     *
+     *  @param  key1    The first key.
+     *  @param  key2    The second key.
+     *  @param  key3    The third key.
+     *  @param  value   The value.
+     */
+
+    public void put
+    (
+        String key1 ,
+        String key2 ,
+        String key3 ,
+        double value
+    )
+    {
+        int hash        = hash( key1 , key2 , key3 );
+        Stripe stripe   = stripeFor( hash );
+
+        synchronized( stripe )
+        {
+            int entry   = stripe.find( hash , key1 , key2 , key3 );
+
+            if ( entry < 0 )
+            {
+                if ( stripe.size < stripe.keys1.length )
+                {
+                    entry   = stripe.size++;
+                }
+                else
+                {
+                    entry   = stripe.evict();
+                }
+
+                stripe.keys1[ entry ]   = key1;
+                stripe.keys2[ entry ]   = key2;
+                stripe.keys3[ entry ]   = key3;
+                stripe.hashes[ entry ]  = hash;
+
+                stripe.link( entry );
+            }
+
+            stripe.values[ entry ]      = value;
+            stripe.referenced[ entry ]  = true;
+        }
+    }
+
+    /** Return current size of cache.
+     *
+     *  @return     Number of entries currently stored in cache.
+     */
+
+    public int size()
+    {
+        int result  = 0;
+
+        for ( int i = 0 ; i < stripes.length ; i++ )
+        {
+            Stripe stripe   = stripes[ i ];
+
+            synchronized( stripe )
+            {
+                result  += stripe.size;
+            }
+        }
+
+        return result;
+    }
+
+    /** Return maximum size of cache.
+     *
+     *  @return     Maximum number of entries allowed in cache.
+     */
+
+    public int getMaxSize()
+    {
+        return maxEntries;
+    }
+
+    /** Return number of stripes.
+     *
+     *  @return     Number of separately locked stripes.
+     */
+
+    public int getStripeCount()
+    {
+        return stripes.length;
+    }
+
+    /** Return number of successful gets.
+     *
+     *  @return     Number of gets which found a cached value.
+     */
+
+    public long getHitCount()
+    {
+        long result = 0;
+
+        for ( int i = 0 ; i < stripes.length ; i++ )
+        {
+            Stripe stripe   = stripes[ i ];
+
+            synchronized( stripe )
+            {
+                result  += stripe.hits;
+            }
+        }
+
+        return result;
+    }
+
+    /** Return number of unsuccessful gets.
+     *
+     *  @return     Number of gets which found no cached value.
+     */
+
+    public long getMissCount()
+    {
+        long result = 0;
+
+        for ( int i = 0 ; i < stripes.length ; i++ )
+        {
+            Stripe stripe   = stripes[ i ];
+
+            synchronized( stripe )
+            {
+                result  += stripe.misses;
+            }
+        }
+
+        return result;
+    }
+
+    /** Return number of evicted entries.
+     *
+     *  @return     Number of entries removed to make room for
+     *              new entries.
+     */
+
+    public long getEvictionCount()
+    {
+        long result = 0;
+
+        for ( int i = 0 ; i < stripes.length ; i++ )
+        {
+            Stripe stripe   = stripes[ i ];
+
+            synchronized( stripe )
+            {
+                result  += stripe.evictions;
+            }
+        }
+
+        return result;
+    }
+}
+
+/*
+Copyright (c) 2008, 2013 by Northwestern University.
+All rights reserved.
+
+Developed by:
+   Academic and Research Technologies
+   Northwestern University
+   http://www.it.northwestern.edu/about/departments/at/
+
+Permission is hereby granted, free of charge, to any person
+obtaining a copy of this software and associated documentation
+files (the "Software"), to deal with the Software without
+restriction, including without limitation the rights to use,
+copy, modify, merge, publish, distribute, sublicense, and/or
+sell copies of the Software, and to permit persons to whom the
+Software is furnished to do so, subject to the following
+conditions:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimers.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimers in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the names of Academic and Research Technologies,
+      Northwestern University, nor the names of its contributors may be
+      used to endorse or promote products derived from this Software
+      without specific prior written permission.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+NONINFRINGEMENT. IN NO EVENT SHALL THE CONTRIBUTORS OR
+COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*/
@@ -0,0 +1,399 @@
+package edu.northwestern.at.utils.cache;
+
+/*  Please see the license information at the end of this file. */
+
+import java.util.*;
+
+/** Thread-safe fixed maximum size cache employing least-recently used
+ *  method to age entries.
+ *
+ *  <p>
+ *  Entries are spread over a power of two number of stripes by key
+ *  hash code.  Each stripe is a separately locked {@link LRUCache}
+ *  holding an equal share of the maximum number of entries, so
+ *  threads using different stripes never contend.  Hits, misses and
+ *  evictions are counted per stripe while the stripe is locked.
+ *  </p>
+ */
+
+public class StripedLRUCache<K, V> implements Cache<K, V>
+{
+    /** Default number of stripes. */
+
+    public static final int DEFAULT_STRIPES = 16;
+
+    /** Maximum number of entries in cache. */
+
+    protected int maxEntries;
+
+    /** The stripes. */
+
+    protected Stripe<K, V>[] stripes;
+
+    /** Mask selecting a stripe from a spread hash code. */
+
+    protected int stripeMask;
+
+    /** One separately locked stripe of the cache. */
+
+    protected static class Stripe<K, V> extends LRUCache<K, V>
+    {
+        /** Number of successful gets. */
+
+        protected long hits;
+
+        /** Number of unsuccessful gets. */
+
+        protected long misses;
+
+        /** Number of entries removed to make room for new entries. */
+
+        protected long evictions;
+
+        /** Create a stripe.
+         *
+         *  @param  maxEntries  Maximum number of entries in stripe.
+         */
+
+        protected Stripe( int maxEntries )
+        {
+            super( maxEntries );
+        }
+
+        /** See if we should delete the least recently used entry.
+         *
+         *  @return     true if least recently used entry should be removed,
+         *              false to keep least recently used entry.
+         */
+
+        protected boolean removeEldestEntry( Map.Entry< K , V > lruEntry )
+        {
+            boolean result  = super.removeEldestEntry( lruEntry );
+
+            if ( result )
+            {
+                evictions++;
+            }
+
+            return result;
+        }
+    }
+
+    /** Create a new cache with the default number of stripes.
+     *
+     *  @param  maxEntries  Maximum number of entries allowed.
+     */
+
+    public StripedLRUCache( int maxEntries )
+    {
+        this( maxEntries , DEFAULT_STRIPES );
+    }
+
+    /** Create a new cache.
+     *
+     *  @param  maxEntries  Maximum number of entries allowed.
+     *  @param  stripes     Number of stripes.  Rounded up to a power
+     *                      of two, and reduced for small caches so
+     *                      each stripe holds at least 16 entries.
+     */
+
+    @SuppressWarnings( "unchecked" )
+    public StripedLRUCache( int maxEntries , int stripes )
+    {
+        this.maxEntries = Math.max( maxEntries , 2 );
+
+        int nStripes    = 1;
+
+        while   (   ( nStripes < stripes ) &&
+                    ( nStripes * 16 < this.maxEntries )
+                )
+        {
+            nStripes    *= 2;
+        }
+
+        this.stripes    = new Stripe[ nStripes ];
+
+        this.stripeMask = nStripes - 1;
+
+        int stripeEntries   = ( this.maxEntries + nStripes - 1 ) / nStripes;
+
+        for ( int i = 0 ; i < nStripes ; i++ )
+        {
+            this.stripes[ i ]   = new Stripe<K, V>( stripeEntries );
+        }
+    }
+
+    /** Get the stripe for a key.
+     *
+     *  @param  key     The key.
+     *
+     *  @return         The stripe holding the key.
+     */
+
+    protected Stripe<K, V> stripeFor( Object key )
+    {
+        int h   = ( key == null ) ? 0 : key.hashCode();
+
+                                //  Spread the high bits so that keys
+                                //  differing only there still use
+                                //  different stripes.
+
+        h   ^= ( h >>> 16 );
+        h   ^= ( h >>> 8 );
+
+        return stripes[ h & stripeMask ];
+    }
+
+    /** Clear all entries in the cache.
+     *
+     *  <p>
+     *  The hit, miss and eviction counts are not reset.
+     *  </p>
+     */
+
+    public void clear()
+    {
+        for ( int i = 0 ; i < stripes.length ; i++ )
+        {
+            Stripe<K, V> stripe = stripes[ i ];
+
+            synchronized( stripe )
+            {
+                stripe.clear();
+            }
+        }
+    }
+
+    /** True if cache contains a specified key.
+     *
+     *  @param  key     The key to look up.
+     *
+     *  @return         true if the cache contains the key.
+     */
+
+    public boolean containsKey( K key )
+    {
+        Stripe<K, V> stripe = stripeFor( key );
+
+        synchronized( stripe )
+        {
+            return stripe.containsKey( key );
+        }
+    }
+
+    /** Retrieve a cached value.
+     *
+     *  @param  key     The key of the entry to retrieve.
+     *
+     *  @return         The value of the cached entry specified by key;
+     *                  null if the cache does not contain the key.
+     */
+
+    public V get( K key )
+    {
+        Stripe<K, V> stripe = stripeFor( key );
+
+        synchronized( stripe )
+        {
+            V result    = stripe.get( key );
+
+            if ( result == null )
+            {
+                stripe.misses++;
+            }
+            else
+            {
+                stripe.hits++;
+            }
+
+            return result;
+        }
+    }
+
+    /** Add or replace a cached value.
+     *
+     *  @param  key     The key of the entry to add.
+     *  @param  value   The value of the entry to add.
+     *
+     *  @return         The value of any existing cached entry specified
+     *                  by the key; null if the cache does not contain
+     *                  the key.
+     */
+
+    public V put( K key , V value )
+    {
+        Stripe<K, V> stripe = stripeFor( key );
+
+        synchronized( stripe )
+        {
+            return stripe.put( key , value );
+        }
+    }
+
+    /** Remove a specific entry from the cache.
+     *
+     *  @param  key     The key of the entry to remove.
+     *
+     *  @return         The entry removed, or null if none.
+     */
+
+    public V remove( K key )
+    {
+        Stripe<K, V> stripe = stripeFor( key );
+
+        synchronized( stripe )
+        {
+            return stripe.remove( key );
+        }
+    }
+
+    /** Return current size of cache.
+     *
+     *  @return     Number of entries (keys) currently stored in cache.
+     */
+
+    public int size()
+    {
+        int result  = 0;
+
+        for ( int i = 0 ; i < stripes.length ; i++ )
+        {
+            Stripe<K, V> stripe = stripes[ i ];
+
+            synchronized( stripe )
+            {
+                result  += stripe.size();
+            }
+        }
+
+        return result;
+    }
+
+    /** Return maximum size of cache.
+     *
+     *  @return     Maximum number of entries allowed in cache.
+     */
+
+    public int getMaxSize()
+    {
+        return maxEntries;
+    }
+
+    /** Return number of stripes.
+     *
+     *  @return     Number of separately locked stripes.
+     */
+
+    public int getStripeCount()
+    {
+        return stripes.length;
+    }
+
+    /** Return number of successful gets.
+     *
+     *  @return     Number of gets which found a cached value.
+     */
+
+    public long getHitCount()
+    {
+        long result = 0;
+
+        for ( int i = 0 ; i < stripes.length ; i++ )
+        {
+            Stripe<K, V> stripe = stripes[ i ];
+
+            synchronized( stripe )
+            {
+                result  += stripe.hits;
+            }
+        }
+
+        return result;
+    }
+
+    /** Return number of unsuccessful gets.
+     *
+     *  @return     Number of gets which found no cached value.
+     */
+
+    public long getMissCount()
+    {
+        long result = 0;
+
+        for ( int i = 0 ; i < stripes.length ; i++ )
+        {
+            Stripe<K, V> stripe = stripes[ i ];
+
+            synchronized( stripe )
+            {
+                result  += stripe.misses;
+            }
+        }
+
+        return result;
+    }
+
+    /** Return number of evicted entries.
+     *
+     *  @return     Number of least recently used entries removed to
+     *              make room for new entries.
+     */
+
+    public long getEvictionCount()
+    {
+        long result = 0;
+
+        for ( int i = 0 ; i < stripes.length ; i++ )
+        {
+            Stripe<K, V> stripe = stripes[ i ];
+
+            synchronized( stripe )
+            {
+                result  += stripe.evictions;
+            }
+        }
+
+        return result;
+    }
+}
+
+/*
+Copyright (c) 2008, 2013 by Northwestern University.
+All rights reserved.
+
+Developed by:
+   Academic and Research Technologies
+   Northwestern University
+   http://www.it.northwestern.edu/about/departments/at/
+
+Permission is hereby granted, free of charge, to any person
+obtaining a copy of this software and associated documentation
+files (the "Software"), to deal with the Software without
+restriction, including without limitation the rights to use,
+copy, modify, merge, publish, distribute, sublicense, and/or
+sell copies of the Software, and to permit persons to whom the
+Software is furnished to do so, subject to the following
+conditions:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimers.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimers in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the names of Academic and Research Technologies,
+      Northwestern University, nor the names of its contributors may be
+      used to endorse or promote products derived from this Software
+      without specific prior written permission.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+NONINFRINGEMENT. IN NO EVENT SHALL THE CONTRIBUTORS OR
+COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*/
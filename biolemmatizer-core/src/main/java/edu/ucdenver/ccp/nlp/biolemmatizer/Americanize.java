@@ -34,10 +34,16 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -52,6 +58,9 @@ import java.util.regex.Pattern;
  * <i>The list and rules for handling
  * British-to-American spellings is derived from:</i>
  * <code>http://www.tysto.com/uk-us-spelling-list.html</code>.
+ * <p>
+ * The mapping and the rules are compiled into one automaton when a converter is created. Converters are immutable and
+ * may be shared between threads; {@link #getInstance()} returns a shared converter of the default mapping.
  *
  * @author Original author: Christopher Manning; Modified and extended by Haibin Liu
  */
@@ -61,9 +70,7 @@ public class Americanize {
     private static final int MINIMUM_LENGTH_CHANGED = 4;
     /** No word shorter in length than this can match a Pattern */
     private static final int MINIMUM_LENGTH_PATTERN_MATCH = 6;
-    /** mapping from British spelling to American spelling */
-    private Map<String,String> mappingBritishtoAmerican;
-    
+
     private static final String[] patStrings = { "(ph|an|h|gyn|arch|chim)ae", "haem(at)?o", "aemia$", "([lL])eukaem",
     	"programme(s?)$", "^([a-z]{3,})our(s?)$",
 
@@ -73,6 +80,19 @@ public class Americanize {
     	"$1e", "hem$1o", "emia", "$1eukem", "program$1", "$1or$2"
     };
 
+    /**
+     * The strings matched by each pattern of patStrings, with the characters its replacement removes in brackets. A
+     * trailing '$' anchors a string at the end of the word. "ph" and "arch" of the first pattern end with "h", and the
+     * last pattern also needs at least {@link #OUR_PREFIX_LENGTH} letters a-z and nothing else before "our".
+     */
+    private static final String[][] patMatches = {
+    	{ "h[a]e", "an[a]e", "gyn[a]e", "chim[a]e" }, { "h[a]emo", "h[a]emato" }, { "[a]emia$" }, { "leuk[a]em", "Leuk[a]em" },
+    	{ "program[me]$", "program[me]s$" }, { "o[u]r$", "o[u]rs$" }
+    };
+
+    /** Minimum length of the word before "our" for the last pattern to match */
+    private static final int OUR_PREFIX_LENGTH = 3;
+
     private static final Pattern[] pats = new Pattern[patStrings.length];
 
     private static final Pattern disjunctivePattern;
@@ -107,16 +127,233 @@ public class Americanize {
     	Pattern.compile(join(OUR_EXCEPTIONS, "|"))
     };
 
+    /** Pattern of a literal that is an exception of the last pattern */
+    private static final int EXCEPTION = -1;
+
+    /** Literal strings found by the automaton, other than British spellings */
+    private static final String[] literals;
+    /** Index of the pattern matching each literal, or EXCEPTION */
+    private static final int[] literalPatterns;
+    /** Indices in each literal of the characters removed by the replacement of its pattern */
+    private static final int[][] literalDeletions;
+    /** True if a literal only matches at the end of the word */
+    private static final boolean[] literalsAtEnd;
+
+    static {
+    	List<String> literalList = new ArrayList<String>();
+    	List<Integer> patternList = new ArrayList<Integer>();
+    	List<int[]> deletionList = new ArrayList<int[]>();
+    	List<Boolean> atEndList = new ArrayList<Boolean>();
+    	for (int i = 0; i < patMatches.length; i++) {
+    		for (String match : patMatches[i]) {
+    			boolean atEnd = match.endsWith("$");
+    			int open = match.indexOf('[');
+    			int close = match.indexOf(']');
+    			String literal = match.substring(0, open) + match.substring(open + 1, close)
+    					+ match.substring(close + 1, atEnd ? match.length() - 1 : match.length());
+    			int[] deletions = new int[close - open - 1];
+    			for (int j = 0; j < deletions.length; j++) {
+    				deletions[j] = open + j;
+    			}
+    			literalList.add(literal);
+    			patternList.add(i);
+    			deletionList.add(deletions);
+    			atEndList.add(atEnd);
+    		}
+    	}
+    	for (String exception : OUR_EXCEPTIONS) {
+    		for (String literal : expandCharacterClasses(exception)) {
+    			literalList.add(literal);
+    			patternList.add(EXCEPTION);
+    			deletionList.add(new int[0]);
+    			atEndList.add(false);
+    		}
+    	}
+    	literals = literalList.toArray(new String[literalList.size()]);
+    	literalPatterns = new int[literals.length];
+    	literalDeletions = deletionList.toArray(new int[literals.length][]);
+    	literalsAtEnd = new boolean[literals.length];
+    	for (int i = 0; i < literals.length; i++) {
+    		literalPatterns[i] = patternList.get(i);
+    		literalsAtEnd[i] = atEndList.get(i);
+    	}
+    }
+
+    /** A shared converter of the default British-to-American spelling mapping, created on first use */
+    private static class DefaultInstance {
+    	private static final Americanize INSTANCE = new Americanize();
+    }
+
+    /*
+     * The mapped British spellings and the literals are compiled into an Aho-Corasick automaton, so that one scan of a
+     * word finds its American spelling if it is mapped, and otherwise every literal in it. A state is a prefix of a
+     * British spelling or a literal.
+     */
+
+    /** Transitions of state i are at indices firstTransitions[i] to firstTransitions[i + 1] - 1, sorted by label */
+    private final int[] firstTransitions;
+    /** Target states of the transitions of the initial state for ASCII characters, -1 for no transition */
+    private final int[] initialTransitions = new int[128];
+    /** Character of each transition */
+    private final char[] transitionLabels;
+    /** Target state of each transition */
+    private final int[] transitionTargets;
+    /** State of the longest proper suffix of the prefix of each state that is also a state */
+    private final int[] failures;
+    /** American spelling of the British spelling of each state, null if the state is not a mapped spelling */
+    private final String[] americanSpellings;
+    /** Literals ending at state i are at indices firstMatches[i] to firstMatches[i + 1] - 1 of matches */
+    private final int[] firstMatches;
+    /** Literals ending at each state, in pattern order */
+    private final int[] matches;
 
     /**
      * Constructor to load the British-to-American spelling mapping file
      */
     public Americanize() {
-    	//load British to American spelling mapping file
-    	String mappingFileName = "BritishToAmerican.mapping";
+    	this(loadSpellingMappingFile("BritishToAmerican.mapping"));
+    }
+
+    /**
+     * Constructor to compile a British-to-American spelling mapping
+     * 
+     * @param mappingBritishtoAmerican
+     *            mapping from British spelling to American spelling
+     */
+    public Americanize(Map<String, String> mappingBritishtoAmerican) {
+    	List<TreeMap<Character, Integer>> transitions = new ArrayList<TreeMap<Character, Integer>>();
+    	List<String> spellings = new ArrayList<String>();
+    	List<List<Integer>> literalsOfStates = new ArrayList<List<Integer>>();
+    	addState(transitions, spellings, literalsOfStates);
+    	for (Map.Entry<String, String> mapping : mappingBritishtoAmerican.entrySet()) {
+    		int state = addString(mapping.getKey(), transitions, spellings, literalsOfStates);
+    		spellings.set(state, mapping.getValue());
+    	}
+    	for (int i = 0; i < literals.length; i++) {
+    		literalsOfStates.get(addString(literals[i], transitions, spellings, literalsOfStates)).add(i);
+    	}
+
+    	int stateCount = transitions.size();
+    	firstTransitions = new int[stateCount + 1];
+    	transitionLabels = new char[stateCount - 1];
+    	transitionTargets = new int[stateCount - 1];
+    	failures = new int[stateCount];
+    	americanSpellings = spellings.toArray(new String[stateCount]);
+    	firstMatches = new int[stateCount + 1];
+    	for (int state = 0, transition = 0; state < stateCount; state++) {
+    		firstTransitions[state] = transition;
+    		for (Map.Entry<Character, Integer> entry : transitions.get(state).entrySet()) {
+    			transitionLabels[transition] = entry.getKey();
+    			transitionTargets[transition++] = entry.getValue();
+    		}
+    	}
+    	firstTransitions[stateCount] = stateCount - 1;
+    	for (char c = 0; c < initialTransitions.length; c++) {
+    		initialTransitions[c] = searchTransition(0, c);
+    	}
+
+    	// failures and matches in breadth first order, each from the failure of its state
+    	List<List<Integer>> matchesOfStates = new ArrayList<List<Integer>>(literalsOfStates);
+    	Queue<Integer> queue = new LinkedList<Integer>();
+    	queue.add(0);
+    	int matchCount = 0;
+    	while (!queue.isEmpty()) {
+    		int state = queue.remove();
+    		for (int transition = firstTransitions[state]; transition < firstTransitions[state + 1]; transition++) {
+    			int target = transitionTargets[transition];
+    			if (state != 0) {
+    				int failure = failures[state];
+    				int failureTarget;
+    				while ((failureTarget = transition(failure, transitionLabels[transition])) < 0 && failure != 0) {
+    					failure = failures[failure];
+    				}
+    				failures[target] = failureTarget < 0 ? 0 : failureTarget;
+    				List<Integer> targetMatches = new ArrayList<Integer>(literalsOfStates.get(target));
+    				targetMatches.addAll(matchesOfStates.get(failures[target]));
+    				Collections.sort(targetMatches);
+    				matchesOfStates.set(target, targetMatches);
+    			}
+    			queue.add(target);
+    		}
+    		matchCount += matchesOfStates.get(state).size();
+    	}
+    	matches = new int[matchCount];
+    	for (int state = 0, match = 0; state < stateCount; state++) {
+    		firstMatches[state] = match;
+    		for (int literal : matchesOfStates.get(state)) {
+    			matches[match++] = literal;
+    		}
+    	}
+    	firstMatches[stateCount] = matchCount;
+    }
+
+    /**
+     * @return a shared converter using the British-to-American spelling mapping file; it is thread-safe
+     */
+    public static Americanize getInstance() {
+    	return DefaultInstance.INSTANCE;
+    }
+
+    /**
+     * Add a state to the automaton under construction
+     */
+    private static int addState(List<TreeMap<Character, Integer>> transitions, List<String> spellings,
+    		List<List<Integer>> literalsOfStates) {
+    	transitions.add(new TreeMap<Character, Integer>());
+    	spellings.add(null);
+    	literalsOfStates.add(new ArrayList<Integer>());
+    	return transitions.size() - 1;
+    }
+
+    /**
+     * Add the states of a string to the automaton under construction
+     * 
+     * @return the state of the string
+     */
+    private static int addString(String s, List<TreeMap<Character, Integer>> transitions, List<String> spellings,
+    		List<List<Integer>> literalsOfStates) {
+    	int state = 0;
+    	for (int i = 0; i < s.length(); i++) {
+    		Integer target = transitions.get(state).get(s.charAt(i));
+    		if (target == null) {
+    			target = addState(transitions, spellings, literalsOfStates);
+    			transitions.get(state).put(s.charAt(i), target);
+    		}
+    		state = target;
+    	}
+    	return state;
+    }
+
+    /**
+     * Expand the character classes of an exception, such as "de[tv]our", into literal strings
+     */
+    private static List<String> expandCharacterClasses(String exception) {
+    	List<String> expansions = new ArrayList<String>();
+    	int open = exception.indexOf('[');
+    	if (open < 0) {
+    		expansions.add(exception);
+    		return expansions;
+    	}
+    	int close = exception.indexOf(']', open);
+    	for (String rest : expandCharacterClasses(exception.substring(close + 1))) {
+    		for (int i = open + 1; i < close; i++) {
+    			expansions.add(exception.substring(0, open) + exception.charAt(i) + rest);
+    		}
+    	}
+    	return expansions;
+    }
+
+    /**
+     * Static method to load a British-to-American spelling mapping file
+     * 
+     * @param mappingFileName
+     *            name of the mapping file on the classpath
+     * @return a Map object that stores the British-to-American spellings
+     */
+    static Map<String, String> loadSpellingMappingFile(String mappingFileName) {
     	InputStream is = Americanize.class.getResourceAsStream(mappingFileName);
     	try {
-    		mappingBritishtoAmerican = loadSpellingMappingFile(is);
+    		return loadSpellingMappingFile(is);
     	} catch (IOException e) {
     		throw new RuntimeException("Error while opening mapping file: " + mappingFileName, e);
     	}
@@ -149,12 +386,49 @@ public class Americanize {
     	}
     	return mapping;	
     }
-  
+
+    /**
+     * Follow a transition of the automaton
+     * 
+     * @return the target state, -1 if the state has no transition for the character
+     */
+    private int transition(int state, char c) {
+    	if (state == 0 && c < initialTransitions.length) {
+    		return initialTransitions[c];
+    	}
+    	return searchTransition(state, c);
+    }
+
+    /**
+     * Search the transitions of a state
+     * 
+     * @return the target state, -1 if the state has no transition for the character
+     */
+    private int searchTransition(int state, char c) {
+    	int low = firstTransitions[state];
+    	int high = firstTransitions[state + 1] - 1;
+    	while (low <= high) {
+    		int middle = (low + high) >>> 1;
+    		char label = transitionLabels[middle];
+    		if (label < c) {
+    			low = middle + 1;
+    		} else if (label > c) {
+    			high = middle - 1;
+    		} else {
+    			return transitionTargets[middle];
+    		}
+    	}
+    	return -1;
+    }
+
     /**
      * Convert the spelling of a word from British to American English.
      * This is deterministic spelling conversion, and so cannot deal with
      * certain cases involving complex ambiguities, but it can do most of the
      * simple cases of English to American conversion.
+     * <p>
+     * The word is scanned once, without creating any objects unless its spelling changes. This method may be called
+     * from several threads at the same time.
      *
      * @param str The String to be Americanized
      * @return The American spelling of the word.
@@ -165,17 +439,105 @@ public class Americanize {
     	if (length < MINIMUM_LENGTH_CHANGED) {
     		return str;
     	}
-    	String result;
-    	result = mappingBritishtoAmerican.get(str);
-    	if (result != null) {
-    		return result;
+    	int state = 0;
+    	// true while the state is all of the word read so far
+    	boolean prefix = true;
+    	boolean lowerCase = true;
+    	boolean excepted = false;
+    	// the first pattern matching the word, and the characters its replacement removes
+    	int pattern = pats.length;
+    	int[] deletions = null;
+    	int deletionCount = 0;
+    	for (int i = 0; i < length; i++) {
+    		char c = str.charAt(i);
+    		if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+    			// '$' also matches before a final line terminator
+    			String result = americanSpelling(str);
+    			return result != null ? result : americanizeByPatterns(str);
+    		}
+    		if (c < 'a' || c > 'z') {
+    			lowerCase = false;
+    		}
+    		int target = transition(state, c);
+    		if (target < 0) {
+    			prefix = false;
+    			while (target < 0 && state != 0) {
+    				state = failures[state];
+    				target = transition(state, c);
+    			}
+    		}
+    		state = target < 0 ? 0 : target;
+    		for (int match = firstMatches[state]; match < firstMatches[state + 1]; match++) {
+    			int literal = matches[match];
+    			int literalPattern = literalPatterns[literal];
+    			int start = i + 1 - literals[literal].length();
+    			if ((literalsAtEnd[literal] && i != length - 1) || literalPattern > pattern) {
+    				continue;
+    			}
+    			if (literalPattern == EXCEPTION) {
+    				excepted = true;
+    				continue;
+    			}
+    			if (literalPattern == pats.length - 1 && !(lowerCase && start >= OUR_PREFIX_LENGTH)) {
+    				continue;
+    			}
+    			if (literalPattern < pattern) {
+    				pattern = literalPattern;
+    				deletionCount = 0;
+    			}
+    			if (deletions == null) {
+    				deletions = new int[length];
+    			}
+    			for (int deletion : literalDeletions[literal]) {
+    				deletions[deletionCount++] = start + deletion;
+    			}
+    		}
+    	}
+    	if (prefix && americanSpellings[state] != null) {
+    		return americanSpellings[state];
     	}
+    	if (length < MINIMUM_LENGTH_PATTERN_MATCH || pattern == pats.length
+    			|| (pattern == pats.length - 1 && excepted)) {
+    		return str;
+    	}
+    	char[] result = new char[length - deletionCount];
+    	for (int i = 0, j = 0, deletion = 0; i < length; i++) {
+    		if (deletion < deletionCount && deletions[deletion] == i) {
+    			deletion++;
+    		} else {
+    			result[j++] = str.charAt(i);
+    		}
+    	}
+    	return new String(result);
+    }
 
-    	if (length < MINIMUM_LENGTH_PATTERN_MATCH) {
+    /**
+     * Look up the American spelling of a mapped British spelling
+     * 
+     * @param str
+     *            a British spelling
+     * @return its American spelling, null if it is not mapped
+     */
+    private String americanSpelling(String str) {
+    	int state = 0;
+    	for (int i = 0; i < str.length() && state >= 0; i++) {
+    		state = transition(state, str.charAt(i));
+    	}
+    	return state < 0 ? null : americanSpellings[state];
+    }
+
+    /**
+     * Convert the spelling of a word which is not mapped from British to American English with the regular
+     * expression patterns, one by one
+     * 
+     * @param str The String to be Americanized
+     * @return The American spelling of the word.
+     */
+    static String americanizeByPatterns(String str) {
+    	if (str.length() < MINIMUM_LENGTH_PATTERN_MATCH) {
     		return str;
     	}
-    	// first do one disjunctive regex and return unless matches. Faster!
-    	// (But still allocates matcher each time; avoiding this would make this class not threadsafe....)
+    	// first do one disjunctive regex and return unless matches
     	if ( ! disjunctivePattern.matcher(str).find()) {
     		return str;
     	}
@@ -189,8 +551,6 @@ public class Americanize {
     					continue;
     				}
     			}
-    			// System.err.println("Replacing " + word + " with " +
-    			//             pats[i].matcher(word).replaceAll(reps[i]));
     			return m.replaceAll(reps[i]);
     		}
     	}
@@ -224,7 +584,7 @@ public class Americanize {
     public static void main(String[] args) throws IOException {
     	//System.err.println(new Americanize());
     	//System.err.println();
-        Americanize convert = new Americanize();
+        Americanize convert = getInstance();
     	if (args.length == 0) { // stdin -> stdout:
     		BufferedReader buf = new BufferedReader(new InputStreamReader(System.in));
     		String line;
@@ -40,29 +40,37 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
+import java.net.URL;
 import java.nio.charset.Charset;
 import java.nio.charset.CodingErrorAction;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.kohsuke.args4j.CmdLineException;
 import org.kohsuke.args4j.CmdLineParser;
 
-import edu.northwestern.at.morphadorner.corpuslinguistics.lemmatizer.EnglishLemmatizer;
+import edu.northwestern.at.morphadorner.corpuslinguistics.lemmatizer.LemmaDictionary;
 import edu.northwestern.at.morphadorner.corpuslinguistics.lemmatizer.Lemmatizer;
-import edu.northwestern.at.morphadorner.corpuslinguistics.lexicon.DefaultLexicon;
-import edu.northwestern.at.morphadorner.corpuslinguistics.lexicon.DefaultWordLexicon;
+import edu.northwestern.at.morphadorner.corpuslinguistics.lexicon.AbstractLexicon;
 import edu.northwestern.at.morphadorner.corpuslinguistics.lexicon.Lexicon;
 import edu.northwestern.at.morphadorner.corpuslinguistics.lexicon.LexiconEntry;
+import edu.northwestern.at.morphadorner.corpuslinguistics.lexicon.MappedLexicon;
 import edu.northwestern.at.morphadorner.corpuslinguistics.partsofspeech.PartOfSpeechTags;
-import edu.northwestern.at.morphadorner.corpuslinguistics.tokenizer.PennTreebankTokenizer;
 import edu.northwestern.at.morphadorner.corpuslinguistics.tokenizer.WordTokenizer;
+import edu.northwestern.at.utils.cache.StripedLRUCache;
 
 /**
  * BioLemmatizer: Lemmatize a word in biomedical texts and return its lemma; the part of speech
@@ -102,35 +110,51 @@ public class BioLemmatizer {
 	/** Lemma separator character */
 	public static String lemmaSeparator = "||";
 
-	/** BioLemmatizer */
-	public Lemmatizer lemmatizer;
+	/** Default number of input file lines lemmatized together by one thread */
+	public static final int DEFAULT_BATCH_SIZE = 1000;
 
-	/** Word lexicon for lemma lookup */
-	public Lexicon wordLexicon;
+	/** The shared resources this lemmatizer uses */
+	private final BioLemmatizerModel model;
+
+	/** BioLemmatizer, shared with the other lemmatizers of the model */
+	private final Lemmatizer lemmatizer;
+
+	/** Word lexicon for lemma lookup, shared with the other lemmatizers of the model */
+	private final Lexicon wordLexicon;
+
+	/** The word lexicon if it is a mapped lexicon, which is searched by index; null otherwise */
+	private final MappedLexicon mappedLexicon;
 
 	/** NUPOS tags */
-	public PartOfSpeechTags partOfSpeechTags;
+	private final PartOfSpeechTags partOfSpeechTags;
 
 	/** Extract individual word parts from a contracted word. */
-	public WordTokenizer spellingTokenizer;
+	private final WordTokenizer spellingTokenizer;
+
+	/** Precomputed lookups over the two POS mappings */
+	private final PosHierarchy posHierarchy;
 
-	/** Hierachical mapping file from PennPOS to NUPOS */
-	public Map<String, String[]> mappingPennPOStoNUPOS;
+	/** Optional cache of lemmatization results, keyed by method, POS tag and string; null if disabled */
+	private final StripedLRUCache<String, LemmataEntry> resultCache;
 
-	/** Hierachical mapping file from major class to Penn Treebank POS */
-	public Map<String, String[]> mappingMajorClasstoPennPOS;
+	/** Converter of British spellings into American spellings before lemmatization; null if disabled */
+	private volatile Americanize americanize;
 
-	/** the Part-Of-Speech mapping file */
-	protected static String mappingFileName;
+	/** Counters of lemmatize calls, resolution paths and latencies; null if disabled */
+	private volatile LemmatizerMetrics metrics;
+
+	/** Maximum number of distinct strings of a batch lemmatized by one task of an executor */
+	private static final int BATCH_TASK_SIZE = 256;
 
 	/** POSEntry object to retrieve POS tag information */
-	public POSEntry posEntry;
+	final POSEntry posEntry;
 
 	/**
-	 * Default constructor loads the lexicon from the classpath
+	 * Default constructor uses the shared model of the lexicon from the classpath, see
+	 * {@link BioLemmatizerModel#getInstance()}
 	 */
 	public BioLemmatizer() {
-		this(null);
+		this((File) null);
 	}
 
 	/**
@@ -141,48 +165,78 @@ public class BioLemmatizer {
 	 *            BioLemmatizer distribution is loaded from the classpath
 	 */
 	public BioLemmatizer(File lexiconFile) {
+		this(lexiconFile, 0);
+	}
 
-		// Get the default rule-based lemmatizer.
-		try {
-			lemmatizer = new MorphAdornerLemmatizer();
-		} catch (Exception e) {
-			throw new RuntimeException(e);
-		}
-		// Get default word lexicon.
-		try {
-			wordLexicon = new BioWordLexicon(lexiconFile);
-		} catch (IOException e) {
-			throw new RuntimeException(e);
-		}
-		// Get the part of speech tags from the word lexicon.
-		partOfSpeechTags = wordLexicon.getPartOfSpeechTags();
-		// Get spelling tokenizer.
-		spellingTokenizer = new PennTreebankTokenizer();
-		// Set the lexicon which may provide lemmata.
-		lemmatizer.setLexicon(wordLexicon);
-		// Set the dictionary for checking lemmata after applying lemmatization
-		// rules.
-		lemmatizer.setDictionary(setDictionary(wordLexicon));
-
-		// Specify the Part-Of-Speech mapping files
-		mappingFileName = "PennPOStoNUPOS.mapping";
-		InputStream is = BioLemmatizer.class.getResourceAsStream(mappingFileName);
-		try {
-			mappingPennPOStoNUPOS = loadPOSMappingFile(is);
-		} catch (IOException e) {
-			throw new RuntimeException("Unable to load mapping: " + mappingFileName, e);
-		}
+	/**
+	 * Constructor to initialize the class fields and optionally enable the result cache. Results of all three
+	 * lemmatize methods are cached by (string, POS tag) in a thread-safe, bounded, least-recently used cache; cached
+	 * LemmataEntry objects are shared between callers. The lexicon is loaded once per JVM and shared by all
+	 * lemmatizers of the same lexicon file, see {@link BioLemmatizerModel#getInstance(File)}.
+	 * 
+	 * @param lexiconFile
+	 *            a reference to the lexicon file to use: a text lexicon, a {@link LexiconImage} or a
+	 *            {@link MappedLexicon} file, which keeps the lexicon off the heap. If null,
+	 *            the lexicon that comes with the BioLemmatizer distribution is loaded from the classpath, from its
+	 *            image if there is one
+	 * @param resultCacheSize
+	 *            maximum number of cached results; 0 disables the cache
+	 */
+	public BioLemmatizer(File lexiconFile, int resultCacheSize) {
+		this(BioLemmatizerModel.getInstance(lexiconFile), resultCacheSize);
+	}
 
-		mappingFileName = "MajorClasstoPennPOS.mapping";
-		is = BioLemmatizer.class.getResourceAsStream(mappingFileName);
-		try {
-			mappingMajorClasstoPennPOS = loadPOSMappingFile(is);
-		} catch (IOException e) {
-			throw new RuntimeException("Unable to load mapping: " + mappingFileName, e);
-		}
+	/**
+	 * Constructor to create a lemmatizer from a loaded model. Creating a lemmatizer this way loads nothing, so
+	 * lemmatizers may be created per thread or per task.
+	 * 
+	 * @param model
+	 *            the model to use, which may be shared with other lemmatizers
+	 */
+	public BioLemmatizer(BioLemmatizerModel model) {
+		this(model, 0);
+	}
 
-		// Get the POS tagsets
-		posEntry = new POSEntry();
+	/**
+	 * Constructor to create a lemmatizer from a loaded model and optionally enable the result cache, see
+	 * {@link #BioLemmatizer(File, int)}
+	 * 
+	 * @param model
+	 *            the model to use, which may be shared with other lemmatizers
+	 * @param resultCacheSize
+	 *            maximum number of cached results; 0 disables the cache
+	 */
+	public BioLemmatizer(BioLemmatizerModel model, int resultCacheSize) {
+		this.model = model;
+		lemmatizer = model.lemmatizer;
+		wordLexicon = model.wordLexicon;
+		mappedLexicon = wordLexicon instanceof MappedLexicon ? (MappedLexicon) wordLexicon : null;
+		partOfSpeechTags = model.partOfSpeechTags;
+		spellingTokenizer = model.spellingTokenizer;
+		posHierarchy = model.posHierarchy;
+		posEntry = model.posEntry;
+		resultCache = resultCacheSize > 0 ? new StripedLRUCache<String, LemmataEntry>(resultCacheSize) : null;
+	}
+
+	/**
+	 * @return the model this lemmatizer uses
+	 */
+	public BioLemmatizerModel getModel() {
+		return model;
+	}
+
+	/**
+	 * @return a read-only view of the word lexicon, shared with the other lemmatizers of the model
+	 */
+	public Lexicon getWordLexicon() {
+		return model.getWordLexicon();
+	}
+
+	/**
+	 * @return the precomputed lookups over the POS mappings, shared with the other lemmatizers of the model
+	 */
+	public PosHierarchy getPosHierarchy() {
+		return posHierarchy;
 	}
 
 	/**
@@ -224,167 +278,384 @@ public class BioLemmatizer {
 	 * 
 	 * @param wordLexicon
 	 *            a word lexicon
-	 * @return a set that contains a dictionary generated from the word lexicon
+	 * @return a compact dictionary of the lower case lemmata of the word lexicon
 	 */
-	private Set<String> setDictionary(Lexicon wordLexicon) {
-		Set<String> dictionarySet = new HashSet<String>();
-
-		// generate dictionary from lexicon
-		String[] lexiconEntries = wordLexicon.getEntries();
-		for (String entry : lexiconEntries) {
-			String[] lemmata = wordLexicon.getLemmata(entry);
-			for (String lemma : lemmata) {
-				dictionarySet.add(lemma.toLowerCase());
-			}
-		}
-
-		return dictionarySet;
+	static LemmaDictionary setDictionary(Lexicon wordLexicon) {
+		return new LemmaDictionary(wordLexicon);
 	}
 
 	/**
-	 * Retrieve an array of corresponding NUPOS tags of a Penn Treebank POS tag
+	 * Retrieve the compiled lexicon lookup plan of a POS tag from the model
 	 * 
 	 * @param partOfSpeech
 	 *            a POS tag
-	 * @return an array of corresponding NUPOS tags;
+	 * @return the lookup plan, compiled on first use and cached
+	 */
+	LexiconLookupPlan getLookupPlan(String partOfSpeech) {
+		return model.getLookupPlan(partOfSpeech);
+	}
+
+	/**
+	 * @return the result cache, for its hit, miss and eviction counts; null if the cache is disabled
+	 */
+	public StripedLRUCache<String, LemmataEntry> getResultCache() {
+		return resultCache;
+	}
+
+	/**
+	 * Enable or disable the conversion of common British spellings into American spellings before lemmatization, see
+	 * {@link Americanize}. The conversion applies to all lemmatize methods, and results are cached by the American
+	 * spelling.
+	 * 
+	 * @param americanize
+	 *            true to convert British spellings, false to lemmatize strings as they are
+	 */
+	public void setAmericanize(boolean americanize) {
+		this.americanize = americanize ? Americanize.getInstance() : null;
+	}
+
+	/**
+	 * @return true if British spellings are converted into American spellings before lemmatization
+	 */
+	public boolean isAmericanize() {
+		return americanize != null;
+	}
+
+	/**
+	 * Enable or disable metrics. When enabled, every lemmatize call is counted and timed, and the way each string is
+	 * resolved is counted, see {@link LemmatizerMetrics}. Metrics are disabled by default and cost nothing then.
+	 * 
+	 * @param metrics
+	 *            the metrics to record into, which may be shared with other lemmatizers; null to disable metrics
+	 */
+	public void setMetrics(LemmatizerMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * @return the metrics recorded into, null if metrics are disabled
+	 */
+	public LemmatizerMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Lemmatize a string, through the result cache if it is enabled
+	 * 
+	 * @param method
+	 *            'L' for lexicon only, 'R' for rules only, 'B' for both lexicon and rules
+	 * @param spelling
+	 *            an input string
+	 * @param partOfSpeech
+	 *            POS tag of the input string, null for none
+	 * @param plan
+	 *            the lookup plan of the POS tag, null to retrieve it on demand
+	 * @return a LemmaEntry object containing lemma and POS information
 	 */
-	private String[] getNUPOSTagFromPennPOS(String partOfSpeech) {
-		String[] nuPOSTag = mappingPennPOStoNUPOS.get(partOfSpeech.toUpperCase());
-		return nuPOSTag != null ? nuPOSTag : new String[] { partOfSpeech };
+	private LemmataEntry lemmatize(char method, String spelling, String partOfSpeech, LexiconLookupPlan plan) {
+		LemmatizerMetrics recorder = metrics;
+		if (recorder == null)
+			return lemmatizeCached(method, spelling, partOfSpeech, plan);
+		long start = System.nanoTime();
+		LemmataEntry result = lemmatizeCached(method, spelling, partOfSpeech, plan);
+		recorder.recordCall(method, System.nanoTime() - start);
+		return result;
 	}
 
 	/**
-	 * Retrieve an array of corresponding Penn Treebank POS tags of a NUPOS tag
+	 * Lemmatize a string, through the result cache if it is enabled, without counting the call in the metrics
 	 * 
+	 * @param method
+	 *            'L' for lexicon only, 'R' for rules only, 'B' for both lexicon and rules
+	 * @param spelling
+	 *            an input string
 	 * @param partOfSpeech
-	 *            a POS tag
-	 * @return an array of corresponding Penn Treebank POS tags;
+	 *            POS tag of the input string, null for none
+	 * @param plan
+	 *            the lookup plan of the POS tag, null to retrieve it on demand
+	 * @return a LemmaEntry object containing lemma and POS information
 	 */
-	private String[] getPennPOSFromNUPOS(String partOfSpeech) {
-		List<String> result = new ArrayList<String>();
-		for (String key : mappingPennPOStoNUPOS.keySet()) {
-			for (String value : mappingPennPOStoNUPOS.get(key)) {
-				if (value.equals(partOfSpeech)) {
-					result.add(key);
-					break;
-				}
-			}
+	private LemmataEntry lemmatizeCached(char method, String spelling, String partOfSpeech, LexiconLookupPlan plan) {
+		if (partOfSpeech == null)
+			partOfSpeech = "";
+		Americanize convert = americanize;
+		if (convert != null)
+			spelling = convert.americanize(spelling);
+		if (resultCache == null)
+			return lemmatizeUncached(method, spelling, partOfSpeech, plan);
+		String key = method + partOfSpeech + "\t" + spelling;
+		LemmataEntry result = resultCache.get(key);
+		LemmatizerMetrics recorder = metrics;
+		if (recorder != null)
+			recorder.recordCacheLookup(result != null);
+		if (result == null) {
+			result = lemmatizeUncached(method, spelling, partOfSpeech, plan);
+			resultCache.put(key, result);
 		}
-		return result.size() != 0 ? result.toArray(new String[result.size()]) : new String[] { partOfSpeech };
+		return result;
 	}
 
 	/**
-	 * Retrieve sibling Penn Treebank POS tags of a Penn Treebank POS tag from the POS hierarchy
+	 * Lemmatize a string without the result cache
 	 * 
+	 * @param method
+	 *            'L' for lexicon only, 'R' for rules only, 'B' for both lexicon and rules
+	 * @param spelling
+	 *            an input string
 	 * @param partOfSpeech
-	 *            a Penn Treebank POS tag
-	 * @return sibling Penn Treebank POS tags of the Penn Treebank POS tag
+	 *            POS tag of the input string, not null
+	 * @param plan
+	 *            the lookup plan of the POS tag, null to retrieve it on demand
+	 * @return a LemmaEntry object containing lemma and POS information
 	 */
-	private String[] getSiblingPennPOSTag(String partOfSpeech) {
-		// check if partOfSpeech exists in the hierarchy
-		boolean globalFlag = false;
-		for (String key : mappingMajorClasstoPennPOS.keySet()) {
-			String[] posTag = mappingMajorClasstoPennPOS.get(key);
-			for (String pos : posTag) {
-				if (pos.equals(partOfSpeech)) {
-					globalFlag = true;
-					break;
-				}
+	private LemmataEntry lemmatizeUncached(char method, String spelling, String partOfSpeech, LexiconLookupPlan plan) {
+		if (plan == null)
+			plan = getLookupPlan(partOfSpeech);
+		switch (method) {
+		case 'L':
+			return lemmatizeByLexiconUncached(spelling, partOfSpeech, plan);
+		case 'R':
+			return lemmatizeByRulesUncached(spelling, partOfSpeech, plan);
+		default:
+			return lemmatizeByLexiconAndRulesUncached(spelling, partOfSpeech, plan);
+		}
+	}
+
+	/**
+	 * Lemmatize a batch of strings. The strings are grouped by POS tag so that the lookup plan of each distinct tag is
+	 * retrieved once, and a string repeated with the same tag is lemmatized once and shares its result.
+	 * 
+	 * @param method
+	 *            'L' for lexicon only, 'R' for rules only, 'B' for both lexicon and rules
+	 * @param spellings
+	 *            input strings
+	 * @param partsOfSpeech
+	 *            POS tags of the input strings, null if they are untagged
+	 * @param lemmata
+	 *            buffer for the results, may be null
+	 * @param executor
+	 *            executor lemmatizing parts of the batch in parallel, may be null
+	 * @return LemmaEntry objects containing lemma and POS information, in input order
+	 */
+	private LemmataEntry[] lemmatizeBatch(final char method, final String[] spellings, String[] partsOfSpeech,
+			LemmataEntry[] lemmata, ExecutorService executor) {
+		int size = spellings.length;
+		if (partsOfSpeech != null && partsOfSpeech.length != size)
+			throw new IllegalArgumentException("Number of POS tags (" + partsOfSpeech.length
+					+ ") differs from the number of input strings (" + size + ")");
+		if (lemmata == null || lemmata.length < size)
+			lemmata = new LemmataEntry[size];
+		final LemmataEntry[] results = lemmata;
+
+		// index of the first occurrence of each input string with its POS tag
+		int[] firstOccurrences = new int[size];
+		Map<String, Map<String, Integer>> firstOccurrencesByTag = new LinkedHashMap<String, Map<String, Integer>>();
+		for (int i = 0; i < size; i++) {
+			String partOfSpeech = partsOfSpeech == null || partsOfSpeech[i] == null ? "" : partsOfSpeech[i];
+			Map<String, Integer> firstOccurrencesOfTag = firstOccurrencesByTag.get(partOfSpeech);
+			if (firstOccurrencesOfTag == null) {
+				firstOccurrencesOfTag = new LinkedHashMap<String, Integer>();
+				firstOccurrencesByTag.put(partOfSpeech, firstOccurrencesOfTag);
+			}
+			Integer firstOccurrence = firstOccurrencesOfTag.get(spellings[i]);
+			if (firstOccurrence == null) {
+				firstOccurrencesOfTag.put(spellings[i], i);
+				firstOccurrences[i] = i;
+			} else {
+				firstOccurrences[i] = firstOccurrence;
 			}
-			if (globalFlag)
-				break;
 		}
 
-		if (globalFlag) {
-			String foundKey = "";
-			for (String key : mappingMajorClasstoPennPOS.keySet()) {
-				String[] posTag = mappingMajorClasstoPennPOS.get(key);
-				boolean localFlag = false;
-				for (String pos : posTag) {
-					if (pos.equals(partOfSpeech)) {
-						foundKey = key;
-						localFlag = true;
-						break;
-					}
+		List<Future<?>> tasks = new ArrayList<Future<?>>();
+		for (Map.Entry<String, Map<String, Integer>> tagEntry : firstOccurrencesByTag.entrySet()) {
+			final String partOfSpeech = tagEntry.getKey();
+			final LexiconLookupPlan plan = getLookupPlan(partOfSpeech);
+			Collection<Integer> indices = tagEntry.getValue().values();
+			if (executor == null) {
+				for (int i : indices) {
+					results[i] = lemmatize(method, spellings[i], partOfSpeech, plan);
+				}
+			} else {
+				final int[] tagIndices = new int[indices.size()];
+				int count = 0;
+				for (int i : indices) {
+					tagIndices[count++] = i;
+				}
+				for (int start = 0; start < count; start += BATCH_TASK_SIZE) {
+					final int from = start;
+					final int to = Math.min(start + BATCH_TASK_SIZE, count);
+					tasks.add(executor.submit(new Runnable() {
+						public void run() {
+							for (int j = from; j < to; j++) {
+								int i = tagIndices[j];
+								results[i] = lemmatize(method, spellings[i], partOfSpeech, plan);
+							}
+						}
+					}));
 				}
-				if (localFlag)
-					break;
 			}
-			List<String> merge = new ArrayList<String>();
-			for (String pos : mappingMajorClasstoPennPOS.get(foundKey)) {
-				if (!pos.equals(partOfSpeech))
-					merge.add(pos);
+		}
+		for (Future<?> task : tasks) {
+			try {
+				task.get();
+			} catch (InterruptedException e) {
+				for (Future<?> remainingTask : tasks)
+					remainingTask.cancel(true);
+				Thread.currentThread().interrupt();
+				throw new RuntimeException("Interrupted while lemmatizing a batch", e);
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof RuntimeException)
+					throw (RuntimeException) e.getCause();
+				throw new RuntimeException(e.getCause());
 			}
-			return merge.toArray(new String[merge.size()]);
-		} else {
-			return new String[] { partOfSpeech };
 		}
+
+		for (int i = 0; i < size; i++) {
+			if (firstOccurrences[i] != i)
+				results[i] = results[firstOccurrences[i]];
+		}
+		return results;
 	}
 
 	/**
-	 * Retrieve sibling NUPOS tags of a Penn Treebank POS tag from the POS hierarchy
+	 * Search the lexicon for a string following a lookup plan. The lexicon entries of the lower and upper case
+	 * string are retrieved once and each category of the plan is looked up in their lemmata, lower case first.
 	 * 
-	 * @param partOfSpeech
-	 *            a Penn Treebank POS tag
-	 * @return sibling NUPOS tags of the Penn Treebank POS tag
+	 * @param spelling
+	 *            an input string
+	 * @param plan
+	 *            the lookup plan of the POS tag of the string
+	 * @param backupLookup
+	 *            if true and no category of the plan is found, return the lemmas of all categories of the string
+	 * @return a Map object that stores lemmas and categories of the string; key: category, value: lemma. Null if
+	 *         nothing is found
 	 */
-	private String[] getSiblingNUPOSTag(String partOfSpeech) {
-		// check if partOfSpeech exists in the hierarchy
-		boolean globalFlag = false;
-		for (String key : mappingMajorClasstoPennPOS.keySet()) {
-			String[] posTag = mappingMajorClasstoPennPOS.get(key);
-			for (String pos : posTag) {
-				if (pos.equals(partOfSpeech)) {
-					globalFlag = true;
-					break;
+	private Map<String, String> lookupLexicon(String spelling, LexiconLookupPlan plan, boolean backupLookup) {
+		if (mappedLexicon != null)
+			return lookupMappedLexicon(spelling, plan, backupLookup);
+		LemmatizerMetrics recorder = metrics;
+		LexiconEntry lowerCaseEntry = wordLexicon.getLexiconEntry(spelling.toLowerCase());
+		LexiconEntry upperCaseEntry = null;
+		boolean upperCaseEntryRetrieved = false;
+		int probes = 0;
+
+		String[] categories = plan.categories;
+		for (int i = 0; i < categories.length; i++) {
+			String pos = categories[i];
+			String lemma = getLemma(lowerCaseEntry, pos);
+			probes++;
+			if (lemma.equals("*")) {
+				if (!upperCaseEntryRetrieved) {
+					upperCaseEntry = wordLexicon.getLexiconEntry(spelling.toUpperCase());
+					upperCaseEntryRetrieved = true;
 				}
+				lemma = getLemma(upperCaseEntry, pos);
+				probes++;
+			}
+			if (!lemma.equals("*")) {
+				if (recorder != null) {
+					recorder.recordLexiconLookup(probes);
+					recorder.recordPath(plan.categoryPaths[i]);
+				}
+				return Collections.singletonMap(pos, lemma);
 			}
-			if (globalFlag)
-				break;
 		}
 
-		if (globalFlag) {
-			String foundKey = "";
-			for (String key : mappingMajorClasstoPennPOS.keySet()) {
-				String[] posTag = mappingMajorClasstoPennPOS.get(key);
-				boolean localFlag = false;
-				for (String pos : posTag) {
-					if (pos.equals(partOfSpeech)) {
-						foundKey = key;
-						localFlag = true;
-						break;
-					}
+		// backup lexicon lookup process: search without POS tags, return all
+		// lemmas
+		Map<String, String> lemmata = null;
+		if (backupLookup) {
+			probes++;
+			if (lowerCaseEntry != null && !lowerCaseEntry.lemmata.isEmpty()) {
+				lemmata = lowerCaseEntry.lemmata;
+			} else {
+				if (!upperCaseEntryRetrieved) {
+					upperCaseEntry = wordLexicon.getLexiconEntry(spelling.toUpperCase());
+				}
+				probes++;
+				if (upperCaseEntry != null && !upperCaseEntry.lemmata.isEmpty()) {
+					lemmata = upperCaseEntry.lemmata;
+				}
+			}
+		}
+		if (recorder != null) {
+			recorder.recordLexiconLookup(probes);
+			if (lemmata != null)
+				recorder.recordPath(ResolutionPath.BACKUP_LOOKUP);
+		}
+		return lemmata;
+	}
+
+	/**
+	 * {@link #lookupLexicon(String, LexiconLookupPlan, boolean)} for a mapped lexicon. Entries and categories are
+	 * searched by index, so no lexicon entry is created unless the backup lookup is needed.
+	 */
+	private Map<String, String> lookupMappedLexicon(String spelling, LexiconLookupPlan plan, boolean backupLookup) {
+		LemmatizerMetrics recorder = metrics;
+		int lowerCaseEntry = mappedLexicon.getEntryIndex(spelling.toLowerCase());
+		int upperCaseEntry = -1;
+		boolean upperCaseEntryRetrieved = false;
+		int probes = 0;
+
+		String[] categories = plan.categories;
+		for (int i = 0; i < categories.length; i++) {
+			String pos = categories[i];
+			int category = mappedLexicon.getCategoryIndex(pos);
+			String lemma = mappedLexicon.getLemma(lowerCaseEntry, category);
+			probes++;
+			if (lemma.equals("*")) {
+				if (!upperCaseEntryRetrieved) {
+					upperCaseEntry = mappedLexicon.getEntryIndex(spelling.toUpperCase());
+					upperCaseEntryRetrieved = true;
 				}
-				if (localFlag)
-					break;
+				lemma = mappedLexicon.getLemma(upperCaseEntry, category);
+				probes++;
 			}
-			List<String> merge = new ArrayList<String>();
-			for (String pos : mappingMajorClasstoPennPOS.get(foundKey)) {
-				if (!pos.equals(partOfSpeech)) {
-					merge.addAll(Arrays.asList(mappingPennPOStoNUPOS.get(pos.toUpperCase())));
+			if (!lemma.equals("*")) {
+				if (recorder != null) {
+					recorder.recordLexiconLookup(probes);
+					recorder.recordPath(plan.categoryPaths[i]);
 				}
+				return Collections.singletonMap(pos, lemma);
 			}
+		}
 
-			return merge.toArray(new String[merge.size()]);
-		} else {
-			return new String[] { partOfSpeech };
+		// backup lexicon lookup process: search without POS tags, return all
+		// lemmas
+		Map<String, String> lemmata = null;
+		if (backupLookup) {
+			probes++;
+			LexiconEntry lowerCaseLexiconEntry = lowerCaseEntry < 0 ? null : mappedLexicon.getLexiconEntry(spelling
+					.toLowerCase());
+			if (lowerCaseLexiconEntry != null && !lowerCaseLexiconEntry.lemmata.isEmpty()) {
+				lemmata = lowerCaseLexiconEntry.lemmata;
+			} else {
+				LexiconEntry upperCaseLexiconEntry = mappedLexicon.getLexiconEntry(spelling.toUpperCase());
+				probes++;
+				if (upperCaseLexiconEntry != null && !upperCaseLexiconEntry.lemmata.isEmpty()) {
+					lemmata = upperCaseLexiconEntry.lemmata;
+				}
+			}
+		}
+		if (recorder != null) {
+			recorder.recordLexiconLookup(probes);
+			if (lemmata != null)
+				recorder.recordPath(ResolutionPath.BACKUP_LOOKUP);
 		}
+		return lemmata;
 	}
 
 	/**
-	 * Retrieve lemmas and the corresponding categories of the input string
+	 * Retrieve the lemma of a lexicon entry for a category
 	 * 
-	 * @param spelling
-	 *            an input string
-	 * @return a Map object that stores lemmas and categories of the string; key: category, value:
-	 *         lemma
+	 * @param lexiconEntry
+	 *            a lexicon entry, may be null
+	 * @param category
+	 *            a POS tag
+	 * @return the lemma, or "*" if there is none
 	 */
-	private Map<String, String> getLemmasAndCategories(String spelling) {
-		Map<String, String> lemmasAndCategories = new HashMap<String, String>();
-		LexiconEntry lexiconEntry = wordLexicon.getLexiconEntry(spelling);
-		if (lexiconEntry != null)
-			lemmasAndCategories = lexiconEntry.lemmata;
-		return lemmasAndCategories;
+	private static String getLemma(LexiconEntry lexiconEntry, String category) {
+		return lexiconEntry != null ? lexiconEntry.getLemma(category) : "*";
 	}
 
 	/**
@@ -409,36 +680,10 @@ public class BioLemmatizer {
 	 * @param input
 	 *            an input string
 	 * @return modern English spelling
+	 * @see UnicodeNormalizer#DEFAULT
 	 */
-	 static String unicodeHandler(String input) {
-		// define the mapping between special unicode characters and modern
-		// English spelling
-		Map<String, String> specialUnicodeCharToModernEnglishMapping = new HashMap<String, String>();
-
-		specialUnicodeCharToModernEnglishMapping.put("u00E6", "ae");
-		specialUnicodeCharToModernEnglishMapping.put("u0153", "oe");
-		specialUnicodeCharToModernEnglishMapping.put("u00E4", "a");
-		specialUnicodeCharToModernEnglishMapping.put("u00E0", "a");
-		specialUnicodeCharToModernEnglishMapping.put("u00E1", "a");
-		specialUnicodeCharToModernEnglishMapping.put("u0113", "e");
-		specialUnicodeCharToModernEnglishMapping.put("u00E9", "e");
-		specialUnicodeCharToModernEnglishMapping.put("u00E8", "e");
-		specialUnicodeCharToModernEnglishMapping.put("u00EB", "e");
-		specialUnicodeCharToModernEnglishMapping.put("u00EF", "i");
-		specialUnicodeCharToModernEnglishMapping.put("u00F1", "n");
-		specialUnicodeCharToModernEnglishMapping.put("u014D", "o");
-		specialUnicodeCharToModernEnglishMapping.put("u00F6", "o");
-		specialUnicodeCharToModernEnglishMapping.put("u00F4", "o");
-		specialUnicodeCharToModernEnglishMapping.put("u016B", "u");
-		specialUnicodeCharToModernEnglishMapping.put("u00FA", "u");
-
-		String output = input;
-		for (String unicode : specialUnicodeCharToModernEnglishMapping.keySet()) {
-			String regex = "\\" + unicode;
-			output = output.replaceAll(regex, specialUnicodeCharToModernEnglishMapping.get(unicode));
-		}
-
-		return output;
+	static String unicodeHandler(String input) {
+		return UnicodeNormalizer.DEFAULT.normalize(input);
 	}
 
 	/**
@@ -451,140 +696,83 @@ public class BioLemmatizer {
 	 * @return a LemmaEntry object containing lemma and POS information
 	 */
 	public LemmataEntry lemmatizeByLexicon(String spelling, String partOfSpeech) {
-		Map<String, String> lemmataAndLemmataTag = new HashMap<String, String>();
+		return lemmatize('L', spelling, partOfSpeech, null);
+	}
+
+	/**
+	 * Lemmatize strings with POS tags, see {@link #lemmatizeByLexicon(String, String)}
+	 * 
+	 * @param spellings
+	 *            input strings
+	 * @param partsOfSpeech
+	 *            POS tags of the input strings, null if they are untagged
+	 * @return LemmaEntry objects containing lemma and POS information, in input order
+	 */
+	public LemmataEntry[] lemmatizeByLexicon(String[] spellings, String[] partsOfSpeech) {
+		return lemmatizeBatch('L', spellings, partsOfSpeech, null, null);
+	}
+
+	/**
+	 * Lemmatize strings with POS tags, see {@link #lemmatizeByLexicon(String, String)}
+	 * 
+	 * @param spellings
+	 *            input strings
+	 * @param partsOfSpeech
+	 *            POS tags of the input strings, null if they are untagged
+	 * @param lemmata
+	 *            buffer for the results, reused if it holds at least as many entries as there are input strings; may
+	 *            be null
+	 * @param executor
+	 *            executor lemmatizing parts of the batch in parallel; null to lemmatize in the calling thread
+	 * @return LemmaEntry objects containing lemma and POS information, in input order
+	 */
+	public LemmataEntry[] lemmatizeByLexicon(String[] spellings, String[] partsOfSpeech, LemmataEntry[] lemmata,
+			ExecutorService executor) {
+		return lemmatizeBatch('L', spellings, partsOfSpeech, lemmata, executor);
+	}
+
+	/**
+	 * Lemmatize strings with POS tags, see {@link #lemmatizeByLexicon(String, String)}
+	 * 
+	 * @param spellings
+	 *            input strings
+	 * @param partsOfSpeech
+	 *            POS tags of the input strings, null if they are untagged
+	 * @return LemmaEntry objects containing lemma and POS information, in input order
+	 */
+	public List<LemmataEntry> lemmatizeByLexicon(List<String> spellings, List<String> partsOfSpeech) {
+		return Arrays.asList(lemmatizeBatch('L', spellings.toArray(new String[spellings.size()]),
+				partsOfSpeech == null ? null : partsOfSpeech.toArray(new String[partsOfSpeech.size()]), null, null));
+	}
+
+	/**
+	 * Uncached implementation of {@link #lemmatizeByLexicon(String, String)}
+	 */
+	private LemmataEntry lemmatizeByLexiconUncached(String spelling, String partOfSpeech, LexiconLookupPlan plan) {
 		String lemmata = spelling;
 		String lemmataTag;
-		if (partOfSpeech == null)
-			partOfSpeech = "";
 		// default POS tag = NONE
 		if (partOfSpeech.trim().length() == 0)
 			lemmataTag = "NONE";
 		else
 			lemmataTag = partOfSpeech;
 
-		// check the POS tagset
-		String tagSetLabel = posEntry.getTagSetLabel(partOfSpeech);
-
-		String[] nuPOSTag = getNUPOSTagFromPennPOS(partOfSpeech);
-
 		// Different lexicon search methods are tried in order to
 		// augument the use of
-		// lexicon
-		String lemma = "*";
-		String category = "*";
-
-		if (tagSetLabel.equals("PennPOS")) {
-			// direct PennPOS tag search
-			lemma = wordLexicon.getLemma(spelling.toLowerCase(), partOfSpeech);
-			if (lemma.equals("*")) {
-				lemma = wordLexicon.getLemma(spelling.toUpperCase(), partOfSpeech);
-			}
-			if (!lemma.equals("*")) {
-				lemmata = lemma;
-				category = partOfSpeech;
-				// System.out.println("found in the Penn direct lexicon: "+lemma);
-			}
-			// PennPOS tag hierachical search
-			if (lemma.equals("*")) {
-				String[] hierarachicalPennPOSTag = getSiblingPennPOSTag(partOfSpeech);
-				for (String pos : hierarachicalPennPOSTag) {
-					lemma = wordLexicon.getLemma(spelling.toLowerCase(), pos);
-					if (lemma.equals("*")) {
-						lemma = wordLexicon.getLemma(spelling.toUpperCase(), pos);
-					}
-					if (!lemma.equals("*")) {
-						lemmata = lemma;
-						category = pos;
-						// System.out.println("found in the Penn hierachical lexicon: "+lemma);
-						break;
-					}
-				}
-			}
-			// Turn PennPOS tag into NUSPOS tag and search
-			if (lemma.equals("*")) {
-				for (String pos : nuPOSTag) {
-					lemma = wordLexicon.getLemma(spelling.toLowerCase(), pos);
-					if (lemma.equals("*")) {
-						lemma = wordLexicon.getLemma(spelling.toUpperCase(), pos);
-					}
-					if (!lemma.equals("*")) {
-						lemmata = lemma;
-						category = pos;
-						// System.out.println("found in the converted NU direct lexicon: "+lemma);
-						break;
-					}
-				}
-			}
-			// NUSPOS tag hierachical search
-			if (lemma.equals("*")) {
-				String[] hierarachicalNUPOSTag = getSiblingNUPOSTag(partOfSpeech);
-				for (String pos : hierarachicalNUPOSTag) {
-					lemma = wordLexicon.getLemma(spelling.toLowerCase(), pos);
-					if (lemma.equals("*")) {
-						lemma = wordLexicon.getLemma(spelling.toUpperCase(), pos);
-					}
-					if (!lemma.equals("*")) {
-						lemmata = lemma;
-						category = pos;
-						// System.out.println("found in the converted NU hierachical lexicon: "+lemma);
-						break;
-					}
-				}
-			}
-		} else if (tagSetLabel.equals("NUPOS")) {
-			// direct NUPOS tag search
-			lemma = wordLexicon.getLemma(spelling.toLowerCase(), partOfSpeech);
-			if (lemma.equals("*")) {
-				lemma = wordLexicon.getLemma(spelling.toUpperCase(), partOfSpeech);
-			}
-			if (!lemma.equals("*")) {
-				lemmata = lemma;
-				category = partOfSpeech;
-				// System.out.println("found in the NU direct lexicon: "+lemma);
-			}
-			// NUPOS tag hierachical search
-			if (lemma.equals("*")) {
-				String[] hierarachicalNUPOSTag = getSiblingNUPOSTag(getPennPOSFromNUPOS(partOfSpeech)[0]);
-				for (String pos : hierarachicalNUPOSTag) {
-					lemma = wordLexicon.getLemma(spelling.toLowerCase(), pos);
-					if (lemma.equals("*")) {
-						lemma = wordLexicon.getLemma(spelling.toUpperCase(), pos);
-					}
-					if (!lemma.equals("*")) {
-						lemmata = lemma;
-						category = pos;
-						// System.out.println("found in the NU hierachical lexicon: "+lemma);
-						break;
-					}
-				}
-			}
-		}
-
-		// backup lexicon lookup process: search without POS tags, return all
-		// lemmas
-		Map<String, String> lemmasAndCategories = new HashMap<String, String>();
-		if (tagSetLabel.equals("NONE") || lemma.equals("*")) {
-			// if ( tagSetLabel.equals("NONE") ) {
-			lemmasAndCategories = getLemmasAndCategories(spelling.toLowerCase());
-			if (lemmasAndCategories.isEmpty()) {
-				lemmasAndCategories = getLemmasAndCategories(spelling.toUpperCase());
-			}
-		}
+		// lexicon; fall back to the lemmas for all categories if nothing
+		// is found
+		Map<String, String> lemmasAndCategories = lookupLexicon(spelling, plan, true);
 
 		// found the Lemma
-		if (!lemmasAndCategories.isEmpty()) {
-			lemmataAndLemmataTag = lemmasAndCategories;
-			// System.out.println("found in the lexicon");
-		} else if (!lemma.equals("*")) {
-			lemmata = lemma;
-			lemmataTag = category;
-			lemmataAndLemmataTag.put(lemmataTag, lemmata);
-		}
+		if (lemmasAndCategories != null)
+			return new LemmataEntry(lemmasAndCategories, model);
 		// lexicon has been checked but nothing found, return original input
-		else
-			lemmataAndLemmataTag.put(lemmataTag, lemmata);
-
-		return new LemmataEntry(lemmataAndLemmataTag, posEntry);
+		else {
+			LemmatizerMetrics recorder = metrics;
+			if (recorder != null)
+				recorder.recordPath(ResolutionPath.LEXICON_MISS);
+			return new LemmataEntry(lemmataTag, lemmata, model);
+		}
 	}
 
 	/**
@@ -597,39 +785,107 @@ public class BioLemmatizer {
 	 * @return a LemmaEntry object containing lemma and POS information
 	 */
 	public LemmataEntry lemmatizeByRules(String spelling, String partOfSpeech) {
+		return lemmatize('R', spelling, partOfSpeech, null);
+	}
+
+	/**
+	 * Lemmatize strings with POS tags, see {@link #lemmatizeByRules(String, String)}
+	 * 
+	 * @param spellings
+	 *            input strings
+	 * @param partsOfSpeech
+	 *            POS tags of the input strings, null if they are untagged
+	 * @return LemmaEntry objects containing lemma and POS information, in input order
+	 */
+	public LemmataEntry[] lemmatizeByRules(String[] spellings, String[] partsOfSpeech) {
+		return lemmatizeBatch('R', spellings, partsOfSpeech, null, null);
+	}
+
+	/**
+	 * Lemmatize strings with POS tags, see {@link #lemmatizeByRules(String, String)}
+	 * 
+	 * @param spellings
+	 *            input strings
+	 * @param partsOfSpeech
+	 *            POS tags of the input strings, null if they are untagged
+	 * @param lemmata
+	 *            buffer for the results, reused if it holds at least as many entries as there are input strings; may
+	 *            be null
+	 * @param executor
+	 *            executor lemmatizing parts of the batch in parallel; null to lemmatize in the calling thread
+	 * @return LemmaEntry objects containing lemma and POS information, in input order
+	 */
+	public LemmataEntry[] lemmatizeByRules(String[] spellings, String[] partsOfSpeech, LemmataEntry[] lemmata,
+			ExecutorService executor) {
+		return lemmatizeBatch('R', spellings, partsOfSpeech, lemmata, executor);
+	}
+
+	/**
+	 * Lemmatize strings with POS tags, see {@link #lemmatizeByRules(String, String)}
+	 * 
+	 * @param spellings
+	 *            input strings
+	 * @param partsOfSpeech
+	 *            POS tags of the input strings, null if they are untagged
+	 * @return LemmaEntry objects containing lemma and POS information, in input order
+	 */
+	public List<LemmataEntry> lemmatizeByRules(List<String> spellings, List<String> partsOfSpeech) {
+		return Arrays.asList(lemmatizeBatch('R', spellings.toArray(new String[spellings.size()]),
+				partsOfSpeech == null ? null : partsOfSpeech.toArray(new String[partsOfSpeech.size()]), null, null));
+	}
+
+	/**
+	 * Uncached implementation of {@link #lemmatizeByRules(String, String)}
+	 */
+	private LemmataEntry lemmatizeByRulesUncached(String spelling, String partOfSpeech, LexiconLookupPlan plan) {
 		// option to have a dictionary for rule-based lemmatizer to validate results
 		// lemmatizer.setDictionary(new HashSet<String>());
 
-		Map<String, String> lemmataAndLemmataTag = new HashMap<String, String>();
-		String lemmata = spelling;
 		String lemmataTag;
 		// default POS tag = NONE
-		if (partOfSpeech == null)
-			partOfSpeech = "";
 		if (partOfSpeech.trim().length() == 0)
 			lemmataTag = "NONE";
 		else
 			lemmataTag = partOfSpeech;
 
-		String[] nuPOSTag = getNUPOSTagFromPennPOS(partOfSpeech);
-
 		// Use rule-based lemmatizer.
+		String lemmata = applyRules('R', spelling, partOfSpeech, plan);
+
+		return new LemmataEntry(lemmataTag, lemmata, model);
+
+	}
+
+	/**
+	 * Lemmatize a string with the rule-based lemmatizer
+	 * 
+	 * @param method
+	 *            'R' for rules only, 'B' for both lexicon and rules; the method lemmatizing the word parts of a
+	 *            contraction
+	 * @param spelling
+	 *            an input string
+	 * @param partOfSpeech
+	 *            POS tag of the input string, not null
+	 * @param plan
+	 *            the lookup plan of the POS tag
+	 * @return the lemma, the lemmas of the word parts of a contraction joined by the lemma separator
+	 */
+	private String applyRules(char method, String spelling, String partOfSpeech, LexiconLookupPlan plan) {
+		LemmatizerMetrics recorder = metrics;
+		String lemmata = spelling;
 
 		// Get lemmatization word class for part of speech,
-		String lemmaClass = "";
-		for (String pos : nuPOSTag) {
-			lemmaClass = partOfSpeechTags.getLemmaWordClass(pos);
-			if (lemmaClass.length() != 0) {
-				break;
-			}
-		}
+		String lemmaClass = plan.lemmaClass;
 
 		// Do not lemmatize words which should not be lemmatized, ?including
 		// proper names?.
 		if (lemmatizer.cantLemmatize(spelling) || lemmaClass.equals("none")) {
+			if (recorder != null)
+				recorder.recordPath(ResolutionPath.NOT_LEMMATIZED);
 		} else {
 			// Try compound word exceptions list first.
 			lemmata = lemmatizer.lemmatize(spelling, "compound");
+			if (recorder != null)
+				recorder.recordRuleApplication();
 
 			// If lemma not found, keep trying.
 			if (lemmata.equalsIgnoreCase(spelling)) {
@@ -645,6 +901,10 @@ public class BioLemmatizer {
 					} else {
 						lemmata = lemmatizer.lemmatize(spelling, lemmaClass);
 					}
+					if (recorder != null) {
+						recorder.recordRuleApplication();
+						recorder.recordPath(ResolutionPath.RULES);
+					}
 				}
 				// More than one word part.
 				// Get lemma for each part and
@@ -652,6 +912,8 @@ public class BioLemmatizer {
 				// lemma separator to form a
 				// compound lemma.
 				else {
+					if (recorder != null)
+						recorder.recordPath(ResolutionPath.CONTRACTION_SPLIT);
 					lemmata = "";
 					String[] posTags = partOfSpeechTags.splitTag(partOfSpeech);
 
@@ -662,19 +924,17 @@ public class BioLemmatizer {
 								lemmata = lemmata + lemmaSeparator;
 							}
 
-							LemmataEntry lemmaPiece = lemmatizeByRules(wordPiece, posTags[i]);
+							LemmataEntry lemmaPiece = lemmatizeCached(method, wordPiece, posTags[i], null);
 
 							lemmata = lemmata + lemmaPiece.lemmasToString();
 						}
 					}
 				}
+			} else if (recorder != null) {
+				recorder.recordPath(ResolutionPath.COMPOUND_EXCEPTION);
 			}
 		}
-
-		lemmataAndLemmataTag.put(lemmataTag, lemmata);
-
-		return new LemmataEntry(lemmataAndLemmataTag, posEntry);
-
+		return lemmata;
 	}
 
 	/**
@@ -688,196 +948,86 @@ public class BioLemmatizer {
 	 * @return a LemmaEntry object containing lemma and POS information
 	 */
 	public LemmataEntry lemmatizeByLexiconAndRules(String spelling, String partOfSpeech) {
+		return lemmatize('B', spelling, partOfSpeech, null);
+	}
+
+	/**
+	 * Lemmatize strings with POS tags, see {@link #lemmatizeByLexiconAndRules(String, String)}
+	 * 
+	 * @param spellings
+	 *            input strings
+	 * @param partsOfSpeech
+	 *            POS tags of the input strings, null if they are untagged
+	 * @return LemmaEntry objects containing lemma and POS information, in input order
+	 */
+	public LemmataEntry[] lemmatizeByLexiconAndRules(String[] spellings, String[] partsOfSpeech) {
+		return lemmatizeBatch('B', spellings, partsOfSpeech, null, null);
+	}
+
+	/**
+	 * Lemmatize strings with POS tags, see {@link #lemmatizeByLexiconAndRules(String, String)}
+	 * 
+	 * @param spellings
+	 *            input strings
+	 * @param partsOfSpeech
+	 *            POS tags of the input strings, null if they are untagged
+	 * @param lemmata
+	 *            buffer for the results, reused if it holds at least as many entries as there are input strings; may
+	 *            be null
+	 * @param executor
+	 *            executor lemmatizing parts of the batch in parallel; null to lemmatize in the calling thread
+	 * @return LemmaEntry objects containing lemma and POS information, in input order
+	 */
+	public LemmataEntry[] lemmatizeByLexiconAndRules(String[] spellings, String[] partsOfSpeech, LemmataEntry[] lemmata,
+			ExecutorService executor) {
+		return lemmatizeBatch('B', spellings, partsOfSpeech, lemmata, executor);
+	}
+
+	/**
+	 * Lemmatize strings with POS tags, see {@link #lemmatizeByLexiconAndRules(String, String)}
+	 * 
+	 * @param spellings
+	 *            input strings
+	 * @param partsOfSpeech
+	 *            POS tags of the input strings, null if they are untagged
+	 * @return LemmaEntry objects containing lemma and POS information, in input order
+	 */
+	public List<LemmataEntry> lemmatizeByLexiconAndRules(List<String> spellings, List<String> partsOfSpeech) {
+		return Arrays.asList(lemmatizeBatch('B', spellings.toArray(new String[spellings.size()]),
+				partsOfSpeech == null ? null : partsOfSpeech.toArray(new String[partsOfSpeech.size()]), null, null));
+	}
+
+	/**
+	 * Uncached implementation of {@link #lemmatizeByLexiconAndRules(String, String)}
+	 */
+	private LemmataEntry lemmatizeByLexiconAndRulesUncached(String spelling, String partOfSpeech, LexiconLookupPlan plan) {
 
-		Map<String, String> lemmataAndLemmataTag = new HashMap<String, String>();
 		String lemmata = spelling;
 		String lemmataTag;
 		// default POS tag = NONE
-		if (partOfSpeech == null)
-			partOfSpeech = "";
 		if (partOfSpeech.trim().length() == 0)
 			lemmataTag = "NONE";
 		else
 			lemmataTag = partOfSpeech;
 
-		// check the POS tagset
-		String tagSetLabel = posEntry.getTagSetLabel(partOfSpeech);
-
-		String[] nuPOSTag = getNUPOSTagFromPennPOS(partOfSpeech);
-
 		// Try lexicon first, different search methods are tried in order to
 		// augument the use of
-		// lexicon
-		String lemma = "*";
-		String category = "*";
-
-		if (tagSetLabel.equals("PennPOS")) {
-			// direct PennPOS tag search
-			lemma = wordLexicon.getLemma(spelling.toLowerCase(), partOfSpeech);
-			if (lemma.equals("*")) {
-				lemma = wordLexicon.getLemma(spelling.toUpperCase(), partOfSpeech);
-			}
-			if (!lemma.equals("*")) {
-				category = partOfSpeech;
-				// System.out.println("found in the Penn direct lexicon: "+lemma);
-			}
-			// PennPOS tag hierachical search
-			if (lemma.equals("*")) {
-				String[] hierarachicalPennPOSTag = getSiblingPennPOSTag(partOfSpeech);
-				for (String pos : hierarachicalPennPOSTag) {
-					lemma = wordLexicon.getLemma(spelling.toLowerCase(), pos);
-					if (lemma.equals("*")) {
-						lemma = wordLexicon.getLemma(spelling.toUpperCase(), pos);
-					}
-					if (!lemma.equals("*")) {
-						category = pos;
-						// System.out.println("found in the Penn hierachical lexicon: "+lemma);
-						break;
-					}
-				}
-			}
-			// Turn PennPOS tag into NUSPOS tag and search
-			if (lemma.equals("*")) {
-				for (String pos : nuPOSTag) {
-					lemma = wordLexicon.getLemma(spelling.toLowerCase(), pos);
-					if (lemma.equals("*")) {
-						lemma = wordLexicon.getLemma(spelling.toUpperCase(), pos);
-					}
-					if (!lemma.equals("*")) {
-						category = pos;
-						// System.out.println("found in the converted NU direct lexicon: "+lemma);
-						break;
-					}
-				}
-			}
-			// NUSPOS tag hierachical search
-			if (lemma.equals("*")) {
-				String[] hierarachicalNUPOSTag = getSiblingNUPOSTag(partOfSpeech);
-				for (String pos : hierarachicalNUPOSTag) {
-					lemma = wordLexicon.getLemma(spelling.toLowerCase(), pos);
-					if (lemma.equals("*")) {
-						lemma = wordLexicon.getLemma(spelling.toUpperCase(), pos);
-					}
-					if (!lemma.equals("*")) {
-						category = pos;
-						// System.out.println("found in the converted NU hierachical lexicon: "+lemma);
-						break;
-					}
-				}
-			}
-		} else if (tagSetLabel.equals("NUPOS")) {
-			// direct NUPOS tag search
-			lemma = wordLexicon.getLemma(spelling.toLowerCase(), partOfSpeech);
-			if (lemma.equals("*")) {
-				lemma = wordLexicon.getLemma(spelling.toUpperCase(), partOfSpeech);
-			}
-			if (!lemma.equals("*")) {
-				category = partOfSpeech;
-				// System.out.println("found in the NU direct lexicon: "+lemma);
-			}
-			// NUPOS tag hierachical search
-			if (lemma.equals("*")) {
-				String[] hierarachicalNUPOSTag = getSiblingNUPOSTag(getPennPOSFromNUPOS(partOfSpeech)[0]);
-				for (String pos : hierarachicalNUPOSTag) {
-					lemma = wordLexicon.getLemma(spelling.toLowerCase(), pos);
-					if (lemma.equals("*")) {
-						lemma = wordLexicon.getLemma(spelling.toUpperCase(), pos);
-					}
-					if (!lemma.equals("*")) {
-						category = pos;
-						// System.out.println("found in the NU hierachical lexicon: "+lemma);
-						break;
-					}
-				}
-			}
-		}
-
-		// if tagSetLabel is NONE, invoke the backup lexicon lookup process:
-		// search without POS tags, return all lemmas
-		Map<String, String> lemmasAndCategories = new HashMap<String, String>();
-		// if ( tagSetLabel.equals("NONE") || lemma.equals( "*" ) ) {
-		if (tagSetLabel.equals("NONE")) {
-			lemmasAndCategories = getLemmasAndCategories(spelling.toLowerCase());
-			if (lemmasAndCategories.isEmpty()) {
-				lemmasAndCategories = getLemmasAndCategories(spelling.toUpperCase());
-			}
-		}
+		// lexicon; if the POS tag is of no known tag set, invoke the backup
+		// lexicon lookup process: search without POS tags, return all lemmas
+		Map<String, String> lemmasAndCategories = lookupLexicon(spelling, plan, plan.isUntagged());
 
 		// found the Lemma
-		if (!lemmasAndCategories.isEmpty()) {
-			lemmataAndLemmataTag = lemmasAndCategories;
-			// System.out.println("found in the lexicon");
-		} else if (!lemma.equals("*")) {
-			lemmata = lemma;
-			lemmataTag = category;
-			lemmataAndLemmataTag.put(lemmataTag, lemmata);
+		if (lemmasAndCategories != null) {
+			return new LemmataEntry(lemmasAndCategories, model);
 		}
 		// for testing purpose to test lexicon only
-		// else lemmataAndLemmataTag.put(lemmataTag, lemmata) ;
+		// else return new LemmataEntry(lemmataTag, lemmata, posEntry);
 
 		// Lemma not found in word lexicon. Use rule-based lemmatizer.
 		else {
-
-			// Get lemmatization word class for part of speech,
-			String lemmaClass = "";
-			for (String pos : nuPOSTag) {
-				lemmaClass = partOfSpeechTags.getLemmaWordClass(pos);
-				if (lemmaClass.length() != 0) {
-					break;
-				}
-			}
-
-			// Do not lemmatize words which should not be lemmatized, ?including
-			// proper names?.
-			if (lemmatizer.cantLemmatize(spelling) || lemmaClass.equals("none")) {
-			} else {
-				// Try compound word exceptions list first.
-				lemmata = lemmatizer.lemmatize(spelling, "compound");
-
-				// If lemma not found, keep trying.
-				if (lemmata.equalsIgnoreCase(spelling)) {
-					// Extract individual word parts.
-					// May be more than one for a
-					// contraction.
-					List<String> wordList = spellingTokenizer.extractWords(spelling);
-
-					// If just one word part, get its lemma.
-					if (!partOfSpeechTags.isCompoundTag(partOfSpeech) || (wordList.size() == 1)) {
-						if (lemmaClass.length() == 0) {
-							lemmata = lemmatizer.lemmatize(spelling);
-						} else {
-							lemmata = lemmatizer.lemmatize(spelling, lemmaClass);
-						}
-					}
-					// More than one word part.
-					// Get lemma for each part and
-					// concatenate them with the
-					// lemma separator to form a
-					// compound lemma.
-					else {
-						lemmata = "";
-						String[] posTags = partOfSpeechTags.splitTag(partOfSpeech);
-
-						if (posTags.length == wordList.size()) {
-							for (int i = 0; i < wordList.size(); i++) {
-								String wordPiece = wordList.get(i);
-								if (i > 0) {
-									lemmata = lemmata + lemmaSeparator;
-								}
-
-								LemmataEntry lemmaPiece = lemmatizeByLexiconAndRules(wordPiece, posTags[i]);
-
-								lemmata = lemmata + lemmaPiece.lemmasToString();
-							}
-						}
-					}
-				}
-			}
-
-			lemmataAndLemmataTag.put(lemmataTag, lemmata);
+			lemmata = applyRules('B', spelling, partOfSpeech, plan);
+			return new LemmataEntry(lemmataTag, lemmata, model);
 		}
-
-		return new LemmataEntry(lemmataAndLemmataTag, posEntry);
 	}
 
 	/**
@@ -887,13 +1037,26 @@ public class BioLemmatizer {
 	 * <pre>
 	 *  VAL    : Single input to be lemmatized
 	 *  VAL    : Part of speech of the single input to be lemmatized
-	 *  -f VAL : optional path to a lexicon file. If not set, the default lexicon 
-	 *           available on the classpath is used
+	 *  -f VAL : optional path to a lexicon file, a precompiled lexicon image (see
+	 *           {@link LexiconImage}) or a memory-mapped lexicon (see {@link MappedLexicon}).
+	 *           If not set, the default lexicon available on the classpath is used
 	 *  -i VAL : the path to the input file
 	 *  -l     : if present, only the lemma is returned (part-of-speech information is 
 	 *           suppressed)
+	 *  -a     : if present, common British spellings are converted into American spellings
+	 *           before lemmatization (see {@link #setAmericanize(boolean)})
 	 *  -o VAL : the path to the output file
 	 *  -t     : if present, the interactive mode is used
+	 *  --threads N    : number of threads lemmatizing the input file (default: 1)
+	 *  --batch-size N : number of input file lines lemmatized together by one thread
+	 *  --text         : if present, the input file is raw text, which is split into sentences,
+	 *                   tokenized and part-of-speech tagged before lemmatization (see
+	 *                   {@link BioLemmatizerPipeline})
+	 *  --tagset VAL   : tag set of the part-of-speech tagger: NUPOS (default) or PENN_TREEBANK
+	 *  --pos-lexicon VAL        : optional path to the word lexicon of the tagger
+	 *  --pos-suffix-lexicon VAL : optional path to the suffix lexicon of the tagger
+	 *  --transition-matrix VAL  : optional path to the transition matrix of the tagger
+	 *  --block-size N : number of characters of raw text lemmatized together by one thread
 	 * </pre>
 	 * 
 	 * 
@@ -913,8 +1076,13 @@ public class BioLemmatizer {
 		}
 
 		File lexiconFile = options.getLexiconFile();
-		BioLemmatizer bioLemmatizer = new BioLemmatizer(lexiconFile);
-		boolean americanize = options.americanizedLemma();
+		BioLemmatizer bioLemmatizer = (options.getLexiconThreads() > 1) ? new BioLemmatizer(BioLemmatizerModel.load(
+				lexiconFile, options.getLexiconThreads())) : new BioLemmatizer(lexiconFile);
+		Lexicon wordLexicon = bioLemmatizer.getModel().wordLexicon;
+		if (wordLexicon instanceof AbstractLexicon && ((AbstractLexicon) wordLexicon).getMalformedLineCount() > 0)
+			System.err.println("Skipped " + ((AbstractLexicon) wordLexicon).getMalformedLineCount()
+					+ " malformed lexicon lines");
+		bioLemmatizer.setAmericanize(options.americanizedLemma());
 		boolean outputLemmaOnly = options.outputLemmaOnly();
 		boolean useInteractiveMode = options.useInteractiveMode();
 		String inputStr = options.getInputStr();
@@ -929,14 +1097,9 @@ public class BioLemmatizer {
 		System.out.println("Running BioLemmatizer....");
 		try {
 			if (useInteractiveMode) {
-				runInteractiveMode(bioLemmatizer, outputLemmaOnly, americanize);
+				runInteractiveMode(bioLemmatizer, outputLemmaOnly);
 			} else if (inputStr != null) {
-				LemmataEntry lemmata;
-				if(americanize) {
-					lemmata = bioLemmatizer.lemmatizeByLexiconAndRules(new Americanize().americanize(unicodeHandler(inputStr)), inputStrPos);
-				}	
-				else
-					lemmata = bioLemmatizer.lemmatizeByLexiconAndRules(unicodeHandler(inputStr), inputStrPos);
+				LemmataEntry lemmata = bioLemmatizer.lemmatizeByLexiconAndRules(unicodeHandler(inputStr), inputStrPos);
 				if (outputLemmaOnly) {
 					System.out.println("The lemma for '" +inputStr+ "' is: " + lemmata.lemmasToString());
 				} else {
@@ -947,7 +1110,17 @@ public class BioLemmatizer {
 					System.err.println("Output file must be set if the input file parameter is used.");
 					parser.printUsage(System.err);
 				}
-				processInputFile(inputFile, outputFile, bioLemmatizer, outputLemmaOnly, americanize);
+				if (options.isRawText()) {
+					BioLemmatizerPipeline.TagSet tagSet = options.getTagSet();
+					BioLemmatizerPipeline pipeline = new BioLemmatizerPipeline(bioLemmatizer, BioLemmatizerPipeline
+							.createPartOfSpeechTagger(tagSet, toURL(options.getPosLexiconFile()), toURL(options
+									.getPosSuffixLexiconFile()), toURL(options.getTransitionMatrixFile())), tagSet);
+					pipeline.setBlockSize(Math.max(options.getBlockSize(), 1));
+					processRawTextFile(inputFile, outputFile, pipeline, outputLemmaOnly, options.getThreads());
+				} else {
+					processInputFile(inputFile, outputFile, bioLemmatizer, outputLemmaOnly, options.getThreads(),
+							options.getBatchSize());
+				}
 			} else {
 				System.err.println("Invalid input parameters...");
 				parser.printUsage(System.err);
@@ -968,200 +1141,234 @@ public class BioLemmatizer {
 	 * @throws IOException
 	 */
 	private static void processInputFile(File inputFile, File outputFile, BioLemmatizer bioLemmatizer,
-			boolean outputLemmaOnly, boolean americanize) throws IOException {
-		Americanize convert = null;
-		if(americanize) 
-			convert = new Americanize();
-		BufferedReader input;
-		BufferedWriter output;
+			boolean outputLemmaOnly, int threads, int batchSize) throws IOException {
+		BufferedReader input = openInputFile(inputFile);
+		BufferedWriter output = openOutputFile(outputFile);
+
+		if (threads <= 1) {
+			String line = null;
+
+			while ((line = input.readLine()) != null) {
+				output.write(lemmatizeInputLine(line, bioLemmatizer, outputLemmaOnly));
+			}
+		} else {
+			processInputLinesInParallel(input, output, bioLemmatizer, outputLemmaOnly, threads, Math.max(
+					batchSize, 1));
+		}
+		// close input
+		input.close();
+		// close output
+		output.close();
+	}
 
+	/**
+	 * Lemmatize an input file of raw text; each output line holds a token, its POS tag, its lemmata and its start and
+	 * end offset, tab separated, and sentences are separated by empty lines
+	 * 
+	 * @param inputFile
+	 * @param outputFile
+	 * @param pipeline
+	 *            splits, tokenizes, tags and lemmatizes the text
+	 * @param outputLemmaOnly
+	 *            if true, only the lemmas are output
+	 * @param threads
+	 *            number of worker threads
+	 * @throws IOException
+	 */
+	private static void processRawTextFile(File inputFile, File outputFile, BioLemmatizerPipeline pipeline,
+			final boolean outputLemmaOnly, int threads) throws IOException {
+		BufferedReader input = openInputFile(inputFile);
+		final BufferedWriter output = openOutputFile(outputFile);
+
+		pipeline.lemmatizeText(input, new BioLemmatizerPipeline.SentenceHandler() {
+			public void handleSentence(List<LemmatizedToken> sentence) throws IOException {
+				for (LemmatizedToken token : sentence) {
+					LemmataEntry lemmata = token.getLemmata();
+					output.write(token.getToken() + "\t" + token.getPartOfSpeech() + "\t"
+							+ (outputLemmaOnly ? lemmata.lemmasToString() : lemmata.toString()) + "\t"
+							+ token.getStart() + "\t" + token.getEnd() + "\n");
+				}
+				output.write("\n");
+			}
+		}, threads);
+		// close input
+		input.close();
+		// close output
+		output.close();
+	}
+
+	/**
+	 * Open a UTF-8 input file
+	 * 
+	 * @return the reader of the file
+	 */
+	private static BufferedReader openInputFile(File inputFile) {
 		try {
 			// input = FileReaderUtil.initBufferedReader(inputFile, CharacterEncoding.UTF_8);
-			input = new BufferedReader(new InputStreamReader(new FileInputStream(inputFile), Charset.forName("UTF-8")
+			return new BufferedReader(new InputStreamReader(new FileInputStream(inputFile), Charset.forName("UTF-8")
 					.newDecoder().onMalformedInput(CodingErrorAction.REPORT)
 					.onUnmappableCharacter(CodingErrorAction.REPORT)));
 		} catch (FileNotFoundException e) {
 			throw new RuntimeException("Unable to open the input file: " + inputFile.getAbsolutePath(), e);
 		}
+	}
 
+	/**
+	 * Open a UTF-8 output file, overwriting an existing file
+	 * 
+	 * @return the writer of the file
+	 */
+	private static BufferedWriter openOutputFile(File outputFile) {
 		try {
 			// output = FileWriterUtil.initBufferedWriter(outputFile, CharacterEncoding.UTF_8,
 			// WriteMode.OVERWRITE, FileSuffixEnforcement.OFF);
-			output = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outputFile, false), Charset
+			return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outputFile, false), Charset
 					.forName("UTF-8").newEncoder().onMalformedInput(CodingErrorAction.REPORT)
 					.onUnmappableCharacter(CodingErrorAction.REPORT)));
 		} catch (FileNotFoundException e) {
 			throw new RuntimeException("Unable to open the output file: " + outputFile.getAbsolutePath(), e);
 		}
-
-		String line = null;
-
-		while ((line = input.readLine()) != null) {
-			if (line.trim().length() == 0) {
-				output.write("\n");
-				continue;
-			}
-			line = line.trim();
-			String[] pair = line.split("\t");
-			String pos;
-			if (pair.length == 1) {
-				pos = "";
-			} else {
-				pos = pair[1];
-			}
-			LemmataEntry lemmata;
-			if(americanize)
-			    lemmata = bioLemmatizer.lemmatizeByLexiconAndRules(convert.americanize(unicodeHandler(pair[0])), pos);
-			else
-				lemmata = bioLemmatizer.lemmatizeByLexiconAndRules(unicodeHandler(pair[0]), pos);
-			String result;
-			if (outputLemmaOnly) {
-				result = line + "\t" + lemmata.lemmasToString() + "\n";
-			} else {
-				result = line + "\t" + lemmata + "\n";
-			}
-			output.write(result);
-		}
-		// close input
-		input.close();
-		// close output
-		output.close();
 	}
 
-	private static void runInteractiveMode(BioLemmatizer bioLemmatizer, boolean outputLemmaOnly, boolean americanize) throws IOException {
-		Americanize convert = null;
-		if(americanize) 
-			convert = new Americanize();
-		BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
-		String input;
-		System.out
-				.println("Running BioLemmatizer in interactive mode. Please type a word to be lemmatized with an optional part-of-speech, e.g. \"run\" or \"run NN\"");
-		while ((input = in.readLine()) != null && input.length() != 0) {
-			String[] arguments = input.split("\\s");
-			if (arguments.length > 2) {
-				System.out.println("Only one word to be lemmatized (with or without POS) is allowed");
-				System.exit(0);
-			}
-			String spelling = arguments[0].trim();
-			String partOfSpeech = (arguments.length == 2) ? arguments[1].trim() : null;
-			LemmataEntry lemmata; 
-			if(americanize) 
-			    lemmata = bioLemmatizer.lemmatizeByLexiconAndRules(convert.americanize(unicodeHandler(spelling)), partOfSpeech);
-			else
-				lemmata = bioLemmatizer.lemmatizeByLexiconAndRules(unicodeHandler(spelling), partOfSpeech);
-			if (outputLemmaOnly) {
-				System.out.println(lemmata.lemmasToString());
-			} else {
-				System.out.println(lemmata);
-			}
-		}
+	/**
+	 * @return the URL of a file, or null if the file is null
+	 */
+	private static URL toURL(File file) throws IOException {
+		return (file != null) ? file.toURI().toURL() : null;
 	}
-}
-
-/** Lemmatizer for English. */
-class MorphAdornerLemmatizer extends EnglishLemmatizer {
-	/** list of detachment rules. */
-	protected static String rulesFileName = "englishrules.txt";
 
 	/**
-	 * Create an English lemmatizer.
-	 * 
-	 * @throws Exception
-	 *             because the {@link EnglishLemmatizer} constructor throws Exception
+	 * Lemmatize the lines of an input file on a pool of worker threads. The main thread reads batches of lines and
+	 * submits them to the workers, and writes the lemmatized batches in input order. At most two batches per thread
+	 * are pending, so memory use does not grow with the size of the input file.
 	 * 
+	 * @param input
+	 *            reader of the input file
+	 * @param output
+	 *            writer of the output file
+	 * @param bioLemmatizer
+	 *            the lemmatizer, shared by all worker threads
+	 * @param outputLemmaOnly
+	 *            if true, only the lemmas are output
+	 * @param threads
+	 *            number of worker threads
+	 * @param batchSize
+	 *            number of lines lemmatized together by one worker thread
+	 * @throws IOException
 	 */
-	public MorphAdornerLemmatizer() throws Exception {
-		// release the rules of original MorphAdorner Lemmatizer
-		rules.clear();
-		// load new rules
+	private static void processInputLinesInParallel(BufferedReader input, BufferedWriter output,
+			final BioLemmatizer bioLemmatizer, final boolean outputLemmaOnly, int threads,
+			int batchSize) throws IOException {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		Queue<Future<String>> pendingBatches = new LinkedList<Future<String>>();
 		try {
-			loadRules(BioLemmatizer.class.getResource(rulesFileName), "utf-8");
-		} catch (IOException e) {
-			throw new RuntimeException("Unable to load English rules file.", e);
+			List<String> batch;
+			while (!(batch = readInputLines(input, batchSize)).isEmpty()) {
+				final List<String> lines = batch;
+				pendingBatches.add(executor.submit(new Callable<String>() {
+					public String call() {
+						StringBuilder result = new StringBuilder();
+						for (String line : lines) {
+							result.append(lemmatizeInputLine(line, bioLemmatizer, outputLemmaOnly));
+						}
+						return result.toString();
+					}
+				}));
+				if (pendingBatches.size() >= 2 * threads) {
+					output.write(getBatchResult(pendingBatches.remove()));
+				}
+			}
+			while (!pendingBatches.isEmpty()) {
+				output.write(getBatchResult(pendingBatches.remove()));
+			}
+		} finally {
+			executor.shutdownNow();
 		}
-		// release the irregularForm file of original MorphAdorner Lemmatizer
-		// the irregular English forms are integrated into current Lexicon
-		irregularForms.clear();
 	}
-}
-
-/**
- * BioWordLexicon: Biomedical word Lexicon which extends MorphAdorner's English word lexicon.
- */
-class BioWordLexicon extends DefaultLexicon {
-	/** Resource path to word lexicon. */
-	protected static final String lexiconPath = "lexicon.lex";
 
 	/**
-	 * Create an empty lexicon.
+	 * Read up to batchSize lines
 	 * 
-	 * @throws IOException
+	 * @return the lines read; empty at the end of the input
 	 */
-	public BioWordLexicon(File lexiconFile) throws IOException {
-		// Create empty lexicon.
-		super();
-		if (lexiconFile == null) {
-			// Load default word lexicon.
-			loadLexicon(BioLemmatizer.class.getResource(lexiconPath), "utf-8");
-		} else {
-			loadLexicon(lexiconFile.toURI().toURL(), "utf-8");
+	private static List<String> readInputLines(BufferedReader input, int batchSize) throws IOException {
+		List<String> lines = new ArrayList<String>(batchSize);
+		String line = null;
+		while (lines.size() < batchSize && (line = input.readLine()) != null) {
+			lines.add(line);
 		}
+		return lines;
 	}
-}
-
-/** POSEntry: store different POS tags and the corresponding tagset label */
-class POSEntry {
-	public Map<String, String> tagToTagSet;
 
 	/**
-	 * Construtor to initialize the class field by loading different POS tagsets
+	 * Wait for a lemmatized batch of lines
+	 * 
+	 * @return the output of the batch
 	 */
-	public POSEntry() {
-		tagToTagSet = new HashMap<String, String>();
-		// NUPOS tags
-		Lexicon wordLexicon;
+	private static String getBatchResult(Future<String> batchResult) throws IOException {
 		try {
-			wordLexicon = new DefaultWordLexicon();
-		} catch (Exception e) {
-			throw new RuntimeException(e);
-		}
-		addNewTagSet(Arrays.asList(wordLexicon.getCategories()), "NUPOS");
-
-		// PennPOS tags
-		String mappingFileName = "PennPOStoNUPOS.mapping";
-		InputStream is = BioLemmatizer.class.getResourceAsStream(mappingFileName);
-		Map<String, String[]> mappingPennPOStoNUPOS;
-		try {
-			mappingPennPOStoNUPOS = BioLemmatizer.loadPOSMappingFile(is);
-		} catch (IOException e) {
-			throw new RuntimeException("Error while opening mapping file: " + mappingFileName, e);
+			return batchResult.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while lemmatizing the input file");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new RuntimeException(e.getCause());
 		}
-		addNewTagSet(mappingPennPOStoNUPOS.keySet(), "PennPOS");
 	}
 
 	/**
-	 * Add new POS tagset
+	 * Lemmatize one line of an input file
 	 * 
-	 * @param tags
-	 *            a set of POS tags
-	 * @param tagSetLabel
-	 *            the corresponding tagset label
+	 * @param line
+	 *            a line consisting of a string and an optional tab separated POS tag
+	 * @param bioLemmatizer
+	 *            the lemmatizer
+	 * @param outputLemmaOnly
+	 *            if true, only the lemmas are output
+	 * @return the output line, including its line separator; blank input lines are output as empty lines
 	 */
-	public void addNewTagSet(Collection<String> tags, String tagSetLabel) {
-		for (String tag : tags) {
-			tagToTagSet.put(tag, tagSetLabel);
+	private static String lemmatizeInputLine(String line, BioLemmatizer bioLemmatizer, boolean outputLemmaOnly) {
+		if (line.trim().length() == 0) {
+			return "\n";
+		}
+		line = line.trim();
+		String[] pair = line.split("\t");
+		String pos;
+		if (pair.length == 1) {
+			pos = "";
+		} else {
+			pos = pair[1];
+		}
+		LemmataEntry lemmata = bioLemmatizer.lemmatizeByLexiconAndRules(unicodeHandler(pair[0]), pos);
+		if (outputLemmaOnly) {
+			return line + "\t" + lemmata.lemmasToString() + "\n";
+		} else {
+			return line + "\t" + lemmata + "\n";
 		}
 	}
 
-	/**
-	 * Retrieve the tagset label of the input POS tag
-	 * 
-	 * @param category
-	 *            an input POS tag
-	 * @return the corresponding POS tagset label
-	 */
-	public String getTagSetLabel(String category) {
-		String defaultLabel = "NONE";
-		return tagToTagSet.containsKey(category) ? tagToTagSet.get(category) : defaultLabel;
+	private static void runInteractiveMode(BioLemmatizer bioLemmatizer, boolean outputLemmaOnly) throws IOException {
+		BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
+		String input;
+		System.out
+				.println("Running BioLemmatizer in interactive mode. Please type a word to be lemmatized with an optional part-of-speech, e.g. \"run\" or \"run NN\"");
+		while ((input = in.readLine()) != null && input.length() != 0) {
+			String[] arguments = input.split("\\s");
+			if (arguments.length > 2) {
+				System.out.println("Only one word to be lemmatized (with or without POS) is allowed");
+				System.exit(0);
+			}
+			String spelling = arguments[0].trim();
+			String partOfSpeech = (arguments.length == 2) ? arguments[1].trim() : null;
+			LemmataEntry lemmata = bioLemmatizer.lemmatizeByLexiconAndRules(unicodeHandler(spelling), partOfSpeech);
+			if (outputLemmaOnly) {
+				System.out.println(lemmata.lemmasToString());
+			} else {
+				System.out.println(lemmata);
+			}
+		}
 	}
 }
@@ -13,7 +13,7 @@ import org.kohsuke.args4j.Option;
  */
 public class BioLemmatizerCmdOpts {
 
-	@Option(name = "-f", usage = "optional path to a lexicon file. If not set, the default lexicon available on the classpath is used", required = false)
+	@Option(name = "-f", usage = "optional path to a lexicon file or a precompiled lexicon image. If not set, the default lexicon available on the classpath is used", required = false)
 	private String lexiconFilePath;
 
 	@Option(name = "-i", usage = "the path to the input file", required = false)
@@ -31,6 +31,35 @@ public class BioLemmatizerCmdOpts {
 	@Option(name = "-t", usage = "if present, the interactive mode is used")
 	private boolean useInteractiveMode = false;
 
+	@Option(name = "--threads", usage = "number of threads lemmatizing the input file (default: 1)", required = false)
+	private int threads = 1;
+
+	@Option(name = "--batch-size", usage = "number of input file lines lemmatized together by one thread (default: "
+			+ BioLemmatizer.DEFAULT_BATCH_SIZE + ")", required = false)
+	private int batchSize = BioLemmatizer.DEFAULT_BATCH_SIZE;
+
+	@Option(name = "--lexicon-threads", usage = "number of threads loading the lexicon file (default: 1)", required = false)
+	private int lexiconThreads = 1;
+
+	@Option(name = "--text", usage = "if present, the input file is raw text, which is split into sentences, tokenized and part-of-speech tagged before lemmatization", required = false)
+	private boolean rawText = false;
+
+	@Option(name = "--tagset", usage = "tag set of the part-of-speech tagger used with --text: NUPOS or PENN_TREEBANK (default: NUPOS)", required = false)
+	private BioLemmatizerPipeline.TagSet tagSet = BioLemmatizerPipeline.TagSet.NUPOS;
+
+	@Option(name = "--pos-lexicon", usage = "optional path to the word lexicon of the part-of-speech tagger used with --text. If not set, the NUPOS lexicon available on the classpath is used", required = false)
+	private String posLexiconFilePath;
+
+	@Option(name = "--pos-suffix-lexicon", usage = "optional path to the suffix lexicon of the part-of-speech tagger used with --text. If not set, the NUPOS suffix lexicon available on the classpath is used", required = false)
+	private String posSuffixLexiconFilePath;
+
+	@Option(name = "--transition-matrix", usage = "optional path to the transition matrix of the part-of-speech tagger used with --text. If not set, the matrix of the tag set available on the classpath is used", required = false)
+	private String transitionMatrixFilePath;
+
+	@Option(name = "--block-size", usage = "number of characters of raw text lemmatized together by one thread (default: "
+			+ BioLemmatizerPipeline.DEFAULT_BLOCK_SIZE + ")", required = false)
+	private int blockSize = BioLemmatizerPipeline.DEFAULT_BLOCK_SIZE;
+
 	@Argument(index = 0, usage = "Single input to be lemmatized", required = false)
 	private String inputStr;
 
@@ -79,6 +108,69 @@ public class BioLemmatizerCmdOpts {
 		return useInteractiveMode;
 	}
 
+	/**
+	 * @return the number of threads lemmatizing the input file
+	 */
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * @return the number of input file lines lemmatized together by one thread
+	 */
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * @return the number of threads loading the lexicon file
+	 */
+	public int getLexiconThreads() {
+		return lexiconThreads;
+	}
+
+	/**
+	 * @return true if the input file is raw text
+	 */
+	public boolean isRawText() {
+		return rawText;
+	}
+
+	/**
+	 * @return the tag set of the part-of-speech tagger
+	 */
+	public BioLemmatizerPipeline.TagSet getTagSet() {
+		return tagSet;
+	}
+
+	/**
+	 * @return the word lexicon file of the part-of-speech tagger
+	 */
+	public File getPosLexiconFile() {
+		return (posLexiconFilePath != null) ? new File(posLexiconFilePath) : null;
+	}
+
+	/**
+	 * @return the suffix lexicon file of the part-of-speech tagger
+	 */
+	public File getPosSuffixLexiconFile() {
+		return (posSuffixLexiconFilePath != null) ? new File(posSuffixLexiconFilePath) : null;
+	}
+
+	/**
+	 * @return the transition matrix file of the part-of-speech tagger
+	 */
+	public File getTransitionMatrixFile() {
+		return (transitionMatrixFilePath != null) ? new File(transitionMatrixFilePath) : null;
+	}
+
+	/**
+	 * @return the number of characters of raw text lemmatized together by one thread
+	 */
+	public int getBlockSize() {
+		return blockSize;
+	}
+
 	/**
 	 * @return the inputStr
 	 */
@@ -0,0 +1,485 @@
+/*
+ Copyright (c) 2012, Regents of the University of Colorado
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without modification, 
+ are permitted provided that the following conditions are met:
+
+  * Redistributions of source code must retain the above copyright notice, this 
+    list of conditions and the following disclaimer.
+   
+  * Redistributions in binary form must reproduce the above copyright notice, 
+    this list of conditions and the following disclaimer in the documentation 
+    and/or other materials provided with the distribution.
+   
+  * Neither the name of the University of Colorado nor the names of its 
+    contributors may be used to endorse or promote products derived from this 
+    software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND 
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED 
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; 
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON 
+ ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT 
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS 
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.ucdenver.ccp.nlp.biolemmatizer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import edu.northwestern.at.morphadorner.corpuslinguistics.lemmatizer.Lemmatizer;
+import edu.northwestern.at.morphadorner.corpuslinguistics.lexicon.Lexicon;
+import edu.northwestern.at.morphadorner.corpuslinguistics.lexicon.MappedLexicon;
+import edu.northwestern.at.morphadorner.corpuslinguistics.partsofspeech.PartOfSpeechTags;
+import edu.northwestern.at.morphadorner.corpuslinguistics.tokenizer.PennTreebankContractionSplitter;
+import edu.northwestern.at.morphadorner.corpuslinguistics.tokenizer.WordTokenizer;
+
+/**
+ * BioLemmatizerModel: the resources loaded for lemmatization, i.e. the word lexicon, the lemmatization rules, the POS
+ * mappings and tagsets, and the lexicon lookup plans compiled from them.
+ * <p>
+ * A model is loaded once and one model can be shared by any number of {@link BioLemmatizer} objects, which are cheap
+ * to create from it and hold only their own settings and caches. {@link #getInstance(File)} keeps one model per
+ * lexicon file in a JVM-wide registry; {@link #load(File)} loads a model outside the registry. The loaded resources
+ * are only reachable from this package, and the public getters return read-only views of them, so a model is not
+ * changed after loading and is thread-safe.
+ */
+public final class BioLemmatizerModel {
+	/** Models of the registry, keyed by the canonical path of their lexicon file, "" for the default lexicon */
+	private static final ConcurrentMap<String, FutureTask<BioLemmatizerModel>> models = new ConcurrentHashMap<String, FutureTask<BioLemmatizerModel>>();
+
+	/** Maximum number of cached lexicon lookup plans */
+	private static final int MAX_LOOKUP_PLANS = 1024;
+
+	/** Maximum number of canonical lemma and POS tag strings */
+	private static final int MAX_CANONICAL_STRINGS = 65536;
+
+	/** Rule-based lemmatizer */
+	final Lemmatizer lemmatizer;
+
+	/** Word lexicon for lemma lookup */
+	final Lexicon wordLexicon;
+
+	/** Read-only view of the word lexicon */
+	private final Lexicon readOnlyWordLexicon;
+
+	/** NUPOS tags */
+	final PartOfSpeechTags partOfSpeechTags;
+
+	/** Extract individual word parts from a contracted word. */
+	final WordTokenizer spellingTokenizer;
+
+	/** Hierachical mapping file from PennPOS to NUPOS */
+	final Map<String, String[]> mappingPennPOStoNUPOS;
+
+	/** Hierachical mapping file from major class to Penn Treebank POS */
+	final Map<String, String[]> mappingMajorClasstoPennPOS;
+
+	/** Precomputed lookups over the two POS mappings */
+	final PosHierarchy posHierarchy;
+
+	/** POSEntry object to retrieve POS tag information */
+	final POSEntry posEntry;
+
+	/** Compiled lexicon lookup plans, keyed by POS tag */
+	private final ConcurrentMap<String, LexiconLookupPlan> lookupPlans = new ConcurrentHashMap<String, LexiconLookupPlan>();
+
+	/** Canonical copies of the lemmas and POS tags of lemmatization results */
+	private final ConcurrentMap<String, String> canonicalStrings = new ConcurrentHashMap<String, String>();
+
+	/**
+	 * Constructor to load the class fields
+	 * 
+	 * @param lexiconFile
+	 *            a reference to the lexicon file to use, see {@link #load(File)}
+	 * @param loadThreads
+	 *            number of threads loading a text lexicon
+	 * @param useDefaultImage
+	 *            if false and lexiconFile is null, the default text lexicon is loaded even if there is an image of it
+	 *            on the classpath
+	 * @throws IOException
+	 */
+	private BioLemmatizerModel(File lexiconFile, int loadThreads, boolean useDefaultImage) throws IOException {
+		// Get the default rule-based lemmatizer.
+		try {
+			lemmatizer = new MorphAdornerLemmatizer();
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+		// Get default word lexicon, from a precompiled image if one is available.
+		LexiconImage image = (lexiconFile != null || useDefaultImage) ? LexiconImage.readIfAvailable(lexiconFile)
+				: null;
+		if (image != null)
+			wordLexicon = new BioWordLexicon(image);
+		else if (lexiconFile != null && MappedLexicon.isMappedLexicon(lexiconFile))
+			wordLexicon = new MappedLexicon(lexiconFile);
+		else
+			wordLexicon = new BioWordLexicon(lexiconFile, loadThreads);
+		readOnlyWordLexicon = new ReadOnlyLexicon(wordLexicon);
+		// Get the part of speech tags from the word lexicon.
+		partOfSpeechTags = wordLexicon.getPartOfSpeechTags();
+		// Get spelling tokenizer.
+		spellingTokenizer = new PennTreebankContractionSplitter();
+		// Set the lexicon which may provide lemmata.
+		lemmatizer.setLexicon(wordLexicon);
+		// Set the dictionary for checking lemmata after applying lemmatization
+		// rules.
+		lemmatizer.setDictionary(image != null ? image.getDictionary() : BioLemmatizer.setDictionary(wordLexicon));
+
+		if (image != null) {
+			mappingPennPOStoNUPOS = Collections.unmodifiableMap(image.getMappingPennPOStoNUPOS());
+			mappingMajorClasstoPennPOS = Collections.unmodifiableMap(image.getMappingMajorClasstoPennPOS());
+		} else {
+			// Specify the Part-Of-Speech mapping files
+			mappingPennPOStoNUPOS = Collections.unmodifiableMap(loadPOSMappingFile("PennPOStoNUPOS.mapping"));
+			mappingMajorClasstoPennPOS = Collections.unmodifiableMap(loadPOSMappingFile("MajorClasstoPennPOS.mapping"));
+		}
+		posHierarchy = new PosHierarchy(mappingPennPOStoNUPOS, mappingMajorClasstoPennPOS);
+
+		// Get the POS tagsets
+		posEntry = image != null ? new POSEntry(image.getTagToTagSet()) : new POSEntry();
+	}
+
+	/**
+	 * Load a Part-Of-Speech mapping file from the classpath
+	 * 
+	 * @param mappingFileName
+	 *            the name of the mapping file, relative to this class
+	 * @return the mapping
+	 */
+	private static Map<String, String[]> loadPOSMappingFile(String mappingFileName) {
+		InputStream is = BioLemmatizerModel.class.getResourceAsStream(mappingFileName);
+		try {
+			return BioLemmatizer.loadPOSMappingFile(is);
+		} catch (IOException e) {
+			throw new RuntimeException("Unable to load mapping: " + mappingFileName, e);
+		}
+	}
+
+	/**
+	 * Load a model outside the registry
+	 * 
+	 * @param lexiconFile
+	 *            a reference to the lexicon file to use: a text lexicon, a {@link LexiconImage} or a
+	 *            {@link MappedLexicon} file, which keeps the lexicon off the heap. If null, the lexicon that comes
+	 *            with the BioLemmatizer distribution is loaded from the classpath, from its image if there is one
+	 * @return the model
+	 */
+	public static BioLemmatizerModel load(File lexiconFile) {
+		return load(lexiconFile, 1);
+	}
+
+	/**
+	 * Load a model outside the registry, parsing a text lexicon in parallel
+	 * 
+	 * @param lexiconFile
+	 *            a reference to the lexicon file to use, see {@link #load(File)}
+	 * @param loadThreads
+	 *            number of threads loading a text lexicon; the lexicon is the same as when loaded by one thread
+	 * @return the model
+	 */
+	public static BioLemmatizerModel load(File lexiconFile, int loadThreads) {
+		try {
+			return new BioLemmatizerModel(lexiconFile, loadThreads, true);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Load a model outside the registry from a text lexicon, ignoring the default image on the classpath; used to
+	 * compile images
+	 * 
+	 * @param lexiconFile
+	 *            a reference to the text lexicon file to use; if null, the text lexicon that comes with the
+	 *            BioLemmatizer distribution is loaded from the classpath
+	 * @return the model
+	 */
+	static BioLemmatizerModel loadTextLexicon(File lexiconFile) {
+		try {
+			return new BioLemmatizerModel(lexiconFile, 1, false);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * @return the shared model of the lexicon that comes with the BioLemmatizer distribution, loaded on first use
+	 */
+	public static BioLemmatizerModel getInstance() {
+		return getInstance(null);
+	}
+
+	/**
+	 * Retrieve the shared model of a lexicon file from the registry, loading it on first use. Threads asking for a
+	 * model which is being loaded wait for it, so each lexicon file is loaded once. The registry keeps the model
+	 * until it is released, and does not notice changes of the file.
+	 * 
+	 * @param lexiconFile
+	 *            a reference to the lexicon file to use, see {@link #load(File)}; null for the lexicon that comes
+	 *            with the BioLemmatizer distribution
+	 * @return the model
+	 */
+	public static BioLemmatizerModel getInstance(final File lexiconFile) {
+		String key = registryKey(lexiconFile);
+		FutureTask<BioLemmatizerModel> task = models.get(key);
+		if (task == null) {
+			FutureTask<BioLemmatizerModel> loadTask = new FutureTask<BioLemmatizerModel>(
+					new Callable<BioLemmatizerModel>() {
+						public BioLemmatizerModel call() {
+							return load(lexiconFile);
+						}
+					});
+			task = models.putIfAbsent(key, loadTask);
+			if (task == null) {
+				task = loadTask;
+				loadTask.run();
+			}
+		}
+		try {
+			return task.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted while loading the lemmatizer model", e);
+		} catch (ExecutionException e) {
+			// a failed load is not kept, so that it can be retried
+			models.remove(key, task);
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new RuntimeException(e.getCause());
+		}
+	}
+
+	/**
+	 * Remove the model of a lexicon file from the registry. Lemmatizers created from it keep using it; the next
+	 * {@link #getInstance(File)} loads the file again.
+	 * 
+	 * @param lexiconFile
+	 *            a reference to the lexicon file, null for the lexicon that comes with the BioLemmatizer
+	 *            distribution
+	 * @return true if the registry held a model of the file
+	 */
+	public static boolean release(File lexiconFile) {
+		return models.remove(registryKey(lexiconFile)) != null;
+	}
+
+	/**
+	 * @param lexiconFile
+	 *            a reference to a lexicon file, may be null
+	 * @return the key of the model of the file in the registry
+	 */
+	private static String registryKey(File lexiconFile) {
+		if (lexiconFile == null)
+			return "";
+		try {
+			return lexiconFile.getCanonicalPath();
+		} catch (IOException e) {
+			return lexiconFile.getAbsolutePath();
+		}
+	}
+
+	/**
+	 * @return a read-only view of the word lexicon, see {@link ReadOnlyLexicon}
+	 */
+	public Lexicon getWordLexicon() {
+		return readOnlyWordLexicon;
+	}
+
+	/**
+	 * @return the NUPOS tags of the word lexicon
+	 */
+	PartOfSpeechTags getPartOfSpeechTags() {
+		return partOfSpeechTags;
+	}
+
+	/**
+	 * @return the hierachical mapping from Penn Treebank POS tags to NUPOS tags
+	 */
+	Map<String, String[]> getMappingPennPOStoNUPOS() {
+		return mappingPennPOStoNUPOS;
+	}
+
+	/**
+	 * @return the hierachical mapping from major classes to Penn Treebank POS tags
+	 */
+	Map<String, String[]> getMappingMajorClasstoPennPOS() {
+		return mappingMajorClasstoPennPOS;
+	}
+
+	/**
+	 * @return the precomputed lookups over the two POS mappings; the public lookups return unmodifiable views
+	 */
+	public PosHierarchy getPosHierarchy() {
+		return posHierarchy;
+	}
+
+	/**
+	 * Retrieve the tagset label of a POS tag
+	 * 
+	 * @param partOfSpeech
+	 *            a POS tag
+	 * @return PennPOS, NUPOS or NONE
+	 */
+	public String getTagSetLabel(String partOfSpeech) {
+		return posEntry.getTagSetLabel(partOfSpeech);
+	}
+
+	/**
+	 * Retrieve an array of corresponding NUPOS tags of a Penn Treebank POS tag
+	 * 
+	 * @param partOfSpeech
+	 *            a POS tag
+	 * @return an array of corresponding NUPOS tags;
+	 */
+	private String[] getNUPOSTagFromPennPOS(String partOfSpeech) {
+		return posHierarchy.getNUPOSTags(partOfSpeech);
+	}
+
+	/**
+	 * Retrieve an array of corresponding Penn Treebank POS tags of a NUPOS tag
+	 * 
+	 * @param partOfSpeech
+	 *            a POS tag
+	 * @return an array of corresponding Penn Treebank POS tags;
+	 */
+	private String[] getPennPOSFromNUPOS(String partOfSpeech) {
+		return posHierarchy.getPennPOSTags(partOfSpeech);
+	}
+
+	/**
+	 * Retrieve sibling Penn Treebank POS tags of a Penn Treebank POS tag from the POS hierarchy
+	 * 
+	 * @param partOfSpeech
+	 *            a Penn Treebank POS tag
+	 * @return sibling Penn Treebank POS tags of the Penn Treebank POS tag
+	 */
+	private String[] getSiblingPennPOSTag(String partOfSpeech) {
+		return posHierarchy.getSiblingPennPOSTags(partOfSpeech);
+	}
+
+	/**
+	 * Retrieve sibling NUPOS tags of a Penn Treebank POS tag from the POS hierarchy
+	 * 
+	 * @param partOfSpeech
+	 *            a Penn Treebank POS tag
+	 * @return sibling NUPOS tags of the Penn Treebank POS tag
+	 */
+	private String[] getSiblingNUPOSTag(String partOfSpeech) {
+		return posHierarchy.getSiblingNUPOSTags(partOfSpeech);
+	}
+
+	/**
+	 * Retrieve the canonical copy of a lemma or POS tag, so that equal results share their strings. Once
+	 * MAX_CANONICAL_STRINGS strings are held, new strings are returned as they are.
+	 * 
+	 * @param string
+	 *            a lemma or POS tag
+	 * @return the canonical copy of the string
+	 */
+	String canonicalString(String string) {
+		String canonical = canonicalStrings.get(string);
+		if (canonical != null)
+			return canonical;
+		if (canonicalStrings.size() >= MAX_CANONICAL_STRINGS)
+			return string;
+		canonical = canonicalStrings.putIfAbsent(string, string);
+		return canonical != null ? canonical : string;
+	}
+
+	/**
+	 * Retrieve the compiled lexicon lookup plan of a POS tag
+	 * 
+	 * @param partOfSpeech
+	 *            a POS tag
+	 * @return the lookup plan, compiled on first use and cached
+	 */
+	LexiconLookupPlan getLookupPlan(String partOfSpeech) {
+		LexiconLookupPlan plan = lookupPlans.get(partOfSpeech);
+		if (plan == null) {
+			plan = compileLookupPlan(partOfSpeech);
+			// unexpected tags are not cached to keep the cache bounded
+			if (lookupPlans.size() < MAX_LOOKUP_PLANS) {
+				LexiconLookupPlan cachedPlan = lookupPlans.putIfAbsent(partOfSpeech, plan);
+				if (cachedPlan != null)
+					plan = cachedPlan;
+			}
+		}
+		return plan;
+	}
+
+	/**
+	 * Compile the lexicon lookup plan of a POS tag
+	 * 
+	 * @param partOfSpeech
+	 *            a POS tag
+	 * @return the lookup plan
+	 */
+	private LexiconLookupPlan compileLookupPlan(String partOfSpeech) {
+		// check the POS tagset
+		String tagSetLabel = posEntry.getTagSetLabel(partOfSpeech);
+		String[] nuPOSTag = getNUPOSTagFromPennPOS(partOfSpeech);
+
+		// a category which has already failed fails again, so only its
+		// first occurrence is kept, with the resolution path it is found by
+		Map<String, ResolutionPath> categories = new LinkedHashMap<String, ResolutionPath>();
+		if (tagSetLabel.equals("PennPOS")) {
+			// direct PennPOS tag search
+			addCategories(categories, new String[] { partOfSpeech }, ResolutionPath.PENN_DIRECT);
+			// PennPOS tag hierachical search
+			addCategories(categories, getSiblingPennPOSTag(partOfSpeech), ResolutionPath.PENN_SIBLING);
+			// Turn PennPOS tag into NUSPOS tag and search
+			addCategories(categories, nuPOSTag, ResolutionPath.NUPOS_CONVERTED);
+			// NUSPOS tag hierachical search
+			addCategories(categories, getSiblingNUPOSTag(partOfSpeech), ResolutionPath.NUPOS_SIBLING);
+		} else if (tagSetLabel.equals("NUPOS")) {
+			// direct NUPOS tag search
+			addCategories(categories, new String[] { partOfSpeech }, ResolutionPath.NUPOS_DIRECT);
+			// NUPOS tag hierachical search
+			addCategories(categories, getSiblingNUPOSTag(getPennPOSFromNUPOS(partOfSpeech)[0]),
+					ResolutionPath.NUPOS_SIBLING);
+		}
+
+		// Get lemmatization word class for part of speech,
+		String lemmaClass = "";
+		for (String pos : nuPOSTag) {
+			lemmaClass = partOfSpeechTags.getLemmaWordClass(pos);
+			if (lemmaClass.length() != 0) {
+				break;
+			}
+		}
+
+		return new LexiconLookupPlan(tagSetLabel, categories.keySet().toArray(new String[categories.size()]), categories
+				.values().toArray(new ResolutionPath[categories.size()]), lemmaClass);
+	}
+
+	/**
+	 * Add the categories of a lookup plan which are not in it yet
+	 * 
+	 * @param categories
+	 *            the categories of the plan with their resolution paths, in order
+	 * @param tags
+	 *            POS tags to add
+	 * @param path
+	 *            the resolution path of the POS tags
+	 */
+	private static void addCategories(Map<String, ResolutionPath> categories, String[] tags, ResolutionPath path) {
+		for (String tag : tags) {
+			if (!categories.containsKey(tag))
+				categories.put(tag, path);
+		}
+	}
+}
@@ -0,0 +1,711 @@
+/*
+ Copyright (c) 2012, Regents of the University of Colorado
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without modification, 
+ are permitted provided that the following conditions are met:
+
+  * Redistributions of source code must retain the above copyright notice, this 
+    list of conditions and the following disclaimer.
+   
+  * Redistributions in binary form must reproduce the above copyright notice, 
+    this list of conditions and the following disclaimer in the documentation 
+    and/or other materials provided with the distribution.
+   
+  * Neither the name of the University of Colorado nor the names of its 
+    contributors may be used to endorse or promote products derived from this 
+    software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND 
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED 
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; 
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON 
+ ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT 
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS 
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.ucdenver.ccp.nlp.biolemmatizer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import edu.northwestern.at.morphadorner.corpuslinguistics.adornedword.AdornedWord;
+import edu.northwestern.at.morphadorner.corpuslinguistics.lexicon.DefaultLexicon;
+import edu.northwestern.at.morphadorner.corpuslinguistics.lexicon.Lexicon;
+import edu.northwestern.at.morphadorner.corpuslinguistics.partsofspeech.NUPOSPartOfSpeechTags;
+import edu.northwestern.at.morphadorner.corpuslinguistics.partsofspeech.PartOfSpeechTags;
+import edu.northwestern.at.morphadorner.corpuslinguistics.partsofspeech.PennTreebankPartOfSpeechTags;
+import edu.northwestern.at.morphadorner.corpuslinguistics.postagger.PartOfSpeechTagger;
+import edu.northwestern.at.morphadorner.corpuslinguistics.postagger.guesser.DefaultPartOfSpeechGuesser;
+import edu.northwestern.at.morphadorner.corpuslinguistics.postagger.transitionmatrix.DenseTransitionMatrix;
+import edu.northwestern.at.morphadorner.corpuslinguistics.postagger.trigram.TrigramTagger;
+import edu.northwestern.at.morphadorner.corpuslinguistics.sentencesplitter.DefaultSentenceSplitter;
+import edu.northwestern.at.morphadorner.corpuslinguistics.sentencesplitter.SentenceSplitter;
+import edu.northwestern.at.morphadorner.corpuslinguistics.tokenizer.DefaultWordTokenizer;
+import edu.northwestern.at.morphadorner.corpuslinguistics.tokenizer.PennTreebankTokenizer;
+import edu.northwestern.at.morphadorner.corpuslinguistics.tokenizer.WordTokenizer;
+
+/**
+ * BioLemmatizerPipeline: lemmatize raw text. The text is split into sentences and tokenized with MorphAdorner, the
+ * tokens are tagged with a MorphAdorner part-of-speech tagger, and each token is lemmatized by a {@link BioLemmatizer}
+ * with its part-of-speech tag.
+ * <p>
+ * Texts are read incrementally in blocks of whole paragraphs (paragraphs are separated by blank lines), and the blocks
+ * are lemmatized on a pool of worker threads. The sentences are handed to a {@link SentenceHandler} in text order, and
+ * at most two blocks per thread are held in memory, so memory use does not grow with the length of the text.
+ * <p>
+ * A pipeline may be shared between threads: the tagger and the lemmatizer are thread-safe, and each thread uses its
+ * own sentence splitter and tokenizer. The part-of-speech guesser of the taggers created by
+ * {@link #createPartOfSpeechTagger(TagSet, URL, URL, URL)} does not cache its guesses, so the tags of words missing from
+ * the lexicon do not depend on the words tagged before, and the results do not depend on the number of threads.
+ */
+public class BioLemmatizerPipeline {
+	/** Default number of characters of a block of text lemmatized together by one thread */
+	public static final int DEFAULT_BLOCK_SIZE = 16384;
+
+	/** Paragraph separator: a line break, optionally followed by blank lines, and a line break */
+	private static final Pattern PARAGRAPH_BREAK = Pattern.compile("\\n\\s*\\n");
+
+	/**
+	 * Part-of-speech tag sets, with the tokenizer matching the tokenization of the corpus the tagger was trained on
+	 */
+	public enum TagSet {
+		/** The NUPOS tag set; the default MorphAdorner lexicons and transition matrix use it */
+		NUPOS("lexicon/resources/nupos.lex", "lexicon/resources/nupossuffix.lex",
+				"postagger/transitionmatrix/resources/nupostransitionmatrix.mat"),
+		/** The Penn Treebank tag set; no lexicons are available for it on the classpath */
+		PENN_TREEBANK(null, null, "postagger/transitionmatrix/resources/penntreebanktransitionmatrix.mat");
+
+		/** Resource path of the default word lexicon, or null */
+		private final String wordLexiconPath;
+
+		/** Resource path of the default suffix lexicon, or null */
+		private final String suffixLexiconPath;
+
+		/** Resource path of the default transition matrix */
+		private final String transitionMatrixPath;
+
+		private TagSet(String wordLexiconPath, String suffixLexiconPath, String transitionMatrixPath) {
+			this.wordLexiconPath = wordLexiconPath;
+			this.suffixLexiconPath = suffixLexiconPath;
+			this.transitionMatrixPath = transitionMatrixPath;
+		}
+
+		/**
+		 * @return the default word lexicon of the tag set, or null if there is none on the classpath
+		 */
+		public URL getDefaultWordLexicon() {
+			return getResource(wordLexiconPath);
+		}
+
+		/**
+		 * @return the default suffix lexicon of the tag set, or null if there is none on the classpath
+		 */
+		public URL getDefaultSuffixLexicon() {
+			return getResource(suffixLexiconPath);
+		}
+
+		/**
+		 * @return the default transition matrix of the tag set, or null if there is none on the classpath
+		 */
+		public URL getDefaultTransitionMatrix() {
+			return getResource(transitionMatrixPath);
+		}
+
+		/**
+		 * @return a new list of the tags of the tag set
+		 * @throws IOException
+		 */
+		public PartOfSpeechTags newPartOfSpeechTags() throws IOException {
+			return (this == PENN_TREEBANK) ? new PennTreebankPartOfSpeechTags() : new NUPOSPartOfSpeechTags();
+		}
+
+		/**
+		 * @return a new tokenizer splitting words the way the tagged corpora of the tag set do
+		 */
+		public WordTokenizer newWordTokenizer() {
+			return (this == PENN_TREEBANK) ? new PennTreebankTokenizer() : new DefaultWordTokenizer();
+		}
+
+		/**
+		 * @return the resource at a path relative to the MorphAdorner corpus linguistics package, or null
+		 */
+		private static URL getResource(String path) {
+			return (path != null) ? TagSet.class.getResource("/edu/northwestern/at/morphadorner/corpuslinguistics/"
+					+ path) : null;
+		}
+	}
+
+	/**
+	 * Receives the lemmatized sentences of a text, in text order
+	 */
+	public interface SentenceHandler {
+		/**
+		 * @param sentence
+		 *            the lemmatized tokens of one sentence
+		 * @throws IOException
+		 */
+		void handleSentence(List<LemmatizedToken> sentence) throws IOException;
+	}
+
+	/** Lemmatizer of the tagged tokens */
+	private final BioLemmatizer bioLemmatizer;
+
+	/** Part-of-speech tagger, shared by all threads */
+	private final PartOfSpeechTagger partOfSpeechTagger;
+
+	/** Tag set of the part-of-speech tagger */
+	private final TagSet tagSet;
+
+	/** Sentence splitter of each thread */
+	private final ThreadLocal<SentenceSplitter> sentenceSplitters = new ThreadLocal<SentenceSplitter>() {
+		@Override
+		protected SentenceSplitter initialValue() {
+			SentenceSplitter sentenceSplitter = new DefaultSentenceSplitter();
+			sentenceSplitter.setPartOfSpeechGuesser(partOfSpeechTagger.getPartOfSpeechGuesser());
+			return sentenceSplitter;
+		}
+	};
+
+	/** Word tokenizer of each thread */
+	private final ThreadLocal<WordTokenizer> wordTokenizers = new ThreadLocal<WordTokenizer>() {
+		@Override
+		protected WordTokenizer initialValue() {
+			return tagSet.newWordTokenizer();
+		}
+	};
+
+	/** Number of characters of a block of text lemmatized together by one thread */
+	private int blockSize = DEFAULT_BLOCK_SIZE;
+
+	/**
+	 * Create a pipeline tagging with the default NUPOS lexicons and transition matrix
+	 * 
+	 * @param bioLemmatizer
+	 *            the lemmatizer of the tagged tokens
+	 * @throws IOException
+	 *             if the lexicons or the transition matrix cannot be loaded
+	 */
+	public BioLemmatizerPipeline(BioLemmatizer bioLemmatizer) throws IOException {
+		this(bioLemmatizer, createPartOfSpeechTagger(TagSet.NUPOS, null, null, null), TagSet.NUPOS);
+	}
+
+	/**
+	 * Create a pipeline
+	 * 
+	 * @param bioLemmatizer
+	 *            the lemmatizer of the tagged tokens
+	 * @param partOfSpeechTagger
+	 *            the part-of-speech tagger, with a part-of-speech guesser; it must be safe to share between threads if
+	 *            texts are lemmatized by more than one thread, and its guesses should not depend on the words guessed before if
+	 *            the results must not depend on the number of threads
+	 * @param tagSet
+	 *            the tag set of the part-of-speech tagger
+	 */
+	public BioLemmatizerPipeline(BioLemmatizer bioLemmatizer, PartOfSpeechTagger partOfSpeechTagger, TagSet tagSet) {
+		this.bioLemmatizer = bioLemmatizer;
+		this.partOfSpeechTagger = partOfSpeechTagger;
+		this.tagSet = tagSet;
+	}
+
+	/**
+	 * Create a trigram part-of-speech tagger. Its part-of-speech guesser does not cache guesses, which would make the
+	 * guess for a word depend on the words guessed before; the tagger still keeps the guesses in its dynamic lexicon.
+	 * 
+	 * @param tagSet
+	 *            the tag set of the lexicons and the transition matrix
+	 * @param wordLexicon
+	 *            the word lexicon; if null, the default word lexicon of the tag set is used
+	 * @param suffixLexicon
+	 *            the suffix lexicon; if null, the default suffix lexicon of the tag set is used
+	 * @param transitionMatrix
+	 *            the transition matrix, in the text format or in the binary format of {@link DenseTransitionMatrix}
+	 *            ; if null, the default transition matrix of the tag set is used
+	 * @return the tagger
+	 * @throws IOException
+	 *             if the lexicons or the transition matrix cannot be loaded
+	 * @throws IllegalArgumentException
+	 *             if a resource is null and the tag set has no default for it
+	 */
+	public static PartOfSpeechTagger createPartOfSpeechTagger(TagSet tagSet, URL wordLexicon, URL suffixLexicon,
+			URL transitionMatrix) throws IOException {
+		Lexicon words = loadLexicon(tagSet, (wordLexicon != null) ? wordLexicon : tagSet.getDefaultWordLexicon(),
+				"word lexicon");
+		Lexicon suffixes = loadLexicon(tagSet, (suffixLexicon != null) ? suffixLexicon : tagSet
+				.getDefaultSuffixLexicon(), "suffix lexicon");
+		if (transitionMatrix == null) {
+			transitionMatrix = tagSet.getDefaultTransitionMatrix();
+		}
+		if (transitionMatrix == null) {
+			throw new IllegalArgumentException("No default transition matrix is available for the " + tagSet
+					+ " tag set");
+		}
+		DenseTransitionMatrix matrix = new DenseTransitionMatrix();
+		if (transitionMatrix.getPath().endsWith(DenseTransitionMatrix.BINARY_FILE_EXTENSION)) {
+			matrix.loadBinaryTransitionMatrix(transitionMatrix);
+		} else {
+			matrix.loadTransitionMatrix(transitionMatrix, "utf-8", '\t');
+		}
+		DefaultPartOfSpeechGuesser guesser = new DefaultPartOfSpeechGuesser();
+		guesser.setWordLexicon(words);
+		guesser.setSuffixLexicon(suffixes);
+		guesser.setCacheWords(false);
+		TrigramTagger tagger = new TrigramTagger();
+		tagger.setLexicon(words);
+		tagger.setTransitionMatrix(matrix);
+		tagger.setPartOfSpeechGuesser(guesser);
+		return tagger;
+	}
+
+	/**
+	 * Load a part-of-speech lexicon
+	 * 
+	 * @return the lexicon
+	 */
+	private static Lexicon loadLexicon(TagSet tagSet, URL url, String description) throws IOException {
+		if (url == null) {
+			throw new IllegalArgumentException("No default " + description + " is available for the " + tagSet
+					+ " tag set");
+		}
+		Lexicon lexicon = new DefaultLexicon();
+		lexicon.setPartOfSpeechTags(tagSet.newPartOfSpeechTags());
+		lexicon.loadLexicon(url, "utf-8");
+		return lexicon;
+	}
+
+	/**
+	 * @return the lemmatizer of the tagged tokens
+	 */
+	public BioLemmatizer getBioLemmatizer() {
+		return bioLemmatizer;
+	}
+
+	/**
+	 * @return the part-of-speech tagger
+	 */
+	public PartOfSpeechTagger getPartOfSpeechTagger() {
+		return partOfSpeechTagger;
+	}
+
+	/**
+	 * @return the tag set of the part-of-speech tagger
+	 */
+	public TagSet getTagSet() {
+		return tagSet;
+	}
+
+	/**
+	 * @return the number of characters of a block of text lemmatized together by one thread
+	 */
+	public int getBlockSize() {
+		return blockSize;
+	}
+
+	/**
+	 * Set the number of characters of a block of text lemmatized together by one thread. Blocks end at a paragraph
+	 * break after this number of characters; a paragraph longer than twice the block size is cut between two of its
+	 * sentences.
+	 * 
+	 * @param blockSize
+	 *            number of characters, at least 1
+	 */
+	public void setBlockSize(int blockSize) {
+		if (blockSize < 1) {
+			throw new IllegalArgumentException("Block size must be at least 1: " + blockSize);
+		}
+		this.blockSize = blockSize;
+	}
+
+	/**
+	 * Lemmatize a text
+	 * 
+	 * @param text
+	 *            the text
+	 * @return the lemmatized sentences of the text
+	 */
+	public List<List<LemmatizedToken>> lemmatizeText(String text) {
+		return lemmatizeText(text, 0);
+	}
+
+	/**
+	 * Lemmatize a text which is part of a larger text; each paragraph is split into sentences separately
+	 * 
+	 * @param text
+	 *            the text
+	 * @param offset
+	 *            offset of the text in the larger text, added to the offsets of the tokens
+	 * @return the lemmatized sentences of the text
+	 */
+	public List<List<LemmatizedToken>> lemmatizeText(String text, long offset) {
+		List<List<LemmatizedToken>> sentences = new ArrayList<List<LemmatizedToken>>();
+		Matcher paragraphBreak = PARAGRAPH_BREAK.matcher(text);
+		int paragraphStart = 0;
+		while (paragraphBreak.find()) {
+			lemmatizeParagraph(text.substring(paragraphStart, paragraphBreak.start()), offset + paragraphStart,
+					sentences);
+			paragraphStart = paragraphBreak.end();
+		}
+		lemmatizeParagraph(text.substring(paragraphStart), offset + paragraphStart, sentences);
+		return sentences;
+	}
+
+	/**
+	 * Lemmatize a text read incrementally; the text is lemmatized in blocks of whole paragraphs on a pool of worker
+	 * threads
+	 * 
+	 * @param input
+	 *            reader of the text; it is not closed
+	 * @param handler
+	 *            receives the lemmatized sentences, in text order, on the calling thread
+	 * @param threads
+	 *            number of worker threads; if at most 1, the text is lemmatized on the calling thread
+	 * @throws IOException
+	 *             if the text cannot be read, or the handler fails
+	 */
+	public void lemmatizeText(Reader input, SentenceHandler handler, int threads) throws IOException {
+		TextBlockReader blocks = new TextBlockReader(input, blockSize, sentenceSplitters.get(), wordTokenizers.get());
+		if (threads <= 1) {
+			String block;
+			while ((block = blocks.readBlock()) != null) {
+				handleSentences(lemmatizeText(block, blocks.getBlockOffset()), handler);
+			}
+			return;
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		Queue<Future<List<List<LemmatizedToken>>>> pendingBlocks = new LinkedList<Future<List<List<LemmatizedToken>>>>();
+		try {
+			String block;
+			while ((block = blocks.readBlock()) != null) {
+				final String text = block;
+				final long offset = blocks.getBlockOffset();
+				pendingBlocks.add(executor.submit(new Callable<List<List<LemmatizedToken>>>() {
+					public List<List<LemmatizedToken>> call() {
+						return lemmatizeText(text, offset);
+					}
+				}));
+				if (pendingBlocks.size() >= 2 * threads) {
+					handleSentences(getBlockResult(pendingBlocks.remove()), handler);
+				}
+			}
+			while (!pendingBlocks.isEmpty()) {
+				handleSentences(getBlockResult(pendingBlocks.remove()), handler);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Split a paragraph into sentences, tag them and lemmatize the tokens
+	 * 
+	 * @param paragraph
+	 *            the paragraph
+	 * @param offset
+	 *            offset of the paragraph in the text
+	 * @param sentences
+	 *            receives the lemmatized sentences
+	 */
+	private void lemmatizeParagraph(String paragraph, long offset, List<List<LemmatizedToken>> sentences) {
+		if (paragraph.trim().length() == 0) {
+			return;
+		}
+		List<List<String>> tokenizedSentences = sentenceSplitters.get().extractSentences(paragraph,
+				wordTokenizers.get());
+		List<List<AdornedWord>> taggedSentences = partOfSpeechTagger.tagSentences(tokenizedSentences);
+
+		int tokenCount = 0;
+		for (List<String> sentence : tokenizedSentences) {
+			tokenCount += sentence.size();
+		}
+		String[] spellings = new String[tokenCount];
+		String[] partsOfSpeech = new String[tokenCount];
+		int i = 0;
+		for (List<AdornedWord> sentence : taggedSentences) {
+			for (AdornedWord word : sentence) {
+				spellings[i] = BioLemmatizer.unicodeHandler(word.getToken());
+				partsOfSpeech[i] = word.getPartsOfSpeech();
+				i++;
+			}
+		}
+		LemmataEntry[] lemmata = bioLemmatizer.lemmatizeByLexiconAndRules(spellings, partsOfSpeech);
+
+		int position = 0;
+		i = 0;
+		for (List<String> sentence : tokenizedSentences) {
+			List<LemmatizedToken> lemmatizedSentence = new ArrayList<LemmatizedToken>(sentence.size());
+			for (String token : sentence) {
+				int start = skipWhitespace(paragraph, position);
+				position = skipToken(paragraph, start, token);
+				lemmatizedSentence.add(new LemmatizedToken(token, partsOfSpeech[i], lemmata[i], offset + start, offset
+						+ position));
+				i++;
+			}
+			if (!lemmatizedSentence.isEmpty()) {
+				sentences.add(Collections.unmodifiableList(lemmatizedSentence));
+			}
+		}
+	}
+
+	/**
+	 * @return the position of the first non-whitespace character at or after a position
+	 */
+	private static int skipWhitespace(String text, int position) {
+		while (position < text.length() && isWhitespace(text.charAt(position))) {
+			position++;
+		}
+		return position;
+	}
+
+	/**
+	 * Find the end of a token in a text. If the tokenizer has changed the characters of the token, as many
+	 * non-whitespace characters as the token has are skipped.
+	 * 
+	 * @return the position just after the token
+	 */
+	private static int skipToken(String text, int start, String token) {
+		if (text.startsWith(token, start)) {
+			return start + token.length();
+		}
+		int characters = 0;
+		for (int i = 0; i < token.length(); i++) {
+			if (!isWhitespace(token.charAt(i))) {
+				characters++;
+			}
+		}
+		int position = start;
+		while (position < text.length() && characters > 0) {
+			if (!isWhitespace(text.charAt(position))) {
+				characters--;
+			}
+			position++;
+		}
+		return position;
+	}
+
+	/**
+	 * @return true if a character is a whitespace or a space character
+	 */
+	private static boolean isWhitespace(char c) {
+		return Character.isWhitespace(c) || Character.isSpaceChar(c);
+	}
+
+	/**
+	 * Hand the lemmatized sentences of a block to a handler
+	 */
+	private static void handleSentences(List<List<LemmatizedToken>> sentences, SentenceHandler handler)
+			throws IOException {
+		for (List<LemmatizedToken> sentence : sentences) {
+			handler.handleSentence(sentence);
+		}
+	}
+
+	/**
+	 * Wait for a lemmatized block of text
+	 * 
+	 * @return the lemmatized sentences of the block
+	 */
+	private static List<List<LemmatizedToken>> getBlockResult(Future<List<List<LemmatizedToken>>> blockResult)
+			throws IOException {
+		try {
+			return blockResult.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while lemmatizing the text");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new RuntimeException(e.getCause());
+		}
+	}
+
+	/**
+	 * TextBlockReader: read a text in blocks of whole paragraphs, or of whole sentences of a long paragraph, keeping
+	 * track of the offset of each block
+	 */
+	static class TextBlockReader {
+		/** Maximum number of characters of a block, in block sizes, when one sentence fills the block */
+		static final int MAX_BLOCK_SIZES = 16;
+
+		/** Reader of the text */
+		private final Reader reader;
+
+		/** Minimum number of characters of a block, unless the text ends */
+		private final int blockSize;
+
+		/** Sentence splitter finding the sentences of long paragraphs */
+		private final SentenceSplitter sentenceSplitter;
+
+		/** Word tokenizer of the sentence splitter */
+		private final WordTokenizer wordTokenizer;
+
+		/** Characters read but not returned yet */
+		private final StringBuilder buffer = new StringBuilder();
+
+		/** Read buffer */
+		private final char[] chars = new char[8192];
+
+		/** True if the end of the text has been read */
+		private boolean endOfText = false;
+
+		/** Offset of the first character of the buffer in the text */
+		private long bufferOffset = 0;
+
+		/** Offset of the last block returned */
+		private long blockOffset = 0;
+
+		/**
+		 * Constructor to initialize the class fields
+		 * 
+		 * @param reader
+		 *            reader of the text
+		 * @param blockSize
+		 *            minimum number of characters of a block, unless the text ends
+		 * @param sentenceSplitter
+		 *            sentence splitter finding the sentences of paragraphs longer than twice blockSize
+		 * @param wordTokenizer
+		 *            word tokenizer of the sentence splitter
+		 */
+		TextBlockReader(Reader reader, int blockSize, SentenceSplitter sentenceSplitter, WordTokenizer wordTokenizer) {
+			this.reader = reader;
+			this.blockSize = blockSize;
+			this.sentenceSplitter = sentenceSplitter;
+			this.wordTokenizer = wordTokenizer;
+		}
+
+		/**
+		 * Read the next block. A block ends at the first paragraph break after blockSize characters. If there is no
+		 * such break within twice blockSize characters, the unfinished last sentence is left for the next block: the
+		 * block ends where the last sentence within twice blockSize characters starts, or else at the last paragraph
+		 * break. If one sentence fills the block, the block is extended until a sentence ends in it; a sentence
+		 * longer than {@link #MAX_BLOCK_SIZES} block sizes is cut at the last line break, or else at the last
+		 * whitespace character.
+		 * 
+		 * @return the block, or null at the end of the text
+		 * @throws IOException
+		 */
+		String readBlock() throws IOException {
+			int limit = 2 * blockSize;
+			int end;
+			do {
+				fillBuffer(limit);
+				if (buffer.length() == 0) {
+					return null;
+				}
+				end = findBlockEnd(Math.min(limit, buffer.length()), limit >= MAX_BLOCK_SIZES * blockSize);
+				limit *= 2;
+			} while (end == 0);
+			String block = buffer.substring(0, end);
+			buffer.delete(0, end);
+			blockOffset = bufferOffset;
+			bufferOffset += end;
+			return block;
+		}
+
+		/**
+		 * @return the offset of the last block returned by {@link #readBlock()}
+		 */
+		long getBlockOffset() {
+			return blockOffset;
+		}
+
+		/**
+		 * Read the text until the buffer holds a number of characters or the text ends
+		 */
+		private void fillBuffer(int length) throws IOException {
+			while (!endOfText && buffer.length() < length) {
+				int count = reader.read(chars);
+				if (count < 0) {
+					endOfText = true;
+				} else {
+					buffer.append(chars, 0, count);
+				}
+			}
+		}
+
+		/**
+		 * @param limit
+		 *            maximum end of the block
+		 * @param cutSentence
+		 *            true if a sentence filling the block may be cut
+		 * @return the end of the next block in the buffer, or 0 if the block has to be extended
+		 */
+		private int findBlockEnd(int limit, boolean cutSentence) {
+			if (endOfText && buffer.length() <= blockSize) {
+				return buffer.length();
+			}
+			Matcher paragraphBreak = PARAGRAPH_BREAK.matcher(buffer);
+			paragraphBreak.region(0, limit);
+			int paragraphStart = 0;
+			while (paragraphBreak.find()) {
+				if (paragraphBreak.end() >= blockSize) {
+					return paragraphBreak.end();
+				}
+				paragraphStart = paragraphBreak.end();
+			}
+			if (endOfText && buffer.length() <= limit) {
+				return buffer.length();
+			}
+			int sentenceStart = findLastSentenceStart(paragraphStart, limit);
+			if (sentenceStart > 0) {
+				return sentenceStart;
+			}
+			if (!cutSentence) {
+				return 0;
+			}
+			for (int i = limit - 1; i > 0; i--) {
+				if (buffer.charAt(i) == '\n') {
+					return i + 1;
+				}
+			}
+			for (int i = limit - 1; i > 0; i--) {
+				if (isWhitespace(buffer.charAt(i))) {
+					return i + 1;
+				}
+			}
+			return Character.isHighSurrogate(buffer.charAt(limit - 1)) ? limit - 1 : limit;
+		}
+
+		/**
+		 * Find where the last sentence of a paragraph starts
+		 * 
+		 * @param paragraphStart
+		 *            start of the paragraph in the buffer
+		 * @param paragraphEnd
+		 *            end of the paragraph in the buffer
+		 * @return the start of the last sentence in the buffer, or the start of the paragraph if the paragraph has
+		 *         only one sentence
+		 */
+		private int findLastSentenceStart(int paragraphStart, int paragraphEnd) {
+			String paragraph = buffer.substring(paragraphStart, paragraphEnd);
+			List<List<String>> sentences = sentenceSplitter.extractSentences(paragraph, wordTokenizer);
+			if (sentences.size() < 2) {
+				return paragraphStart;
+			}
+			int position = 0;
+			for (int i = 0; i < sentences.size() - 1; i++) {
+				for (String token : sentences.get(i)) {
+					position = skipToken(paragraph, skipWhitespace(paragraph, position), token);
+				}
+			}
+			return paragraphStart + skipWhitespace(paragraph, position);
+		}
+	}
+
+}
@@ -0,0 +1,90 @@
+/*
+ Copyright (c) 2012, Regents of the University of Colorado
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without modification, 
+ are permitted provided that the following conditions are met:
+
+  * Redistributions of source code must retain the above copyright notice, this 
+    list of conditions and the following disclaimer.
+   
+  * Redistributions in binary form must reproduce the above copyright notice, 
+    this list of conditions and the following disclaimer in the documentation 
+    and/or other materials provided with the distribution.
+   
+  * Neither the name of the University of Colorado nor the names of its 
+    contributors may be used to endorse or promote products derived from this 
+    software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND 
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED 
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; 
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON 
+ ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT 
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS 
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.ucdenver.ccp.nlp.biolemmatizer;
+
+import java.io.File;
+import java.io.IOException;
+
+import edu.northwestern.at.morphadorner.corpuslinguistics.lexicon.DefaultLexicon;
+
+/**
+ * BioWordLexicon: Biomedical word Lexicon which extends MorphAdorner's English word lexicon.
+ */
+class BioWordLexicon extends DefaultLexicon {
+	/** Resource path to word lexicon. */
+	protected static final String lexiconPath = "lexicon.lex";
+
+	/**
+	 * Create an empty lexicon.
+	 * 
+	 * @throws IOException
+	 */
+	public BioWordLexicon(File lexiconFile) throws IOException {
+		this(lexiconFile, 1);
+	}
+
+	/**
+	 * Create a lexicon, loading it with several threads
+	 * 
+	 * @param lexiconFile
+	 *            the lexicon file, null for the default lexicon
+	 * @param loadThreads
+	 *            number of threads parsing the lexicon
+	 * @throws IOException
+	 */
+	public BioWordLexicon(File lexiconFile, int loadThreads) throws IOException {
+		// Create empty lexicon.
+		super();
+		setLoadThreads(loadThreads);
+		if (lexiconFile == null) {
+			// Load default word lexicon.
+			loadLexicon(BioLemmatizer.class.getResource(lexiconPath), "utf-8");
+		} else {
+			loadLexicon(lexiconFile.toURI().toURL(), "utf-8");
+		}
+	}
+
+	/**
+	 * Create a lexicon from a precompiled image
+	 * 
+	 * @param image
+	 *            the image; its lexicon entries are taken over by the lexicon
+	 * @throws IOException
+	 */
+	public BioWordLexicon(LexiconImage image) throws IOException {
+		// Create empty lexicon.
+		super();
+		lexiconMap = image.getLexiconEntries();
+		categoryCountsMap = image.getCategoryCounts();
+		longestEntryLength = image.getLongestEntryLength();
+		shortestEntryLength = image.getShortestEntryLength();
+		computeUniqueEntryCountsForCategories();
+	}
+}
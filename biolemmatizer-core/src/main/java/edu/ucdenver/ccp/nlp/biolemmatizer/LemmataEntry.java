@@ -29,66 +29,145 @@
  */
 package edu.ucdenver.ccp.nlp.biolemmatizer;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
-/** LemmataEntry: store POS tags and corresponding lemmas for one lemmata entry */
+/**
+ * LemmataEntry: store POS tags and corresponding lemmas for one lemmata entry. Entries are immutable and may be shared
+ * between threads; the string representations are computed once, on first use.
+ */
 public class LemmataEntry {
 	/**
-	 * Map to store lemmata info. A POS tag is the key, and the corresponding lemma is the value.
+	 * Unmodifiable map view of the lemmata info. A POS tag is the key, and the corresponding lemma is the value.
 	 */
-	public Map<String, String> lemmasAndCategories;
+	public final Map<String, String> lemmasAndCategories;
 
 	/** Lemma separator character */
 	public static String lemmaSeparator = "||";
 
+	/** POS tags, in the iteration order of the map the entry was created from */
+	private final String[] categories;
+
+	/** Lemmas of the POS tags */
+	private final String[] lemmas;
+
 	/**
 	 * Provides mappings from POS tags to a corresponding tag set name
 	 */
 	private final POSEntry posEntry;
 
+	/** Cached result of {@link #toString()} */
+	private String string;
+
+	/** Cached result of {@link #lemmasToString()} */
+	private String lemmasString;
+
+	/** Cached result of {@link #getLemmas()} */
+	private Collection<Lemma> lemmaCollection;
+
 	/**
 	 * Construtor to initialize the class field
 	 * 
 	 * @param lemmasAndCategories
-	 *            a Map object that stores lemmata info
+	 *            a Map object that stores lemmata info; it is copied
 	 * @param posEntry
 	 *            provides mappings from POS tags to a corresponding tag set name
 	 * 
 	 */
 	public LemmataEntry(Map<String, String> lemmasAndCategories, POSEntry posEntry) {
-		this.lemmasAndCategories = lemmasAndCategories;
+		int size = lemmasAndCategories.size();
+		this.categories = new String[size];
+		this.lemmas = new String[size];
+		int i = 0;
+		for (Map.Entry<String, String> entry : lemmasAndCategories.entrySet()) {
+			categories[i] = entry.getKey();
+			lemmas[i] = entry.getValue();
+			i++;
+		}
+		this.lemmasAndCategories = new LemmataMap();
+		this.posEntry = posEntry;
+	}
+
+	/**
+	 * Construtor for an entry with a single lemma
+	 * 
+	 * @param category
+	 *            the POS tag
+	 * @param lemma
+	 *            the lemma
+	 * @param posEntry
+	 *            provides mappings from POS tags to a corresponding tag set name
+	 */
+	public LemmataEntry(String category, String lemma, POSEntry posEntry) {
+		this.categories = new String[] { category };
+		this.lemmas = new String[] { lemma };
+		this.lemmasAndCategories = new LemmataMap();
 		this.posEntry = posEntry;
 	}
 
+	/**
+	 * Construtor for the results of a lemmatizer; the lemmas and POS tags are replaced by their canonical copies of the
+	 * model
+	 * 
+	 * @param lemmasAndCategories
+	 *            a Map object that stores lemmata info; it is copied
+	 * @param model
+	 *            the model of the lemmatizer
+	 */
+	LemmataEntry(Map<String, String> lemmasAndCategories, BioLemmatizerModel model) {
+		this(lemmasAndCategories, model.posEntry);
+		for (int i = 0; i < lemmas.length; i++) {
+			categories[i] = model.canonicalString(categories[i]);
+			lemmas[i] = model.canonicalString(lemmas[i]);
+		}
+	}
+
+	/**
+	 * Construtor for a result of a lemmatizer with a single lemma; the lemma and POS tag are replaced by their
+	 * canonical copies of the model
+	 * 
+	 * @param category
+	 *            the POS tag
+	 * @param lemma
+	 *            the lemma
+	 * @param model
+	 *            the model of the lemmatizer
+	 */
+	LemmataEntry(String category, String lemma, BioLemmatizerModel model) {
+		this(model.canonicalString(category), model.canonicalString(lemma), model.posEntry);
+	}
+
 	/**
 	 * Override toString() method to represent lemma and POS info in a concatenated triplet;
 	 * Different lemmas are separated by lemmaSeparator
 	 */
 	@Override
 	public String toString() {
-		String lemmas = "*";
-
-		if (!lemmasAndCategories.isEmpty()) {
-			lemmas = "";
-			String lemma;
-			int i = 0;
-			for (String key : lemmasAndCategories.keySet()) {
-				lemma = lemmasAndCategories.get(key) + " " + key + " " + posEntry.getTagSetLabel(key);
-
-				lemmas += lemma;
-
-				if (i < lemmasAndCategories.keySet().size() - 1) {
-					lemmas = lemmas + lemmaSeparator;
+		String result = string;
+		if (result == null) {
+			if (lemmas.length == 0) {
+				result = "*";
+			} else {
+				StringBuilder sb = new StringBuilder();
+				for (int i = 0; i < lemmas.length; i++) {
+					if (i > 0) {
+						sb.append(lemmaSeparator);
+					}
+					sb.append(lemmas[i]).append(' ').append(categories[i]).append(' ')
+							.append(posEntry.getTagSetLabel(categories[i]));
 				}
-				i++;
+				result = sb.toString();
 			}
+			string = result;
 		}
-
-		return lemmas;
+		return result;
 	}
 
 	/**
@@ -97,44 +176,112 @@ public class LemmataEntry {
 	 * @return string representation of lemma info
 	 */
 	public String lemmasToString() {
-		String lemmas = "*";
-
-		if (!lemmasAndCategories.isEmpty()) {
-			lemmas = "";
-			String lemma;
-			int i = 0;
-
-			// remove duplicate lemmas
-			Set<String> checkSet = new HashSet<String>();
-			for (String key : lemmasAndCategories.keySet()) {
-				lemma = lemmasAndCategories.get(key);
-				if (!checkSet.contains(lemma))
+		String result = lemmasString;
+		if (result == null) {
+			if (lemmas.length == 0) {
+				result = "*";
+			} else if (lemmas.length == 1) {
+				result = lemmas[0];
+			} else {
+				// remove duplicate lemmas
+				Set<String> checkSet = new HashSet<String>();
+				for (String lemma : lemmas) {
 					checkSet.add(lemma);
-			}
+				}
 
-			for (String setItem : checkSet) {
-				lemmas += setItem;
-				if (i < checkSet.size() - 1)
-					lemmas = lemmas + lemmaSeparator;
-				i++;
+				StringBuilder sb = new StringBuilder();
+				for (String setItem : checkSet) {
+					if (sb.length() > 0) {
+						sb.append(lemmaSeparator);
+					}
+					sb.append(setItem);
+				}
+				result = sb.toString();
 			}
+			lemmasString = result;
 		}
-
-		return lemmas;
+		return result;
 	}
 
 	/**
-	 * @return a {@link Collection} of unique {@link Lemma} objects
+	 * @return an unmodifiable {@link Collection} of unique {@link Lemma} objects
 	 */
 	public Collection<Lemma> getLemmas() {
-		Set<Lemma> lemmas = new HashSet<Lemma>();
-		for (Entry<String, String> entry : lemmasAndCategories.entrySet()) {
-			String posTag = entry.getKey();
-			String lemma = entry.getValue();
-			String tagSetName = posEntry.getTagSetLabel(posTag);
-			lemmas.add(new Lemma(lemma, posTag, tagSetName));
+		Collection<Lemma> result = lemmaCollection;
+		if (result == null) {
+			Set<Lemma> lemmaSet = new HashSet<Lemma>();
+			for (int i = 0; i < lemmas.length; i++) {
+				lemmaSet.add(new Lemma(lemmas[i], categories[i], posEntry.getTagSetLabel(categories[i])));
+			}
+			result = Collections.unmodifiableSet(lemmaSet);
+			lemmaCollection = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Unmodifiable map view of the POS tag and lemma arrays
+	 */
+	private class LemmataMap extends AbstractMap<String, String> {
+		@Override
+		public int size() {
+			return categories.length;
+		}
+
+		@Override
+		public String get(Object key) {
+			for (int i = 0; i < categories.length; i++) {
+				if (categories[i].equals(key)) {
+					return lemmas[i];
+				}
+			}
+			return null;
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			for (String category : categories) {
+				if (category.equals(key)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		@Override
+		public Set<Map.Entry<String, String>> entrySet() {
+			return new AbstractSet<Map.Entry<String, String>>() {
+				@Override
+				public int size() {
+					return categories.length;
+				}
+
+				@Override
+				public Iterator<Map.Entry<String, String>> iterator() {
+					return new Iterator<Map.Entry<String, String>>() {
+						private int next = 0;
+
+						public boolean hasNext() {
+							return next < categories.length;
+						}
+
+						public Map.Entry<String, String> next() {
+							if (next >= categories.length) {
+								throw new NoSuchElementException();
+							}
+							Map.Entry<String, String> entry = new AbstractMap.SimpleImmutableEntry<String, String>(
+									categories[next], lemmas[next]);
+							next++;
+							return entry;
+						}
+
+						public void remove() {
+							throw new UnsupportedOperationException();
+						}
+					};
+				}
+			};
 		}
-		return lemmas;
 	}
 
 	/**
@@ -0,0 +1,117 @@
+/*
+ Copyright (c) 2012, Regents of the University of Colorado
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without modification, 
+ are permitted provided that the following conditions are met:
+
+  * Redistributions of source code must retain the above copyright notice, this 
+    list of conditions and the following disclaimer.
+   
+  * Redistributions in binary form must reproduce the above copyright notice, 
+    this list of conditions and the following disclaimer in the documentation 
+    and/or other materials provided with the distribution.
+   
+  * Neither the name of the University of Colorado nor the names of its 
+    contributors may be used to endorse or promote products derived from this 
+    software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND 
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED 
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; 
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON 
+ ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT 
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS 
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.ucdenver.ccp.nlp.biolemmatizer;
+
+/**
+ * LemmatizedToken: one token of a text lemmatized by a {@link BioLemmatizerPipeline}, with its part-of-speech tag,
+ * its lemmata and its character offsets in the text. Tokens are immutable and may be shared between threads.
+ */
+public class LemmatizedToken {
+	/** The token, as extracted from the text */
+	private final String token;
+
+	/** The part-of-speech tag assigned to the token by the part-of-speech tagger */
+	private final String partOfSpeech;
+
+	/** The lemmata of the token */
+	private final LemmataEntry lemmata;
+
+	/** Offset of the first character of the token in the text */
+	private final long start;
+
+	/** Offset just after the last character of the token in the text */
+	private final long end;
+
+	/**
+	 * Constructor to initialize the class fields
+	 * 
+	 * @param token
+	 *            the token
+	 * @param partOfSpeech
+	 *            the part-of-speech tag of the token
+	 * @param lemmata
+	 *            the lemmata of the token
+	 * @param start
+	 *            offset of the first character of the token in the text
+	 * @param end
+	 *            offset just after the last character of the token in the text
+	 */
+	public LemmatizedToken(String token, String partOfSpeech, LemmataEntry lemmata, long start, long end) {
+		this.token = token;
+		this.partOfSpeech = partOfSpeech;
+		this.lemmata = lemmata;
+		this.start = start;
+		this.end = end;
+	}
+
+	/**
+	 * @return the token
+	 */
+	public String getToken() {
+		return token;
+	}
+
+	/**
+	 * @return the part-of-speech tag of the token
+	 */
+	public String getPartOfSpeech() {
+		return partOfSpeech;
+	}
+
+	/**
+	 * @return the lemmata of the token
+	 */
+	public LemmataEntry getLemmata() {
+		return lemmata;
+	}
+
+	/**
+	 * @return the offset of the first character of the token in the text, counted in UTF-16 characters
+	 */
+	public long getStart() {
+		return start;
+	}
+
+	/**
+	 * @return the offset just after the last character of the token in the text, counted in UTF-16 characters
+	 */
+	public long getEnd() {
+		return end;
+	}
+
+	/**
+	 * Represent the token as tab separated token, part-of-speech tag, lemmata, start and end offset
+	 */
+	@Override
+	public String toString() {
+		return token + "\t" + partOfSpeech + "\t" + lemmata + "\t" + start + "\t" + end;
+	}
+
+}
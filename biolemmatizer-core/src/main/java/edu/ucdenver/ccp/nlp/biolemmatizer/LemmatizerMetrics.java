@@ -0,0 +1,540 @@
+/*
+ Copyright (c) 2012, Regents of the University of Colorado
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without modification, 
+ are permitted provided that the following conditions are met:
+
+  * Redistributions of source code must retain the above copyright notice, this 
+    list of conditions and the following disclaimer.
+   
+  * Redistributions in binary form must reproduce the above copyright notice, 
+    this list of conditions and the following disclaimer in the documentation 
+    and/or other materials provided with the distribution.
+   
+  * Neither the name of the University of Colorado nor the names of its 
+    contributors may be used to endorse or promote products derived from this 
+    software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND 
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED 
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; 
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON 
+ ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT 
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS 
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.ucdenver.ccp.nlp.biolemmatizer;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * LemmatizerMetrics: counters of the work done by {@link BioLemmatizer}, enabled with
+ * {@link BioLemmatizer#setMetrics(LemmatizerMetrics)}. It counts the lemmatize calls of each method with a histogram of
+ * their latencies, the {@link ResolutionPath} of each resolved string, the lexicon searches with the number of lexicon
+ * probes of each, the rule lemmatizer invocations and the result cache hits and misses. A result found in the result
+ * cache counts as a cache hit only, not as a resolution. The word parts of a contraction are resolved and counted on
+ * their own, but not as calls.
+ * <p>
+ * The counters are striped: each thread adds to the stripe of its thread id, and the stripes are summed when a
+ * {@link Snapshot} is taken, so threads lemmatizing in parallel rarely update the same memory. Recording costs a few
+ * atomic additions and two calls to {@link System#nanoTime()} per lemmatize call. A snapshot taken while strings are
+ * lemmatized may be slightly inconsistent between counters. One instance may be shared by several lemmatizers, and it
+ * can be registered as an MXBean with the platform MBean server.
+ */
+public class LemmatizerMetrics implements LemmatizerMetricsMXBean {
+	/** JMX domain of registered metrics */
+	public static final String JMX_DOMAIN = "edu.ucdenver.ccp.nlp.biolemmatizer";
+
+	/** names of the lemmatize methods, in the order of their histograms */
+	public static final String[] METHODS = { "lemmatizeByLexicon", "lemmatizeByRules", "lemmatizeByLexiconAndRules" };
+
+	/** number of latency histogram buckets; bucket b counts latencies below 2^b nanoseconds, the last one the rest */
+	public static final int LATENCY_BUCKETS = 40;
+
+	/** number of lexicon probe histogram buckets; bucket n counts searches with n probes, the last one the rest */
+	public static final int PROBE_BUCKETS = 17;
+
+	/** maximum number of stripes */
+	private static final int MAX_STRIPES = 64;
+
+	// offsets of the counters within a stripe
+	private static final int PATHS = 0;
+	private static final int CALLS = PATHS + ResolutionPath.values().length;
+	private static final int LATENCY_SUMS = CALLS + METHODS.length;
+	private static final int LATENCIES = LATENCY_SUMS + METHODS.length;
+	private static final int LEXICON_LOOKUPS = LATENCIES + METHODS.length * LATENCY_BUCKETS;
+	private static final int LEXICON_PROBES = LEXICON_LOOKUPS + 1;
+	private static final int PROBES = LEXICON_PROBES + 1;
+	private static final int RULE_APPLICATIONS = PROBES + PROBE_BUCKETS;
+	private static final int CACHE_HITS = RULE_APPLICATIONS + 1;
+	private static final int CACHE_MISSES = CACHE_HITS + 1;
+	private static final int COUNTERS = CACHE_MISSES + 1;
+
+	/** distance between stripes; a multiple of 8 longs plus a padding of 8, so stripes never share a cache line */
+	private static final int STRIDE = ((COUNTERS + 7) & ~7) + 8;
+
+	/** the counters of all stripes */
+	private final AtomicLongArray cells;
+
+	/** number of stripes - 1 */
+	private final int stripeMask;
+
+	/**
+	 * Create metrics with two stripes per available processor
+	 */
+	public LemmatizerMetrics() {
+		this(2 * Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Create metrics with a number of stripes
+	 * 
+	 * @param stripes
+	 *            the number of stripes, rounded up to a power of two of at most 64
+	 */
+	public LemmatizerMetrics(int stripes) {
+		int powerOfTwo = 1;
+		while (powerOfTwo < stripes && powerOfTwo < MAX_STRIPES)
+			powerOfTwo <<= 1;
+		stripeMask = powerOfTwo - 1;
+		cells = new AtomicLongArray(powerOfTwo * STRIDE);
+	}
+
+	/**
+	 * @return the offset of the stripe of the current thread
+	 */
+	private int stripe() {
+		return ((int) Thread.currentThread().getId() & stripeMask) * STRIDE;
+	}
+
+	/**
+	 * Retrieve the index of a lemmatize method
+	 * 
+	 * @param method
+	 *            'L' for lexicon only, 'R' for rules only, 'B' for both lexicon and rules
+	 * @return the index of the method in {@link #METHODS}
+	 */
+	static int methodIndex(char method) {
+		switch (method) {
+		case 'L':
+			return 0;
+		case 'R':
+			return 1;
+		default:
+			return 2;
+		}
+	}
+
+	/**
+	 * Retrieve the latency histogram bucket of a latency
+	 * 
+	 * @param nanos
+	 *            a latency in nanoseconds
+	 * @return the bucket counting the latency
+	 */
+	static int latencyBucket(long nanos) {
+		if (nanos <= 0)
+			return 0;
+		return Math.min(64 - Long.numberOfLeadingZeros(nanos), LATENCY_BUCKETS - 1);
+	}
+
+	/**
+	 * Retrieve the largest latency counted by a latency histogram bucket
+	 * 
+	 * @param bucket
+	 *            a latency histogram bucket
+	 * @return the largest latency of the bucket in nanoseconds
+	 */
+	public static long latencyBucketUpperBound(int bucket) {
+		return bucket == LATENCY_BUCKETS - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+	}
+
+	/**
+	 * Count a lemmatize call
+	 * 
+	 * @param method
+	 *            'L' for lexicon only, 'R' for rules only, 'B' for both lexicon and rules
+	 * @param nanos
+	 *            the latency of the call in nanoseconds
+	 */
+	void recordCall(char method, long nanos) {
+		int stripe = stripe();
+		int methodIndex = methodIndex(method);
+		cells.getAndIncrement(stripe + CALLS + methodIndex);
+		cells.getAndAdd(stripe + LATENCY_SUMS + methodIndex, Math.max(nanos, 0));
+		cells.getAndIncrement(stripe + LATENCIES + methodIndex * LATENCY_BUCKETS + latencyBucket(nanos));
+	}
+
+	/**
+	 * Count the resolution of a string
+	 * 
+	 * @param path
+	 *            the way the string was resolved
+	 */
+	void recordPath(ResolutionPath path) {
+		cells.getAndIncrement(stripe() + PATHS + path.ordinal());
+	}
+
+	/**
+	 * Count a lexicon search
+	 * 
+	 * @param probes
+	 *            the number of lexicon probes of the search
+	 */
+	void recordLexiconLookup(int probes) {
+		int stripe = stripe();
+		cells.getAndIncrement(stripe + LEXICON_LOOKUPS);
+		cells.getAndAdd(stripe + LEXICON_PROBES, probes);
+		cells.getAndIncrement(stripe + PROBES + Math.min(probes, PROBE_BUCKETS - 1));
+	}
+
+	/**
+	 * Count a rule lemmatizer invocation
+	 */
+	void recordRuleApplication() {
+		cells.getAndIncrement(stripe() + RULE_APPLICATIONS);
+	}
+
+	/**
+	 * Count a result cache lookup
+	 * 
+	 * @param hit
+	 *            true if the result was found in the cache
+	 */
+	void recordCacheLookup(boolean hit) {
+		cells.getAndIncrement(stripe() + (hit ? CACHE_HITS : CACHE_MISSES));
+	}
+
+	/**
+	 * @return the current counts; see {@link Snapshot}
+	 */
+	public Snapshot snapshot() {
+		long[] totals = new long[COUNTERS];
+		for (int stripe = 0; stripe < cells.length(); stripe += STRIDE) {
+			for (int i = 0; i < COUNTERS; i++)
+				totals[i] += cells.get(stripe + i);
+		}
+		return new Snapshot(totals);
+	}
+
+	/**
+	 * Reset all counters to zero. Counts recorded while the counters are reset may be kept or lost.
+	 */
+	public void reset() {
+		for (int i = 0; i < cells.length(); i++)
+			cells.set(i, 0);
+	}
+
+	/**
+	 * Register these metrics with the platform MBean server
+	 * 
+	 * @param name
+	 *            the name property of the MBean, distinguishing lemmatizers of the same JVM
+	 * @return the name of the MBean
+	 * @throws JMException
+	 *             if the MBean can not be registered, e.g. because the name is already used
+	 */
+	public ObjectName register(String name) throws JMException {
+		ObjectName objectName = objectName(name);
+		ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+		return objectName;
+	}
+
+	/**
+	 * Unregister metrics from the platform MBean server
+	 * 
+	 * @param name
+	 *            the name property the metrics were registered with
+	 * @throws JMException
+	 *             if no MBean of that name is registered
+	 */
+	public static void unregister(String name) throws JMException {
+		ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName(name));
+	}
+
+	/**
+	 * @param name
+	 *            the name property of the MBean
+	 * @return the name of the MBean
+	 * @throws JMException
+	 *             if the name is not valid
+	 */
+	private static ObjectName objectName(String name) throws JMException {
+		return new ObjectName(JMX_DOMAIN + ":type=LemmatizerMetrics,name=" + ObjectName.quote(name));
+	}
+
+	public Map<String, Long> getCallCounts() {
+		return snapshot().getCallCounts();
+	}
+
+	public Map<String, Long> getResolutionPathCounts() {
+		Map<String, Long> counts = new LinkedHashMap<String, Long>();
+		for (Map.Entry<ResolutionPath, Long> entry : snapshot().getPathCounts().entrySet())
+			counts.put(entry.getKey().name(), entry.getValue());
+		return counts;
+	}
+
+	public long getLexiconLookupCount() {
+		return snapshot().getLexiconLookupCount();
+	}
+
+	public long getLexiconProbeCount() {
+		return snapshot().getLexiconProbeCount();
+	}
+
+	public double getLexiconProbesPerLookup() {
+		return snapshot().getLexiconProbesPerLookup();
+	}
+
+	public long getRuleApplicationCount() {
+		return snapshot().getRuleApplicationCount();
+	}
+
+	public long getCacheHitCount() {
+		return snapshot().getCacheHitCount();
+	}
+
+	public long getCacheMissCount() {
+		return snapshot().getCacheMissCount();
+	}
+
+	public Map<String, Double> getMeanLatencyNanos() {
+		Snapshot snapshot = snapshot();
+		Map<String, Double> latencies = new LinkedHashMap<String, Double>();
+		for (String method : METHODS)
+			latencies.put(method, snapshot.getMeanLatencyNanos(method));
+		return latencies;
+	}
+
+	public Map<String, Long> getMedianLatencyNanos() {
+		return getLatencyPercentileNanos(0.5);
+	}
+
+	public Map<String, Long> getP99LatencyNanos() {
+		return getLatencyPercentileNanos(0.99);
+	}
+
+	/**
+	 * @param fraction
+	 *            the fraction of calls, between 0 and 1
+	 * @return the latency percentile of each method, see {@link Snapshot#getLatencyPercentileNanos(String, double)}
+	 */
+	private Map<String, Long> getLatencyPercentileNanos(double fraction) {
+		Snapshot snapshot = snapshot();
+		Map<String, Long> latencies = new LinkedHashMap<String, Long>();
+		for (String method : METHODS)
+			latencies.put(method, snapshot.getLatencyPercentileNanos(method, fraction));
+		return latencies;
+	}
+
+	/**
+	 * Snapshot: the counts of {@link LemmatizerMetrics} at one point in time
+	 */
+	public static class Snapshot {
+		/** the sums of the counters of all stripes */
+		private final long[] totals;
+
+		/**
+		 * Constructor to initialize the class fields
+		 * 
+		 * @param totals
+		 *            the sums of the counters of all stripes
+		 */
+		private Snapshot(long[] totals) {
+			this.totals = totals;
+		}
+
+		/**
+		 * @param method
+		 *            a name of {@link LemmatizerMetrics#METHODS}
+		 * @return the index of the method
+		 */
+		private static int methodIndex(String method) {
+			for (int i = 0; i < METHODS.length; i++) {
+				if (METHODS[i].equals(method))
+					return i;
+			}
+			throw new IllegalArgumentException("Unknown lemmatize method: " + method);
+		}
+
+		/**
+		 * @return the number of lemmatize calls of all methods
+		 */
+		public long getCallCount() {
+			long count = 0;
+			for (int i = 0; i < METHODS.length; i++)
+				count += totals[CALLS + i];
+			return count;
+		}
+
+		/**
+		 * @param method
+		 *            a name of {@link LemmatizerMetrics#METHODS}
+		 * @return the number of lemmatize calls of the method
+		 */
+		public long getCallCount(String method) {
+			return totals[CALLS + methodIndex(method)];
+		}
+
+		/**
+		 * @return the number of lemmatize calls, by method name
+		 */
+		public Map<String, Long> getCallCounts() {
+			Map<String, Long> counts = new LinkedHashMap<String, Long>();
+			for (int i = 0; i < METHODS.length; i++)
+				counts.put(METHODS[i], totals[CALLS + i]);
+			return Collections.unmodifiableMap(counts);
+		}
+
+		/**
+		 * @param path
+		 *            a resolution path
+		 * @return the number of strings resolved through the path
+		 */
+		public long getPathCount(ResolutionPath path) {
+			return totals[PATHS + path.ordinal()];
+		}
+
+		/**
+		 * @return the number of strings resolved through each path, in the order of {@link ResolutionPath}
+		 */
+		public Map<ResolutionPath, Long> getPathCounts() {
+			Map<ResolutionPath, Long> counts = new LinkedHashMap<ResolutionPath, Long>();
+			for (ResolutionPath path : ResolutionPath.values())
+				counts.put(path, totals[PATHS + path.ordinal()]);
+			return Collections.unmodifiableMap(counts);
+		}
+
+		/**
+		 * @return the number of lexicon searches
+		 */
+		public long getLexiconLookupCount() {
+			return totals[LEXICON_LOOKUPS];
+		}
+
+		/**
+		 * @return the number of lexicon probes of all lexicon searches, i.e. the lemmata of categories looked up in
+		 *         lexicon entries and the lexicon entries searched without categories
+		 */
+		public long getLexiconProbeCount() {
+			return totals[LEXICON_PROBES];
+		}
+
+		/**
+		 * @return the mean number of lexicon probes of a lexicon search, 0 if there was none
+		 */
+		public double getLexiconProbesPerLookup() {
+			long lookups = getLexiconLookupCount();
+			return lookups == 0 ? 0 : (double) getLexiconProbeCount() / lookups;
+		}
+
+		/**
+		 * @return the number of lexicon searches by number of lexicon probes; the last bucket counts the searches with
+		 *         {@link LemmatizerMetrics#PROBE_BUCKETS} - 1 or more probes
+		 */
+		public long[] getLexiconProbeHistogram() {
+			long[] histogram = new long[PROBE_BUCKETS];
+			System.arraycopy(totals, PROBES, histogram, 0, PROBE_BUCKETS);
+			return histogram;
+		}
+
+		/**
+		 * @return the number of rule lemmatizer invocations
+		 */
+		public long getRuleApplicationCount() {
+			return totals[RULE_APPLICATIONS];
+		}
+
+		/**
+		 * @return the number of results found in the result cache
+		 */
+		public long getCacheHitCount() {
+			return totals[CACHE_HITS];
+		}
+
+		/**
+		 * @return the number of results not found in the result cache
+		 */
+		public long getCacheMissCount() {
+			return totals[CACHE_MISSES];
+		}
+
+		/**
+		 * @param method
+		 *            a name of {@link LemmatizerMetrics#METHODS}
+		 * @return the number of calls of the method by latency, see {@link LemmatizerMetrics#LATENCY_BUCKETS} and
+		 *         {@link LemmatizerMetrics#latencyBucketUpperBound(int)}
+		 */
+		public long[] getLatencyHistogram(String method) {
+			long[] histogram = new long[LATENCY_BUCKETS];
+			System.arraycopy(totals, LATENCIES + methodIndex(method) * LATENCY_BUCKETS, histogram, 0, LATENCY_BUCKETS);
+			return histogram;
+		}
+
+		/**
+		 * @param method
+		 *            a name of {@link LemmatizerMetrics#METHODS}
+		 * @return the mean latency of a call of the method in nanoseconds, 0 if there was none
+		 */
+		public double getMeanLatencyNanos(String method) {
+			int methodIndex = methodIndex(method);
+			long calls = totals[CALLS + methodIndex];
+			return calls == 0 ? 0 : (double) totals[LATENCY_SUMS + methodIndex] / calls;
+		}
+
+		/**
+		 * @param method
+		 *            a name of {@link LemmatizerMetrics#METHODS}
+		 * @param fraction
+		 *            the fraction of calls, between 0 and 1
+		 * @return the upper bound of the histogram bucket of the latency which this fraction of the calls of the
+		 *         method did not exceed, in nanoseconds; at most twice the exact percentile. 0 if there was no call
+		 */
+		public long getLatencyPercentileNanos(String method, double fraction) {
+			long[] histogram = getLatencyHistogram(method);
+			long calls = 0;
+			for (long count : histogram)
+				calls += count;
+			if (calls == 0)
+				return 0;
+			long rank = Math.max(1, (long) Math.ceil(fraction * calls));
+			long seen = 0;
+			for (int bucket = 0; bucket < LATENCY_BUCKETS; bucket++) {
+				seen += histogram[bucket];
+				if (seen >= rank)
+					return latencyBucketUpperBound(bucket);
+			}
+			return latencyBucketUpperBound(LATENCY_BUCKETS - 1);
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder builder = new StringBuilder();
+			for (String method : METHODS) {
+				builder.append(method).append(": ").append(getCallCount(method)).append(" calls, mean ")
+						.append(Math.round(getMeanLatencyNanos(method))).append(" ns, median <= ")
+						.append(getLatencyPercentileNanos(method, 0.5)).append(" ns, 99% <= ")
+						.append(getLatencyPercentileNanos(method, 0.99)).append(" ns\n");
+			}
+			for (ResolutionPath path : ResolutionPath.values())
+				builder.append(path).append(": ").append(getPathCount(path)).append('\n');
+			builder.append("lexicon lookups: ").append(getLexiconLookupCount()).append(", probes: ")
+					.append(getLexiconProbeCount()).append('\n');
+			builder.append("rule applications: ").append(getRuleApplicationCount()).append('\n');
+			builder.append("cache hits: ").append(getCacheHitCount()).append(", misses: ").append(getCacheMissCount())
+					.append('\n');
+			return builder.toString();
+		}
+	}
+}
@@ -0,0 +1,98 @@
+/*
+ Copyright (c) 2012, Regents of the University of Colorado
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without modification, 
+ are permitted provided that the following conditions are met:
+
+  * Redistributions of source code must retain the above copyright notice, this 
+    list of conditions and the following disclaimer.
+   
+  * Redistributions in binary form must reproduce the above copyright notice, 
+    this list of conditions and the following disclaimer in the documentation 
+    and/or other materials provided with the distribution.
+   
+  * Neither the name of the University of Colorado nor the names of its 
+    contributors may be used to endorse or promote products derived from this 
+    software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND 
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED 
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; 
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON 
+ ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT 
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS 
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.ucdenver.ccp.nlp.biolemmatizer;
+
+import java.util.Map;
+
+/**
+ * LemmatizerMetricsMXBean: the management interface of {@link LemmatizerMetrics}. Each attribute is read from a new
+ * {@link LemmatizerMetrics.Snapshot}.
+ */
+public interface LemmatizerMetricsMXBean {
+	/**
+	 * @return the number of lemmatize calls, by method name
+	 */
+	Map<String, Long> getCallCounts();
+
+	/**
+	 * @return the number of strings resolved through each {@link ResolutionPath}, by path name
+	 */
+	Map<String, Long> getResolutionPathCounts();
+
+	/**
+	 * @return the number of lexicon searches
+	 */
+	long getLexiconLookupCount();
+
+	/**
+	 * @return the number of lexicon probes of all lexicon searches
+	 */
+	long getLexiconProbeCount();
+
+	/**
+	 * @return the mean number of lexicon probes of a lexicon search
+	 */
+	double getLexiconProbesPerLookup();
+
+	/**
+	 * @return the number of rule lemmatizer invocations
+	 */
+	long getRuleApplicationCount();
+
+	/**
+	 * @return the number of results found in the result cache
+	 */
+	long getCacheHitCount();
+
+	/**
+	 * @return the number of results not found in the result cache
+	 */
+	long getCacheMissCount();
+
+	/**
+	 * @return the mean latency of a lemmatize call in nanoseconds, by method name
+	 */
+	Map<String, Double> getMeanLatencyNanos();
+
+	/**
+	 * @return the median latency of a lemmatize call in nanoseconds, by method name
+	 */
+	Map<String, Long> getMedianLatencyNanos();
+
+	/**
+	 * @return the 99th percentile latency of a lemmatize call in nanoseconds, by method name
+	 */
+	Map<String, Long> getP99LatencyNanos();
+
+	/**
+	 * Reset all counters to zero
+	 */
+	void reset();
+}
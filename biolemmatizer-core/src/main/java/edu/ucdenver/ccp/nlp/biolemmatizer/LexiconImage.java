@@ -0,0 +1,487 @@
+/*
+ Copyright (c) 2012, Regents of the University of Colorado
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without modification, 
+ are permitted provided that the following conditions are met:
+
+  * Redistributions of source code must retain the above copyright notice, this 
+    list of conditions and the following disclaimer.
+   
+  * Redistributions in binary form must reproduce the above copyright notice, 
+    this list of conditions and the following disclaimer in the documentation 
+    and/or other materials provided with the distribution.
+   
+  * Neither the name of the University of Colorado nor the names of its 
+    contributors may be used to endorse or promote products derived from this 
+    software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND 
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED 
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; 
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON 
+ ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT 
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS 
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.ucdenver.ccp.nlp.biolemmatizer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+
+import edu.northwestern.at.morphadorner.corpuslinguistics.lemmatizer.LemmaDictionary;
+import edu.northwestern.at.morphadorner.corpuslinguistics.lexicon.Lexicon;
+import edu.northwestern.at.morphadorner.corpuslinguistics.lexicon.LexiconEntry;
+import edu.northwestern.at.morphadorner.corpuslinguistics.lexicon.MappedLexicon;
+import edu.northwestern.at.utils.MutableInteger;
+
+/**
+ * LexiconImage: a precompiled binary image of the data the BioLemmatizer loads at startup, i.e. the word lexicon, the
+ * dictionary used to validate rule-based lemmata, the POS tagsets and the POS mappings.
+ * <p>
+ * Reading an image avoids parsing the text lexicon, building the dictionary from it and loading the NUPOS lexicon to
+ * learn its tags. Category strings are stored once in a table and shared by all lexicon entries, and a lemma equal to
+ * its entry is stored as a flag. An image is compiled from the text resources with:
+ * 
+ * <pre>
+ * java -cp biolemmatizer-core-1.2-jar-with-dependencies.jar edu.ucdenver.ccp.nlp.biolemmatizer.LexiconImage \
+ *     &lt;image file&gt; [lexicon file]
+ * </pre>
+ * 
+ * The image can then be passed to the BioLemmatizer in place of the text lexicon (option -f), or put on the classpath
+ * next to the BioLemmatizer class as {@value #RESOURCE_NAME} to replace the default lexicon. With the option -mapped,
+ * the tool writes a {@link MappedLexicon} file instead, which holds the lexicon only and keeps it off the heap.
+ */
+public class LexiconImage {
+	/** First four bytes of an image: "BLIM" */
+	public static final int MAGIC = 0x424C494D;
+
+	/** Version of the image format, incremented on incompatible changes */
+	public static final int VERSION = 2;
+
+	/** Resource path of the default image, relative to the BioLemmatizer class */
+	public static final String RESOURCE_NAME = "lexicon.bin";
+
+	/** lexicon entries keyed by entry string */
+	private final Map<String, LexiconEntry> lexiconEntries;
+
+	/** lexicon-wide counts of each category */
+	private final Map<String, MutableInteger> categoryCounts;
+
+	/** length of the longest lexicon entry */
+	private final int longestEntryLength;
+
+	/** length of the shortest lexicon entry */
+	private final int shortestEntryLength;
+
+	/** dictionary of lower case lemmata */
+	private final LemmaDictionary dictionary;
+
+	/** POS tags and their tagset labels */
+	private final Map<String, String> tagToTagSet;
+
+	/** mapping from Penn Treebank POS tags to NUPOS tags */
+	private final Map<String, String[]> mappingPennPOStoNUPOS;
+
+	/** mapping from major word classes to Penn Treebank POS tags */
+	private final Map<String, String[]> mappingMajorClasstoPennPOS;
+
+	/**
+	 * Read an image
+	 * 
+	 * @param is
+	 *            InputStream of the image, positioned at its start
+	 * @throws IOException
+	 *             if the stream is not an image of the supported version
+	 */
+	private LexiconImage(InputStream is) throws IOException {
+		DataInputStream input = new DataInputStream(new BufferedInputStream(is, 1 << 16));
+		if (input.readInt() != MAGIC)
+			throw new IOException("Not a BioLemmatizer lexicon image");
+		int version = input.readInt();
+		if (version != VERSION)
+			throw new IOException("Unsupported lexicon image version: " + version + " (expected " + VERSION + ")");
+
+		String[] categories = new String[input.readInt()];
+		categoryCounts = new HashMap<String, MutableInteger>(2 * categories.length);
+		for (int i = 0; i < categories.length; i++) {
+			categories[i] = input.readUTF();
+			int count = input.readInt();
+			if (count > 0)
+				categoryCounts.put(categories[i], new MutableInteger(count));
+		}
+
+		longestEntryLength = input.readInt();
+		shortestEntryLength = input.readInt();
+		int entryCount = input.readInt();
+		lexiconEntries = new HashMap<String, LexiconEntry>(entryCount * 4 / 3 + 1);
+		for (int i = 0; i < entryCount; i++) {
+			String entry = input.readUTF();
+			int count = input.readInt();
+			int size = input.readShort();
+			Map<String, MutableInteger> categoriesAndCounts = new HashMap<String, MutableInteger>();
+			for (int j = 0; j < size; j++) {
+				categoriesAndCounts.put(categories[input.readShort()], new MutableInteger(input.readInt()));
+			}
+			size = input.readShort();
+			Map<String, String> lemmata = new HashMap<String, String>();
+			for (int j = 0; j < size; j++) {
+				String category = categories[input.readShort()];
+				lemmata.put(category, input.readBoolean() ? entry : input.readUTF());
+			}
+			LexiconEntry lexiconEntry = new LexiconEntry(entry, entry, count, categoriesAndCounts, lemmata);
+			int largestCategory = input.readShort();
+			lexiconEntry.largestCategory = largestCategory < 0 ? null : categories[largestCategory];
+			lexiconEntry.largestCategoryCount = input.readInt();
+			lexiconEntries.put(entry, lexiconEntry);
+		}
+
+		dictionary = LemmaDictionary.read(input);
+
+		int size = input.readInt();
+		tagToTagSet = new HashMap<String, String>(size * 4 / 3 + 1);
+		for (int i = 0; i < size; i++) {
+			tagToTagSet.put(input.readUTF(), input.readUTF());
+		}
+
+		mappingPennPOStoNUPOS = readMapping(input);
+		mappingMajorClasstoPennPOS = readMapping(input);
+	}
+
+	/**
+	 * Read an image from a file
+	 * 
+	 * @param imageFile
+	 *            the image file
+	 * @return the image
+	 * @throws IOException
+	 */
+	public static LexiconImage read(File imageFile) throws IOException {
+		InputStream is = new FileInputStream(imageFile);
+		try {
+			return new LexiconImage(is);
+		} finally {
+			is.close();
+		}
+	}
+
+	/**
+	 * Read an image from a stream
+	 * 
+	 * @param is
+	 *            InputStream of the image; it is not closed
+	 * @return the image
+	 * @throws IOException
+	 */
+	public static LexiconImage read(InputStream is) throws IOException {
+		return new LexiconImage(is);
+	}
+
+	/**
+	 * Read the image the BioLemmatizer should start from
+	 * 
+	 * @param lexiconFile
+	 *            the lexicon file passed to the BioLemmatizer, null for the default lexicon
+	 * @return the image of the lexicon file if it is an image, the default image on the classpath if lexiconFile is
+	 *         null and there is one of the supported version, null otherwise. A default image of another version is
+	 *         reported on System.err and ignored, so that the text lexicon is loaded instead.
+	 * @throws IOException
+	 */
+	static LexiconImage readIfAvailable(File lexiconFile) throws IOException {
+		if (lexiconFile != null)
+			return isImage(lexiconFile) ? read(lexiconFile) : null;
+		URL resource = BioLemmatizer.class.getResource(RESOURCE_NAME);
+		return resource != null ? readIfSupported(resource) : null;
+	}
+
+	/**
+	 * Read an image unless it is of another version
+	 * 
+	 * @param image
+	 *            URL of the image
+	 * @return the image, or null if it is of another version; the mismatch is reported on System.err
+	 * @throws IOException
+	 */
+	static LexiconImage readIfSupported(URL image) throws IOException {
+		int version = readVersion(image);
+		if (version != VERSION) {
+			System.err.println("Ignoring the lexicon image " + image + ": unsupported version " + version
+					+ " (expected " + VERSION + "); loading the text lexicon instead");
+			return null;
+		}
+		InputStream is = image.openStream();
+		try {
+			return new LexiconImage(is);
+		} finally {
+			is.close();
+		}
+	}
+
+	/**
+	 * Read the version of an image
+	 * 
+	 * @param image
+	 *            URL of the image
+	 * @return the version of the image, or -1 if it does not start with the image magic number
+	 * @throws IOException
+	 */
+	private static int readVersion(URL image) throws IOException {
+		DataInputStream input = new DataInputStream(image.openStream());
+		try {
+			return input.readInt() == MAGIC ? input.readInt() : -1;
+		} catch (EOFException e) {
+			return -1;
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * Check whether a file is a lexicon image
+	 * 
+	 * @param file
+	 *            a lexicon file
+	 * @return true if the file starts with the image magic number
+	 * @throws IOException
+	 */
+	public static boolean isImage(File file) throws IOException {
+		DataInputStream input = new DataInputStream(new FileInputStream(file));
+		try {
+			return file.length() >= 4 && input.readInt() == MAGIC;
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * Write the image of the data loaded by a BioLemmatizer
+	 * 
+	 * @param bioLemmatizer
+	 *            a BioLemmatizer
+	 * @param os
+	 *            OutputStream to write the image to; it is not closed
+	 * @throws IOException
+	 */
+	public static void write(BioLemmatizer bioLemmatizer, OutputStream os) throws IOException {
+		DataOutputStream output = new DataOutputStream(new BufferedOutputStream(os, 1 << 16));
+		Lexicon wordLexicon = bioLemmatizer.getModel().wordLexicon;
+		output.writeInt(MAGIC);
+		output.writeInt(VERSION);
+
+		// categories of the lexicon entries, including those with no lexicon-wide count
+		String[] entries = wordLexicon.getEntries();
+		Map<String, Integer> categoryIds = new HashMap<String, Integer>();
+		for (String category : wordLexicon.getCategories()) {
+			categoryIds.put(category, categoryIds.size());
+		}
+		for (String entry : entries) {
+			LexiconEntry lexiconEntry = wordLexicon.getLexiconEntry(entry);
+			for (String category : lexiconEntry.categoriesAndCounts.keySet()) {
+				if (!categoryIds.containsKey(category))
+					categoryIds.put(category, categoryIds.size());
+			}
+			for (String category : lexiconEntry.lemmata.keySet()) {
+				if (!categoryIds.containsKey(category))
+					categoryIds.put(category, categoryIds.size());
+			}
+		}
+		if (categoryIds.size() > Short.MAX_VALUE)
+			throw new IOException("Too many lexicon categories: " + categoryIds.size());
+		String[] categories = new String[categoryIds.size()];
+		for (Map.Entry<String, Integer> categoryId : categoryIds.entrySet()) {
+			categories[categoryId.getValue()] = categoryId.getKey();
+		}
+		output.writeInt(categories.length);
+		for (String category : categories) {
+			output.writeUTF(category);
+			output.writeInt(wordLexicon.getCategoryCount(category));
+		}
+
+		output.writeInt(wordLexicon.getLongestEntryLength());
+		output.writeInt(wordLexicon.getShortestEntryLength());
+		output.writeInt(entries.length);
+		for (String entry : entries) {
+			LexiconEntry lexiconEntry = wordLexicon.getLexiconEntry(entry);
+			output.writeUTF(entry);
+			output.writeInt(lexiconEntry.entryCount);
+			output.writeShort(lexiconEntry.categoriesAndCounts.size());
+			for (Map.Entry<String, MutableInteger> categoryAndCount : lexiconEntry.categoriesAndCounts.entrySet()) {
+				output.writeShort(categoryIds.get(categoryAndCount.getKey()));
+				output.writeInt(categoryAndCount.getValue().intValue());
+			}
+			output.writeShort(lexiconEntry.lemmata.size());
+			for (Map.Entry<String, String> lemma : lexiconEntry.lemmata.entrySet()) {
+				output.writeShort(categoryIds.get(lemma.getKey()));
+				boolean sameAsEntry = entry.equals(lemma.getValue());
+				output.writeBoolean(sameAsEntry);
+				if (!sameAsEntry)
+					output.writeUTF(lemma.getValue());
+			}
+			output.writeShort(lexiconEntry.largestCategory == null ? -1 : categoryIds
+					.get(lexiconEntry.largestCategory));
+			output.writeInt(lexiconEntry.largestCategoryCount);
+		}
+
+		BioLemmatizer.setDictionary(wordLexicon).write(output);
+
+		Map<String, String> tagToTagSet = bioLemmatizer.posEntry.tagToTagSet;
+		output.writeInt(tagToTagSet.size());
+		for (Map.Entry<String, String> tag : tagToTagSet.entrySet()) {
+			output.writeUTF(tag.getKey());
+			output.writeUTF(tag.getValue());
+		}
+
+		writeMapping(output, bioLemmatizer.getModel().getMappingPennPOStoNUPOS());
+		writeMapping(output, bioLemmatizer.getModel().getMappingMajorClasstoPennPOS());
+		output.flush();
+	}
+
+	/**
+	 * Write the image of the data loaded by a BioLemmatizer to a file
+	 * 
+	 * @param bioLemmatizer
+	 *            a BioLemmatizer
+	 * @param imageFile
+	 *            the image file, overwritten if it exists
+	 * @throws IOException
+	 */
+	public static void write(BioLemmatizer bioLemmatizer, File imageFile) throws IOException {
+		OutputStream os = new FileOutputStream(imageFile);
+		try {
+			write(bioLemmatizer, os);
+		} finally {
+			os.close();
+		}
+	}
+
+	/**
+	 * Read a POS mapping
+	 */
+	private static Map<String, String[]> readMapping(DataInputStream input) throws IOException {
+		int size = input.readInt();
+		Map<String, String[]> mapping = new HashMap<String, String[]>(size * 4 / 3 + 1);
+		for (int i = 0; i < size; i++) {
+			String tag = input.readUTF();
+			String[] mappingSet = new String[input.readInt()];
+			for (int j = 0; j < mappingSet.length; j++) {
+				mappingSet[j] = input.readUTF();
+			}
+			mapping.put(tag, mappingSet);
+		}
+		return mapping;
+	}
+
+	/**
+	 * Write a POS mapping
+	 */
+	private static void writeMapping(DataOutputStream output, Map<String, String[]> mapping) throws IOException {
+		output.writeInt(mapping.size());
+		for (Map.Entry<String, String[]> tag : mapping.entrySet()) {
+			output.writeUTF(tag.getKey());
+			output.writeInt(tag.getValue().length);
+			for (String mappedTag : tag.getValue()) {
+				output.writeUTF(mappedTag);
+			}
+		}
+	}
+
+	/**
+	 * @return the lexicon entries keyed by entry string; the map is owned by the caller
+	 */
+	Map<String, LexiconEntry> getLexiconEntries() {
+		return lexiconEntries;
+	}
+
+	/**
+	 * @return the lexicon-wide counts of each category
+	 */
+	Map<String, MutableInteger> getCategoryCounts() {
+		return categoryCounts;
+	}
+
+	/**
+	 * @return the length of the longest lexicon entry
+	 */
+	int getLongestEntryLength() {
+		return longestEntryLength;
+	}
+
+	/**
+	 * @return the length of the shortest lexicon entry
+	 */
+	int getShortestEntryLength() {
+		return shortestEntryLength;
+	}
+
+	/**
+	 * @return the dictionary of lower case lemmata
+	 */
+	LemmaDictionary getDictionary() {
+		return dictionary;
+	}
+
+	/**
+	 * @return the POS tags and their tagset labels
+	 */
+	Map<String, String> getTagToTagSet() {
+		return tagToTagSet;
+	}
+
+	/**
+	 * @return the mapping from Penn Treebank POS tags to NUPOS tags
+	 */
+	Map<String, String[]> getMappingPennPOStoNUPOS() {
+		return mappingPennPOStoNUPOS;
+	}
+
+	/**
+	 * @return the mapping from major word classes to Penn Treebank POS tags
+	 */
+	Map<String, String[]> getMappingMajorClasstoPennPOS() {
+		return mappingMajorClasstoPennPOS;
+	}
+
+	/**
+	 * Compile a lexicon image or a memory-mapped lexicon
+	 * 
+	 * @param args
+	 *            [-mapped] to write a {@link MappedLexicon} file, then the image file to write, then optionally the
+	 *            text lexicon file to compile (defaults to the lexicon on the classpath)
+	 * @throws IOException
+	 */
+	public static void main(String[] args) throws IOException {
+		boolean mapped = args.length > 0 && args[0].equals("-mapped");
+		int first = mapped ? 1 : 0;
+		if (args.length - first < 1 || args.length - first > 2) {
+			System.err.println("Usage: LexiconImage [-mapped] <image file> [lexicon file]");
+			System.exit(1);
+		}
+		File lexiconFile = args.length - first > 1 ? new File(args[first + 1]) : null;
+		long start = System.currentTimeMillis();
+		// compile the text lexicon, not a default image which may be the stale one being replaced
+		BioLemmatizer bioLemmatizer = new BioLemmatizer(BioLemmatizerModel.loadTextLexicon(lexiconFile));
+		File imageFile = new File(args[first]);
+		if (mapped)
+			MappedLexicon.write(bioLemmatizer.getModel().wordLexicon, imageFile);
+		else
+			write(bioLemmatizer, imageFile);
+		System.out.println("Wrote " + bioLemmatizer.getModel().wordLexicon.getLexiconSize() + " lexicon entries to "
+				+ imageFile.getAbsolutePath() + " (" + imageFile.length() + " bytes) in "
+				+ (System.currentTimeMillis() - start) + " ms");
+	}
+}
@@ -0,0 +1,81 @@
+/*
+ Copyright (c) 2012, Regents of the University of Colorado
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without modification, 
+ are permitted provided that the following conditions are met:
+
+  * Redistributions of source code must retain the above copyright notice, this 
+    list of conditions and the following disclaimer.
+   
+  * Redistributions in binary form must reproduce the above copyright notice, 
+    this list of conditions and the following disclaimer in the documentation 
+    and/or other materials provided with the distribution.
+   
+  * Neither the name of the University of Colorado nor the names of its 
+    contributors may be used to endorse or promote products derived from this 
+    software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND 
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED 
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; 
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON 
+ ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT 
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS 
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.ucdenver.ccp.nlp.biolemmatizer;
+
+/**
+ * LexiconLookupPlan: the lexicon search for one POS tag, compiled once and shared by every lookup with that tag.
+ * <p>
+ * For a Penn Treebank POS tag the categories are the tag itself, its sibling Penn Treebank POS tags, its NUPOS tags and
+ * the NUPOS tags of its siblings. For a NUPOS tag they are the tag itself and the NUPOS tags of the siblings of its
+ * first Penn Treebank POS tag. Tags of neither tag set have no categories. Each category appears once, at its first
+ * position in that order.
+ * <p>
+ * The plans are cached by the {@link BioLemmatizerModel} and shared by all its lemmatizers, so the arrays must not be
+ * modified.
+ */
+final class LexiconLookupPlan {
+	/** the tag set of the POS tag: PennPOS, NUPOS or NONE */
+	final String tagSetLabel;
+
+	/** the categories to search for, in order */
+	final String[] categories;
+
+	/** the resolution path of each category */
+	final ResolutionPath[] categoryPaths;
+
+	/** the lemmatization word class of the POS tag, empty if the tag has none */
+	final String lemmaClass;
+
+	/**
+	 * Constructor to initialize the class fields
+	 * 
+	 * @param tagSetLabel
+	 *            the tag set of the POS tag
+	 * @param categories
+	 *            the categories to search for, in order
+	 * @param categoryPaths
+	 *            the resolution path of each category
+	 * @param lemmaClass
+	 *            the lemmatization word class of the POS tag
+	 */
+	LexiconLookupPlan(String tagSetLabel, String[] categories, ResolutionPath[] categoryPaths, String lemmaClass) {
+		this.tagSetLabel = tagSetLabel;
+		this.categories = categories;
+		this.categoryPaths = categoryPaths;
+		this.lemmaClass = lemmaClass;
+	}
+
+	/**
+	 * @return true if the POS tag belongs to no known tag set and the lexicon should be searched without categories
+	 */
+	boolean isUntagged() {
+		return tagSetLabel.equals("NONE");
+	}
+}
@@ -0,0 +1,61 @@
+/*
+ Copyright (c) 2012, Regents of the University of Colorado
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without modification, 
+ are permitted provided that the following conditions are met:
+
+  * Redistributions of source code must retain the above copyright notice, this 
+    list of conditions and the following disclaimer.
+   
+  * Redistributions in binary form must reproduce the above copyright notice, 
+    this list of conditions and the following disclaimer in the documentation 
+    and/or other materials provided with the distribution.
+   
+  * Neither the name of the University of Colorado nor the names of its 
+    contributors may be used to endorse or promote products derived from this 
+    software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND 
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED 
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; 
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON 
+ ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT 
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS 
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.ucdenver.ccp.nlp.biolemmatizer;
+
+import java.io.IOException;
+
+import edu.northwestern.at.morphadorner.corpuslinguistics.lemmatizer.EnglishLemmatizer;
+
+/** Lemmatizer for English. */
+class MorphAdornerLemmatizer extends EnglishLemmatizer {
+	/** list of detachment rules. */
+	protected static String rulesFileName = "englishrules.txt";
+
+	/**
+	 * Create an English lemmatizer.
+	 * 
+	 * @throws Exception
+	 *             because the {@link EnglishLemmatizer} constructor throws Exception
+	 * 
+	 */
+	public MorphAdornerLemmatizer() throws Exception {
+		// release the rules of original MorphAdorner Lemmatizer
+		rules.clear();
+		// load new rules
+		try {
+			loadRules(BioLemmatizer.class.getResource(rulesFileName), "utf-8");
+		} catch (IOException e) {
+			throw new RuntimeException("Unable to load English rules file.", e);
+		}
+		// release the irregularForm file of original MorphAdorner Lemmatizer
+		// the irregular English forms are integrated into current Lexicon
+		irregularForms.clear();
+	}
+}
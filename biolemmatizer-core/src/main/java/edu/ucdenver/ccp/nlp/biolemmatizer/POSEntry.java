@@ -0,0 +1,128 @@
+/*
+ Copyright (c) 2012, Regents of the University of Colorado
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without modification, 
+ are permitted provided that the following conditions are met:
+
+  * Redistributions of source code must retain the above copyright notice, this 
+    list of conditions and the following disclaimer.
+   
+  * Redistributions in binary form must reproduce the above copyright notice, 
+    this list of conditions and the following disclaimer in the documentation 
+    and/or other materials provided with the distribution.
+   
+  * Neither the name of the University of Colorado nor the names of its 
+    contributors may be used to endorse or promote products derived from this 
+    software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND 
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED 
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; 
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON 
+ ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT 
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS 
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.ucdenver.ccp.nlp.biolemmatizer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import edu.northwestern.at.morphadorner.corpuslinguistics.lexicon.DefaultWordLexicon;
+import edu.northwestern.at.morphadorner.corpuslinguistics.lexicon.Lexicon;
+
+/** POSEntry: store different POS tags and the corresponding tagset label */
+class POSEntry {
+	/** POS tags and their tagset labels, unmodifiable */
+	public final Map<String, String> tagToTagSet;
+
+	/** POS tags of the default tagsets, loaded on first use and shared by all POSEntry objects */
+	private static Map<String, String> defaultTagToTagSet;
+
+	/**
+	 * Construtor to initialize the class field with the default POS tagsets
+	 */
+	public POSEntry() {
+		tagToTagSet = getDefaultTagToTagSet();
+	}
+
+	/**
+	 * Constructor to initialize the class field from precompiled POS tagsets
+	 * 
+	 * @param tagToTagSet
+	 *            POS tags and their tagset labels
+	 */
+	public POSEntry(Map<String, String> tagToTagSet) {
+		this.tagToTagSet = Collections.unmodifiableMap(tagToTagSet);
+	}
+
+	/**
+	 * Load the default POS tagsets once: the NUPOS tags of MorphAdorner's word lexicon, which is loaded for its
+	 * categories only, and the Penn Treebank POS tags of the mapping to NUPOS
+	 * 
+	 * @return POS tags and their tagset labels, unmodifiable
+	 */
+	private static synchronized Map<String, String> getDefaultTagToTagSet() {
+		if (defaultTagToTagSet == null) {
+			Map<String, String> tagToTagSet = new HashMap<String, String>();
+			// NUPOS tags
+			Lexicon wordLexicon;
+			try {
+				wordLexicon = new DefaultWordLexicon();
+			} catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+			addNewTagSet(tagToTagSet, Arrays.asList(wordLexicon.getCategories()), "NUPOS");
+
+			// PennPOS tags
+			String mappingFileName = "PennPOStoNUPOS.mapping";
+			InputStream is = BioLemmatizer.class.getResourceAsStream(mappingFileName);
+			Map<String, String[]> mappingPennPOStoNUPOS;
+			try {
+				mappingPennPOStoNUPOS = BioLemmatizer.loadPOSMappingFile(is);
+			} catch (IOException e) {
+				throw new RuntimeException("Error while opening mapping file: " + mappingFileName, e);
+			}
+			addNewTagSet(tagToTagSet, mappingPennPOStoNUPOS.keySet(), "PennPOS");
+			defaultTagToTagSet = Collections.unmodifiableMap(tagToTagSet);
+		}
+		return defaultTagToTagSet;
+	}
+
+	/**
+	 * Add new POS tagset
+	 * 
+	 * @param tagToTagSet
+	 *            POS tags and their tagset labels
+	 * @param tags
+	 *            a set of POS tags
+	 * @param tagSetLabel
+	 *            the corresponding tagset label
+	 */
+	private static void addNewTagSet(Map<String, String> tagToTagSet, Collection<String> tags, String tagSetLabel) {
+		for (String tag : tags) {
+			tagToTagSet.put(tag, tagSetLabel);
+		}
+	}
+
+	/**
+	 * Retrieve the tagset label of the input POS tag
+	 * 
+	 * @param category
+	 *            an input POS tag
+	 * @return the corresponding POS tagset label
+	 */
+	public String getTagSetLabel(String category) {
+		String defaultLabel = "NONE";
+		return tagToTagSet.containsKey(category) ? tagToTagSet.get(category) : defaultLabel;
+	}
+}
@@ -0,0 +1,281 @@
+/*
+ Copyright (c) 2012, Regents of the University of Colorado
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without modification, 
+ are permitted provided that the following conditions are met:
+
+  * Redistributions of source code must retain the above copyright notice, this 
+    list of conditions and the following disclaimer.
+   
+  * Redistributions in binary form must reproduce the above copyright notice, 
+    this list of conditions and the following disclaimer in the documentation 
+    and/or other materials provided with the distribution.
+   
+  * Neither the name of the University of Colorado nor the names of its 
+    contributors may be used to endorse or promote products derived from this 
+    software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND 
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED 
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; 
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON 
+ ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT 
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS 
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.ucdenver.ccp.nlp.biolemmatizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PosHierarchy: precomputed lookups over the Penn Treebank POS to NUPOS mapping and the major class to Penn Treebank
+ * POS hierarchy. Every tag found in either mapping is assigned a dense id when the hierarchy is built, and the NUPOS
+ * conversions, the reverse NUPOS to Penn Treebank conversions and the sibling tags are stored per id. Lookups for
+ * these tags are a single map probe. The array lookups are package-private and return shared arrays for the use of
+ * the lemmatizer; the public lookups return unmodifiable list views of them. The results are the same as scanning the
+ * mappings in their iteration order.
+ */
+public class PosHierarchy {
+	/** Dense id of every tag in the mappings */
+	private final Map<String, Integer> tagIds = new HashMap<String, Integer>();
+
+	/** Tags indexed by id */
+	private final String[] tags;
+
+	/** Whether a tag is a key of the Penn Treebank POS to NUPOS mapping, indexed by tag id */
+	private final boolean[] mappedToNUPOS;
+
+	/** NUPOS tags for a Penn Treebank POS tag, indexed by tag id */
+	private final String[][] nuPOSTags;
+
+	/** Penn Treebank POS tags mapped to a NUPOS tag, indexed by tag id */
+	private final String[][] pennPOSTags;
+
+	/** Sibling Penn Treebank POS tags of a Penn Treebank POS tag, indexed by tag id */
+	private final String[][] siblingPennPOSTags;
+
+	/** NUPOS tags of the siblings of a Penn Treebank POS tag, indexed by tag id */
+	private final String[][] siblingNUPOSTags;
+
+	/**
+	 * Constructor to compile the POS hierarchy
+	 * 
+	 * @param mappingPennPOStoNUPOS
+	 *            mapping from Penn Treebank POS tags to NUPOS tags
+	 * @param mappingMajorClasstoPennPOS
+	 *            mapping from major classes to Penn Treebank POS tags
+	 */
+	public PosHierarchy(Map<String, String[]> mappingPennPOStoNUPOS, Map<String, String[]> mappingMajorClasstoPennPOS) {
+		List<String> tagList = new ArrayList<String>();
+		for (Map.Entry<String, String[]> entry : mappingPennPOStoNUPOS.entrySet()) {
+			addTag(tagList, entry.getKey());
+			for (String tag : entry.getValue()) {
+				addTag(tagList, tag);
+			}
+		}
+		for (String[] mappedTags : mappingMajorClasstoPennPOS.values()) {
+			for (String tag : mappedTags) {
+				addTag(tagList, tag);
+			}
+		}
+
+		tags = tagList.toArray(new String[tagList.size()]);
+		mappedToNUPOS = new boolean[tags.length];
+		nuPOSTags = new String[tags.length][];
+		pennPOSTags = new String[tags.length][];
+		siblingPennPOSTags = new String[tags.length][];
+		siblingNUPOSTags = new String[tags.length][];
+
+		for (int id = 0; id < tags.length; id++) {
+			String tag = tags[id];
+			String[] singleton = new String[] { tag };
+
+			mappedToNUPOS[id] = mappingPennPOStoNUPOS.containsKey(tag);
+			String[] nuPOS = mappingPennPOStoNUPOS.get(tag.toUpperCase());
+			nuPOSTags[id] = nuPOS != null ? nuPOS : singleton;
+
+			List<String> pennPOS = new ArrayList<String>();
+			for (Map.Entry<String, String[]> entry : mappingPennPOStoNUPOS.entrySet()) {
+				if (Arrays.asList(entry.getValue()).contains(tag)) {
+					pennPOS.add(entry.getKey());
+				}
+			}
+			pennPOSTags[id] = pennPOS.isEmpty() ? singleton : pennPOS.toArray(new String[pennPOS.size()]);
+
+			// siblings come from the first major class containing the tag
+			String[] majorClass = null;
+			for (String[] mappedTags : mappingMajorClasstoPennPOS.values()) {
+				if (Arrays.asList(mappedTags).contains(tag)) {
+					majorClass = mappedTags;
+					break;
+				}
+			}
+			if (majorClass == null) {
+				siblingPennPOSTags[id] = singleton;
+				siblingNUPOSTags[id] = singleton;
+			} else {
+				List<String> siblingPennPOS = new ArrayList<String>();
+				List<String> siblingNUPOS = new ArrayList<String>();
+				for (String sibling : majorClass) {
+					if (!sibling.equals(tag)) {
+						siblingPennPOS.add(sibling);
+						String[] siblingNUPOSTag = mappingPennPOStoNUPOS.get(sibling.toUpperCase());
+						if (siblingNUPOSTag != null) {
+							siblingNUPOS.addAll(Arrays.asList(siblingNUPOSTag));
+						}
+					}
+				}
+				siblingPennPOSTags[id] = siblingPennPOS.toArray(new String[siblingPennPOS.size()]);
+				siblingNUPOSTags[id] = siblingNUPOS.toArray(new String[siblingNUPOS.size()]);
+			}
+		}
+	}
+
+	/**
+	 * Assign the next id to a tag unless it already has one
+	 */
+	private void addTag(List<String> tagList, String tag) {
+		if (!tagIds.containsKey(tag)) {
+			tagIds.put(tag, tagList.size());
+			tagList.add(tag);
+		}
+	}
+
+	/**
+	 * Retrieve the id of a tag
+	 * 
+	 * @param partOfSpeech
+	 *            a POS tag
+	 * @return the id of the tag, or -1 if the tag is not in the mappings
+	 */
+	public int getTagId(String partOfSpeech) {
+		Integer id = tagIds.get(partOfSpeech);
+		return id != null ? id : -1;
+	}
+
+	/**
+	 * Retrieve the tag with a given id
+	 * 
+	 * @param id
+	 *            a tag id
+	 * @return the tag
+	 */
+	public String getTag(int id) {
+		return tags[id];
+	}
+
+	/**
+	 * @return the number of tags in the mappings
+	 */
+	public int getTagCount() {
+		return tags.length;
+	}
+
+	/**
+	 * Retrieve an array of corresponding NUPOS tags of a Penn Treebank POS tag
+	 * 
+	 * @param partOfSpeech
+	 *            a POS tag
+	 * @return an array of corresponding NUPOS tags, or the POS tag itself if it has none
+	 */
+	String[] getNUPOSTags(String partOfSpeech) {
+		int id = getTagId(partOfSpeech);
+		if (id >= 0) {
+			return nuPOSTags[id];
+		}
+		// tags outside the mappings, e.g. lower case Penn Treebank POS tags
+		id = getTagId(partOfSpeech.toUpperCase());
+		return id >= 0 && mappedToNUPOS[id] ? nuPOSTags[id] : new String[] { partOfSpeech };
+	}
+
+	/**
+	 * Retrieve an array of corresponding Penn Treebank POS tags of a NUPOS tag
+	 * 
+	 * @param partOfSpeech
+	 *            a NUPOS tag
+	 * @return an array of corresponding Penn Treebank POS tags, or the POS tag itself if it has none
+	 */
+	String[] getPennPOSTags(String partOfSpeech) {
+		int id = getTagId(partOfSpeech);
+		return id >= 0 ? pennPOSTags[id] : new String[] { partOfSpeech };
+	}
+
+	/**
+	 * Retrieve sibling Penn Treebank POS tags of a Penn Treebank POS tag from the POS hierarchy
+	 * 
+	 * @param partOfSpeech
+	 *            a Penn Treebank POS tag
+	 * @return sibling Penn Treebank POS tags, or the POS tag itself if it is not in the hierarchy
+	 */
+	String[] getSiblingPennPOSTags(String partOfSpeech) {
+		int id = getTagId(partOfSpeech);
+		return id >= 0 ? siblingPennPOSTags[id] : new String[] { partOfSpeech };
+	}
+
+	/**
+	 * Retrieve sibling NUPOS tags of a Penn Treebank POS tag from the POS hierarchy
+	 * 
+	 * @param partOfSpeech
+	 *            a Penn Treebank POS tag
+	 * @return NUPOS tags of the sibling Penn Treebank POS tags, or the POS tag itself if it is not in the hierarchy
+	 */
+	String[] getSiblingNUPOSTags(String partOfSpeech) {
+		int id = getTagId(partOfSpeech);
+		return id >= 0 ? siblingNUPOSTags[id] : new String[] { partOfSpeech };
+	}
+
+	/**
+	 * Retrieve the corresponding NUPOS tags of a Penn Treebank POS tag
+	 * 
+	 * @param partOfSpeech
+	 *            a POS tag
+	 * @return an unmodifiable list of corresponding NUPOS tags, or of the POS tag itself if it has none
+	 */
+	public List<String> getNUPOSTagList(String partOfSpeech) {
+		return Collections.unmodifiableList(Arrays.asList(getNUPOSTags(partOfSpeech)));
+	}
+
+	/**
+	 * Retrieve the corresponding Penn Treebank POS tags of a NUPOS tag
+	 * 
+	 * @param partOfSpeech
+	 *            a NUPOS tag
+	 * @return an unmodifiable list of corresponding Penn Treebank POS tags, or of the POS tag itself if it has none
+	 */
+	public List<String> getPennPOSTagList(String partOfSpeech) {
+		return Collections.unmodifiableList(Arrays.asList(getPennPOSTags(partOfSpeech)));
+	}
+
+	/**
+	 * Retrieve the sibling Penn Treebank POS tags of a Penn Treebank POS tag from the POS hierarchy
+	 * 
+	 * @param partOfSpeech
+	 *            a Penn Treebank POS tag
+	 * @return an unmodifiable list of sibling Penn Treebank POS tags, or of the POS tag itself if it is not in the
+	 *         hierarchy
+	 */
+	public List<String> getSiblingPennPOSTagList(String partOfSpeech) {
+		return Collections.unmodifiableList(Arrays.asList(getSiblingPennPOSTags(partOfSpeech)));
+	}
+
+	/**
+	 * Retrieve the sibling NUPOS tags of a Penn Treebank POS tag from the POS hierarchy
+	 * 
+	 * @param partOfSpeech
+	 *            a Penn Treebank POS tag
+	 * @return an unmodifiable list of NUPOS tags of the sibling Penn Treebank POS tags, or of the POS tag itself if it
+	 *         is not in the hierarchy
+	 */
+	public List<String> getSiblingNUPOSTagList(String partOfSpeech) {
+		return Collections.unmodifiableList(Arrays.asList(getSiblingNUPOSTags(partOfSpeech)));
+	}
+}
@@ -0,0 +1,225 @@
+/*
+ Copyright (c) 2012, Regents of the University of Colorado
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without modification, 
+ are permitted provided that the following conditions are met:
+
+  * Redistributions of source code must retain the above copyright notice, this 
+    list of conditions and the following disclaimer.
+   
+  * Redistributions in binary form must reproduce the above copyright notice, 
+    this list of conditions and the following disclaimer in the documentation 
+    and/or other materials provided with the distribution.
+   
+  * Neither the name of the University of Colorado nor the names of its 
+    contributors may be used to endorse or promote products derived from this 
+    software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND 
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED 
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; 
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON 
+ ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT 
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS 
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.ucdenver.ccp.nlp.biolemmatizer;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import edu.northwestern.at.morphadorner.corpuslinguistics.lexicon.Lexicon;
+import edu.northwestern.at.morphadorner.corpuslinguistics.lexicon.LexiconEntry;
+import edu.northwestern.at.morphadorner.corpuslinguistics.partsofspeech.PartOfSpeechTags;
+import edu.northwestern.at.utils.MutableInteger;
+
+/**
+ * ReadOnlyLexicon: read-only view of the word lexicon of a {@link BioLemmatizerModel}, which is shared by all
+ * lemmatizers of the model. The methods changing the lexicon throw an UnsupportedOperationException; lexicon entries,
+ * category counts and arrays are returned as copies and sets as unmodifiable views. The part-of-speech tags are those
+ * of the lexicon and are shared as well.
+ */
+final class ReadOnlyLexicon implements Lexicon {
+	/** The viewed lexicon */
+	private final Lexicon lexicon;
+
+	/**
+	 * Constructor to initialize the class field
+	 * 
+	 * @param lexicon
+	 *            the viewed lexicon
+	 */
+	ReadOnlyLexicon(Lexicon lexicon) {
+		this.lexicon = lexicon;
+	}
+
+	/**
+	 * @return the exception thrown by the methods changing the lexicon
+	 */
+	private static UnsupportedOperationException readOnly() {
+		return new UnsupportedOperationException("The lexicon is shared by the lemmatizers of a model and is read-only");
+	}
+
+	/**
+	 * @return a copy of category counts, or null
+	 */
+	private static Map<String, MutableInteger> copyCounts(Map<String, MutableInteger> counts) {
+		if (counts == null) {
+			return null;
+		}
+		Map<String, MutableInteger> copy = new HashMap<String, MutableInteger>(counts.size() * 4 / 3 + 1);
+		for (Map.Entry<String, MutableInteger> count : counts.entrySet()) {
+			copy.put(count.getKey(), new MutableInteger(count.getValue().intValue()));
+		}
+		return copy;
+	}
+
+	/**
+	 * @return an unmodifiable view of a set, or null
+	 */
+	private static Set<String> unmodifiable(Set<String> set) {
+		return set != null ? Collections.unmodifiableSet(set) : null;
+	}
+
+	/**
+	 * @return a copy of an array, or null
+	 */
+	private static String[] copy(String[] array) {
+		return array != null ? array.clone() : null;
+	}
+
+	public void loadLexicon(URL lexiconURL, boolean compressed, String encoding) throws IOException {
+		throw readOnly();
+	}
+
+	public void loadLexicon(URL lexiconURL, String encoding) throws IOException {
+		throw readOnly();
+	}
+
+	public void updateEntryCount(String entry, String category, String lemma, int entryCount) {
+		throw readOnly();
+	}
+
+	public void removeEntryCategory(String entry, String category) {
+		throw readOnly();
+	}
+
+	public void removeEntry(String entry) {
+		throw readOnly();
+	}
+
+	public LexiconEntry getLexiconEntry(String entry) {
+		LexiconEntry lexiconEntry = lexicon.getLexiconEntry(entry);
+		if (lexiconEntry == null) {
+			return null;
+		}
+		return new LexiconEntry(lexiconEntry.entry, lexiconEntry.standardEntry, lexiconEntry.entryCount,
+				copyCounts(lexiconEntry.categoriesAndCounts), lexiconEntry.lemmata != null ? new HashMap<String, String>(
+						lexiconEntry.lemmata) : null);
+	}
+
+	public LexiconEntry setLexiconEntry(String entry, LexiconEntry entryData) {
+		throw readOnly();
+	}
+
+	public int getLexiconSize() {
+		return lexicon.getLexiconSize();
+	}
+
+	public String[] getEntries() {
+		return copy(lexicon.getEntries());
+	}
+
+	public String[] getCategories() {
+		return copy(lexicon.getCategories());
+	}
+
+	public boolean containsEntry(String entry) {
+		return lexicon.containsEntry(entry);
+	}
+
+	public Set<String> getCategoriesForEntry(String entry) {
+		return unmodifiable(lexicon.getCategoriesForEntry(entry));
+	}
+
+	public Set<String> getCategoriesForEntry(String entry, boolean isFirstEntry) {
+		return unmodifiable(lexicon.getCategoriesForEntry(entry, isFirstEntry));
+	}
+
+	public Set<String> getCategoriesForEntry(List<String> sentence, int entryIndex) {
+		return unmodifiable(lexicon.getCategoriesForEntry(sentence, entryIndex));
+	}
+
+	public int getNumberOfCategoriesForEntry(String entry) {
+		return lexicon.getNumberOfCategoriesForEntry(entry);
+	}
+
+	public Map<String, MutableInteger> getCategoryCountsForEntry(String entry) {
+		return copyCounts(lexicon.getCategoryCountsForEntry(entry));
+	}
+
+	public String getLargestCategory(String entry) {
+		return lexicon.getLargestCategory(entry);
+	}
+
+	public int getCategoryCount(String entry, String category) {
+		return lexicon.getCategoryCount(entry, category);
+	}
+
+	public String getLemma(String entry) {
+		return lexicon.getLemma(entry);
+	}
+
+	public String[] getLemmata(String entry) {
+		return copy(lexicon.getLemmata(entry));
+	}
+
+	public String getLemma(String entry, String category) {
+		return lexicon.getLemma(entry, category);
+	}
+
+	public int getEntryCount(String entry) {
+		return lexicon.getEntryCount(entry);
+	}
+
+	public int getCategoryCount(String category) {
+		return lexicon.getCategoryCount(category);
+	}
+
+	public Map<String, MutableInteger> getCategoryCounts() {
+		return copyCounts(lexicon.getCategoryCounts());
+	}
+
+	public int getNumberOfCategories() {
+		return lexicon.getNumberOfCategories();
+	}
+
+	public void saveLexiconToTextFile(String lexiconFileName, String encoding) throws IOException {
+		lexicon.saveLexiconToTextFile(lexiconFileName, encoding);
+	}
+
+	public PartOfSpeechTags getPartOfSpeechTags() {
+		return lexicon.getPartOfSpeechTags();
+	}
+
+	public boolean setPartOfSpeechTags(PartOfSpeechTags partOfSpeechTags) {
+		throw readOnly();
+	}
+
+	public int getLongestEntryLength() {
+		return lexicon.getLongestEntryLength();
+	}
+
+	public int getShortestEntryLength() {
+		return lexicon.getShortestEntryLength();
+	}
+}
@@ -0,0 +1,58 @@
+/*
+ Copyright (c) 2012, Regents of the University of Colorado
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without modification, 
+ are permitted provided that the following conditions are met:
+
+  * Redistributions of source code must retain the above copyright notice, this 
+    list of conditions and the following disclaimer.
+   
+  * Redistributions in binary form must reproduce the above copyright notice, 
+    this list of conditions and the following disclaimer in the documentation 
+    and/or other materials provided with the distribution.
+   
+  * Neither the name of the University of Colorado nor the names of its 
+    contributors may be used to endorse or promote products derived from this 
+    software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND 
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED 
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; 
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON 
+ ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT 
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS 
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.ucdenver.ccp.nlp.biolemmatizer;
+
+/**
+ * ResolutionPath: the way {@link BioLemmatizer} resolved the lemma of a string, counted by {@link LemmatizerMetrics}
+ */
+public enum ResolutionPath {
+	/** found in the lexicon under the Penn Treebank POS tag itself */
+	PENN_DIRECT,
+	/** found in the lexicon under a sibling Penn Treebank POS tag */
+	PENN_SIBLING,
+	/** found in the lexicon under a NUPOS tag converted from the Penn Treebank POS tag */
+	NUPOS_CONVERTED,
+	/** found in the lexicon under the NUPOS tag itself */
+	NUPOS_DIRECT,
+	/** found in the lexicon under a sibling NUPOS tag */
+	NUPOS_SIBLING,
+	/** found in the lexicon without POS tags, for a POS tag of no known tag set or by the lexicon only method */
+	BACKUP_LOOKUP,
+	/** not found in the lexicon by the lexicon only method, the string is its own lemma */
+	LEXICON_MISS,
+	/** not lemmatized by the rules, e.g. proper names and word classes without lemmata */
+	NOT_LEMMATIZED,
+	/** lemmatized by the compound word exceptions list */
+	COMPOUND_EXCEPTION,
+	/** split into the word parts of a contraction, each of which is resolved and counted on its own */
+	CONTRACTION_SPLIT,
+	/** lemmatized by the rules of its word class */
+	RULES
+}
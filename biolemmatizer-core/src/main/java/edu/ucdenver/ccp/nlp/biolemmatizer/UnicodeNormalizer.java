@@ -0,0 +1,204 @@
+/*
+ Copyright (c) 2012, Regents of the University of Colorado
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without modification, 
+ are permitted provided that the following conditions are met:
+
+  * Redistributions of source code must retain the above copyright notice, this 
+    list of conditions and the following disclaimer.
+   
+  * Redistributions in binary form must reproduce the above copyright notice, 
+    this list of conditions and the following disclaimer in the documentation 
+    and/or other materials provided with the distribution.
+   
+  * Neither the name of the University of Colorado nor the names of its 
+    contributors may be used to endorse or promote products derived from this 
+    software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND 
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED 
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; 
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON 
+ ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT 
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS 
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.ucdenver.ccp.nlp.biolemmatizer;
+
+import java.text.Normalizer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * UnicodeNormalizer: folds non-ASCII characters, such as ligatures and letters with diacritics, to the modern English
+ * spelling found in the lexicon. Each character is looked up in a table of replacements built once, so a string is
+ * normalized in a single pass. A string without a replaceable character, in particular any ASCII string, is returned
+ * as is without allocating.
+ * <p>
+ * {@link #DEFAULT} holds the replacements applied by the BioLemmatizer command line. {@link #decompositions(char, char)}
+ * computes NFKD-style foldings for a range of characters, which can be combined with other replacements to build a
+ * broader normalizer, as {@link #LATIN} does. Normalizers are immutable and may be shared between threads.
+ */
+public class UnicodeNormalizer {
+	/** Ligatures and diacritics folded by the BioLemmatizer command line */
+	public static final UnicodeNormalizer DEFAULT = new UnicodeNormalizer(defaultReplacements());
+
+	/**
+	 * The default replacements plus the NFKD foldings of the Latin-1 Supplement, Latin Extended-A and Latin Extended-B
+	 * letters and of the Latin ligatures
+	 */
+	public static final UnicodeNormalizer LATIN = new UnicodeNormalizer(latinReplacements());
+
+	/** First character which may be replaced; all ASCII characters are kept */
+	private static final char FIRST_REPLACEABLE = '\u0080';
+
+	/** Replacements indexed by character - {@link #FIRST_REPLACEABLE}; null where the character is kept */
+	private final String[] replacements;
+
+	/**
+	 * Constructor to build the replacement table
+	 * 
+	 * @param replacements
+	 *            replacement string of each character to replace
+	 * @throws IllegalArgumentException
+	 *             if an ASCII character is to be replaced or a replacement is null
+	 */
+	public UnicodeNormalizer(Map<Character, String> replacements) {
+		char last = FIRST_REPLACEABLE;
+		for (Map.Entry<Character, String> replacement : replacements.entrySet()) {
+			char ch = replacement.getKey();
+			if (ch < FIRST_REPLACEABLE)
+				throw new IllegalArgumentException("ASCII characters cannot be replaced: " + ch);
+			if (replacement.getValue() == null)
+				throw new IllegalArgumentException("Missing replacement for character U+"
+						+ Integer.toHexString(ch).toUpperCase());
+			last = (char) Math.max(last, ch);
+		}
+		this.replacements = new String[replacements.isEmpty() ? 0 : last - FIRST_REPLACEABLE + 1];
+		for (Map.Entry<Character, String> replacement : replacements.entrySet()) {
+			this.replacements[replacement.getKey() - FIRST_REPLACEABLE] = replacement.getValue();
+		}
+	}
+
+	/**
+	 * Normalize a string
+	 * 
+	 * @param input
+	 *            the string to normalize
+	 * @return the string with every replaceable character replaced; the input itself if it has none
+	 */
+	public String normalize(String input) {
+		int length = input.length();
+		int i = 0;
+		while (i < length && getReplacement(input.charAt(i)) == null) {
+			i++;
+		}
+		if (i == length)
+			return input;
+
+		StringBuilder output = new StringBuilder(length + 8);
+		output.append(input, 0, i);
+		for (; i < length; i++) {
+			char ch = input.charAt(i);
+			String replacement = getReplacement(ch);
+			if (replacement == null)
+				output.append(ch);
+			else
+				output.append(replacement);
+		}
+		return output.toString();
+	}
+
+	/**
+	 * @param ch
+	 *            a character
+	 * @return the replacement of the character, or null if it is kept
+	 */
+	public String getReplacement(char ch) {
+		int index = ch - FIRST_REPLACEABLE;
+		return index >= 0 && index < replacements.length ? replacements[index] : null;
+	}
+
+	/**
+	 * @return the replacement of each replaced character, in character order
+	 */
+	public Map<Character, String> getReplacements() {
+		Map<Character, String> map = new LinkedHashMap<Character, String>();
+		for (int i = 0; i < replacements.length; i++) {
+			if (replacements[i] != null)
+				map.put((char) (i + FIRST_REPLACEABLE), replacements[i]);
+		}
+		return map;
+	}
+
+	/**
+	 * Compute NFKD-style foldings: each character of a range is decomposed for compatibility (NFKD) and its combining
+	 * marks are removed. Characters whose folding is empty or equal to the character are left out.
+	 * 
+	 * @param first
+	 *            first character of the range, at least U+0080
+	 * @param last
+	 *            last character of the range
+	 * @return the folding of each character of the range which changes
+	 */
+	public static Map<Character, String> decompositions(char first, char last) {
+		Map<Character, String> foldings = new LinkedHashMap<Character, String>();
+		for (int ch = Math.max(first, FIRST_REPLACEABLE); ch <= last; ch++) {
+			if (ch >= '\uD800' && ch <= '\uDFFF')
+				continue;
+			String decomposed = Normalizer.normalize(String.valueOf((char) ch), Normalizer.Form.NFKD);
+			StringBuilder folded = new StringBuilder(decomposed.length());
+			for (int i = 0; i < decomposed.length(); i++) {
+				char c = decomposed.charAt(i);
+				if (Character.getType(c) != Character.NON_SPACING_MARK)
+					folded.append(c);
+			}
+			if (folded.length() > 0 && !(folded.length() == 1 && folded.charAt(0) == ch))
+				foldings.put((char) ch, folded.toString());
+		}
+		return foldings;
+	}
+
+	/**
+	 * @return the replacements of {@link #DEFAULT}
+	 */
+	private static Map<Character, String> defaultReplacements() {
+		Map<Character, String> replacements = new LinkedHashMap<Character, String>();
+		replacements.put('\u00E6', "ae");
+		replacements.put('\u0153', "oe");
+		replacements.put('\u00E4', "a");
+		replacements.put('\u00E0', "a");
+		replacements.put('\u00E1', "a");
+		replacements.put('\u0113', "e");
+		replacements.put('\u00E9', "e");
+		replacements.put('\u00E8', "e");
+		replacements.put('\u00EB', "e");
+		replacements.put('\u00EF', "i");
+		replacements.put('\u00F1', "n");
+		replacements.put('\u014D', "o");
+		replacements.put('\u00F6', "o");
+		replacements.put('\u00F4', "o");
+		replacements.put('\u016B', "u");
+		replacements.put('\u00FA', "u");
+		return replacements;
+	}
+
+	/**
+	 * @return the replacements of {@link #LATIN}
+	 */
+	private static Map<Character, String> latinReplacements() {
+		Map<Character, String> replacements = decompositions('\u00C0', '\u024F');
+		replacements.putAll(decompositions('\uFB00', '\uFB06'));
+		replacements.put('\u00C6', "AE");
+		replacements.put('\u0152', "OE");
+		replacements.put('\u00DF', "ss");
+		replacements.put('\u00D8', "O");
+		replacements.put('\u00F8', "o");
+		replacements.putAll(defaultReplacements());
+		return replacements;
+	}
+}
@@ -0,0 +1,186 @@
+package edu.northwestern.at.morphadorner.corpuslinguistics.lemmatizer;
+
+/*  Please see the license information at the end of this file. */
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.junit.Test;
+
+import edu.northwestern.at.morphadorner.corpuslinguistics.lexicon.*;
+
+/** Checks LemmaDictionary against a HashSet of lower case words.
+ */
+
+public class LemmaDictionaryTest
+{
+    /** Dictionary words. */
+
+    protected static final String[] WORDS   =
+        {
+            "run" , "Protein" , "PROTEINS" , "child" , "été" , "ΟΔΟΣ" ,
+            "istanbul" , "İstanbul" , "𝐀bc" , "a" , "" , "run" , "x-ray"
+        };
+
+    /** Words to look up. */
+
+    protected static final String[] LOOKUPS =
+        {
+            "run" , "RUN" , "Run" , "runs" , "ru" , "protein" , "Protein" ,
+            "proteins" , "child" , "CHILD" , "été" , "ÉTÉ" , "οδος" ,
+            "ΟΔΟΣ" , "οδοσ" , "ISTANBUL" , "İstanbul" , "i̇stanbul" ,
+            "𝐀bc" , "𝐀BC" , "A" , "a" , "" , "b" , "X-RAY" , "x-ra" ,
+            "zzz"
+        };
+
+    @Test
+    public void testMatchesHashSet()
+    {
+        Set<String> expected    = new HashSet<String>();
+
+        for ( String word : WORDS )
+        {
+            expected.add( word.toLowerCase() );
+        }
+
+        LemmaDictionary dictionary  =
+            new LemmaDictionary( Arrays.asList( WORDS ) );
+
+        assertEquals( expected.size() , dictionary.size() );
+        assertEquals( expected , dictionary );
+                                //  Words iterate in sorted order.
+        assertEquals
+        (
+            new ArrayList<String>( new TreeSet<String>( expected ) ) ,
+            new ArrayList<String>( dictionary )
+        );
+
+        Locale locale   = Locale.getDefault();
+
+        try
+        {
+            Locale[] locales    =
+                new Locale[]{ Locale.ENGLISH , new Locale( "tr" ) };
+
+            for ( Locale lookupLocale : locales )
+            {
+                Locale.setDefault( lookupLocale );
+
+                for ( String lookup : LOOKUPS )
+                {
+                    assertEquals
+                    (
+                        lookupLocale + " " + lookup ,
+                        expected.contains( lookup.toLowerCase() ) ,
+                        dictionary.containsLowerCase( lookup )
+                    );
+
+                    assertEquals
+                    (
+                        lookupLocale + " " + lookup ,
+                        expected.contains( lookup ) ,
+                        dictionary.contains( lookup )
+                    );
+                }
+            }
+        }
+        finally
+        {
+            Locale.setDefault( locale );
+        }
+    }
+
+    @Test
+    public void testLexiconAndReadWrite()
+        throws IOException
+    {
+        Lexicon lexicon = new DefaultLexicon();
+
+        lexicon.updateEntryCount( "ran" , "vvd" , "run" , 12 );
+        lexicon.updateEntryCount( "runs" , "n2" , "run" , 3 );
+        lexicon.updateEntryCount( "runs" , "vvz" , "run" , 7 );
+        lexicon.updateEntryCount( "Proteins" , "np1" , "Proteins" , 1 );
+        lexicon.updateEntryCount( "children" , "n2" , "child" , 15 );
+
+        LemmaDictionary dictionary  = new LemmaDictionary( lexicon );
+
+        assertEquals
+        (
+            new HashSet<String>
+            (
+                Arrays.asList( "run" , "proteins" , "child" )
+            ) ,
+            dictionary
+        );
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        dictionary.write( new DataOutputStream( bytes ) );
+
+        LemmaDictionary readDictionary  =
+            LemmaDictionary.read
+            (
+                new DataInputStream
+                (
+                    new ByteArrayInputStream( bytes.toByteArray() )
+                )
+            );
+
+        assertEquals( dictionary , readDictionary );
+        assertTrue( readDictionary.containsLowerCase( "PROTEINS" ) );
+        assertFalse( readDictionary.containsLowerCase( "protein" ) );
+
+        assertTrue( LemmaDictionary.containsLowerCase( readDictionary , "Child" ) );
+        assertTrue
+        (
+            LemmaDictionary.containsLowerCase
+            (
+                new HashSet<String>( Arrays.asList( "child" ) ) ,
+                "Child"
+            )
+        );
+    }
+}
+
+/*
+Copyright (c) 2008, 2013 by Northwestern University.
+All rights reserved.
+
+Developed by:
+   Academic and Research Technologies
+   Northwestern University
+   http://www.it.northwestern.edu/about/departments/at/
+
+Permission is hereby granted, free of charge, to any person
+obtaining a copy of this software and associated documentation
+files (the "Software"), to deal with the Software without
+restriction, including without limitation the rights to use,
+copy, modify, merge, publish, distribute, sublicense, and/or
+sell copies of the Software, and to permit persons to whom the
+Software is furnished to do so, subject to the following
+conditions:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimers.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimers in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the names of Academic and Research Technologies,
+      Northwestern University, nor the names of its contributors may be
+      used to endorse or promote products derived from this Software
+      without specific prior written permission.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+NONINFRINGEMENT. IN NO EVENT SHALL THE CONTRIBUTORS OR
+COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*/
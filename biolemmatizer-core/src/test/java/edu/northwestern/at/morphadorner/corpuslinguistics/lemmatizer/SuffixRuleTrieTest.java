@@ -0,0 +1,231 @@
+package edu.northwestern.at.morphadorner.corpuslinguistics.lemmatizer;
+
+/*  Please see the license information at the end of this file. */
+
+import static org.junit.Assert.*;
+
+import java.net.URL;
+import java.util.*;
+
+import org.junit.Test;
+
+import edu.northwestern.at.morphadorner.corpuslinguistics.lexicon.*;
+
+/** Checks SuffixRuleTrie against applying the regular expression
+ *  rules one by one, over every spelling in the default word lexicon.
+ */
+
+public class SuffixRuleTrieTest
+{
+    /** Rule files to check. */
+
+    protected static final URL[] RULES =
+        {
+            EnglishLemmatizer.class.getResource( "resources/englishrules.txt" ) ,
+            SuffixRuleTrieTest.class.getResource(
+                "/edu/ucdenver/ccp/nlp/biolemmatizer/englishrules.txt" )
+        };
+
+    /** Spellings of interest besides those in the lexicon. */
+
+    protected static final String[] SPELLINGS  =
+        {
+            "" , "s" , "es" , "ies" , "ing" , "ed" , "xed" , "bbed" ,
+            "stopped" , "hopping" , "fuller" , "cries" , "CRIES" ,
+            "Cries" , "ssses" , "ies\n" , "cries\n" , "cries\r\n" ,
+            "a\ncries" , "tries " , "𝐀ies" ,
+            "x𝐀ing" , "𝐀𝐀ed" ,
+            "yyying" , "ytthing" , "été" , "naïve" , "fu'" , "!es"
+        };
+
+    /** Endings appended to lexicon spellings. */
+
+    protected static final String[] ENDINGS    = { "s" , "ing" };
+
+    @Test
+    public void testMatchesRegularExpressionRules()
+        throws Exception
+    {
+        Lexicon lexicon     = new DefaultWordLexicon();
+        String[] entries    = lexicon.getEntries();
+
+        Set<String> dictionary  = new HashSet<String>();
+
+        for ( String entry : entries )
+        {
+            dictionary.add( entry.toLowerCase() );
+        }
+
+                                //  Spellings checked with and
+                                //  without a dictionary.
+
+        Set<String> spellings   = new LinkedHashSet<String>();
+
+        spellings.addAll( Arrays.asList( SPELLINGS ) );
+
+        for ( String entry : entries )
+        {
+            spellings.add( entry );
+            spellings.add( entry.toLowerCase() );
+        }
+                                //  Inflected spellings, checked
+                                //  with the dictionary only.
+
+        Set<String> inflectedSpellings  = new LinkedHashSet<String>();
+
+        for ( String entry : entries )
+        {
+            for ( String ending : ENDINGS )
+            {
+                inflectedSpellings.add( entry.toLowerCase() + ending );
+            }
+        }
+
+        for ( URL url : RULES )
+        {
+            RuleBasedLemmatizer lemmatizer  = new RuleBasedLemmatizer();
+
+            lemmatizer.loadRules( url , "utf-8" );
+
+            assertFalse( lemmatizer.rules.isEmpty() );
+
+            for ( String wordClass : lemmatizer.rules.keySet() )
+            {
+                List<LemmatizerRule> rules  = lemmatizer.rules.get( wordClass );
+                SuffixRuleTrie trie         = new SuffixRuleTrie( rules );
+
+                assertTrue( trie.isCompiledFrom( rules ) );
+                                //  The shipped rules never need
+                                //  their regular expressions.
+
+                for ( int i = 0 ; i < rules.size() ; i++ )
+                {
+                    assertNotNull
+                    (
+                        wordClass + ": " + rules.get( i ) ,
+                        trie.compiledRules[ i ]
+                    );
+                }
+
+                for ( String spelling : spellings )
+                {
+                    assertEquals
+                    (
+                        wordClass + ": " + spelling ,
+                        applyInOrder( rules , spelling , null ) ,
+                        trie.apply( spelling , null )
+                    );
+
+                    assertEquals
+                    (
+                        wordClass + " with dictionary: " + spelling ,
+                        applyInOrder( rules , spelling , dictionary ) ,
+                        trie.apply( spelling , dictionary )
+                    );
+                }
+
+                for ( String spelling : inflectedSpellings )
+                {
+                    assertEquals
+                    (
+                        wordClass + " with dictionary: " + spelling ,
+                        applyInOrder( rules , spelling , dictionary ) ,
+                        trie.apply( spelling , dictionary )
+                    );
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testUncompilableRulesKeepOrder()
+    {
+        List<LemmatizerRule> rules  = new ArrayList<LemmatizerRule>();
+
+        rules.add( new DefaultLemmatizerRule( "xAs x" ) );
+        rules.add( new DefaultLemmatizerRule( "ies y" ) );
+        rules.add( new DefaultLemmatizerRule( "s" ) );
+
+        SuffixRuleTrie trie = new SuffixRuleTrie( rules );
+
+        String[] spellings  =
+            { "xylophones" , "xies" , "cries" , "cats" , "x" , "s" };
+
+        for ( String spelling : spellings )
+        {
+            assertEquals
+            (
+                spelling ,
+                applyInOrder( rules , spelling , null ) ,
+                trie.apply( spelling , null )
+            );
+        }
+
+        rules.add( new DefaultLemmatizerRule( "ing" ) );
+
+        assertFalse( trie.isCompiledFrom( rules ) );
+    }
+
+    /** Apply rules one by one until one changes a string. */
+
+    protected static String applyInOrder
+    (
+        List<LemmatizerRule> rules ,
+        String s ,
+        Set<String> dictionary
+    )
+    {
+        for ( LemmatizerRule rule : rules )
+        {
+            String result   = rule.apply( s , dictionary );
+
+            if ( !result.equals( s ) )
+            {
+                return result;
+            }
+        }
+
+        return s;
+    }
+}
+
+/*
+Copyright (c) 2008, 2013 by Northwestern University.
+All rights reserved.
+
+Developed by:
+   Academic and Research Technologies
+   Northwestern University
+   http://www.it.northwestern.edu/about/departments/at/
+
+Permission is hereby granted, free of charge, to any person
+obtaining a copy of this software and associated documentation
+files (the "Software"), to deal with the Software without
+restriction, including without limitation the rights to use,
+copy, modify, merge, publish, distribute, sublicense, and/or
+sell copies of the Software, and to permit persons to whom the
+Software is furnished to do so, subject to the following
+conditions:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimers.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimers in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the names of Academic and Research Technologies,
+      Northwestern University, nor the names of its contributors may be
+      used to endorse or promote products derived from this Software
+      without specific prior written permission.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+NONINFRINGEMENT. IN NO EVENT SHALL THE CONTRIBUTORS OR
+COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*/
@@ -0,0 +1,302 @@
+package edu.northwestern.at.morphadorner.corpuslinguistics.lexicon;
+
+/*  Please see the license information at the end of this file. */
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Checks MappedLexicon against the lexicon it was written from.
+ */
+
+public class MappedLexiconTest
+{
+    @Rule
+    public TemporaryFolder folder   = new TemporaryFolder();
+
+    /** Entry, category, lemma and count of the source lexicon. */
+
+    protected static final String[][] ENTRIES  =
+        {
+            { "ran" , "vvd" , "run" , "12" } ,
+            { "runs" , "vvz" , "run" , "7" } ,
+            { "runs" , "n2" , "run" , "3" } ,
+            { "run" , "vvb" , "run" , "20" } ,
+            { "run" , "n1" , "run" , "5" } ,
+            { "US" , "np1" , "US" , "4" } ,
+            { "us" , "pno12" , "we" , "9" } ,
+            { "Proteins" , "np1" , "Proteins" , "1" } ,
+            { "proteins" , "n2" , "protein" , "30" } ,
+            { "children" , "n2" , "child" , "15" } ,
+            { "été" , "n1" , "été" , "1" } ,
+            { "a" , "dt" , "a" , "100" }
+        };
+
+    /** Spellings to look up, including case variants and misses. */
+
+    protected static final String[] LOOKUPS =
+        {
+            "ran" , "RAN" , "Ran" , "runs" , "run" , "US" , "us" , "Us" ,
+            "PROTEINS" , "Proteins" , "proteins" , "children" , "été" ,
+            "ÉTÉ" , "a" , "A" , "" , "xyzzy" , "ru" , "runss" , "zzz" ,
+            "." , "$"
+        };
+
+    @Test
+    public void testMatchesSourceLexicon()
+        throws IOException
+    {
+        Lexicon lexicon = new DefaultLexicon();
+
+        for ( String[] entry : ENTRIES )
+        {
+            lexicon.updateEntryCount
+            (
+                entry[ 0 ] , entry[ 1 ] , entry[ 2 ] ,
+                Integer.parseInt( entry[ 3 ] )
+            );
+        }
+
+        File file   = folder.newFile( "lexicon.mlx" );
+
+        MappedLexicon.write( lexicon , file );
+
+        assertTrue( MappedLexicon.isMappedLexicon( file ) );
+
+        MappedLexicon mappedLexicon = new MappedLexicon( file );
+
+        assertEquals
+        (
+            lexicon.getLexiconSize() ,
+            mappedLexicon.getLexiconSize()
+        );
+
+        assertArrayEquals( lexicon.getEntries() , mappedLexicon.getEntries() );
+
+        assertArrayEquals
+        (
+            lexicon.getCategories() ,
+            mappedLexicon.getCategories()
+        );
+
+        for ( String category : lexicon.getCategories() )
+        {
+            assertEquals
+            (
+                category ,
+                lexicon.getCategoryCount( category ) ,
+                mappedLexicon.getCategoryCount( category )
+            );
+        }
+
+        for ( String spelling : LOOKUPS )
+        {
+            LexiconEntry expected   = lexicon.getLexiconEntry( spelling );
+            LexiconEntry actual     = mappedLexicon.getLexiconEntry( spelling );
+
+            if ( expected == null )
+            {
+                assertNull( spelling , actual );
+            }
+            else
+            {
+                assertEquals( spelling , expected.entry , actual.entry );
+
+                assertEquals
+                (
+                    spelling ,
+                    expected.entryCount ,
+                    actual.entryCount
+                );
+
+                assertEquals
+                (
+                    spelling ,
+                    expected.largestCategory ,
+                    actual.largestCategory
+                );
+
+                assertEquals
+                (
+                    spelling ,
+                    new ArrayList<String>( expected.lemmata.keySet() ) ,
+                    new ArrayList<String>( actual.lemmata.keySet() )
+                );
+
+                assertEquals( spelling , expected.lemmata , actual.lemmata );
+
+                assertEquals
+                (
+                    spelling ,
+                    expected.categoriesAndCounts.toString() ,
+                    actual.categoriesAndCounts.toString()
+                );
+            }
+
+            assertEquals
+            (
+                spelling ,
+                lexicon.getCategoriesForEntry( spelling ) ,
+                mappedLexicon.getCategoriesForEntry( spelling )
+            );
+
+            assertArrayEquals
+            (
+                spelling ,
+                lexicon.getLemmata( spelling ) ,
+                mappedLexicon.getLemmata( spelling )
+            );
+
+            assertEquals
+            (
+                spelling ,
+                lexicon.getLemma( spelling ) ,
+                mappedLexicon.getLemma( spelling )
+            );
+
+            assertEquals
+            (
+                spelling ,
+                lexicon.containsEntry( spelling ) ,
+                mappedLexicon.containsEntry( spelling )
+            );
+
+            assertEquals
+            (
+                spelling ,
+                lexicon.getEntryCount( spelling ) ,
+                mappedLexicon.getEntryCount( spelling )
+            );
+
+            for ( String category : lexicon.getCategories() )
+            {
+                assertEquals
+                (
+                    spelling + "/" + category ,
+                    lexicon.getLemma( spelling , category ) ,
+                    mappedLexicon.getLemma( spelling , category )
+                );
+
+                assertEquals
+                (
+                    spelling + "/" + category ,
+                    ( expected == null ) ? "*" :
+                        expected.getLemma( category ) ,
+                    mappedLexicon.getLemma
+                    (
+                        mappedLexicon.getEntryIndex( spelling ) ,
+                        mappedLexicon.getCategoryIndex( category )
+                    )
+                );
+
+                assertEquals
+                (
+                    spelling + "/" + category ,
+                    lexicon.getCategoryCount( spelling , category ) ,
+                    mappedLexicon.getCategoryCount( spelling , category )
+                );
+            }
+        }
+    }
+
+    @Test
+    public void testMissingCategoryIndex()
+        throws IOException
+    {
+        Lexicon lexicon = new DefaultLexicon();
+
+        lexicon.updateEntryCount( "ran" , "vvd" , "run" , 1 );
+
+        File file   = folder.newFile( "lexicon.mlx" );
+
+        MappedLexicon.write( lexicon , file );
+
+        MappedLexicon mappedLexicon = new MappedLexicon( file );
+
+        assertEquals( -1 , mappedLexicon.getCategoryIndex( "n1" ) );
+        assertEquals( -1 , mappedLexicon.getEntryIndex( "xyzzy" ) );
+
+        assertEquals
+        (
+            "*" ,
+            mappedLexicon.getLemma
+            (
+                mappedLexicon.getEntryIndex( "ran" ) ,
+                mappedLexicon.getCategoryIndex( "n1" )
+            )
+        );
+
+        assertEquals
+        (
+            "run" ,
+            mappedLexicon.getLemma
+            (
+                mappedLexicon.getEntryIndex( "RAN" ) ,
+                mappedLexicon.getCategoryIndex( "vvd" )
+            )
+        );
+    }
+
+    @Test( expected = UnsupportedOperationException.class )
+    public void testReadOnly()
+        throws IOException
+    {
+        Lexicon lexicon = new DefaultLexicon();
+
+        lexicon.updateEntryCount( "ran" , "vvd" , "run" , 1 );
+
+        File file   = folder.newFile( "lexicon.mlx" );
+
+        MappedLexicon.write( lexicon , file );
+
+        new MappedLexicon( file ).getLexiconEntry( "ran" ).updateLemma(
+            "vvd" , "ran" );
+    }
+}
+
+/*
+Copyright (c) 2008, 2013 by Northwestern University.
+All rights reserved.
+
+Developed by:
+   Academic and Research Technologies
+   Northwestern University
+   http://www.it.northwestern.edu/about/departments/at/
+
+Permission is hereby granted, free of charge, to any person
+obtaining a copy of this software and associated documentation
+files (the "Software"), to deal with the Software without
+restriction, including without limitation the rights to use,
+copy, modify, merge, publish, distribute, sublicense, and/or
+sell copies of the Software, and to permit persons to whom the
+Software is furnished to do so, subject to the following
+conditions:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimers.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimers in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the names of Academic and Research Technologies,
+      Northwestern University, nor the names of its contributors may be
+      used to endorse or promote products derived from this Software
+      without specific prior written permission.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+NONINFRINGEMENT. IN NO EVENT SHALL THE CONTRIBUTORS OR
+COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*/
+
@@ -0,0 +1,393 @@
+package edu.northwestern.at.morphadorner.corpuslinguistics.lexicon;
+
+/*  Please see the license information at the end of this file. */
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import edu.northwestern.at.utils.*;
+
+/** Checks that loading a lexicon in parallel gives the same lexicon
+ *  as loading it sequentially.
+ */
+
+public class ParallelLexiconLoadTest
+{
+    @Rule
+    public TemporaryFolder folder   = new TemporaryFolder();
+
+    /** Categories of the generated lexicons. */
+
+    protected static final String[] CATEGORIES  =
+        { "n1" , "n2" , "vvb" , "vvd" , "vvz" , "j" , "av" };
+
+    /** Malformed lines of the generated lexicons. */
+
+    protected static final String[] MALFORMED_LINES =
+        {
+            "short\t1\tn1" ,
+            "badcount\t3\tn1\tbadcount\tx" ,
+            "truncated\t2\tn1\ttruncated\t2\tvvb" ,
+            "toolong\t1\tn1\ttoolong\t1\tvvb\ttoolong"
+        };
+
+    @Test
+    public void testParallelLoadMatchesSequentialLoad()
+        throws IOException
+    {
+        File file   = writeLexicon( "lexicon.lex" , 5000 , 1500 , 1 , 1 );
+
+        assertParallelLoadMatches( file , null );
+    }
+
+    @Test
+    public void testParallelLoadWithNonPositiveCounts()
+        throws IOException
+    {
+        File file   = writeLexicon( "lexicon.lex" , 5000 , 1500 , -2 , 2 );
+
+        assertParallelLoadMatches( file , null );
+    }
+
+    @Test
+    public void testParallelLoadIntoLoadedLexicon()
+        throws IOException
+    {
+        File first  = writeLexicon( "first.lex" , 1000 , 500 , 1 , 3 );
+        File second = writeLexicon( "second.lex" , 3000 , 1000 , 1 , 4 );
+
+        assertParallelLoadMatches( second , first );
+    }
+
+    @Test
+    public void testMalformedLineCount()
+        throws IOException
+    {
+        File file   = folder.newFile( "small.lex" );
+
+        PrintWriter writer  =
+            new PrintWriter
+            (
+                new OutputStreamWriter
+                (
+                    new FileOutputStream( file ) ,
+                    "utf-8"
+                )
+            );
+
+        writer.println( "run\t25\tvvb\trun\t20\tn1\trun\t5" );
+        writer.println( "" );
+
+        for ( String line : MALFORMED_LINES )
+        {
+            writer.println( line );
+        }
+
+        writer.close();
+
+        for ( int threads = 1 ; threads <= 2 ; threads++ )
+        {
+            AbstractLexicon lexicon = new BaseLexicon();
+
+            lexicon.setLoadThreads( threads );
+            lexicon.setLoadChunkSize( 2 );
+            lexicon.loadLexicon( file.toURI().toURL() , "utf-8" );
+
+            assertEquals
+            (
+                MALFORMED_LINES.length ,
+                lexicon.getMalformedLineCount()
+            );
+
+            assertEquals( 20 , lexicon.getCategoryCount( "run" , "vvb" ) );
+            assertEquals( 2 , lexicon.getCategoryCount( "truncated" , "n1" ) );
+            assertEquals( 1 , lexicon.getCategoryCount( "toolong" , "n1" ) );
+            assertNull( lexicon.getLexiconEntry( "short" ) );
+        }
+    }
+
+    /** Check that a parallel load gives the same lexicon as a sequential
+     *  load.
+     *
+     *  @param  file        The lexicon file.
+     *  @param  firstFile   A lexicon file to load first, sequentially.
+     *                      May be null.
+     */
+
+    protected void assertParallelLoadMatches( File file , File firstFile )
+        throws IOException
+    {
+        AbstractLexicon expected    = new BaseLexicon();
+
+        if ( firstFile != null )
+        {
+            expected.loadLexicon( firstFile.toURI().toURL() , "utf-8" );
+        }
+
+        expected.loadLexicon( file.toURI().toURL() , "utf-8" );
+
+        int[] chunkSizes    = { 1 , 7 , 64 , 100000 };
+
+        for ( int chunkSize : chunkSizes )
+        {
+            AbstractLexicon actual  = new BaseLexicon();
+
+            if ( firstFile != null )
+            {
+                actual.loadLexicon( firstFile.toURI().toURL() , "utf-8" );
+            }
+
+            actual.setLoadThreads( 4 );
+            actual.setLoadChunkSize( chunkSize );
+            actual.loadLexicon( file.toURI().toURL() , "utf-8" );
+
+            assertLexiconsEqual( "chunk size " + chunkSize , expected , actual );
+        }
+    }
+
+    /** Check that two lexicons hold the same data, in the same order.
+     *
+     *  @param  message     Message for failed assertions.
+     *  @param  expected    The expected lexicon.
+     *  @param  actual      The actual lexicon.
+     */
+
+    protected static void assertLexiconsEqual
+    (
+        String message ,
+        AbstractLexicon expected ,
+        AbstractLexicon actual
+    )
+    {
+        assertEquals
+        (
+            message ,
+            new ArrayList<String>( expected.lexiconMap.keySet() ) ,
+            new ArrayList<String>( actual.lexiconMap.keySet() )
+        );
+
+        for ( String entry : expected.lexiconMap.keySet() )
+        {
+            LexiconEntry expectedEntry  = expected.lexiconMap.get( entry );
+            LexiconEntry actualEntry    = actual.lexiconMap.get( entry );
+
+            String entryMessage = message + " " + entry;
+
+            assertEquals
+            (
+                entryMessage ,
+                expectedEntry.entryCount ,
+                actualEntry.entryCount
+            );
+
+            assertEquals
+            (
+                entryMessage ,
+                expectedEntry.largestCategory ,
+                actualEntry.largestCategory
+            );
+
+            assertEquals
+            (
+                entryMessage ,
+                expectedEntry.largestCategoryCount ,
+                actualEntry.largestCategoryCount
+            );
+
+            assertEquals
+            (
+                entryMessage ,
+                toList( expectedEntry.categoriesAndCounts ) ,
+                toList( actualEntry.categoriesAndCounts )
+            );
+
+            assertEquals
+            (
+                entryMessage ,
+                new ArrayList<Map.Entry<String, String>>(
+                    expectedEntry.lemmata.entrySet() ) ,
+                new ArrayList<Map.Entry<String, String>>(
+                    actualEntry.lemmata.entrySet() )
+            );
+        }
+
+        assertEquals
+        (
+            message ,
+            toList( expected.categoryCountsMap ) ,
+            toList( actual.categoryCountsMap )
+        );
+
+        assertEquals
+        (
+            message ,
+            toList( expected.uniqueEntryCountForCategoryMap ) ,
+            toList( actual.uniqueEntryCountForCategoryMap )
+        );
+
+        assertEquals
+        (
+            message ,
+            expected.getLongestEntryLength() ,
+            actual.getLongestEntryLength()
+        );
+
+        assertEquals
+        (
+            message ,
+            expected.getShortestEntryLength() ,
+            actual.getShortestEntryLength()
+        );
+
+        assertEquals
+        (
+            message ,
+            expected.getMalformedLineCount() ,
+            actual.getMalformedLineCount()
+        );
+    }
+
+    /** Convert a map of counts to a list of strings in iteration order.
+     *
+     *  @param  counts  The counts.
+     *
+     *  @return         "key=count" strings.
+     */
+
+    protected static List<String> toList( Map<String, MutableInteger> counts )
+    {
+        List<String> result = new ArrayList<String>();
+
+        for ( Map.Entry<String, MutableInteger> count : counts.entrySet() )
+        {
+            result.add( count.getKey() + "=" + count.getValue().intValue() );
+        }
+
+        return result;
+    }
+
+    /** Write a random lexicon.
+     *
+     *  @param  name            File name.
+     *  @param  lines           Number of lines.
+     *  @param  spellings       Number of distinct spellings.  Spellings
+     *                          appear on several lines.
+     *  @param  minimumCount    Smallest category count.
+     *  @param  seed            Random seed.
+     *
+     *  @return                 The lexicon file.
+     */
+
+    protected File writeLexicon
+    (
+        String name ,
+        int lines ,
+        int spellings ,
+        int minimumCount ,
+        long seed
+    )
+        throws IOException
+    {
+        File file       = folder.newFile( name );
+        Random random   = new Random( seed );
+
+        PrintWriter writer  =
+            new PrintWriter
+            (
+                new OutputStreamWriter
+                (
+                    new FileOutputStream( file ) ,
+                    "utf-8"
+                )
+            );
+
+        for ( int i = 0 ; i < lines ; i++ )
+        {
+            if ( random.nextInt( 50 ) == 0 )
+            {
+                writer.println
+                (
+                    MALFORMED_LINES[ random.nextInt( MALFORMED_LINES.length ) ]
+                );
+
+                continue;
+            }
+
+            String spelling = "w" + random.nextInt( spellings );
+            int categories  = 1 + random.nextInt( 3 );
+
+            StringBuilder line  = new StringBuilder();
+            int total           = 0;
+
+            for ( int j = 0 ; j < categories ; j++ )
+            {
+                                //  Small counts, so that categories
+                                //  often tie for the largest count.
+
+                int count   = minimumCount + random.nextInt( 4 );
+
+                line.append( '\t' );
+                line.append( CATEGORIES[ random.nextInt( CATEGORIES.length ) ] );
+                line.append( '\t' );
+                line.append( "l" + random.nextInt( 3 ) );
+                line.append( '\t' );
+                line.append( count );
+
+                total   += count;
+            }
+
+            writer.println( spelling + "\t" + total + line );
+        }
+
+        writer.close();
+
+        return file;
+    }
+}
+
+/*
+Copyright (c) 2008, 2013 by Northwestern University.
+All rights reserved.
+
+Developed by:
+   Academic and Research Technologies
+   Northwestern University
+   http://www.it.northwestern.edu/about/departments/at/
+
+Permission is hereby granted, free of charge, to any person
+obtaining a copy of this software and associated documentation
+files (the "Software"), to deal with the Software without
+restriction, including without limitation the rights to use,
+copy, modify, merge, publish, distribute, sublicense, and/or
+sell copies of the Software, and to permit persons to whom the
+Software is furnished to do so, subject to the following
+conditions:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimers.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimers in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the names of Academic and Research Technologies,
+      Northwestern University, nor the names of its contributors may be
+      used to endorse or promote products derived from this Software
+      without specific prior written permission.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+NONINFRINGEMENT. IN NO EVENT SHALL THE CONTRIBUTORS OR
+COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*/
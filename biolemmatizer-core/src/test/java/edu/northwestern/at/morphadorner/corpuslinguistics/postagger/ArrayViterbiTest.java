@@ -0,0 +1,280 @@
+package edu.northwestern.at.morphadorner.corpuslinguistics.postagger;
+
+/*  Please see the license information at the end of this file. */
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.Test;
+
+import edu.northwestern.at.utils.*;
+import edu.northwestern.at.utils.math.*;
+
+/** Checks that the array based Viterbi decoder finds the same tags
+ *  as the map based one.
+ */
+
+public class ArrayViterbiTest
+{
+    /** Number of generated sentences. */
+
+    protected static final int SENTENCES    = 500;
+
+    @Test
+    public void testBigramMatchesViterbi()
+    {
+        assertMatchesViterbi( false );
+    }
+
+    @Test
+    public void testTrigramMatchesViterbi()
+    {
+        assertMatchesViterbi( true );
+    }
+
+    @Test
+    public void testEmptySentence()
+    {
+        ArrayViterbi viterbi    = new ArrayViterbi();
+
+        viterbi.start( 0 );
+
+        assertEquals( 0 , viterbi.optimalTags( 0 ).size() );
+    }
+
+    /** Decode random sentences with both decoders, reusing one array
+     *  based decoder, and compare the tags.
+     *
+     *  @param  trigram     True to decode trigrams, false for bigrams.
+     */
+
+    protected void assertMatchesViterbi( boolean trigram )
+    {
+        Random random               = new Random( trigram ? 2 : 1 );
+        ArrayViterbi arrayViterbi   = new ArrayViterbi();
+
+                                //  Use a narrow beam now and then
+                                //  so that tags get pruned.  Use more
+                                //  tags than fit the initial rows, so
+                                //  that rows grow in mid sentence.
+
+        for ( int s = 0 ; s < SENTENCES ; s++ )
+        {
+            double beamWidth    =
+                random.nextBoolean() ? Math.log( 1000.0D ) : 0.5D;
+
+            int nTagSet         = 5 + random.nextInt( 100 );
+            int nWords          = random.nextInt( 60 );
+
+            Viterbi viterbi     = new Viterbi();
+
+            viterbi.beamWidth( beamWidth );
+            arrayViterbi.beamWidth( beamWidth );
+            arrayViterbi.start( nWords );
+
+            List<String> prevPrevTags   = Arrays.asList( "." );
+            List<String> prevTags       = Arrays.asList( "." );
+            List<String> tags           = null;
+
+            for ( int i = 0 ; i < nWords ; i++ )
+            {
+                tags    = randomTags( random , nTagSet );
+
+                int nTags           = tags.size();
+                int nPrevTags       = prevTags.size();
+                int nPrevPrevTags   = trigram ? prevPrevTags.size() : 1;
+
+                Probability[] lexicalProbs  = new Probability[ nTags ];
+
+                Map2D<String, String, Probability> bigramProbs  =
+                    Map2DFactory.createNewMap2D();
+
+                Map3D<String, String, String, Probability> trigramProbs =
+                    Map3DFactory.createNewMap3D();
+
+                assertEquals( nTags , arrayViterbi.setTags( i , tags ) );
+                assertEquals( nPrevTags , arrayViterbi.getTagCount( i - 1 ) );
+
+                double[] lexicalScores      =
+                    arrayViterbi.getLexicalScores( nTags );
+
+                double[] contextualScores   =
+                    arrayViterbi.getContextualScores
+                    (
+                        nTags * nPrevTags * nPrevPrevTags
+                    );
+
+                int contextual  = 0;
+
+                for ( int j = 0 ; j < nTags ; j++ )
+                {
+                    lexicalProbs[ j ]   = randomProbability( random );
+                    lexicalScores[ j ]  =
+                        lexicalProbs[ j ].getLogProbability();
+
+                    for ( int k = 0 ; k < nPrevTags ; k++ )
+                    {
+                        assertEquals
+                        (
+                            prevTags.get( k ) ,
+                            arrayViterbi.getTag( i - 1 , k )
+                        );
+
+                        for ( int l = 0 ; l < nPrevPrevTags ; l++ )
+                        {
+                            Probability p   = randomProbability( random );
+
+                            if ( trigram )
+                            {
+                                trigramProbs.put
+                                (
+                                    tags.get( j ) ,
+                                    prevTags.get( k ) ,
+                                    prevPrevTags.get( l ) ,
+                                    p
+                                );
+                            }
+                            else
+                            {
+                                bigramProbs.put
+                                (
+                                    tags.get( j ) , prevTags.get( k ) , p
+                                );
+                            }
+
+                            contextualScores[ contextual++ ]    =
+                                p.getLogProbability();
+                        }
+                    }
+                }
+
+                List<String> passedTags;
+                int nPassedTags;
+
+                if ( trigram )
+                {
+                    passedTags  =
+                        viterbi.updateScore
+                        (
+                            i , lexicalProbs , trigramProbs ,
+                            tags , prevTags , prevPrevTags
+                        );
+
+                    nPassedTags = arrayViterbi.updateTrigramScore( i );
+                }
+                else
+                {
+                    passedTags  =
+                        viterbi.updateScore
+                        (
+                            i , lexicalProbs , bigramProbs ,
+                            tags , prevTags
+                        );
+
+                    nPassedTags = arrayViterbi.updateBigramScore( i );
+                }
+
+                assertEquals( passedTags.size() , nPassedTags );
+
+                prevPrevTags    = prevTags;
+                prevTags        = passedTags;
+            }
+
+            if ( nWords > 0 )
+            {
+                assertEquals
+                (
+                    "sentence " + s ,
+                    viterbi.optimalTags( nWords , prevTags ) ,
+                    arrayViterbi.optimalTags( nWords )
+                );
+            }
+
+            assertEquals
+            (
+                viterbi.getBeamSearchRejections() ,
+                arrayViterbi.getBeamSearchRejections()
+            );
+        }
+    }
+
+    /** Get distinct random tags.
+     *
+     *  @param  random      Random number generator.
+     *  @param  nTagSet     Number of tags to choose from.
+     *
+     *  @return             One to eight tags.
+     */
+
+    protected static List<String> randomTags( Random random , int nTagSet )
+    {
+        Set<String> tags    = new LinkedHashSet<String>();
+        int nTags           = 1 + random.nextInt( 8 );
+
+        while ( tags.size() < Math.min( nTags , nTagSet ) )
+        {
+            tags.add( "t" + random.nextInt( nTagSet ) );
+        }
+
+        return new ArrayList<String>( tags );
+    }
+
+    /** Get a random probability, sometimes zero or one.
+     *
+     *  @param  random  Random number generator.
+     *
+     *  @return         The probability.
+     */
+
+    protected static Probability randomProbability( Random random )
+    {
+        switch ( random.nextInt( 20 ) )
+        {
+            case 0  : return Probability.ZERO_PROBABILITY;
+            case 1  : return Probability.ONE_PROBABILITY;
+            default : return new Probability( random.nextDouble() );
+        }
+    }
+}
+
+/*
+Copyright (c) 2008, 2013 by Northwestern University.
+All rights reserved.
+
+Developed by:
+   Academic and Research Technologies
+   Northwestern University
+   http://www.it.northwestern.edu/about/departments/at/
+
+Permission is hereby granted, free of charge, to any person
+obtaining a copy of this software and associated documentation
+files (the "Software"), to deal with the Software without
+restriction, including without limitation the rights to use,
+copy, modify, merge, publish, distribute, sublicense, and/or
+sell copies of the Software, and to permit persons to whom the
+Software is furnished to do so, subject to the following
+conditions:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimers.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimers in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the names of Academic and Research Technologies,
+      Northwestern University, nor the names of its contributors may be
+      used to endorse or promote products derived from this Software
+      without specific prior written permission.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+NONINFRINGEMENT. IN NO EVENT SHALL THE CONTRIBUTORS OR
+COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*/
@@ -0,0 +1,398 @@
+package edu.northwestern.at.morphadorner.corpuslinguistics.postagger;
+
+/*  Please see the license information at the end of this file. */
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import edu.northwestern.at.morphadorner.corpuslinguistics.adornedword.*;
+import edu.northwestern.at.morphadorner.corpuslinguistics.lexicon.*;
+import edu.northwestern.at.morphadorner.corpuslinguistics.postagger.bigram.*;
+import edu.northwestern.at.morphadorner.corpuslinguistics.postagger.guesser.*;
+import edu.northwestern.at.morphadorner.corpuslinguistics.postagger.transitionmatrix.*;
+import edu.northwestern.at.morphadorner.corpuslinguistics.postagger.trigram.*;
+import edu.northwestern.at.morphadorner.corpuslinguistics.postagger.trigramhybrid.*;
+
+/** Checks that a tagger shared between threads tags sentences
+ *  exactly as a tagger used by one thread.
+ */
+
+public class ConcurrentTaggingTest
+{
+    /** Number of tagging threads. */
+
+    protected static final int THREADS  = 8;
+
+    /** Number of generated sentences. */
+
+    protected static final int SENTENCES    = 300;
+
+    /** Words of the generated sentences.  Words not in the lexicon
+     *  appear in one case only, since the guesser may answer for one
+     *  case from the cached guess for another.
+     */
+
+    protected static final String[] WORDS   =
+        {
+            "the" , "a" , "this" , "we" , "it" , "protein" , "proteins" ,
+            "cell" , "cells" , "gene" , "genes" , "kinase" , "receptor" ,
+            "mouse" , "human" , "activity" , "signaling" , "was" , "is" ,
+            "has" , "had" , "been" , "binds" , "bound" , "expressed" ,
+            "activated" , "increased" , "found" , "show" , "shows" ,
+            "to" , "of" , "in" , "and" , "with" , "by" , "that" , "not" ,
+            "strongly" , "rapidly" , "," , "(" , ")" , "42" , "3.5" ,
+            "zorblatin" , "glimfraxase" , "p53-mediated" , "cross-linked" ,
+            "IL-2R" , "Smad4" , "BRCA1" , "kinase-dead" , "phospho-ERK" ,
+            "Wnt-dependent" , "hyperphosphorylation" , "unbindable"
+        };
+
+    /** Hepple context rules for the hybrid tagger. */
+
+    protected static final String[] CONTEXT_RULES  =
+        {
+            "vvd vvn PREVTAG vhz" ,
+            "vvd vvn PREV1OR2TAG vhd" ,
+            "vvd vvn PREVTAG vbz" ,
+            "n1 vvi PREVTAG pc-acp"
+        };
+
+    /** The word lexicon. */
+
+    protected static Lexicon wordLexicon;
+
+    /** The suffix lexicon. */
+
+    protected static Lexicon suffixLexicon;
+
+    /** The transition matrix. */
+
+    protected static TransitionMatrix transitionMatrix;
+
+    /** The sentences. */
+
+    protected static List<List<String>> sentences;
+
+    @BeforeClass
+    public static void setUp()
+        throws Exception
+    {
+        wordLexicon     = new DefaultWordLexicon();
+        suffixLexicon   = new DefaultSuffixLexicon();
+        sentences       = createSentences( SENTENCES , 1 );
+
+                                //  Count tag transitions of the
+                                //  sentences tagged with the most
+                                //  common tag of each word.
+
+        transitionMatrix    = new TransitionMatrix();
+
+        for ( List<String> sentence : sentences )
+        {
+            String previousPreviousTag  = ".";
+            String previousTag          = ".";
+
+            for ( String word : sentence )
+            {
+                String tag  =
+                    wordLexicon.containsEntry( word ) ?
+                        wordLexicon.getLargestCategory( word ) : "np1";
+
+                transitionMatrix.incrementCount( tag , 1 );
+                transitionMatrix.incrementCount( previousTag , tag , 1 );
+
+                transitionMatrix.incrementCount
+                (
+                    previousPreviousTag , previousTag , tag , 1
+                );
+
+                previousPreviousTag = previousTag;
+                previousTag         = tag;
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentTrigramTagging()
+        throws Exception
+    {
+        assertConcurrentTaggingMatches( TrigramTagger.class );
+    }
+
+    @Test
+    public void testConcurrentBigramTagging()
+        throws Exception
+    {
+        assertConcurrentTaggingMatches( BigramTagger.class );
+    }
+
+    @Test
+    public void testConcurrentHybridTagging()
+        throws Exception
+    {
+        assertConcurrentTaggingMatches( TrigramHybridTagger.class );
+    }
+
+    /** Check that a tagger shared between threads tags the sentences
+     *  as a tagger of the same class used by one thread.
+     *
+     *  @param  taggerClass     The tagger class.
+     */
+
+    protected void assertConcurrentTaggingMatches
+    (
+        Class<? extends AbstractPartOfSpeechTagger> taggerClass
+    )
+        throws Exception
+    {
+        AbstractPartOfSpeechTagger singleTagger =
+            createTagger( taggerClass );
+
+        final List<String> expected = new ArrayList<String>();
+
+        for ( List<String> sentence : sentences )
+        {
+            expected.add( tag( singleTagger , sentence ) );
+        }
+                                //  Each thread tags all sentences with
+                                //  a new shared tagger, starting at a
+                                //  different sentence, so that threads
+                                //  guess the same unknown words at
+                                //  about the same time.
+
+        final AbstractPartOfSpeechTagger sharedTagger   =
+            createTagger( taggerClass );
+
+        final CountDownLatch start  = new CountDownLatch( 1 );
+
+        ExecutorService executor    = Executors.newFixedThreadPool( THREADS );
+
+        try
+        {
+            List<Future<List<String>>> futures  =
+                new ArrayList<Future<List<String>>>();
+
+            for ( int i = 0 ; i < THREADS ; i++ )
+            {
+                final int offset    = i * SENTENCES / THREADS;
+
+                futures.add
+                (
+                    executor.submit
+                    (
+                        new Callable<List<String>>()
+                        {
+                            public List<String> call()
+                                throws Exception
+                            {
+                                start.await();
+
+                                String[] result =
+                                    new String[ sentences.size() ];
+
+                                for ( int j = 0 ; j < result.length ; j++ )
+                                {
+                                    int k   =
+                                        ( offset + j ) % result.length;
+
+                                    result[ k ] =
+                                        tag
+                                        (
+                                            sharedTagger ,
+                                            sentences.get( k )
+                                        );
+                                }
+
+                                return Arrays.asList( result );
+                            }
+                        }
+                    )
+                );
+            }
+
+            start.countDown();
+
+            for ( Future<List<String>> future : futures )
+            {
+                List<String> actual = future.get( 5 , TimeUnit.MINUTES );
+
+                for ( int i = 0 ; i < expected.size() ; i++ )
+                {
+                    assertEquals
+                    (
+                        taggerClass.getSimpleName() + " sentence " + i ,
+                        expected.get( i ) ,
+                        actual.get( i )
+                    );
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    /** Create a tagger using the shared lexicons and transition matrix.
+     *
+     *  @param  taggerClass     The tagger class.
+     *
+     *  @return                 The tagger, with its own part of
+     *                          speech guessers and dynamic lexicon
+     *                          holding the test words not in the
+     *                          lexicon.
+     */
+
+    protected static AbstractPartOfSpeechTagger createTagger
+    (
+        Class<? extends AbstractPartOfSpeechTagger> taggerClass
+    )
+        throws Exception
+    {
+        AbstractPartOfSpeechTagger tagger   = taggerClass.newInstance();
+
+        tagger.setLexicon( wordLexicon );
+        tagger.setTransitionMatrix( transitionMatrix );
+        tagger.setPartOfSpeechGuesser( createGuesser() );
+
+        if ( tagger.getRetagger() instanceof AbstractPartOfSpeechTagger )
+        {
+            ((AbstractPartOfSpeechTagger)tagger.getRetagger()).
+                setPartOfSpeechGuesser( createGuesser() );
+        }
+
+        tagger.setContextRules( CONTEXT_RULES );
+
+                                //  Tag all the words once.  Lexical
+                                //  probabilities of words not in the
+                                //  lexicon depend on the words guessed
+                                //  before them, so every tagger must
+                                //  guess them in the same order.
+
+        tag( tagger , Arrays.asList( WORDS ) );
+
+        return tagger;
+    }
+
+    /** Create a part of speech guesser using the shared lexicons.
+     *
+     *  @return     The guesser.
+     */
+
+    protected static PartOfSpeechGuesser createGuesser()
+    {
+        DefaultPartOfSpeechGuesser guesser  =
+            new DefaultPartOfSpeechGuesser();
+
+        guesser.setWordLexicon( wordLexicon );
+        guesser.setSuffixLexicon( suffixLexicon );
+
+        return guesser;
+    }
+
+    /** Tag a sentence.
+     *
+     *  @param  tagger      The tagger.
+     *  @param  sentence    The sentence.
+     *
+     *  @return             The words of the sentence and their tags.
+     */
+
+    protected static String tag
+    (
+        PartOfSpeechTagger tagger ,
+        List<String> sentence
+    )
+    {
+        List<List<String>> input    = new ArrayList<List<String>>();
+
+        input.add( sentence );
+
+        StringBuilder result    = new StringBuilder();
+
+        for ( AdornedWord word : tagger.tagSentences( input ).get( 0 ) )
+        {
+            result.append( word.getToken() );
+            result.append( '/' );
+            result.append( word.getPartsOfSpeech() );
+            result.append( ' ' );
+        }
+
+        return result.toString();
+    }
+
+    /** Create random sentences from the test words.
+     *
+     *  @param  count   The number of sentences.
+     *  @param  seed    The random seed.
+     *
+     *  @return         The sentences.
+     */
+
+    protected static List<List<String>> createSentences( int count , long seed )
+    {
+        Random random                   = new Random( seed );
+        List<List<String>> result       = new ArrayList<List<String>>();
+
+        for ( int i = 0 ; i < count ; i++ )
+        {
+            List<String> sentence   = new ArrayList<String>();
+            int length              = 3 + random.nextInt( 23 );
+
+            for ( int j = 0 ; j < length ; j++ )
+            {
+                sentence.add( WORDS[ random.nextInt( WORDS.length ) ] );
+            }
+
+            sentence.add( "." );
+            result.add( sentence );
+        }
+
+        return result;
+    }
+}
+
+/*
+Copyright (c) 2008, 2013 by Northwestern University.
+All rights reserved.
+
+Developed by:
+   Academic and Research Technologies
+   Northwestern University
+   http://www.it.northwestern.edu/about/departments/at/
+
+Permission is hereby granted, free of charge, to any person
+obtaining a copy of this software and associated documentation
+files (the "Software"), to deal with the Software without
+restriction, including without limitation the rights to use,
+copy, modify, merge, publish, distribute, sublicense, and/or
+sell copies of the Software, and to permit persons to whom the
+Software is furnished to do so, subject to the following
+conditions:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimers.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimers in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the names of Academic and Research Technologies,
+      Northwestern University, nor the names of its contributors may be
+      used to endorse or promote products derived from this Software
+      without specific prior written permission.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+NONINFRINGEMENT. IN NO EVENT SHALL THE CONTRIBUTORS OR
+COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*/
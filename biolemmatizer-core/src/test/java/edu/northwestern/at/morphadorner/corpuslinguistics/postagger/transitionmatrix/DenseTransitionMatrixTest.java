@@ -0,0 +1,289 @@
+package edu.northwestern.at.morphadorner.corpuslinguistics.postagger.transitionmatrix;
+
+/*  Please see the license information at the end of this file. */
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/** Checks that a dense transition matrix gives the same counts and
+ *  probabilities as the transition matrix it was created from.
+ */
+
+public class DenseTransitionMatrixTest
+{
+    /** Number of tags in the test tag set. */
+
+    protected static final int TAGS = 40;
+
+    /** The trained transition matrix. */
+
+    protected static TransitionMatrix transitionMatrix;
+
+    /** The tags to look up, including one not in the matrix. */
+
+    protected static List<String> tags;
+
+    @BeforeClass
+    public static void setUp()
+    {
+        transitionMatrix    = new TransitionMatrix();
+        tags                = new ArrayList<String>();
+
+        for ( int i = 0 ; i < TAGS ; i++ )
+        {
+            tags.add( "t" + i );
+        }
+
+        tags.add( "." );
+        tags.add( "unknown" );
+
+                                //  Train on a random tag sequence with
+                                //  a skewed tag distribution, so that
+                                //  many trigrams are missing.
+
+        Random random       = new Random( 1 );
+        String previous     = ".";
+        String previous2    = ".";
+
+        for ( int i = 0 ; i < 20000 ; i++ )
+        {
+            String tag  =
+                ( random.nextInt( 12 ) == 0 ) ? "." :
+                    "t" + (int)( TAGS * Math.pow( random.nextDouble() , 3 ) );
+
+            transitionMatrix.incrementCount( tag , 1 );
+            transitionMatrix.incrementCount( previous , tag , 1 );
+            transitionMatrix.incrementCount( previous2 , previous , tag , 1 );
+
+            previous2   = previous;
+            previous    = tag;
+        }
+    }
+
+    @Test
+    public void testMatchesTransitionMatrix()
+    {
+        assertSameMatrix
+        (
+            transitionMatrix ,
+            new DenseTransitionMatrix( transitionMatrix )
+        );
+    }
+
+    @Test
+    public void testBinaryRoundTrip()
+        throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        new DenseTransitionMatrix( transitionMatrix ).
+            saveBinaryTransitionMatrix( bytes );
+
+        DenseTransitionMatrix loaded    = new DenseTransitionMatrix();
+
+        loaded.loadBinaryTransitionMatrix
+        (
+            new ByteArrayInputStream( bytes.toByteArray() )
+        );
+
+        assertSameMatrix( transitionMatrix , loaded );
+    }
+
+    @Test
+    public void testTextRoundTrip()
+        throws IOException
+    {
+        StringWriter expected   = new StringWriter();
+
+        transitionMatrix.saveTransitionMatrix( expected , '\t' );
+
+        DenseTransitionMatrix loaded    = new DenseTransitionMatrix();
+
+        loaded.loadTransitionMatrix
+        (
+            new StringReader( expected.toString() ) , '\t'
+        );
+
+        StringWriter actual     = new StringWriter();
+
+        loaded.saveTransitionMatrix( actual , '\t' );
+
+        assertEquals( expected.toString() , actual.toString() );
+        assertSameMatrix( transitionMatrix , loaded );
+    }
+
+    @Test
+    public void testTagIds()
+    {
+        DenseTransitionMatrix matrix    =
+            new DenseTransitionMatrix( transitionMatrix );
+
+        assertEquals( -1 , matrix.getTagId( "unknown" ) );
+
+        int previous2   = matrix.getTagId( "." );
+        int previous    = matrix.getTagId( "t0" );
+        int tag         = matrix.getTagId( "t1" );
+
+        assertEquals( "t1" , matrix.getTag( tag ) );
+
+        assertEquals
+        (
+            transitionMatrix.getProbability( "." , "t0" , "t1" ) ,
+            matrix.getProbability( previous2 , previous , tag ) ,
+            0.0D
+        );
+
+        assertEquals
+        (
+            transitionMatrix.getProbability( "t0" , "t1" ) ,
+            matrix.getProbability( previous , tag ) ,
+            0.0D
+        );
+    }
+
+    @Test( expected = UnsupportedOperationException.class )
+    public void testCountsCannotChange()
+    {
+        new DenseTransitionMatrix( transitionMatrix ).incrementCount(
+            "t0" , 1 );
+    }
+
+    @Test( expected = IOException.class )
+    public void testLoadRejectsOtherFormats()
+        throws IOException
+    {
+        new DenseTransitionMatrix().loadBinaryTransitionMatrix
+        (
+            new ByteArrayInputStream( "t0\t1\n".getBytes( "utf-8" ) )
+        );
+    }
+
+    /** Check that two transition matrices hold the same counts,
+     *  probabilities and weights.
+     *
+     *  @param  expected    The expected transition matrix.
+     *  @param  actual      The actual transition matrix.
+     */
+
+    protected static void assertSameMatrix
+    (
+        TransitionMatrix expected ,
+        TransitionMatrix actual
+    )
+    {
+        assertEquals
+        (
+            expected.getTotalWordCount() , actual.getTotalWordCount()
+        );
+
+        assertTrue
+        (
+            Arrays.equals
+            (
+                expected.getBigramWeights() , actual.getBigramWeights()
+            )
+        );
+
+        assertTrue
+        (
+            Arrays.equals
+            (
+                expected.getTrigramWeights() , actual.getTrigramWeights()
+            )
+        );
+
+        assertEquals( expected.rowKeySet() , actual.rowKeySet() );
+        assertEquals( expected.columnKeySet() , actual.columnKeySet() );
+        assertEquals( expected.sliceKeySet() , actual.sliceKeySet() );
+
+        for ( String tag1 : tags )
+        {
+            assertEquals( expected.getCount( tag1 ) , actual.getCount( tag1 ) );
+
+            assertEquals
+            (
+                expected.getProbability( tag1 ) ,
+                actual.getProbability( tag1 ) ,
+                0.0D
+            );
+
+            for ( String tag2 : tags )
+            {
+                assertEquals
+                (
+                    expected.getCount( tag1 , tag2 ) ,
+                    actual.getCount( tag1 , tag2 )
+                );
+
+                assertEquals
+                (
+                    expected.getProbability( tag1 , tag2 ) ,
+                    actual.getProbability( tag1 , tag2 ) ,
+                    0.0D
+                );
+
+                for ( String tag3 : tags )
+                {
+                    assertEquals
+                    (
+                        expected.getCount( tag1 , tag2 , tag3 ) ,
+                        actual.getCount( tag1 , tag2 , tag3 )
+                    );
+
+                    assertEquals
+                    (
+                        expected.getProbability( tag1 , tag2 , tag3 ) ,
+                        actual.getProbability( tag1 , tag2 , tag3 ) ,
+                        0.0D
+                    );
+                }
+            }
+        }
+    }
+}
+
+/*
+Copyright (c) 2008, 2013 by Northwestern University.
+All rights reserved.
+
+Developed by:
+   Academic and Research Technologies
+   Northwestern University
+   http://www.it.northwestern.edu/about/departments/at/
+
+Permission is hereby granted, free of charge, to any person
+obtaining a copy of this software and associated documentation
+files (the "Software"), to deal with the Software without
+restriction, including without limitation the rights to use,
+copy, modify, merge, publish, distribute, sublicense, and/or
+sell copies of the Software, and to permit persons to whom the
+Software is furnished to do so, subject to the following
+conditions:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimers.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimers in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the names of Academic and Research Technologies,
+      Northwestern University, nor the names of its contributors may be
+      used to endorse or promote products derived from this Software
+      without specific prior written permission.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+NONINFRINGEMENT. IN NO EVENT SHALL THE CONTRIBUTORS OR
+COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*/
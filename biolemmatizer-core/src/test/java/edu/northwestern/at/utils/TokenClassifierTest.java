@@ -0,0 +1,235 @@
+package edu.northwestern.at.utils;
+
+/*  Please see the license information at the end of this file. */
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.*;
+
+import org.junit.Test;
+
+/** Checks TokenClassifier against the regular expression based
+ *  predicates it replaces.
+ */
+
+public class TokenClassifierTest
+{
+    /** Characters used to build random tokens. */
+
+    protected static final String ALPHABET  =
+        "MDCLXVIUJOSTHNRmdclxviujosthnr.-‑*'sSeExXpPfFaAbB0123456789+" +
+        "NaInfity \t,;!?$%&()éıſﬆ’¶";
+
+    /** Fixed tokens of interest. */
+
+    protected static final String[] TOKENS  =
+        {
+            "" , "-" , "--" , "‑-" , "*" , "***" , "*'s" , "**'S" ,
+            "--'s" , "-'s" , "1" , "-1.5e10" , "1e" , "1e+" , ".5" , "5." ,
+            "." , "+" , "NaN" , "-Infinity" , "Infinityx" , "0x1p3" ,
+            "0x.8P-2d" , "0x1" , "0x" , "1f" , "1F" , "1dd" , " 12 " ,
+            "xiv" , "XIV" , "mix" , "MCMXC" , "iii." , ".ii." , "xivth" ,
+            "IIIrd" , "ivST" , "iius" , "xiio" , "m..c..x" , "ij" , "iiij" ,
+            "vj" , "uj" , "ıv" , "ſt" , "iﬆ" , "protein" ,
+            "don't" , "cell's" , "alpha-helix" , "p53" , "U.S." , "$5" ,
+            "été"
+        };
+
+    @Test
+    public void testMatchesReferencePredicates()
+    {
+        Random random   = new Random( 42 );
+
+        List<String> tokens = new ArrayList<String>( Arrays.asList( TOKENS ) );
+
+        for ( int i = 0 ; i < 200000 ; i++ )
+        {
+            int l               = random.nextInt( 7 );
+            StringBuilder sb    = new StringBuilder();
+
+            for ( int j = 0 ; j < l ; j++ )
+            {
+                sb.append( ALPHABET.charAt( random.nextInt( ALPHABET.length() ) ) );
+            }
+
+            tokens.add( sb.toString() );
+        }
+
+        for ( String token : tokens )
+        {
+            assertEquals
+            (
+                "isAllHyphens: " + token ,
+                token.matches( "^([-‑]{1,})$" ) ,
+                TokenClassifier.isAllHyphens( token )
+            );
+
+            assertEquals
+            (
+                "isAllAsterisks: " + token ,
+                token.matches( "^(\\*{1,})$" ) ,
+                TokenClassifier.isAllAsterisks( token )
+            );
+
+            assertEquals
+            (
+                "isPossessiveAsterisks: " + token ,
+                token.matches( "^(\\*{1,})'(s|S)$" ) ,
+                TokenClassifier.isPossessiveAsterisks( token )
+            );
+
+            assertEquals
+            (
+                "isPossessiveDashes: " + token ,
+                token.matches( "^([-‑]{2,})'(s|S)$" ) ,
+                TokenClassifier.isPossessiveDashes( token )
+            );
+
+            assertEquals
+            (
+                "hasPunctuationNotApostrophes: " + token ,
+                referenceHasPunctuationNotApostrophes( token ) ,
+                TokenClassifier.hasPunctuationNotApostrophes( token )
+            );
+
+            assertEquals
+            (
+                "hasSymbols: " + token ,
+                referenceHasSymbols( token ) ,
+                TokenClassifier.hasSymbols( token )
+            );
+
+            assertEquals
+            (
+                "isNumber: " + token ,
+                referenceIsNumber( token ) ,
+                TokenClassifier.isNumber( token )
+            );
+
+            assertEquals
+            (
+                "isLooseRomanNumeral: " + token ,
+                token.toUpperCase( Locale.ENGLISH ).matches(
+                    RomanNumeralUtils.looseRomanNumeralPattern ) ,
+                TokenClassifier.isLooseRomanNumeral( token )
+            );
+
+            assertEquals
+            (
+                "isLooseOrdinalRomanNumeral: " + token ,
+                token.toUpperCase( Locale.ENGLISH ).matches(
+                    RomanNumeralUtils.looseOrdinalRomanNumeralPattern ) ,
+                TokenClassifier.isLooseOrdinalRomanNumeral( token )
+            );
+
+            String trimmed  = token.trim();
+
+            assertEquals
+            (
+                "cantLemmatize: " + token ,
+                referenceCantLemmatize( trimmed ) ,
+                TokenClassifier.cantLemmatize( trimmed )
+            );
+        }
+    }
+
+    protected static boolean referenceCantLemmatize( String s )
+    {
+        return
+            ( s.length() == 0 ) ||
+            s.matches( "^([-‑]{1,})$" ) ||
+            referenceHasPunctuationNotApostrophes( s ) ||
+            referenceHasSymbols( s ) ||
+            referenceIsNumber( s ) ||
+            s.toUpperCase( Locale.ENGLISH ).matches(
+                RomanNumeralUtils.looseRomanNumeralPattern ) ||
+            s.toUpperCase( Locale.ENGLISH ).matches(
+                RomanNumeralUtils.looseOrdinalRomanNumeralPattern );
+    }
+
+    protected static boolean referenceHasPunctuationNotApostrophes( String s )
+    {
+        String ts   = s.trim();
+
+        for ( int i = 0 ; i < ts.length() ; i++ )
+        {
+            char ch = ts.charAt( i );
+
+            if ( CharUtils.isPunctuation( ch ) && ( ch != '-' ) && ( ch != '\'' ) )
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    protected static boolean referenceHasSymbols( String s )
+    {
+        String ts   = s.trim();
+
+        for ( int i = 0 ; i < ts.length() ; i++ )
+        {
+            if ( CharUtils.isSymbol( ts.charAt( i ) ) )
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    protected static boolean referenceIsNumber( String s )
+    {
+        try
+        {
+            Double.parseDouble( s );
+            return true;
+        }
+        catch ( Exception e )
+        {
+            return false;
+        }
+    }
+}
+
+/*
+Copyright (c) 2008, 2013 by Northwestern University.
+All rights reserved.
+
+Developed by:
+   Academic and Research Technologies
+   Northwestern University
+   http://www.it.northwestern.edu/about/departments/at/
+
+Permission is hereby granted, free of charge, to any person
+obtaining a copy of this software and associated documentation
+files (the "Software"), to deal with the Software without
+restriction, including without limitation the rights to use,
+copy, modify, merge, publish, distribute, sublicense, and/or
+sell copies of the Software, and to permit persons to whom the
+Software is furnished to do so, subject to the following
+conditions:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimers.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimers in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the names of Academic and Research Technologies,
+      Northwestern University, nor the names of its contributors may be
+      used to endorse or promote products derived from this Software
+      without specific prior written permission.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+NONINFRINGEMENT. IN NO EVENT SHALL THE CONTRIBUTORS OR
+COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*/
@@ -0,0 +1,207 @@
+package edu.northwestern.at.utils.cache;
+
+/*  Please see the license information at the end of this file. */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.*;
+
+import org.junit.Test;
+
+/** Checks StripedClockCache against a map, with and without eviction.
+ */
+
+public class StripedClockCacheTest
+{
+    /** Create the keys of entry i.
+     *
+     *  @param  i   The entry number.
+     *
+     *  @return     The keys.
+     */
+
+    protected static String[] keys( int i )
+    {
+        return new String[]
+        {
+            "w" + ( i % 97 ) ,
+            "t" + ( i / 97 ) ,
+            ( ( i % 3 ) == 0 ) ? null : "*"
+        };
+    }
+
+    @Test
+    public void testMatchesMapWhenLargeEnough()
+    {
+        StripedClockCache cache = new StripedClockCache( 5000 );
+
+        for ( int i = 0 ; i < 4000 ; i++ )
+        {
+            String[] k  = keys( i );
+
+            cache.put( k[ 0 ] , k[ 1 ] , k[ 2 ] , i * 0.5D );
+        }
+
+        assertEquals( 4000 , cache.size() );
+
+        for ( int i = 0 ; i < 4000 ; i++ )
+        {
+            String[] k  = keys( i );
+
+            assertEquals
+            (
+                i * 0.5D ,
+                cache.get( k[ 0 ] , new String( k[ 1 ] ) , k[ 2 ] ) ,
+                0.0D
+            );
+        }
+
+        assertTrue( Double.isNaN( cache.get( "w1" , "t1" , "x" ) ) );
+        assertEquals( 4000 , cache.getHitCount() );
+        assertEquals( 1 , cache.getMissCount() );
+        assertEquals( 0 , cache.getEvictionCount() );
+
+        cache.put( "w1" , "t0" , "*" , -1.0D );
+
+        assertEquals( -1.0D , cache.get( "w1" , "t0" , "*" ) , 0.0D );
+        assertEquals( 4000 , cache.size() );
+
+        cache.clear();
+
+        assertEquals( 0 , cache.size() );
+        assertTrue( Double.isNaN( cache.get( "w1" , "t0" , "*" ) ) );
+    }
+
+    @Test
+    public void testEvictionKeepsSizeBounded()
+    {
+        StripedClockCache cache = new StripedClockCache( 1000 , 4 );
+        Random random           = new Random( 7 );
+
+        int maxSize = 1000 + cache.getStripeCount();
+
+        for ( int n = 0 ; n < 100000 ; n++ )
+        {
+                                //  Skewed keys, so some entries are
+                                //  read much more often than others.
+
+            int i       = (int)Math.pow( 20000 , random.nextDouble() ) - 1;
+            String[] k  = keys( i );
+            double v    = cache.get( k[ 0 ] , k[ 1 ] , k[ 2 ] );
+
+            if ( Double.isNaN( v ) )
+            {
+                cache.put( k[ 0 ] , k[ 1 ] , k[ 2 ] , i );
+            }
+            else
+            {
+                assertEquals( i , v , 0.0D );
+            }
+
+            assertTrue( cache.size() <= maxSize );
+        }
+
+        assertTrue( cache.getEvictionCount() > 0 );
+        assertEquals( 100000 , cache.getHitCount() + cache.getMissCount() );
+        assertTrue( cache.getHitCount() > cache.getMissCount() );
+    }
+
+    @Test
+    public void testConcurrentUse()
+        throws Exception
+    {
+        final StripedClockCache cache   = new StripedClockCache( 500 );
+        final List<Throwable> failures  =
+            Collections.synchronizedList( new ArrayList<Throwable>() );
+
+        Thread[] threads    = new Thread[ 8 ];
+
+        for ( int t = 0 ; t < threads.length ; t++ )
+        {
+            final int seed  = t;
+
+            threads[ t ]    = new Thread()
+            {
+                public void run()
+                {
+                    try
+                    {
+                        Random random   = new Random( seed );
+
+                        for ( int n = 0 ; n < 50000 ; n++ )
+                        {
+                            int i       = random.nextInt( 2000 );
+                            String[] k  = keys( i );
+                            double v    = cache.get( k[ 0 ] , k[ 1 ] , k[ 2 ] );
+
+                            if ( Double.isNaN( v ) )
+                            {
+                                cache.put( k[ 0 ] , k[ 1 ] , k[ 2 ] , i );
+                            }
+                            else
+                            {
+                                assertEquals( i , v , 0.0D );
+                            }
+                        }
+                    }
+                    catch ( Throwable e )
+                    {
+                        failures.add( e );
+                    }
+                }
+            };
+
+            threads[ t ].start();
+        }
+
+        for ( Thread thread : threads )
+        {
+            thread.join();
+        }
+
+        assertEquals( "[]" , failures.toString() );
+        assertTrue( cache.size() <= 500 + cache.getStripeCount() );
+    }
+}
+
+/*
+Copyright (c) 2008, 2013 by Northwestern University.
+All rights reserved.
+
+Developed by:
+   Academic and Research Technologies
+   Northwestern University
+   http://www.it.northwestern.edu/about/departments/at/
+
+Permission is hereby granted, free of charge, to any person
+obtaining a copy of this software and associated documentation
+files (the "Software"), to deal with the Software without
+restriction, including without limitation the rights to use,
+copy, modify, merge, publish, distribute, sublicense, and/or
+sell copies of the Software, and to permit persons to whom the
+Software is furnished to do so, subject to the following
+conditions:
+
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimers.
+
+    * Redistributions in binary form must reproduce the above
+      copyright notice, this list of conditions and the following
+      disclaimers in the documentation and/or other materials provided
+      with the distribution.
+
+    * Neither the names of Academic and Research Technologies,
+      Northwestern University, nor the names of its contributors may be
+      used to endorse or promote products derived from this Software
+      without specific prior written permission.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+NONINFRINGEMENT. IN NO EVENT SHALL THE CONTRIBUTORS OR
+COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE
+SOFTWARE OR THE USE OR OTHER DEALINGS WITH THE SOFTWARE.
+*/
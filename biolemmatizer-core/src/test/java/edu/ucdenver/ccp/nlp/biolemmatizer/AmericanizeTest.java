@@ -0,0 +1,141 @@
+/*
+ Copyright (c) 2012, Regents of the University of Colorado
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without modification, 
+ are permitted provided that the following conditions are met:
+
+  * Redistributions of source code must retain the above copyright notice, this 
+    list of conditions and the following disclaimer.
+   
+  * Redistributions in binary form must reproduce the above copyright notice, 
+    this list of conditions and the following disclaimer in the documentation 
+    and/or other materials provided with the distribution.
+   
+  * Neither the name of the University of Colorado nor the names of its 
+    contributors may be used to endorse or promote products derived from this 
+    software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND 
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED 
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; 
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON 
+ ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT 
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS 
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.ucdenver.ccp.nlp.biolemmatizer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import edu.northwestern.at.morphadorner.corpuslinguistics.lexicon.DefaultWordLexicon;
+
+/**
+ * Differential test of the compiled {@link Americanize} converter against the mapping lookup and regular expression
+ * patterns it replaces
+ */
+public class AmericanizeTest {
+
+	/** Fragments concatenated into random strings: parts of the patterns, exceptions and other characters */
+	private static final String[] FRAGMENTS = { "h", "ae", "an", "gyn", "ph", "arch", "chim", "m", "o", "at", "ia",
+			"leuk", "Leuk", "program", "me", "s", "our", "contour", "detour", "devour", "dev", "glamour", "col", "x",
+			"A", "-", "\n", "\r\n", " ", "\u0085", "e", "colour", "haemo", "anaemia", "programme" };
+
+	/**
+	 * The conversion before the compiled automaton: a lookup of the mapping, then the patterns one by one
+	 */
+	private static String referenceAmericanize(Map<String, String> mapping, String str) {
+		if (str.length() < 4) {
+			return str;
+		}
+		String result = mapping.get(str);
+		if (result != null) {
+			return result;
+		}
+		return Americanize.americanizeByPatterns(str);
+	}
+
+	@Test
+	public void testMatchesReference() throws Exception {
+		Map<String, String> mapping = Americanize.loadSpellingMappingFile("BritishToAmerican.mapping");
+		Americanize convert = Americanize.getInstance();
+		assertSame(convert, Americanize.getInstance());
+
+		Set<String> words = new LinkedHashSet<String>();
+		for (Map.Entry<String, String> entry : mapping.entrySet()) {
+			for (String word : new String[] { entry.getKey(), entry.getValue() }) {
+				words.add(word);
+				words.add(word + "s");
+				words.add(word.substring(1));
+				words.add(word.substring(0, word.length() - 1));
+				words.add("x" + word);
+				words.add(word.toUpperCase());
+			}
+		}
+		for (String entry : new DefaultWordLexicon().getEntries()) {
+			words.add(entry);
+		}
+		Random random = new Random(42);
+		for (int i = 0; i < 200000; i++) {
+			int count = 1 + random.nextInt(5);
+			StringBuilder sb = new StringBuilder();
+			for (int j = 0; j < count; j++) {
+				sb.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+			}
+			words.add(sb.toString());
+		}
+
+		int changed = 0;
+		for (String word : words) {
+			String expected = referenceAmericanize(mapping, word);
+			assertEquals("American spelling not as expected for: " + word, expected, convert.americanize(word));
+			if (!expected.equals(word)) {
+				changed++;
+			}
+		}
+		// besides the mapped spellings, many words must exercise the patterns
+		assertTrue(changed > 2 * mapping.size());
+	}
+
+	@Test
+	public void testExamples() {
+		Americanize convert = Americanize.getInstance();
+		String[][] examples = { { "colour", "color" }, { "colours", "colors" }, { "contour", "contour" },
+				{ "detours", "detours" }, { "haemangioblastoma", "hemangioblastoma" }, { "haematopoietic", "hematopoietic" },
+				{ "anaemia", "anemia" }, { "leukaemias", "leukemias" }, { "programmes", "programs" },
+				{ "gynaecology", "gynecology" }, { "Colour", "Colour" }, { "our", "our" }, { "colour\n", "color\n" } };
+		for (String[] example : examples) {
+			assertEquals(example[1], convert.americanize(example[0]));
+		}
+	}
+
+	@Test
+	public void testMappingPrecedesPatterns() {
+		Map<String, String> mapping = new HashMap<String, String>();
+		mapping.put("haemo", "blood");
+		mapping.put("colour", "colour");
+		mapping.put("haemoglobin", "hemoglobin");
+		Americanize convert = new Americanize(mapping);
+		List<String> results = new ArrayList<String>();
+		for (String word : new String[] { "haemo", "haemog", "colour", "colours", "haemoglobin", "haem" }) {
+			results.add(convert.americanize(word));
+		}
+		// short words are only mapped
+		assertEquals("[blood, hemog, colour, colors, hemoglobin, haem]", results.toString());
+	}
+}
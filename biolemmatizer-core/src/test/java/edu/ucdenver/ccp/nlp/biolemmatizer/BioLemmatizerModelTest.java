@@ -0,0 +1,263 @@
+/*
+ Copyright (c) 2012, Regents of the University of Colorado
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without modification, 
+ are permitted provided that the following conditions are met:
+
+  * Redistributions of source code must retain the above copyright notice, this 
+    list of conditions and the following disclaimer.
+   
+  * Redistributions in binary form must reproduce the above copyright notice, 
+    this list of conditions and the following disclaimer in the documentation 
+    and/or other materials provided with the distribution.
+   
+  * Neither the name of the University of Colorado nor the names of its 
+    contributors may be used to endorse or promote products derived from this 
+    software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND 
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED 
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; 
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON 
+ ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT 
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS 
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.ucdenver.ccp.nlp.biolemmatizer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import edu.northwestern.at.morphadorner.corpuslinguistics.lemmatizer.LemmaDictionary;
+import edu.northwestern.at.morphadorner.corpuslinguistics.lexicon.Lexicon;
+import edu.northwestern.at.morphadorner.corpuslinguistics.lexicon.LexiconEntry;
+import edu.northwestern.at.morphadorner.corpuslinguistics.lexicon.MappedLexicon;
+
+/**
+ * Checks that {@link BioLemmatizer} objects share the {@link BioLemmatizerModel} of their lexicon file
+ */
+public class BioLemmatizerModelTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * @return the used heap after full garbage collections, in bytes
+	 */
+	private static long usedHeap() {
+		MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+		long used = Long.MAX_VALUE;
+		for (int i = 0; i < 10; i++) {
+			memory.gc();
+			long current = memory.getHeapMemoryUsage().getUsed();
+			if (current >= used)
+				break;
+			used = current;
+		}
+		return used;
+	}
+
+	/**
+	 * @return a lexicon file with two entries
+	 * @throws IOException
+	 */
+	private File writeLexicon() throws IOException {
+		File lexiconFile = folder.newFile("small.lex");
+		Writer writer = new OutputStreamWriter(new FileOutputStream(lexiconFile), "utf-8");
+		try {
+			writer.write("zorgs\t2\tNNS\tzorg\t2\n");
+			writer.write("children\t1\tNNS\tchildren\t1\n");
+		} finally {
+			writer.close();
+		}
+		return lexiconFile;
+	}
+
+	@Test
+	public void testMappedLexiconLookup() throws IOException {
+		BioLemmatizer textLemmatizer = new BioLemmatizer(BioLemmatizerModel.load(writeLexicon()));
+		File mappedLexiconFile = folder.newFile("small.mlx");
+		MappedLexicon.write(textLemmatizer.getModel().wordLexicon, mappedLexiconFile);
+		BioLemmatizer mappedLemmatizer = new BioLemmatizer(BioLemmatizerModel.load(mappedLexiconFile));
+		String[][] tokens = { { "zorgs", "NNS" }, { "ZORGS", "NNS" }, { "Zorgs", "n2" }, { "children", "NNS" },
+				{ "zorgs", "VBZ" }, { "zorgs", "" }, { "xyzzy", "NNS" } };
+		for (String[] token : tokens) {
+			assertEquals(Arrays.toString(token), textLemmatizer.lemmatizeByLexicon(token[0], token[1]).toString(),
+					mappedLemmatizer.lemmatizeByLexicon(token[0], token[1]).toString());
+			assertEquals(Arrays.toString(token), textLemmatizer.lemmatizeByLexiconAndRules(token[0], token[1])
+					.toString(), mappedLemmatizer.lemmatizeByLexiconAndRules(token[0], token[1]).toString());
+		}
+		assertEquals("zorg", mappedLemmatizer.lemmatizeByLexicon("zorgs", "NNS").lemmasToString());
+	}
+
+	@Test
+	public void testDictionaryOfAnyLexicon() throws IOException {
+		BioLemmatizerModel model = BioLemmatizerModel.load(writeLexicon());
+		// the read-only view is neither an abstract nor a mapped lexicon
+		LemmaDictionary dictionary = new LemmaDictionary(model.getWordLexicon());
+		assertEquals(new LemmaDictionary(model.wordLexicon), dictionary);
+		assertTrue(dictionary.contains("zorg"));
+		assertTrue(dictionary.contains("children"));
+	}
+
+	@Test
+	public void testFacadesShareModel() {
+		BioLemmatizerModel model = BioLemmatizerModel.getInstance();
+		assertSame(model, BioLemmatizerModel.getInstance(null));
+		BioLemmatizer reference = new BioLemmatizer();
+		assertSame(model, reference.getModel());
+
+		long before = usedHeap();
+		BioLemmatizer[] bioLemmatizers = new BioLemmatizer[1000];
+		for (int i = 0; i < bioLemmatizers.length; i++)
+			bioLemmatizers[i] = new BioLemmatizer(model, i % 2 == 0 ? 0 : 16);
+		long after = usedHeap();
+		// a lemmatizer holds its settings and result cache, not a copy of the lexicon
+		assertTrue((after - before) / bioLemmatizers.length + " bytes per lemmatizer",
+				after - before < bioLemmatizers.length * 16L * 1024);
+
+		for (BioLemmatizer bioLemmatizer : bioLemmatizers) {
+			assertSame(model, bioLemmatizer.getModel());
+			assertSame(model.getWordLexicon(), bioLemmatizer.getWordLexicon());
+			assertSame(reference.getPosHierarchy(), bioLemmatizer.getPosHierarchy());
+			assertSame(reference.getLookupPlan("NNS"), bioLemmatizer.getLookupPlan("NNS"));
+		}
+		String[][] inputs = { { "radiolabeled", "VBZ" }, { "children", "NNS" }, { "don't", "VBP" } };
+		for (String[] input : inputs) {
+			assertEquals(reference.lemmatizeByLexiconAndRules(input[0], input[1]).toString(), bioLemmatizers[1]
+					.lemmatizeByLexiconAndRules(input[0], input[1]).toString());
+		}
+	}
+
+	@Test
+	public void testWordLexiconIsReadOnly() {
+		BioLemmatizer bioLemmatizer = new BioLemmatizer();
+		Lexicon wordLexicon = bioLemmatizer.getWordLexicon();
+		int size = wordLexicon.getLexiconSize();
+		try {
+			wordLexicon.removeEntry("children");
+			fail("Modified the shared word lexicon");
+		} catch (UnsupportedOperationException e) {
+			// the lexicon is shared by all lemmatizers of the model
+		}
+		LexiconEntry entry = wordLexicon.getLexiconEntry("children");
+		entry.categoriesAndCounts.clear();
+		entry.lemmata.clear();
+		wordLexicon.getLemmata("children")[0] = "zorg";
+		assertEquals(size, wordLexicon.getLexiconSize());
+		assertEquals("child", bioLemmatizer.lemmatizeByLexicon("children", "NNS").lemmasToString());
+		assertFalse(wordLexicon.getLexiconEntry("children").categoriesAndCounts.isEmpty());
+	}
+
+	@Test
+	public void testResultStringsAreShared() {
+		BioLemmatizerModel model = BioLemmatizerModel.getInstance();
+		BioLemmatizer first = new BioLemmatizer(model, 0);
+		BioLemmatizer second = new BioLemmatizer(model, 0);
+		String[][] inputs = { { "radiolabeled", "VBZ" }, { "children", "NNS" }, { "zorgs", "" } };
+		for (String[] input : inputs) {
+			LemmataEntry firstEntry = first.lemmatizeByLexiconAndRules(input[0], input[1]);
+			LemmataEntry secondEntry = second.lemmatizeByLexiconAndRules(new String(input[0]), new String(input[1]));
+			assertNotSame(firstEntry, secondEntry);
+			assertEquals(firstEntry.toString(), secondEntry.toString());
+			Iterator<Map.Entry<String, String>> secondPairs = secondEntry.lemmasAndCategories.entrySet().iterator();
+			for (Map.Entry<String, String> firstPair : firstEntry.lemmasAndCategories.entrySet()) {
+				Map.Entry<String, String> secondPair = secondPairs.next();
+				assertSame(firstPair.getKey(), secondPair.getKey());
+				assertSame(firstPair.getValue(), secondPair.getValue());
+			}
+		}
+	}
+
+	@Test
+	public void testPosHierarchyIsReadOnly() {
+		PosHierarchy posHierarchy = BioLemmatizerModel.getInstance().getPosHierarchy();
+		List<String> nuPOSTags = posHierarchy.getNUPOSTagList("NNS");
+		assertTrue(nuPOSTags.contains("n2"));
+		try {
+			nuPOSTags.set(0, "vvb");
+			fail("Modified the shared NUPOS tags");
+		} catch (UnsupportedOperationException e) {
+			// the lists are views of the arrays shared by all lemmatizers of the model
+		}
+		assertEquals(nuPOSTags, posHierarchy.getNUPOSTagList("NNS"));
+		assertTrue(posHierarchy.getSiblingPennPOSTagList("NNS").contains("NN"));
+		assertEquals(Arrays.asList("zzz"), posHierarchy.getPennPOSTagList("zzz"));
+	}
+
+	@Test
+	public void testRegistry() throws Exception {
+		final File lexiconFile = writeLexicon();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		List<Future<BioLemmatizerModel>> models = new ArrayList<Future<BioLemmatizerModel>>();
+		try {
+			for (int i = 0; i < 8; i++) {
+				models.add(executor.submit(new Callable<BioLemmatizerModel>() {
+					public BioLemmatizerModel call() {
+						return BioLemmatizerModel.getInstance(lexiconFile);
+					}
+				}));
+			}
+			BioLemmatizerModel model = BioLemmatizerModel.getInstance(new File(lexiconFile.getParentFile(), "."
+					+ File.separator + lexiconFile.getName()));
+			for (Future<BioLemmatizerModel> future : models)
+				assertSame(model, future.get());
+			assertNotSame(BioLemmatizerModel.getInstance(), model);
+			assertEquals(2, model.getWordLexicon().getLexiconSize());
+			assertEquals("zorg", new BioLemmatizer(lexiconFile).lemmatizeByLexicon("zorgs", "NNS").lemmasToString());
+
+			assertTrue(BioLemmatizerModel.release(lexiconFile));
+			assertFalse(BioLemmatizerModel.release(lexiconFile));
+			BioLemmatizerModel reloadedModel = BioLemmatizerModel.getInstance(lexiconFile);
+			assertNotSame(model, reloadedModel);
+			assertNotSame(reloadedModel, BioLemmatizerModel.load(lexiconFile));
+			assertTrue(BioLemmatizerModel.release(lexiconFile));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testFailedLoadIsRetried() throws IOException {
+		File lexiconFile = new File(folder.getRoot(), "small.lex");
+		try {
+			BioLemmatizerModel.getInstance(lexiconFile);
+			fail("Loaded a missing lexicon file");
+		} catch (RuntimeException e) {
+			// a failed load is not kept in the registry
+		}
+		assertFalse(BioLemmatizerModel.release(lexiconFile));
+		assertEquals(lexiconFile, writeLexicon());
+		assertEquals(2, BioLemmatizerModel.getInstance(lexiconFile).getWordLexicon().getLexiconSize());
+		assertTrue(BioLemmatizerModel.release(lexiconFile));
+	}
+}
@@ -0,0 +1,181 @@
+/*
+ Copyright (c) 2012, Regents of the University of Colorado
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without modification, 
+ are permitted provided that the following conditions are met:
+
+  * Redistributions of source code must retain the above copyright notice, this 
+    list of conditions and the following disclaimer.
+   
+  * Redistributions in binary form must reproduce the above copyright notice, 
+    this list of conditions and the following disclaimer in the documentation 
+    and/or other materials provided with the distribution.
+   
+  * Neither the name of the University of Colorado nor the names of its 
+    contributors may be used to endorse or promote products derived from this 
+    software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND 
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED 
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; 
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON 
+ ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT 
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS 
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.ucdenver.ccp.nlp.biolemmatizer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import edu.northwestern.at.morphadorner.corpuslinguistics.sentencesplitter.DefaultSentenceSplitter;
+import edu.northwestern.at.morphadorner.corpuslinguistics.sentencesplitter.SentenceSplitter;
+
+/**
+ * @author Colorado Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
+ * 
+ */
+public class BioLemmatizerPipelineTest {
+
+	private static final String[] PARAGRAPHS = {
+			"The p53 protein does not bind DNA in mutant cells. The results were\nreplicated in mice.",
+			"Phosphorylated proteins were detected in  all samples.",
+			"Cells were incubated overnight. The mice lived longer than the controls." };
+
+	private static BioLemmatizerPipeline pipeline;
+
+	@BeforeClass
+	public static void setUp() throws IOException {
+		pipeline = new BioLemmatizerPipeline(new BioLemmatizer());
+	}
+
+	@Test
+	public void testLemmatizeText() {
+		String text = PARAGRAPHS[0] + "\n\n" + PARAGRAPHS[1];
+		List<List<LemmatizedToken>> sentences = pipeline.lemmatizeText(text, 100);
+		assertEquals(3, sentences.size());
+		for (List<LemmatizedToken> sentence : sentences) {
+			for (LemmatizedToken token : sentence) {
+				assertEquals(token.getToken(), text.substring((int) token.getStart() - 100,
+						(int) token.getEnd() - 100));
+				assertNotNull(token.getPartOfSpeech());
+				assertNotNull(token.getLemmata());
+			}
+		}
+		LemmatizedToken cells = sentences.get(0).get(9);
+		assertEquals("cells", cells.getToken());
+		assertEquals("n2", cells.getPartOfSpeech());
+		assertEquals("cell", cells.getLemmata().lemmasToString());
+		// sentences do not span paragraphs
+		assertEquals("Phosphorylated", sentences.get(2).get(0).getToken());
+	}
+
+	@Test
+	public void testLemmatizeTextInBlocks() throws IOException {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 30; i++) {
+			text.append(PARAGRAPHS[i % PARAGRAPHS.length]).append(i % 2 == 0 ? "\n\n" : "\n \n\n");
+		}
+		assertLemmatizedInBlocks(text.toString(), 100);
+	}
+
+	@Test
+	public void testLemmatizeLongParagraphInBlocks() throws IOException {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 30; i++) {
+			text.append(PARAGRAPHS[i % PARAGRAPHS.length]).append(i % 2 == 0 ? "\n" : " ");
+		}
+		// no paragraph breaks: the blocks end between sentences
+		assertLemmatizedInBlocks(text.toString(), 100);
+	}
+
+	@Test
+	public void testGuessesDoNotDependOnOrder() {
+		// two unknown words guessed alike, the second after its lower case form
+		LemmatizedToken first = pipeline.lemmatizeText("Zymokinases were seen.").get(0).get(0);
+		pipeline.lemmatizeText("The xylokinases were seen.");
+		LemmatizedToken second = pipeline.lemmatizeText("Xylokinases were seen.").get(0).get(0);
+		assertEquals("Xylokinases", second.getToken());
+		assertEquals(first.getPartOfSpeech(), second.getPartOfSpeech());
+	}
+
+	@Test
+	public void testTextBlockReader() throws IOException {
+		String text = "aaaa bbbb\n\ncccc\ndddd\n\nEeee ffff. Gggg hhhh. Iiii jjjj.\n\nkkkk llll mmmm nnnn";
+		BioLemmatizerPipeline.TextBlockReader reader = newTextBlockReader(text, 6);
+		assertEquals("aaaa bbbb\n\n", reader.readBlock());
+		assertEquals(0, reader.getBlockOffset());
+		assertEquals("cccc\ndddd\n\n", reader.readBlock());
+		assertEquals(11, reader.getBlockOffset());
+		// no paragraph break within twice the block size: the unfinished last sentence goes to the next block
+		assertEquals("Eeee ffff. ", reader.readBlock());
+		assertEquals(22, reader.getBlockOffset());
+		assertEquals("Gggg hhhh. ", reader.readBlock());
+		assertEquals("Iiii jjjj.\n\n", reader.readBlock());
+		// one sentence fills the block: extend the block until the sentence ends
+		assertEquals("kkkk llll mmmm nnnn", reader.readBlock());
+		assertEquals(text.length() - 19, reader.getBlockOffset());
+		assertNull(reader.readBlock());
+	}
+
+	@Test
+	public void testTextBlockReaderCutsLongSentences() throws IOException {
+		String text = "aaaa bbbb cccc dddd eeee ffff gggg hhhh iiii";
+		BioLemmatizerPipeline.TextBlockReader reader = newTextBlockReader(text, 2);
+		// a sentence longer than the maximum block is cut at the last whitespace
+		assertEquals("aaaa bbbb cccc dddd eeee ffff ", reader.readBlock());
+		assertEquals("gggg hhhh iiii", reader.readBlock());
+		assertNull(reader.readBlock());
+	}
+
+	private static BioLemmatizerPipeline.TextBlockReader newTextBlockReader(String text, int blockSize) {
+		SentenceSplitter sentenceSplitter = new DefaultSentenceSplitter();
+		sentenceSplitter.setPartOfSpeechGuesser(pipeline.getPartOfSpeechTagger().getPartOfSpeechGuesser());
+		return new BioLemmatizerPipeline.TextBlockReader(new StringReader(text), blockSize, sentenceSplitter, pipeline
+				.getTagSet().newWordTokenizer());
+	}
+
+	/**
+	 * Check that lemmatizing a text in blocks on one and on three threads gives the same sentences as lemmatizing it
+	 * at once
+	 */
+	private static void assertLemmatizedInBlocks(String text, int blockSize) throws IOException {
+		List<String> expected = toStrings(pipeline.lemmatizeText(text));
+		BioLemmatizerPipeline blockPipeline = new BioLemmatizerPipeline(pipeline.getBioLemmatizer(), pipeline
+				.getPartOfSpeechTagger(), pipeline.getTagSet());
+		blockPipeline.setBlockSize(blockSize);
+		for (int threads = 1; threads <= 3; threads += 2) {
+			final List<List<LemmatizedToken>> sentences = new ArrayList<List<LemmatizedToken>>();
+			blockPipeline.lemmatizeText(new StringReader(text), new BioLemmatizerPipeline.SentenceHandler() {
+				public void handleSentence(List<LemmatizedToken> sentence) {
+					sentences.add(sentence);
+				}
+			}, threads);
+			assertEquals(expected, toStrings(sentences));
+		}
+	}
+
+	private static List<String> toStrings(List<List<LemmatizedToken>> sentences) {
+		List<String> strings = new ArrayList<String>();
+		for (List<LemmatizedToken> sentence : sentences) {
+			strings.add(sentence.toString());
+		}
+		assertTrue(strings.size() > 0);
+		return strings;
+	}
+
+}
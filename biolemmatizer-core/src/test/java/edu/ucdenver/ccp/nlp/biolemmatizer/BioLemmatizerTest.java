@@ -32,16 +32,22 @@ package edu.ucdenver.ccp.nlp.biolemmatizer;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.io.BufferedReader;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.junit.BeforeClass;
 import org.junit.Rule;
@@ -102,6 +108,25 @@ public class BioLemmatizerTest {
 		LemmataEntry lemmata = bioLemmatizer.lemmatizeByLexiconAndRules(convert.americanize(spelling), partOfSpeech);
 		assertEquals("Lemma not as expected", expectedLemmas, new HashSet<String>(lemmata.lemmasAndCategories.values()));
 	}
+
+	@Test
+	public void testAmericanizeOption() {
+		BioLemmatizer americanizingLemmatizer = new BioLemmatizer((File) null, 100);
+		americanizingLemmatizer.setAmericanize(true);
+		assertTrue(americanizingLemmatizer.isAmericanize());
+		String[][] inputs = { { "phaeochromocytomata", "NNS" }, { "colours", "NNS" }, { "haemangioblastoma", "" },
+				{ "radiolabeled", "VBZ" } };
+		for (String[] input : inputs) {
+			String expected = bioLemmatizer.lemmatizeByLexiconAndRules(convert.americanize(input[0]), input[1])
+					.toString();
+			assertEquals(expected, americanizingLemmatizer.lemmatizeByLexiconAndRules(input[0], input[1]).toString());
+			assertEquals(expected, americanizingLemmatizer.lemmatizeByLexiconAndRules(new String[] { input[0] },
+					new String[] { input[1] })[0].toString());
+		}
+		americanizingLemmatizer.setAmericanize(false);
+		assertEquals(bioLemmatizer.lemmatizeByLexiconAndRules("colours", "NNS").toString(), americanizingLemmatizer
+				.lemmatizeByLexiconAndRules("colours", "NNS").toString());
+	}
 	
 	@Test
 	public void testInvalidPosInput() {
@@ -165,6 +190,154 @@ public class BioLemmatizerTest {
 		br.close();
 	}
 	
+	@Test
+	public void testResultCache() {
+		BioLemmatizer cachingLemmatizer = new BioLemmatizer((File) null, 100);
+		LemmatizerMetrics metrics = new LemmatizerMetrics();
+		cachingLemmatizer.setMetrics(metrics);
+		String[][] inputs = { { "radiolabeled", "VBZ" }, { "runs", "" }, { "runs", null }, { "in", "IN" },
+				{ "radiolabeled", "VBZ" } };
+		for (String[] input : inputs) {
+			assertEquals(bioLemmatizer.lemmatizeByLexiconAndRules(input[0], input[1]).toString(), cachingLemmatizer
+					.lemmatizeByLexiconAndRules(input[0], input[1]).toString());
+			assertEquals(bioLemmatizer.lemmatizeByLexicon(input[0], input[1]).toString(), cachingLemmatizer
+					.lemmatizeByLexicon(input[0], input[1]).toString());
+			assertEquals(bioLemmatizer.lemmatizeByRules(input[0], input[1]).toString(), cachingLemmatizer
+					.lemmatizeByRules(input[0], input[1]).toString());
+		}
+		// "runs" with an empty and a null POS tag share their results
+		assertEquals(6, cachingLemmatizer.getResultCache().getHitCount());
+		assertEquals(9, cachingLemmatizer.getResultCache().getMissCount());
+		assertEquals(9, cachingLemmatizer.getResultCache().size());
+		assertNull(bioLemmatizer.getResultCache());
+		assertEquals(6, metrics.snapshot().getCacheHitCount());
+		assertEquals(9, metrics.snapshot().getCacheMissCount());
+		assertEquals(15, metrics.snapshot().getCallCount());
+	}
+
+	@Test
+	public void testMetrics() {
+		LexiconLookupPlan plan = bioLemmatizer.getLookupPlan("NNS");
+		assertEquals(plan.categories.length, plan.categoryPaths.length);
+		assertEquals(ResolutionPath.PENN_DIRECT, plan.categoryPaths[0]);
+		assertTrue(Arrays.asList(plan.categoryPaths).contains(ResolutionPath.NUPOS_CONVERTED));
+		for (int i = 1; i < plan.categoryPaths.length; i++)
+			assertTrue(plan.categoryPaths[i - 1].compareTo(plan.categoryPaths[i]) <= 0);
+
+		String[][] inputs = { { "children", "NNS" }, { "children", "NN" }, { "children", "n2" },
+				{ "children", "n1" }, { "children", "" }, { "xyzzies", "NNS" }, { "Xyzzy", "NNP" },
+				{ "xyzzy'll", "n1|vmb" } };
+		ResolutionPath[] expectedPaths = { ResolutionPath.PENN_DIRECT, ResolutionPath.PENN_SIBLING,
+				ResolutionPath.NUPOS_DIRECT, ResolutionPath.NUPOS_SIBLING, ResolutionPath.BACKUP_LOOKUP,
+				ResolutionPath.RULES, ResolutionPath.NOT_LEMMATIZED, ResolutionPath.CONTRACTION_SPLIT };
+		LemmatizerMetrics metrics = new LemmatizerMetrics();
+		bioLemmatizer.setMetrics(metrics);
+		try {
+			for (int i = 0; i < inputs.length; i++) {
+				LemmatizerMetrics.Snapshot before = metrics.snapshot();
+				String lemmata = bioLemmatizer.lemmatizeByLexiconAndRules(inputs[i][0], inputs[i][1]).toString();
+				LemmatizerMetrics.Snapshot after = metrics.snapshot();
+				assertEquals(inputs[i][0] + " " + lemmata, before.getPathCount(expectedPaths[i]) + 1, after
+						.getPathCount(expectedPaths[i]));
+				assertTrue(after.getLexiconLookupCount() > before.getLexiconLookupCount());
+			}
+			bioLemmatizer.lemmatizeByLexicon("xyzzies", "NNS");
+			bioLemmatizer.lemmatizeByRules("xyzzies", "NNS");
+		} finally {
+			bioLemmatizer.setMetrics(null);
+		}
+		assertNull(bioLemmatizer.getMetrics());
+		bioLemmatizer.lemmatizeByLexiconAndRules("children", "NNS");
+
+		LemmatizerMetrics.Snapshot snapshot = metrics.snapshot();
+		assertEquals(inputs.length, snapshot.getCallCount("lemmatizeByLexiconAndRules"));
+		assertEquals(1, snapshot.getCallCount("lemmatizeByLexicon"));
+		assertEquals(1, snapshot.getCallCount("lemmatizeByRules"));
+		assertEquals(1, snapshot.getPathCount(ResolutionPath.LEXICON_MISS));
+		assertEquals(1, snapshot.getPathCount(ResolutionPath.PENN_DIRECT));
+		// the word parts of the contraction are resolved on their own
+		long resolutions = 0;
+		for (long count : snapshot.getPathCounts().values())
+			resolutions += count;
+		assertTrue(resolutions > snapshot.getCallCount());
+		assertTrue(snapshot.getRuleApplicationCount() >= 4);
+		assertTrue(snapshot.getLexiconProbesPerLookup() > 1);
+		assertEquals(0, snapshot.getCacheHitCount() + snapshot.getCacheMissCount());
+		long calls = 0;
+		for (long count : snapshot.getLatencyHistogram("lemmatizeByLexiconAndRules"))
+			calls += count;
+		assertEquals(inputs.length, calls);
+	}
+
+	@Test
+	public void testLexiconImage() throws IOException {
+		File imageFile = folder.newFile("lexicon.bin");
+		LexiconImage.write(bioLemmatizer, imageFile);
+		assertTrue(LexiconImage.isImage(imageFile));
+		BioLemmatizer imageLemmatizer = new BioLemmatizer(imageFile);
+		assertEquals(bioLemmatizer.getWordLexicon().getLexiconSize(), imageLemmatizer.getWordLexicon().getLexiconSize());
+		String[][] inputs = { { "radiolabeled", "VBZ" }, { "runs", "" }, { "children", "NNS" }, { "in", "IN" },
+				{ "quantitated", "VBD" }, { "don't", "VBP" }, { "Proteins", "NN" }, { "xyzzies", "NNS" } };
+		for (String[] input : inputs) {
+			assertEquals(bioLemmatizer.lemmatizeByLexiconAndRules(input[0], input[1]).toString(), imageLemmatizer
+					.lemmatizeByLexiconAndRules(input[0], input[1]).toString());
+			assertEquals(bioLemmatizer.lemmatizeByLexicon(input[0], input[1]).toString(), imageLemmatizer
+					.lemmatizeByLexicon(input[0], input[1]).toString());
+			assertEquals(bioLemmatizer.lemmatizeByRules(input[0], input[1]).toString(), imageLemmatizer
+					.lemmatizeByRules(input[0], input[1]).toString());
+		}
+	}
+
+	@Test
+	public void testStaleLexiconImageIsIgnored() throws IOException {
+		File imageFile = folder.newFile("stale.bin");
+		DataOutputStream output = new DataOutputStream(new FileOutputStream(imageFile));
+		try {
+			output.writeInt(LexiconImage.MAGIC);
+			output.writeInt(LexiconImage.VERSION - 1);
+		} finally {
+			output.close();
+		}
+		assertNull(LexiconImage.readIfSupported(imageFile.toURI().toURL()));
+
+		LexiconImage.write(bioLemmatizer, imageFile);
+		assertNotNull(LexiconImage.readIfSupported(imageFile.toURI().toURL()));
+	}
+
+	@Test
+	public void testBatchLemmatization() {
+		String[] spellings = { "radiolabeled", "runs", "runs", "in", "radiolabeled", "children", "runs", "don't" };
+		String[] partsOfSpeech = { "VBZ", "", null, "IN", "VBZ", "NNS", "VBZ", "VBP" };
+		LemmataEntry[] buffer = new LemmataEntry[spellings.length + 2];
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			LemmataEntry[] batch = bioLemmatizer.lemmatizeByLexiconAndRules(spellings, partsOfSpeech);
+			LemmataEntry[] parallelBatch = bioLemmatizer.lemmatizeByLexiconAndRules(spellings, partsOfSpeech, buffer,
+					executor);
+			LemmataEntry[] lexiconBatch = bioLemmatizer.lemmatizeByLexicon(spellings, partsOfSpeech);
+			LemmataEntry[] rulesBatch = bioLemmatizer.lemmatizeByRules(spellings, partsOfSpeech);
+			List<LemmataEntry> listBatch = bioLemmatizer.lemmatizeByLexiconAndRules(Arrays.asList(spellings), Arrays
+					.asList(partsOfSpeech));
+			assertEquals(spellings.length, batch.length);
+			assertSame(buffer, parallelBatch);
+			for (int i = 0; i < spellings.length; i++) {
+				String expected = bioLemmatizer.lemmatizeByLexiconAndRules(spellings[i], partsOfSpeech[i]).toString();
+				assertEquals(expected, batch[i].toString());
+				assertEquals(expected, parallelBatch[i].toString());
+				assertEquals(expected, listBatch.get(i).toString());
+				assertEquals(bioLemmatizer.lemmatizeByLexicon(spellings[i], partsOfSpeech[i]).toString(),
+						lexiconBatch[i].toString());
+				assertEquals(bioLemmatizer.lemmatizeByRules(spellings[i], partsOfSpeech[i]).toString(), rulesBatch[i]
+						.toString());
+			}
+			// repeated strings with the same POS tag share their result
+			assertSame(batch[0], batch[4]);
+			assertSame(batch[1], batch[2]);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
 }
 
 
@@ -0,0 +1,107 @@
+/*
+ Copyright (c) 2012, Regents of the University of Colorado
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without modification, 
+ are permitted provided that the following conditions are met:
+
+  * Redistributions of source code must retain the above copyright notice, this 
+    list of conditions and the following disclaimer.
+   
+  * Redistributions in binary form must reproduce the above copyright notice, 
+    this list of conditions and the following disclaimer in the documentation 
+    and/or other materials provided with the distribution.
+   
+  * Neither the name of the University of Colorado nor the names of its 
+    contributors may be used to endorse or promote products derived from this 
+    software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND 
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED 
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; 
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON 
+ ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT 
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS 
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.ucdenver.ccp.nlp.biolemmatizer;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import edu.northwestern.at.morphadorner.corpuslinguistics.tokenizer.PennTreebankContractionSplitter;
+import edu.northwestern.at.morphadorner.corpuslinguistics.tokenizer.PennTreebankTokenizer;
+
+/**
+ * Differential test of {@link PennTreebankContractionSplitter} against the regular expression based
+ * {@link PennTreebankTokenizer} it replaces in the BioLemmatizer
+ */
+public class ContractionSplitterTest {
+
+	private static BioLemmatizer bioLemmatizer;
+
+	private static final PennTreebankTokenizer pennTokenizer = new PennTreebankTokenizer();
+
+	private static final PennTreebankContractionSplitter splitter = new PennTreebankContractionSplitter();
+
+	@BeforeClass
+	public static void setUp() {
+		bioLemmatizer = new BioLemmatizer();
+	}
+
+	private static void assertSameWords(String spelling) {
+		assertEquals("Words not as expected for: " + spelling, pennTokenizer.extractWords(spelling),
+				splitter.extractWords(spelling));
+	}
+
+	@Test
+	public void testLexiconEntries() {
+		for (String entry : bioLemmatizer.getWordLexicon().getEntries()) {
+			assertSameWords(entry);
+			for (String lemma : bioLemmatizer.getWordLexicon().getLemmata(entry)) {
+				assertSameWords(lemma);
+			}
+		}
+	}
+
+	@Test
+	public void testContractions() {
+		List<String> spellings = Arrays.asList("", "'", "''", "'s", "dogs'", "it's'", "don't", "DON'T", "can't",
+				"cannot", "Cannot", "CANNOT", "d'ye", "D'ye", "gimme", "Gonna", "gotta", "lemme", "more'n", "More'n",
+				"'tis", "'Tis", "'twas", "wanna", "whaddya", "Whatcha", "gonna's", "I'T", "it't't", "a'tb'T", "n'T",
+				"we'll", "we've", "they're", "'em", "WE'LL", "THEY'RE", "WE'VE", "'EM", "I'm", "I'M", "he'd",
+				"she'D", "can't's", "shouldn't've", "y'all", "o'clock", "rock'n'roll", "x--y", "x-y", "U.S.",
+				"e.g.", "$5", "(1)", "a,b", "1,000", "``x''", "\"x\"", "a b", " a ", "a\tb", "x ", "x\u0085");
+		for (String spelling : spellings) {
+			assertSameWords(spelling);
+		}
+	}
+
+	@Test
+	public void testRandomSpellings() {
+		String alphabet = "'''''sSmMdDlLrReEvVnNtTaAiIoOwWhHcCgy-.,$(\" \t";
+		Random random = new Random(42);
+		List<String> spellings = new ArrayList<String>();
+		for (int i = 0; i < 100000; i++) {
+			StringBuilder sb = new StringBuilder();
+			int length = random.nextInt(8);
+			for (int j = 0; j < length; j++) {
+				sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+			}
+			spellings.add(sb.toString());
+		}
+		for (String spelling : spellings) {
+			assertSameWords(spelling);
+		}
+	}
+}
@@ -0,0 +1,167 @@
+/*
+ Copyright (c) 2012, Regents of the University of Colorado
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without modification, 
+ are permitted provided that the following conditions are met:
+
+  * Redistributions of source code must retain the above copyright notice, this 
+    list of conditions and the following disclaimer.
+   
+  * Redistributions in binary form must reproduce the above copyright notice, 
+    this list of conditions and the following disclaimer in the documentation 
+    and/or other materials provided with the distribution.
+   
+  * Neither the name of the University of Colorado nor the names of its 
+    contributors may be used to endorse or promote products derived from this 
+    software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND 
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED 
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; 
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON 
+ ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT 
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS 
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.ucdenver.ccp.nlp.biolemmatizer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+
+import org.junit.Test;
+
+/**
+ * Checks of the counters, histograms and MXBean of {@link LemmatizerMetrics}
+ */
+public class LemmatizerMetricsTest {
+
+	@Test
+	public void testLatencyBuckets() {
+		assertEquals(0, LemmatizerMetrics.latencyBucket(-5));
+		assertEquals(0, LemmatizerMetrics.latencyBucket(0));
+		assertEquals(1, LemmatizerMetrics.latencyBucket(1));
+		assertEquals(2, LemmatizerMetrics.latencyBucket(3));
+		assertEquals(10, LemmatizerMetrics.latencyBucket(1023));
+		assertEquals(11, LemmatizerMetrics.latencyBucket(1024));
+		assertEquals(LemmatizerMetrics.LATENCY_BUCKETS - 1, LemmatizerMetrics.latencyBucket(Long.MAX_VALUE));
+		for (long nanos = 0; nanos < 100000; nanos += 7) {
+			int bucket = LemmatizerMetrics.latencyBucket(nanos);
+			assertTrue(nanos <= LemmatizerMetrics.latencyBucketUpperBound(bucket));
+			assertTrue(bucket == 0 || nanos > LemmatizerMetrics.latencyBucketUpperBound(bucket - 1));
+		}
+	}
+
+	@Test
+	public void testSnapshot() {
+		LemmatizerMetrics metrics = new LemmatizerMetrics(4);
+		for (int i = 1; i <= 100; i++)
+			metrics.recordCall('B', i * 100);
+		metrics.recordCall('L', 50);
+		metrics.recordPath(ResolutionPath.RULES);
+		metrics.recordPath(ResolutionPath.RULES);
+		metrics.recordPath(ResolutionPath.PENN_SIBLING);
+		metrics.recordLexiconLookup(1);
+		metrics.recordLexiconLookup(4);
+		metrics.recordLexiconLookup(100);
+		metrics.recordRuleApplication();
+		metrics.recordCacheLookup(true);
+		metrics.recordCacheLookup(false);
+		metrics.recordCacheLookup(false);
+
+		LemmatizerMetrics.Snapshot snapshot = metrics.snapshot();
+		assertEquals(101, snapshot.getCallCount());
+		assertEquals(100, snapshot.getCallCount("lemmatizeByLexiconAndRules"));
+		assertEquals(0, snapshot.getCallCount("lemmatizeByRules"));
+		assertEquals(5050.0, snapshot.getMeanLatencyNanos("lemmatizeByLexiconAndRules"), 0.0);
+		assertEquals(8191, snapshot.getLatencyPercentileNanos("lemmatizeByLexiconAndRules", 0.5));
+		assertEquals(16383, snapshot.getLatencyPercentileNanos("lemmatizeByLexiconAndRules", 0.99));
+		assertEquals(63, snapshot.getLatencyPercentileNanos("lemmatizeByLexicon", 0.99));
+		assertEquals(0, snapshot.getLatencyPercentileNanos("lemmatizeByRules", 0.5));
+		assertEquals(2, snapshot.getPathCount(ResolutionPath.RULES));
+		assertEquals(1, snapshot.getPathCount(ResolutionPath.PENN_SIBLING));
+		assertEquals(0, snapshot.getPathCount(ResolutionPath.PENN_DIRECT));
+		assertEquals(3, snapshot.getLexiconLookupCount());
+		assertEquals(105, snapshot.getLexiconProbeCount());
+		assertEquals(35.0, snapshot.getLexiconProbesPerLookup(), 0.0);
+		long[] probes = snapshot.getLexiconProbeHistogram();
+		assertEquals(1, probes[1]);
+		assertEquals(1, probes[4]);
+		assertEquals(1, probes[LemmatizerMetrics.PROBE_BUCKETS - 1]);
+		assertEquals(1, snapshot.getRuleApplicationCount());
+		assertEquals(1, snapshot.getCacheHitCount());
+		assertEquals(2, snapshot.getCacheMissCount());
+		assertTrue(snapshot.toString().contains("RULES: 2"));
+
+		metrics.reset();
+		assertEquals(0, metrics.snapshot().getCallCount());
+		assertEquals(0, metrics.snapshot().getLexiconProbeCount());
+		// snapshots are not affected by later counts
+		assertEquals(101, snapshot.getCallCount());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownMethod() {
+		new LemmatizerMetrics().snapshot().getCallCount("lemmatize");
+	}
+
+	@Test
+	public void testConcurrentRecording() throws InterruptedException {
+		final LemmatizerMetrics metrics = new LemmatizerMetrics(2);
+		final int threadCount = 8;
+		final int count = 20000;
+		List<Thread> threads = new ArrayList<Thread>();
+		for (int t = 0; t < threadCount; t++) {
+			threads.add(new Thread() {
+				@Override
+				public void run() {
+					for (int i = 0; i < count; i++) {
+						metrics.recordCall('R', i);
+						metrics.recordPath(ResolutionPath.COMPOUND_EXCEPTION);
+						metrics.recordLexiconLookup(2);
+					}
+				}
+			});
+		}
+		for (Thread thread : threads)
+			thread.start();
+		for (Thread thread : threads)
+			thread.join();
+		LemmatizerMetrics.Snapshot snapshot = metrics.snapshot();
+		assertEquals(threadCount * count, snapshot.getCallCount("lemmatizeByRules"));
+		assertEquals(threadCount * count, snapshot.getPathCount(ResolutionPath.COMPOUND_EXCEPTION));
+		assertEquals(2L * threadCount * count, snapshot.getLexiconProbeCount());
+		assertEquals(threadCount * count, snapshot.getLexiconProbeHistogram()[2]);
+	}
+
+	@Test
+	public void testMXBean() throws Exception {
+		LemmatizerMetrics metrics = new LemmatizerMetrics();
+		metrics.recordPath(ResolutionPath.BACKUP_LOOKUP);
+		metrics.recordLexiconLookup(3);
+		ObjectName name = metrics.register("test");
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			assertEquals(1L, server.getAttribute(name, "LexiconLookupCount"));
+			assertEquals(3.0, server.getAttribute(name, "LexiconProbesPerLookup"));
+			TabularData paths = (TabularData) server.getAttribute(name, "ResolutionPathCounts");
+			assertEquals(1L, paths.get(new Object[] { "BACKUP_LOOKUP" }).get("value"));
+			server.invoke(name, "reset", null, null);
+			assertEquals(0L, server.getAttribute(name, "LexiconLookupCount"));
+		} finally {
+			LemmatizerMetrics.unregister("test");
+		}
+		assertTrue(!ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+	}
+}
@@ -0,0 +1,113 @@
+/*
+ Copyright (c) 2012, Regents of the University of Colorado
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without modification, 
+ are permitted provided that the following conditions are met:
+
+  * Redistributions of source code must retain the above copyright notice, this 
+    list of conditions and the following disclaimer.
+   
+  * Redistributions in binary form must reproduce the above copyright notice, 
+    this list of conditions and the following disclaimer in the documentation 
+    and/or other materials provided with the distribution.
+   
+  * Neither the name of the University of Colorado nor the names of its 
+    contributors may be used to endorse or promote products derived from this 
+    software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND 
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED 
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; 
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON 
+ ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT 
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS 
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.ucdenver.ccp.nlp.biolemmatizer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Differential test of {@link UnicodeNormalizer#DEFAULT} against the regular expression replacements it replaces in
+ * the BioLemmatizer, and checks of the table-driven foldings
+ */
+public class UnicodeNormalizerTest {
+
+	/** Characters used to build random strings */
+	private static final String ALPHABET = "aeiouxyz -'AEæœäàáēéèëï"
+			+ "ñōöôūúÆÉß\u0080ÿﬁ𝐀";
+
+	/**
+	 * The replacements applied before {@link UnicodeNormalizer}, one regular expression per character
+	 */
+	private static String referenceUnicodeHandler(String input) {
+		String[][] mapping = { { "u00E6", "ae" }, { "u0153", "oe" }, { "u00E4", "a" }, { "u00E0", "a" },
+				{ "u00E1", "a" }, { "u0113", "e" }, { "u00E9", "e" }, { "u00E8", "e" }, { "u00EB", "e" },
+				{ "u00EF", "i" }, { "u00F1", "n" }, { "u014D", "o" }, { "u00F6", "o" }, { "u00F4", "o" },
+				{ "u016B", "u" }, { "u00FA", "u" } };
+		String output = input;
+		for (String[] unicode : mapping) {
+			output = output.replaceAll("\\" + unicode[0], unicode[1]);
+		}
+		return output;
+	}
+
+	@Test
+	public void testMatchesReferenceReplacements() {
+		Random random = new Random(42);
+		for (int i = 0; i < 100000; i++) {
+			int length = random.nextInt(10);
+			StringBuilder sb = new StringBuilder();
+			for (int j = 0; j < length; j++) {
+				sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+			}
+			String input = sb.toString();
+			assertEquals("Normalized string not as expected for: " + input, referenceUnicodeHandler(input),
+					UnicodeNormalizer.DEFAULT.normalize(input));
+		}
+		assertEquals("aesthetic", BioLemmatizer.unicodeHandler("æsthetic"));
+	}
+
+	@Test
+	public void testUnchangedStringIsReturned() {
+		String ascii = "protein kinase-2";
+		assertSame(ascii, UnicodeNormalizer.DEFAULT.normalize(ascii));
+		String unmapped = "Æßﬁ";
+		assertSame(unmapped, UnicodeNormalizer.DEFAULT.normalize(unmapped));
+		assertSame(ascii, new UnicodeNormalizer(Collections.<Character, String> emptyMap()).normalize(ascii));
+	}
+
+	@Test
+	public void testLatinFolding() {
+		assertEquals("AEsthetic", UnicodeNormalizer.LATIN.normalize("Æsthetic"));
+		assertEquals("naive cafe", UnicodeNormalizer.LATIN.normalize("naïve café"));
+		assertEquals("Ecole", UnicodeNormalizer.LATIN.normalize("École"));
+		assertEquals("strasse", UnicodeNormalizer.LATIN.normalize("straße"));
+		assertEquals("fish", UnicodeNormalizer.LATIN.normalize("ﬁsh"));
+		// letters with a stroke have no decomposition
+		assertEquals("Łodz", UnicodeNormalizer.LATIN.normalize("Łódź"));
+		assertEquals("s", UnicodeNormalizer.decompositions('ſ', 'ſ').get('ſ'));
+		for (Map.Entry<Character, String> replacement : UnicodeNormalizer.DEFAULT.getReplacements().entrySet()) {
+			assertEquals(replacement.getValue(), UnicodeNormalizer.LATIN.getReplacement(replacement.getKey()));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testAsciiReplacementIsRejected() {
+		Map<Character, String> replacements = new HashMap<Character, String>();
+		replacements.put('a', "b");
+		new UnicodeNormalizer(replacements);
+	}
+}
@@ -0,0 +1,76 @@
+/*
+ Copyright (c) 2012, Regents of the University of Colorado
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without modification, 
+ are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice, this 
+    list of conditions and the following disclaimer.
+   
+ * Redistributions in binary form must reproduce the above copyright notice, 
+    this list of conditions and the following disclaimer in the documentation 
+    and/or other materials provided with the distribution.
+   
+ * Neither the name of the University of Colorado nor the names of its 
+    contributors may be used to endorse or promote products derived from this 
+    software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND 
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED 
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; 
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON 
+ ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT 
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS 
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.ucdenver.ccp.nlp.biolemmatizer.uima;
+
+import java.util.List;
+
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.jcas.tcas.Annotation;
+
+import edu.ucdenver.ccp.uima.shims.annotation.syntactic.token.Lemma;
+import edu.ucdenver.ccp.uima.shims.annotation.syntactic.token.LemmaDecorator;
+
+/**
+ * A {@link LemmaDecorator} that processes a whole document at a time. The {@link BioLemmatizer_AE}
+ * calls {@link #startDocument(JCas)} before the first token of a CAS, inserts all lemmas of a token
+ * with one call to {@link #insertLemmas(Annotation, List)}, and calls
+ * {@link #finishDocument(JCas)} after the last token. Implementations may use this to index the
+ * annotations already in the CAS once, rather than searching the CAS for each token.
+ * 
+ * @author Colorado Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
+ * 
+ */
+public interface BatchLemmaDecorator extends LemmaDecorator {
+
+	/**
+	 * Called before the tokens of a CAS are processed
+	 * 
+	 * @param jCas
+	 */
+	public void startDocument(JCas jCas);
+
+	/**
+	 * Inserts information representing all lemmas of a token into the input {@link Annotation},
+	 * the one returned by {@link #getAnnotationToDecorate} for that token. The result must be the
+	 * same as inserting the lemmas one by one with {@link #insertLemma(Annotation, Lemma)}.
+	 * 
+	 * @param annotation
+	 * @param lemmas
+	 */
+	public void insertLemmas(Annotation annotation, List<Lemma> lemmas);
+
+	/**
+	 * Called after the tokens of a CAS are processed, also if processing failed
+	 * 
+	 * @param jCas
+	 */
+	public void finishDocument(JCas jCas);
+
+}
@@ -0,0 +1,124 @@
+/*
+ Copyright (c) 2012, Regents of the University of Colorado
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without modification, 
+ are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice, this 
+    list of conditions and the following disclaimer.
+   
+ * Redistributions in binary form must reproduce the above copyright notice, 
+    this list of conditions and the following disclaimer in the documentation 
+    and/or other materials provided with the distribution.
+   
+ * Neither the name of the University of Colorado nor the names of its 
+    contributors may be used to endorse or promote products derived from this 
+    software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND 
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED 
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; 
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON 
+ ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT 
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS 
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.ucdenver.ccp.nlp.biolemmatizer.uima;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.net.URL;
+
+import org.apache.uima.resource.DataResource;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.resource.SharedResourceObject;
+
+import edu.ucdenver.ccp.nlp.biolemmatizer.BioLemmatizer;
+import edu.ucdenver.ccp.nlp.biolemmatizer.BioLemmatizerModel;
+
+/**
+ * A UIMA shared resource holding a {@link BioLemmatizerModel}. The UIMA resource manager creates one instance per
+ * resource binding, which is shared by all annotators bound to it, e.g. the replicas of a CPE or DUCC pipeline; the
+ * model itself comes from the JVM-wide registry of {@link BioLemmatizerModel#getInstance(File)}, so annotators bound to
+ * different resources of the same lexicon file share it as well.
+ * <p>
+ * The URL of the resource is the lexicon file to load: a text lexicon, a lexicon image or a memory-mapped lexicon.
+ * The URL of the lexicon on the classpath, see {@link #getDefaultLexiconUrl()}, selects the lexicon that comes with
+ * the BioLemmatizer distribution. Use {@link BioLemmatizer_AE#createModelResourceDescription()} or
+ * {@link BioLemmatizer_AE#createModelResourceDescription(File)} to create a binding.
+ * 
+ * @author Colorado Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
+ * 
+ */
+public class BioLemmatizerModelResource implements SharedResourceObject {
+
+	/** Resource names of the default lexicon on the classpath, relative to {@link BioLemmatizer} */
+	private static final String[] DEFAULT_LEXICON_RESOURCES = { "lexicon.bin", "lexicon.lex" };
+
+	/**
+	 * The shared, read-only model
+	 */
+	private BioLemmatizerModel model;
+
+	/**
+	 * Loads the model of the lexicon at the URL of the resource, or retrieves it from the registry
+	 * 
+	 * @see org.apache.uima.resource.SharedResourceObject#load(org.apache.uima.resource.DataResource)
+	 */
+	public void load(DataResource data) throws ResourceInitializationException {
+		URL url = data.getUrl();
+		if (url == null || isDefaultLexiconUrl(url)) {
+			model = BioLemmatizerModel.getInstance();
+		} else if (url.getProtocol().equals("file")) {
+			try {
+				model = BioLemmatizerModel.getInstance(new File(url.toURI()));
+			} catch (URISyntaxException e) {
+				throw new ResourceInitializationException(e);
+			} catch (RuntimeException e) {
+				throw new ResourceInitializationException(e);
+			}
+		} else {
+			throw new ResourceInitializationException(new IllegalArgumentException(
+					"The BioLemmatizer lexicon must be a file or the default lexicon on the classpath: " + url));
+		}
+	}
+
+	/**
+	 * @return the shared model, which may be used by any number of {@link BioLemmatizer} objects
+	 */
+	public BioLemmatizerModel getModel() {
+		return model;
+	}
+
+	/**
+	 * @return the URL of the lexicon that comes with the BioLemmatizer distribution, from its image if there is one;
+	 *         null if neither is on the classpath
+	 */
+	public static URL getDefaultLexiconUrl() {
+		for (String resource : DEFAULT_LEXICON_RESOURCES) {
+			URL url = BioLemmatizer.class.getResource(resource);
+			if (url != null)
+				return url;
+		}
+		return null;
+	}
+
+	/**
+	 * @param url
+	 *            the URL of a lexicon
+	 * @return true if the URL is that of a default lexicon resource on the classpath
+	 */
+	private static boolean isDefaultLexiconUrl(URL url) {
+		// URLs are compared as strings, URL.equals resolves host names
+		for (String resource : DEFAULT_LEXICON_RESOURCES) {
+			URL defaultUrl = BioLemmatizer.class.getResource(resource);
+			if (defaultUrl != null && defaultUrl.toString().equals(url.toString()))
+				return true;
+		}
+		return false;
+	}
+}
@@ -29,29 +29,38 @@
  */
 package edu.ucdenver.ccp.nlp.biolemmatizer.uima;
 
+import java.io.File;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.uima.UimaContext;
 import org.apache.uima.analysis_engine.AnalysisEngine;
 import org.apache.uima.analysis_engine.AnalysisEngineDescription;
 import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
 import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.Type;
 import org.apache.uima.fit.component.JCasAnnotator_ImplBase;
 import org.apache.uima.fit.descriptor.ConfigurationParameter;
+import org.apache.uima.fit.descriptor.ExternalResource;
 import org.apache.uima.fit.factory.AnalysisEngineFactory;
 import org.apache.uima.fit.factory.ConfigurationParameterFactory;
+import org.apache.uima.fit.factory.ExternalResourceFactory;
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.jcas.tcas.Annotation;
+import org.apache.uima.resource.ExternalResourceDescription;
 import org.apache.uima.resource.ResourceInitializationException;
 import org.apache.uima.resource.metadata.TypeSystemDescription;
 
 import edu.ucdenver.ccp.nlp.biolemmatizer.BioLemmatizer;
+import edu.ucdenver.ccp.nlp.biolemmatizer.BioLemmatizerModel;
 import edu.ucdenver.ccp.nlp.biolemmatizer.LemmataEntry;
+import edu.ucdenver.ccp.nlp.biolemmatizer.UnicodeNormalizer;
 import edu.ucdenver.ccp.uima.shims.annotation.AnnotationDataExtractor;
 import edu.ucdenver.ccp.uima.shims.annotation.syntactic.token.LemmaDecorator;
 import edu.ucdenver.ccp.uima.shims.annotation.syntactic.token.PartOfSpeechDecorator;
@@ -158,12 +167,44 @@ public class BioLemmatizer_AE extends JCasAnnotator_ImplBase {
 	 */
 	private AnnotationDataExtractor annotationDataExtractor;
 
+	/**
+	 * Parameter name used in the UIMA descriptor file for the Unicode normalization switch
+	 */
+	public static final String PARAM_NORMALIZE_UNICODE = "normalizeUnicode";
+
+	/**
+	 * If true, ligatures and diacritics in the covered text of each token are folded with
+	 * {@link UnicodeNormalizer#DEFAULT} before lemmatization, as the BioLemmatizer command line does
+	 */
+	@ConfigurationParameter(mandatory = false, description = "whether to fold ligatures and diacritics in token text before lemmatization", defaultValue = "false")
+	private boolean normalizeUnicode;
+
+	/**
+	 * Key of the external resource binding for the lemmatizer model
+	 */
+	public static final String RES_MODEL = "biolemmatizerModel";
+
+	/**
+	 * The shared lemmatizer model. This is an optional resource; if it is not bound, the annotator uses the model of
+	 * the default lexicon from the {@link BioLemmatizerModel#getInstance()} registry, which is likewise loaded once per
+	 * JVM. Binding the resource, see {@link #createModelResourceDescription(File)}, selects another lexicon and lets
+	 * the UIMA resource manager share the model between all annotators bound to it.
+	 */
+	@ExternalResource(key = RES_MODEL, mandatory = false)
+	private BioLemmatizerModelResource modelResource;
+
 	/**
 	 * This {@link BioLemmatizer} will do the bulk of the work in the
 	 * {@link BioLemmatizer_AE#process(JCas)} method
 	 */
 	private BioLemmatizer bioLemmatizer;
 
+	/**
+	 * The methods named by the {@link #tokenGetPosMethodName} configuration parameter, by token
+	 * annotation class
+	 */
+	private Map<Class<?>, Method> posMethods;
+
 	/**
 	 * Initializes the {@link BioLemmatizer} that will be used by the
 	 * {@link BioLemmatizer_AE#process(JCas)} method
@@ -173,7 +214,9 @@ public class BioLemmatizer_AE extends JCasAnnotator_ImplBase {
 	@Override
 	public void initialize(UimaContext context) throws ResourceInitializationException {
 		super.initialize(context);
-		bioLemmatizer = new BioLemmatizer();
+		BioLemmatizerModel model = (modelResource != null) ? modelResource.getModel() : BioLemmatizerModel.getInstance();
+		bioLemmatizer = new BioLemmatizer(model);
+		posMethods = new HashMap<Class<?>, Method>();
 		lemmaDecorator = (LemmaDecorator) invokeNoArgsConstructor(lemmaDecoratorClassName);
 		annotationDataExtractor = (AnnotationDataExtractor) invokeNoArgsConstructor(annotationDataExtractorClassName);
 		if (posDecoratorClassName != null) {
@@ -214,51 +257,93 @@ public class BioLemmatizer_AE extends JCasAnnotator_ImplBase {
 	}
 
 	/**
-	 * This process(JCas) method cycles through all annotations in the CAS. For those that are
-	 * identified as tokens by {@link AnnotationDataExtractor} implementation being used, an attempt
-	 * is made to extract part-of-speech information. The covered text for each token is then
-	 * lemmatized using the {@link BioLemmatizer}, using the part-of-speech information if it was
-	 * available. Results from the {@link BioLemmatizer} are added to the CAS via the specified
-	 * {@link LemmaDecorator} implementation.
+	 * This process(JCas) method cycles through the token annotations in the CAS, i.e. those that
+	 * are identified as tokens by the {@link AnnotationDataExtractor} implementation being used. If
+	 * the token type name is the name of a type in the CAS, only the index of that type is visited,
+	 * otherwise all annotations are. For each token an attempt is made to extract part-of-speech
+	 * information. The covered text for each token is then lemmatized using the
+	 * {@link BioLemmatizer}, using the part-of-speech information if it was available. Results from
+	 * the {@link BioLemmatizer} are added to the CAS via the specified {@link LemmaDecorator}
+	 * implementation, all lemmas of a token at once if it is a {@link BatchLemmaDecorator}.
 	 * 
 	 * @see org.apache.uima.analysis_component.JCasAnnotator_ImplBase#process(org.apache.uima.jcas.JCas)
 	 */
 	@Override
 	public void process(JCas jCas) throws AnalysisEngineProcessException {
-		for (Iterator<Annotation> annotIter = jCas.getJFSIndexRepository().getAnnotationIndex().iterator(); annotIter
-				.hasNext();) {
-			Annotation annotation = annotIter.next();
-			String annotationType = annotationDataExtractor.getAnnotationType(annotation);
-			if (annotationType != null && annotationType.equals(tokenTypeName)) {
+		List<Annotation> tokenAnnotations = getTokenAnnotations(jCas);
+		BatchLemmaDecorator batchLemmaDecorator = (lemmaDecorator instanceof BatchLemmaDecorator) ? (BatchLemmaDecorator) lemmaDecorator
+				: null;
+		if (batchLemmaDecorator != null)
+			batchLemmaDecorator.startDocument(jCas);
+		try {
+			List<edu.ucdenver.ccp.uima.shims.annotation.syntactic.token.Lemma> lemmas = new ArrayList<edu.ucdenver.ccp.uima.shims.annotation.syntactic.token.Lemma>();
+			for (Annotation annotation : tokenAnnotations) {
+				lemmas.clear();
+				String coveredText = annotationDataExtractor.getCoveredText(annotation);
+				if (normalizeUnicode)
+					coveredText = UnicodeNormalizer.DEFAULT.normalize(coveredText);
 				List<edu.ucdenver.ccp.uima.shims.annotation.syntactic.token.PartOfSpeech> posTags = getPartOfSpeechTags(annotation);
 				if (posTags == null || posTags.isEmpty()) {
-					runBioLemmatizer(annotation, null);
+					runBioLemmatizer(coveredText, null, lemmas);
 				} else {
 					for (edu.ucdenver.ccp.uima.shims.annotation.syntactic.token.PartOfSpeech posTag : posTags) {
-						runBioLemmatizer(annotation, posTag.getPosTag());
+						runBioLemmatizer(coveredText, posTag.getPosTag(), lemmas);
+					}
+				}
+				Annotation lemmaAnnot = lemmaDecorator.getAnnotationToDecorate(annotation, annotationDataExtractor);
+				if (batchLemmaDecorator != null) {
+					batchLemmaDecorator.insertLemmas(lemmaAnnot, lemmas);
+				} else {
+					for (edu.ucdenver.ccp.uima.shims.annotation.syntactic.token.Lemma lemma : lemmas) {
+						lemmaDecorator.insertLemma(lemmaAnnot, lemma);
 					}
 				}
 			}
+		} finally {
+			if (batchLemmaDecorator != null)
+				batchLemmaDecorator.finishDocument(jCas);
 		}
 	}
 
 	/**
-	 * This method uses the {@link BioLemmatizer} to lemmatize the covered text of the input
-	 * {@link Annotation}. The lemma is added to the CAS via the {@link LemmaDecorator}
-	 * implementation specified in this AE's configuration.
+	 * Collects the token annotations before any lemma is inserted, so that decorators may add
+	 * annotations to the indexes while the tokens are processed
 	 * 
-	 * @param annotation
+	 * @param jCas
+	 * @return the annotations whose type, as returned by the {@link AnnotationDataExtractor}, is
+	 *         the {@link #tokenTypeName}, in index order
+	 */
+	private List<Annotation> getTokenAnnotations(JCas jCas) {
+		Type tokenType = jCas.getTypeSystem().getType(tokenTypeName);
+		Iterator<Annotation> annotIter = (tokenType != null) ? jCas.getAnnotationIndex(tokenType).iterator() : jCas
+				.getAnnotationIndex().iterator();
+		List<Annotation> tokenAnnotations = new ArrayList<Annotation>();
+		while (annotIter.hasNext()) {
+			Annotation annotation = annotIter.next();
+			String annotationType = annotationDataExtractor.getAnnotationType(annotation);
+			if (annotationType != null && annotationType.equals(tokenTypeName))
+				tokenAnnotations.add(annotation);
+		}
+		return tokenAnnotations;
+	}
+
+	/**
+	 * This method uses the {@link BioLemmatizer} to lemmatize the covered text of a token
+	 * annotation. The lemmas are added to the input list; they are added to the CAS by
+	 * {@link #process(JCas)} via the {@link LemmaDecorator} implementation specified in this AE's
+	 * configuration.
+	 * 
+	 * @param coveredText
 	 * @param posTag
+	 * @param lemmas
 	 */
-	private void runBioLemmatizer(Annotation annotation, String posTag) {
-		String coveredText = annotationDataExtractor.getCoveredText(annotation);
+	private void runBioLemmatizer(String coveredText, String posTag,
+			List<edu.ucdenver.ccp.uima.shims.annotation.syntactic.token.Lemma> lemmas) {
 		LemmataEntry lemmata = bioLemmatizer.lemmatizeByLexiconAndRules(coveredText, posTag);
-		Annotation lemmaAnnot = lemmaDecorator.getAnnotationToDecorate(annotation, annotationDataExtractor);
 		for (edu.ucdenver.ccp.nlp.biolemmatizer.LemmataEntry.Lemma lemma : lemmata.getLemmas()) {
-			lemmaDecorator.insertLemma(lemmaAnnot,
-					new edu.ucdenver.ccp.uima.shims.annotation.syntactic.token.Lemma(lemma.getLemma(),
-							new edu.ucdenver.ccp.uima.shims.annotation.syntactic.token.PartOfSpeech(lemma.getPos(),
-									lemma.getTagSetName())));
+			lemmas.add(new edu.ucdenver.ccp.uima.shims.annotation.syntactic.token.Lemma(lemma.getLemma(),
+					new edu.ucdenver.ccp.uima.shims.annotation.syntactic.token.PartOfSpeech(lemma.getPos(), lemma
+							.getTagSetName())));
 		}
 	}
 
@@ -287,7 +372,8 @@ public class BioLemmatizer_AE extends JCasAnnotator_ImplBase {
 
 	/**
 	 * If the getPosTag method name is specified (and if no PartOfSpeechDecorator is specified) then
-	 * this method is used to call the getPosTag method on the input {@link Annotation}.
+	 * this method is used to call the getPosTag method on the input {@link Annotation}. The method
+	 * is looked up once per annotation class.
 	 * 
 	 * @param annotation
 	 * @return the {@link edu.ucdenver.ccp.uima.shims.annotation.syntactic.token.PartOfSpeech}
@@ -297,7 +383,11 @@ public class BioLemmatizer_AE extends JCasAnnotator_ImplBase {
 	private edu.ucdenver.ccp.uima.shims.annotation.syntactic.token.PartOfSpeech getPosTagUsingSpecifiedMethodName(
 			Annotation annotation) {
 		try {
-			Method method = annotation.getClass().getDeclaredMethod(tokenGetPosMethodName);
+			Method method = posMethods.get(annotation.getClass());
+			if (method == null) {
+				method = annotation.getClass().getDeclaredMethod(tokenGetPosMethodName);
+				posMethods.put(annotation.getClass(), method);
+			}
 			String posTag = method.invoke(annotation).toString();
 			return new edu.ucdenver.ccp.uima.shims.annotation.syntactic.token.PartOfSpeech(posTag, null);
 		} catch (NoSuchMethodException e) {
@@ -383,4 +473,81 @@ public class BioLemmatizer_AE extends JCasAnnotator_ImplBase {
 				tokenClass.getName(), PARAM_TOKEN_GET_POS_METHOD_NAME, tokenGetPosMethodName);
 	}
 
+	/**
+	 * Creates a binding of the {@link #RES_MODEL} resource to the model of the lexicon that comes with the
+	 * BioLemmatizer distribution
+	 * 
+	 * @return the external resource description
+	 */
+	public static ExternalResourceDescription createModelResourceDescription() {
+		return ExternalResourceFactory.createExternalResourceDescription(BioLemmatizerModelResource.class,
+				BioLemmatizerModelResource.getDefaultLexiconUrl().toString());
+	}
+
+	/**
+	 * Creates a binding of the {@link #RES_MODEL} resource to the model of a lexicon file. All annotators whose
+	 * descriptions hold this binding share one model.
+	 * 
+	 * @param lexiconFile
+	 *            a text lexicon, a lexicon image or a memory-mapped lexicon
+	 * @return the external resource description
+	 */
+	public static ExternalResourceDescription createModelResourceDescription(File lexiconFile) {
+		return ExternalResourceFactory.createExternalResourceDescription(BioLemmatizerModelResource.class,
+				lexiconFile.getAbsoluteFile().toURI().toString());
+	}
+
+	/**
+	 * @param tsd
+	 * @param tokenClass
+	 * @param modelResource
+	 *            the shared model, see {@link #createModelResourceDescription(File)}
+	 * @return
+	 * @throws ResourceInitializationException
+	 */
+	public static AnalysisEngineDescription createAnalysisEngineDescription(TypeSystemDescription tsd,
+			Class<? extends Annotation> tokenClass, ExternalResourceDescription modelResource)
+			throws ResourceInitializationException {
+		return AnalysisEngineFactory.createPrimitiveDescription(BioLemmatizer_AE.class, tsd, PARAM_TOKEN_TYPE_NAME,
+				tokenClass.getName(), RES_MODEL, modelResource);
+	}
+
+	/**
+	 * @param tsd
+	 * @param tokenClass
+	 * @param tokenGetPosMethodName
+	 * @param modelResource
+	 *            the shared model, see {@link #createModelResourceDescription(File)}
+	 * @return
+	 * @throws ResourceInitializationException
+	 */
+	public static AnalysisEngineDescription createAnalysisEngineDescription(TypeSystemDescription tsd,
+			Class<? extends Annotation> tokenClass, String tokenGetPosMethodName,
+			ExternalResourceDescription modelResource) throws ResourceInitializationException {
+		return AnalysisEngineFactory.createPrimitiveDescription(BioLemmatizer_AE.class, tsd, PARAM_TOKEN_TYPE_NAME,
+				tokenClass.getName(), PARAM_TOKEN_GET_POS_METHOD_NAME, tokenGetPosMethodName, RES_MODEL,
+				modelResource);
+	}
+
+	/**
+	 * @param tsd
+	 * @param tokenType
+	 * @param partOfSpeechDecoratorClass
+	 * @param annotationDataExtractorClass
+	 * @param lemmaDecoratorClass
+	 * @param modelResource
+	 *            the shared model, see {@link #createModelResourceDescription(File)}
+	 * @return
+	 * @throws ResourceInitializationException
+	 */
+	public static AnalysisEngineDescription createAnalysisEngineDescription(TypeSystemDescription tsd,
+			String tokenType, Class<? extends PartOfSpeechDecorator> partOfSpeechDecoratorClass,
+			Class<? extends AnnotationDataExtractor> annotationDataExtractorClass,
+			Class<? extends LemmaDecorator> lemmaDecoratorClass, ExternalResourceDescription modelResource)
+			throws ResourceInitializationException {
+		return AnalysisEngineFactory.createPrimitiveDescription(BioLemmatizer_AE.class, tsd, PARAM_TOKEN_TYPE_NAME,
+				tokenType, PARAM_POS_DECORATOR_CLASS, partOfSpeechDecoratorClass.getName(),
+				PARAM_ANNOTATION_DATA_EXTRACTOR_CLASS, annotationDataExtractorClass.getName(),
+				PARAM_LEMMA_DECORATOR_CLASS, lemmaDecoratorClass.getName(), RES_MODEL, modelResource);
+	}
 }
@@ -30,7 +30,10 @@
 package edu.ucdenver.ccp.nlp.biolemmatizer.uima;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
 
 import org.apache.uima.cas.CASException;
 import org.apache.uima.fit.util.JCasUtil;
@@ -47,11 +50,86 @@ import edu.ucdenver.ccp.uima.shims.annotation.syntactic.token.LemmaDecorator;
 /**
  * This simple implementation of the {@link LemmaDecorator} interface adds a new
  * {@link LemmaAnnotation} to the CAS for each token annotation processed. 
+ * <p>
+ * While a document is processed, i.e. between {@link #startDocument(JCas)} and
+ * {@link #finishDocument(JCas)}, the {@link LemmaAnnotation}s of the CAS are indexed by their
+ * begin, so that finding the annotations covered by a token does not search the CAS for each token.
  * 
  * @author Colorado Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
  * 
  */
-public class DefaultLemmaDecorator implements LemmaDecorator {
+public class DefaultLemmaDecorator implements BatchLemmaDecorator {
+
+	/**
+	 * The CAS whose {@link LemmaAnnotation}s are indexed, null if no document is being processed
+	 */
+	private JCas indexedJCas;
+
+	/**
+	 * The {@link LemmaAnnotation}s of the {@link #indexedJCas} by their begin
+	 */
+	private NavigableMap<Integer, List<LemmaAnnotation>> lemmaAnnotationsByBegin;
+
+	/**
+	 * Indexes the {@link LemmaAnnotation}s already in the CAS by their begin
+	 * 
+	 * @see edu.ucdenver.ccp.nlp.biolemmatizer.uima.BatchLemmaDecorator#startDocument(org.apache.uima.jcas.JCas)
+	 */
+	@Override
+	public void startDocument(JCas jCas) {
+		indexedJCas = jCas;
+		lemmaAnnotationsByBegin = new TreeMap<Integer, List<LemmaAnnotation>>();
+		for (LemmaAnnotation lemmaAnnot : JCasUtil.select(jCas, LemmaAnnotation.class)) {
+			indexLemmaAnnotation(lemmaAnnot);
+		}
+	}
+
+	/**
+	 * Drops the index of the {@link LemmaAnnotation}s
+	 * 
+	 * @see edu.ucdenver.ccp.nlp.biolemmatizer.uima.BatchLemmaDecorator#finishDocument(org.apache.uima.jcas.JCas)
+	 */
+	@Override
+	public void finishDocument(@SuppressWarnings("unused") JCas jCas) {
+		indexedJCas = null;
+		lemmaAnnotationsByBegin = null;
+	}
+
+	/**
+	 * Adds a {@link LemmaAnnotation} to the index of the document being processed
+	 * 
+	 * @param lemmaAnnot
+	 */
+	private void indexLemmaAnnotation(LemmaAnnotation lemmaAnnot) {
+		Integer begin = Integer.valueOf(lemmaAnnot.getBegin());
+		List<LemmaAnnotation> lemmaAnnots = lemmaAnnotationsByBegin.get(begin);
+		if (lemmaAnnots == null) {
+			lemmaAnnots = new ArrayList<LemmaAnnotation>(1);
+			lemmaAnnotationsByBegin.put(begin, lemmaAnnots);
+		}
+		lemmaAnnots.add(lemmaAnnot);
+	}
+
+	/**
+	 * Searches the index of the document being processed like {@link JCasUtil#selectCovered}
+	 * searches the CAS
+	 * 
+	 * @param tokenAnnotation
+	 * @return the indexed {@link LemmaAnnotation}s that begin and end within the input token
+	 */
+	private List<LemmaAnnotation> selectIndexedCovered(Annotation tokenAnnotation) {
+		List<LemmaAnnotation> coveredLemmaAnnots = new ArrayList<LemmaAnnotation>(1);
+		for (List<LemmaAnnotation> lemmaAnnots : lemmaAnnotationsByBegin.subMap(
+				Integer.valueOf(tokenAnnotation.getBegin()), true, Integer.valueOf(tokenAnnotation.getEnd()), true)
+				.values()) {
+			for (LemmaAnnotation lemmaAnnot : lemmaAnnots) {
+				if (lemmaAnnot.getEnd() <= tokenAnnotation.getEnd()) {
+					coveredLemmaAnnots.add(lemmaAnnot);
+				}
+			}
+		}
+		return coveredLemmaAnnots;
+	}
 
 	/**
 	 * @return an initialized {@link LemmaAnnotation}
@@ -67,9 +145,11 @@ public class DefaultLemmaDecorator implements LemmaDecorator {
 
 	/**
 	 * In the case of the {@link DefaultLemmaDecorator}, the annotation to decorate is a
-	 * {@link LemmaAnnotation} with the same span as the token that was used to process the lemma.
-	 * This method looks to see if that {@link LemmaAnnotation} exists. If it does it is returned.
-	 * If it does not exist, then a new {@link LemmaAnnotation} is created and then returned.
+	 * {@link LemmaAnnotation} covered by the token that was used to process the lemma. This method
+	 * looks to see if that {@link LemmaAnnotation} exists. If it does it is returned. If it does not
+	 * exist, then a new {@link LemmaAnnotation} with the same span as the token is created and then
+	 * returned. While a document is processed, the index of the {@link LemmaAnnotation}s is searched
+	 * for one covered by the token; otherwise the CAS is searched.
 	 * 
 	 * @param tokenAnnotation
 	 *            in this case, the input annotation represents the token annotation whose covered
@@ -87,10 +167,16 @@ public class DefaultLemmaDecorator implements LemmaDecorator {
 		} catch (CASException e) {
 			throw new IllegalStateException(e);
 		}
-		List<LemmaAnnotation> existingLemmaAnnotations = JCasUtil.selectCovered(jCas, LemmaAnnotation.class,
-				tokenAnnotation);
+		boolean indexed = jCas == indexedJCas;
+		List<LemmaAnnotation> existingLemmaAnnotations = indexed ? selectIndexedCovered(tokenAnnotation) : JCasUtil
+				.selectCovered(jCas, LemmaAnnotation.class, tokenAnnotation);
 		if (existingLemmaAnnotations.isEmpty()) {
-			return newAnnotation(jCas, null, new Span(tokenAnnotation.getBegin(), tokenAnnotation.getEnd()));
+			LemmaAnnotation lemmaAnnot = (LemmaAnnotation) newAnnotation(jCas, null, new Span(
+					tokenAnnotation.getBegin(), tokenAnnotation.getEnd()));
+			if (indexed) {
+				indexLemmaAnnotation(lemmaAnnot);
+			}
+			return lemmaAnnot;
 		}
 		if (existingLemmaAnnotations.size() == 1) {
 			return existingLemmaAnnotations.get(0);
@@ -129,6 +215,27 @@ public class DefaultLemmaDecorator implements LemmaDecorator {
 		}
 	}
 
+	/**
+	 * Inserts information representing the input {@link Lemma}s into the input {@link Annotation},
+	 * which is assumed to be of type {@link LemmaAnnotation}, writing its arrays once
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the input {@link Annotation} is not a {@link LemmaAnnotation}
+	 * 
+	 * @see edu.ucdenver.ccp.nlp.biolemmatizer.uima.BatchLemmaDecorator#insertLemmas(org.apache.uima.jcas.tcas.Annotation,
+	 *      java.util.List)
+	 */
+	@Override
+	public void insertLemmas(Annotation annotation, List<Lemma> lemmas) {
+		checkAnnotationType(annotation);
+		LemmaAnnotation lemmaAnnot = (LemmaAnnotation) annotation;
+		try {
+			addLemmas(lemmaAnnot, lemmas);
+		} catch (CASException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
 	/**
 	 * Checks that the input {@link Annotation} is a {@link LemmaAnnotation}
 	 * 
@@ -155,12 +262,31 @@ public class DefaultLemmaDecorator implements LemmaDecorator {
 	 *             if the {@link JCas} is not retrievable from the input {@link LemmaAnnotation}
 	 */
 	private static void addLemma(LemmaAnnotation lemmaAnnot, Lemma lemma) throws CASException {
+		addLemmas(lemmaAnnot, Collections.singletonList(lemma));
+	}
+
+	/**
+	 * Transfers information from the input {@link Lemma}s to the input {@link LemmaAnnotation},
+	 * copying its lemma and part-of-speech arrays once
+	 * 
+	 * @param lemmaAnnot
+	 * @param lemmas
+	 * @throws CASException
+	 *             if the {@link JCas} is not retrievable from the input {@link LemmaAnnotation}
+	 */
+	private static void addLemmas(LemmaAnnotation lemmaAnnot, List<Lemma> lemmas) throws CASException {
+		if (lemmas.isEmpty()) {
+			return;
+		}
 		JCas jCas = lemmaAnnot.getCAS().getJCas();
-		StringArray lemmas = UimaUtil.addToStringArray(lemmaAnnot.getLemmas(), lemma.getLemma(), jCas);
-		PartOfSpeech pos = getPartOfSpeech(lemma, jCas);
-		FSArray partsOfSpeech = UimaUtil.addToFSArray(lemmaAnnot.getPartsOfSpeech(), pos, jCas);
-		lemmaAnnot.setLemmas(lemmas);
-		lemmaAnnot.setPartsOfSpeech(partsOfSpeech);
+		List<String> lemmaStrs = new ArrayList<String>(lemmas.size());
+		List<PartOfSpeech> partsOfSpeech = new ArrayList<PartOfSpeech>(lemmas.size());
+		for (Lemma lemma : lemmas) {
+			lemmaStrs.add(lemma.getLemma());
+			partsOfSpeech.add(getPartOfSpeech(lemma, jCas));
+		}
+		lemmaAnnot.setLemmas(UimaUtil.addToStringArray(lemmaAnnot.getLemmas(), lemmaStrs, jCas));
+		lemmaAnnot.setPartsOfSpeech(UimaUtil.addToFSArray(lemmaAnnot.getPartsOfSpeech(), partsOfSpeech, jCas));
 	}
 
 	/**
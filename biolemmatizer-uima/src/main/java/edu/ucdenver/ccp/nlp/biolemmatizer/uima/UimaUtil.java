@@ -29,6 +29,9 @@
  */
 package edu.ucdenver.ccp.nlp.biolemmatizer.uima;
 
+import java.util.Collections;
+import java.util.List;
+
 import org.apache.uima.jcas.JCas;
 import org.apache.uima.jcas.cas.FSArray;
 import org.apache.uima.jcas.cas.StringArray;
@@ -52,17 +55,27 @@ public class UimaUtil {
 	 * @return a copy of the input {@link FSArray} with the input featureStructureToAdd added to it
 	 */
 	public static FSArray addToFSArray(FSArray fsArray, TOP featureStructureToAdd, JCas jcas) {
-		FSArray fsArrayToReturn;
-		if (fsArray == null) {
-			fsArrayToReturn = new FSArray(jcas, 1);
-		} else {
-			fsArrayToReturn = new FSArray(jcas, fsArray.size() + 1);
-			for (int i = 0; i < fsArray.size(); i++) {
-				fsArrayToReturn.set(i, fsArray.get(i));
-			}
-		}
+		return addToFSArray(fsArray, Collections.singletonList(featureStructureToAdd), jcas);
+	}
 
-		fsArrayToReturn.set(fsArrayToReturn.size() - 1, featureStructureToAdd);
+	/**
+	 * Adds feature structures to the input {@link FSArray}, copying it once. If the input
+	 * {@link FSArray} is null, a new one is initialized
+	 * 
+	 * @param fsArray
+	 * @param featureStructuresToAdd
+	 * @param jcas
+	 * @return a copy of the input {@link FSArray} with the input featureStructuresToAdd added to it
+	 */
+	public static FSArray addToFSArray(FSArray fsArray, List<? extends TOP> featureStructuresToAdd, JCas jcas) {
+		int size = (fsArray == null) ? 0 : fsArray.size();
+		FSArray fsArrayToReturn = new FSArray(jcas, size + featureStructuresToAdd.size());
+		for (int i = 0; i < size; i++) {
+			fsArrayToReturn.set(i, fsArray.get(i));
+		}
+		for (TOP featureStructureToAdd : featureStructuresToAdd) {
+			fsArrayToReturn.set(size++, featureStructureToAdd);
+		}
 		return fsArrayToReturn;
 	}
 
@@ -76,17 +89,27 @@ public class UimaUtil {
 	 * @return a copy of the input {@link StringArray} with the input stringToAdd added to it
 	 */
 	public static StringArray addToStringArray(StringArray stringArray, String stringToAdd, JCas jcas) {
-		StringArray stringArrayToReturn;
-		if (stringArray == null) {
-			stringArrayToReturn = new StringArray(jcas, 1);
-		} else {
-			stringArrayToReturn = new StringArray(jcas, stringArray.size() + 1);
-			for (int i = 0; i < stringArray.size(); i++) {
-				stringArrayToReturn.set(i, stringArray.get(i));
-			}
-		}
+		return addToStringArray(stringArray, Collections.singletonList(stringToAdd), jcas);
+	}
 
-		stringArrayToReturn.set(stringArrayToReturn.size() - 1, stringToAdd);
+	/**
+	 * Adds Strings to the input {@link StringArray}, copying it once. If the input
+	 * {@link StringArray} is null, a new one is initialized
+	 * 
+	 * @param stringArray
+	 * @param stringsToAdd
+	 * @param jcas
+	 * @return a copy of the input {@link StringArray} with the input stringsToAdd added to it
+	 */
+	public static StringArray addToStringArray(StringArray stringArray, List<String> stringsToAdd, JCas jcas) {
+		int size = (stringArray == null) ? 0 : stringArray.size();
+		StringArray stringArrayToReturn = new StringArray(jcas, size + stringsToAdd.size());
+		for (int i = 0; i < size; i++) {
+			stringArrayToReturn.set(i, stringArray.get(i));
+		}
+		for (String stringToAdd : stringsToAdd) {
+			stringArrayToReturn.set(size++, stringToAdd);
+		}
 		return stringArrayToReturn;
 	}
 
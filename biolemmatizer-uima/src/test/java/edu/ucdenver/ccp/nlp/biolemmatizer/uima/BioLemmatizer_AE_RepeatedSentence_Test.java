@@ -0,0 +1,127 @@
+/*
+ Copyright (c) 2012, Regents of the University of Colorado
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without modification, 
+ are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice, this 
+    list of conditions and the following disclaimer.
+   
+ * Redistributions in binary form must reproduce the above copyright notice, 
+    this list of conditions and the following disclaimer in the documentation 
+    and/or other materials provided with the distribution.
+   
+ * Neither the name of the University of Colorado nor the names of its 
+    contributors may be used to endorse or promote products derived from this 
+    software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND 
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED 
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; 
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON 
+ ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT 
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS 
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.ucdenver.ccp.nlp.biolemmatizer.uima;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Map;
+
+import org.apache.uima.UIMAException;
+import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.analysis_engine.AnalysisEngineDescription;
+import org.apache.uima.fit.factory.AnalysisEngineFactory;
+import org.apache.uima.fit.factory.JCasFactory;
+import org.apache.uima.fit.factory.TypeSystemDescriptionFactory;
+import org.apache.uima.fit.util.JCasUtil;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.resource.metadata.TypeSystemDescription;
+import org.junit.Test;
+
+import edu.ucdenver.ccp.nlp.biolemmatizer.uima.test.Token;
+
+/**
+ * This test suite runs the {@link BioLemmatizer_AE} on a CAS of the sample sentence repeated, so
+ * that the {@link LemmaAnnotation}s to decorate are found in an index of many annotations. The
+ * time taken on a large CAS is measured by the UimaBenchmark of the biolemmatizer-benchmarks
+ * module.
+ * 
+ * @author Colorado Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
+ * 
+ */
+public class BioLemmatizer_AE_RepeatedSentence_Test extends BioLemmatizer_AETestBase {
+
+	private static final int SENTENCE_COUNT = 100;
+
+	private static final int[][] SAMPLE_SPANS = { { 0, 3 }, { 4, 16 }, { 17, 24 }, { 25, 28 }, { 29, 34 }, { 35, 37 },
+			{ 38, 50 }, { 50, 51 } };
+
+	private static final String[] SAMPLE_POS_TAGS = { "DT", "VBZ", "NN", "VBZ", "VBZ", "IN", "NN", "." };
+
+	/**
+	 * The type system used in the tests below is the same as in {@link BioLemmatizer_AE_Default_Test}
+	 */
+	@Override
+	protected TypeSystemDescription getTypeSystemDescription() {
+		return TypeSystemDescriptionFactory.createTypeSystemDescription(
+				"edu.ucdenver.ccp.nlp.biolemmatizer.uima.TypeSystem",
+				"edu.ucdenver.ccp.nlp.biolemmatizer.uima.TestTypeSystem");
+	}
+
+	/**
+	 * Lemmatizes the CAS and checks that each token got its expected lemma in a
+	 * {@link LemmaAnnotation} with one lemma
+	 * 
+	 * @throws UIMAException
+	 */
+	@Test
+	public void testBioLemmatizer_RepeatedSentence() throws UIMAException {
+		AnalysisEngineDescription aeDesc = BioLemmatizer_AE.createAnalysisEngineDescription(getTsd(), TOKEN_CLASS,
+				TOKEN_GET_POS_METHOD_NAME);
+		AnalysisEngine ae = AnalysisEngineFactory.createPrimitive(aeDesc);
+		JCas jCas = createRepeatedSentenceJCas();
+		try {
+			ae.process(jCas);
+			Map<String, String> tokenToLemmaMap = getTokenToLemmaMap();
+			int count = 0;
+			for (LemmaAnnotation lemmaAnnot : JCasUtil.select(jCas, LEMMA_ANNOTATION_CLASS)) {
+				assertEquals(1, lemmaAnnot.getLemmas().size());
+				assertEquals(tokenToLemmaMap.get(lemmaAnnot.getCoveredText()), lemmaAnnot.getLemmas(0));
+				count++;
+			}
+			assertEquals(SENTENCE_COUNT * SAMPLE_SPANS.length, count);
+		} finally {
+			jCas.release();
+		}
+	}
+
+	/**
+	 * @return a CAS of the sample sentence repeated {@link #SENTENCE_COUNT} times, with tokens
+	 *         that have parts of speech
+	 * @throws UIMAException
+	 */
+	private JCas createRepeatedSentenceJCas() throws UIMAException {
+		StringBuilder documentText = new StringBuilder((DOCUMENT_TEXT.length() + 1) * SENTENCE_COUNT);
+		for (int i = 0; i < SENTENCE_COUNT; i++) {
+			documentText.append(DOCUMENT_TEXT).append(' ');
+		}
+		JCas jCas = JCasFactory.createJCas(getTsd());
+		jCas.setDocumentText(documentText.toString());
+		for (int i = 0; i < SENTENCE_COUNT; i++) {
+			int offset = i * (DOCUMENT_TEXT.length() + 1);
+			for (int j = 0; j < SAMPLE_SPANS.length; j++) {
+				Token token = new Token(jCas, offset + SAMPLE_SPANS[j][0], offset + SAMPLE_SPANS[j][1]);
+				token.setPosTag(SAMPLE_POS_TAGS[j]);
+				token.addToIndexes();
+			}
+		}
+		return jCas;
+	}
+
+}
@@ -0,0 +1,85 @@
+/*
+ Copyright (c) 2012, Regents of the University of Colorado
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without modification, 
+ are permitted provided that the following conditions are met:
+
+ * Redistributions of source code must retain the above copyright notice, this 
+    list of conditions and the following disclaimer.
+   
+ * Redistributions in binary form must reproduce the above copyright notice, 
+    this list of conditions and the following disclaimer in the documentation 
+    and/or other materials provided with the distribution.
+   
+ * Neither the name of the University of Colorado nor the names of its 
+    contributors may be used to endorse or promote products derived from this 
+    software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND 
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED 
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; 
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON 
+ ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT 
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS 
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.ucdenver.ccp.nlp.biolemmatizer.uima;
+
+import org.apache.uima.analysis_engine.AnalysisEngine;
+import org.apache.uima.analysis_engine.AnalysisEngineDescription;
+import org.apache.uima.analysis_engine.AnalysisEngineProcessException;
+import org.apache.uima.fit.factory.AnalysisEngineFactory;
+import org.apache.uima.fit.factory.TypeSystemDescriptionFactory;
+import org.apache.uima.resource.ExternalResourceDescription;
+import org.apache.uima.resource.ResourceInitializationException;
+import org.apache.uima.resource.metadata.TypeSystemDescription;
+import org.junit.Test;
+
+/**
+ * This test suite demonstrates how replicas of the {@link BioLemmatizer_AE} can share a single
+ * lemmatizer model by binding the {@link BioLemmatizer_AE#RES_MODEL} external resource. The model is
+ * loaded once, when the first engine is initialized, and is used read-only by all engines.
+ * 
+ * @author Colorado Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
+ * 
+ */
+public class BioLemmatizer_AE_SharedModel_Test extends BioLemmatizer_AETestBase {
+
+	/**
+	 * The type system used in the tests below is the same as in {@link BioLemmatizer_AE_Default_Test}
+	 */
+	@Override
+	protected TypeSystemDescription getTypeSystemDescription() {
+		return TypeSystemDescriptionFactory.createTypeSystemDescription(
+				"edu.ucdenver.ccp.nlp.biolemmatizer.uima.TypeSystem",
+				"edu.ucdenver.ccp.nlp.biolemmatizer.uima.TestTypeSystem");
+	}
+
+	/**
+	 * This test creates two engines from one description bound to the model of the default lexicon.
+	 * The second engine decorates the {@link LemmaAnnotation}s inserted by the first, so there is still one
+	 * per token.
+	 * 
+	 * @throws ResourceInitializationException
+	 * @throws AnalysisEngineProcessException
+	 */
+	@Test
+	public void testBioLemmatizer_SharedModel() throws ResourceInitializationException,
+			AnalysisEngineProcessException {
+		addSampleTokenAnnotationsWithPartsOfSpeech();
+		ExternalResourceDescription model = BioLemmatizer_AE.createModelResourceDescription();
+		AnalysisEngineDescription aeDesc = BioLemmatizer_AE.createAnalysisEngineDescription(getTsd(), TOKEN_CLASS,
+				TOKEN_GET_POS_METHOD_NAME, model);
+		AnalysisEngine ae1 = AnalysisEngineFactory.createPrimitive(aeDesc);
+		AnalysisEngine ae2 = AnalysisEngineFactory.createPrimitive(aeDesc);
+		ae1.process(getJCas());
+		assertLemmaAnnotationCount(8);
+		ae2.process(getJCas());
+		assertLemmaAnnotationCount(8);
+	}
+
+}
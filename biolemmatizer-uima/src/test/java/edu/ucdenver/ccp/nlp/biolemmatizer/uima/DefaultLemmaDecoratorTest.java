@@ -0,0 +1,172 @@
+/*
+ Copyright (c) 2012, Regents of the University of Colorado
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without modification, 
+ are permitted provided that the following conditions are met:
+
+  * Redistributions of source code must retain the above copyright notice, this 
+    list of conditions and the following disclaimer.
+   
+  * Redistributions in binary form must reproduce the above copyright notice, 
+    this list of conditions and the following disclaimer in the documentation 
+    and/or other materials provided with the distribution.
+   
+  * Neither the name of the University of Colorado nor the names of its 
+    contributors may be used to endorse or promote products derived from this 
+    software without specific prior written permission.
+
+ THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND 
+ ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED 
+ WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE 
+ DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR
+ ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES 
+ (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; 
+ LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON 
+ ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT 
+ (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS 
+ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.ucdenver.ccp.nlp.biolemmatizer.uima;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import org.apache.uima.UIMAException;
+import org.apache.uima.fit.factory.JCasFactory;
+import org.apache.uima.fit.factory.TypeSystemDescriptionFactory;
+import org.apache.uima.fit.util.JCasUtil;
+import org.apache.uima.jcas.JCas;
+import org.apache.uima.jcas.tcas.Annotation;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.ucdenver.ccp.nlp.biolemmatizer.uima.test.Token;
+
+/**
+ * Checks that the {@link DefaultLemmaDecorator} finds the same annotation to decorate whether or
+ * not it processes a whole document, i.e. is called between
+ * {@link DefaultLemmaDecorator#startDocument(JCas)} and
+ * {@link DefaultLemmaDecorator#finishDocument(JCas)}
+ * 
+ * @author Colorado Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
+ * 
+ */
+public class DefaultLemmaDecoratorTest {
+
+	private JCas jCas;
+
+	private DefaultLemmaDecorator decorator;
+
+	@Before
+	public void setUp() throws UIMAException {
+		jCas = JCasFactory.createJCas(TypeSystemDescriptionFactory.createTypeSystemDescription(
+				"edu.ucdenver.ccp.nlp.biolemmatizer.uima.TypeSystem",
+				"edu.ucdenver.ccp.nlp.biolemmatizer.uima.TestTypeSystem"));
+		jCas.setDocumentText("The radiolabeled isotope was found in mitochondria.");
+		decorator = new DefaultLemmaDecorator();
+	}
+
+	@After
+	public void tearDown() {
+		jCas.release();
+	}
+
+	/**
+	 * A {@link LemmaAnnotation} inside the token is decorated rather than a new one
+	 */
+	@Test
+	public void testCoveredLemmaAnnotation() {
+		Token token = addToken(4, 16); // radiolabeled
+		LemmaAnnotation lemmaAnnot = addLemmaAnnotation(4, 14); // radiolabel
+		assertSame(lemmaAnnot, decorator.getAnnotationToDecorate(token, null));
+		decorator.startDocument(jCas);
+		try {
+			assertSame(lemmaAnnot, decorator.getAnnotationToDecorate(token, null));
+		} finally {
+			decorator.finishDocument(jCas);
+		}
+		assertEquals(1, JCasUtil.select(jCas, LemmaAnnotation.class).size());
+	}
+
+	/**
+	 * A {@link LemmaAnnotation} that overlaps the token without being inside it is not decorated
+	 */
+	@Test
+	public void testOverlappingLemmaAnnotation() {
+		Token token = addToken(4, 16); // radiolabeled
+		addLemmaAnnotation(0, 16); // The radiolabeled
+		addLemmaAnnotation(4, 24); // radiolabeled isotope
+		Annotation unbatched = decorator.getAnnotationToDecorate(token, null);
+		assertSpan(4, 16, unbatched);
+		decorator.startDocument(jCas);
+		try {
+			assertSame(unbatched, decorator.getAnnotationToDecorate(token, null));
+		} finally {
+			decorator.finishDocument(jCas);
+		}
+	}
+
+	/**
+	 * A {@link LemmaAnnotation} created for a token is found again for a token with the same span
+	 */
+	@Test
+	public void testCreatedLemmaAnnotationIsIndexed() {
+		Token token = addToken(17, 24); // isotope
+		decorator.startDocument(jCas);
+		try {
+			Annotation lemmaAnnot = decorator.getAnnotationToDecorate(token, null);
+			assertSpan(17, 24, lemmaAnnot);
+			assertSame(lemmaAnnot, decorator.getAnnotationToDecorate(addToken(17, 24), null));
+		} finally {
+			decorator.finishDocument(jCas);
+		}
+		assertEquals(1, JCasUtil.select(jCas, LemmaAnnotation.class).size());
+	}
+
+	/**
+	 * Several {@link LemmaAnnotation}s inside the token are an error
+	 */
+	@Test
+	public void testMultipleCoveredLemmaAnnotations() {
+		Token token = addToken(38, 50); // mitochondria
+		addLemmaAnnotation(38, 50);
+		addLemmaAnnotation(38, 45);
+		assertMultipleCovered(token);
+		decorator.startDocument(jCas);
+		try {
+			assertMultipleCovered(token);
+		} finally {
+			decorator.finishDocument(jCas);
+		}
+	}
+
+	private Token addToken(int begin, int end) {
+		Token token = new Token(jCas, begin, end);
+		token.addToIndexes();
+		return token;
+	}
+
+	private LemmaAnnotation addLemmaAnnotation(int begin, int end) {
+		LemmaAnnotation lemmaAnnot = new LemmaAnnotation(jCas, begin, end);
+		lemmaAnnot.addToIndexes();
+		return lemmaAnnot;
+	}
+
+	private static void assertSpan(int expectedBegin, int expectedEnd, Annotation annotation) {
+		assertEquals(expectedBegin, annotation.getBegin());
+		assertEquals(expectedEnd, annotation.getEnd());
+	}
+
+	private void assertMultipleCovered(Token token) {
+		try {
+			decorator.getAnnotationToDecorate(token, null);
+			fail("Expected an IllegalStateException");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+	}
+
+}
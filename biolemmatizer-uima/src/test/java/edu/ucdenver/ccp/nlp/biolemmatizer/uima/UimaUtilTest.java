@@ -31,6 +31,8 @@ package edu.ucdenver.ccp.nlp.biolemmatizer.uima;
 
 import static org.junit.Assert.assertEquals;
 
+import java.util.Arrays;
+
 import org.apache.uima.UIMAException;
 import org.apache.uima.fit.factory.JCasFactory;
 import org.apache.uima.jcas.JCas;
@@ -65,4 +67,17 @@ public class UimaUtilTest {
 		assertEquals(strToAdd, outputArray.get(3));
 	}
 	
+	@Test
+	public void testAddListToNonNullStringArray() throws UIMAException {
+		JCas jCas = JCasFactory.createJCas();
+		StringArray inputArray = new StringArray(jCas,2);
+		inputArray.set(0, "first");
+		inputArray.set(1, "second");
+		StringArray outputArray = UimaUtil.addToStringArray(inputArray, Arrays.asList("third", "fourth"), jCas);
+		assertEquals(4, outputArray.size());
+		assertEquals("second", outputArray.get(1));
+		assertEquals("third", outputArray.get(2));
+		assertEquals("fourth", outputArray.get(3));
+	}
+
 }